@@ -0,0 +1,156 @@
+package net.rafiee.onlineexam.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop HTTP load against a running server, used to compare the platform-thread and
+ * virtual-thread modes for {@code GET /api/courses} and {@code POST /api/auth/login}.
+ * <p>
+ * Start the server in one mode, then run:
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=net.rafiee.onlineexam.benchmark.AuthLoadDriver \
+ *     -Dexec.args="http://localhost:8080 200 30 platform"
+ * </pre>
+ * Arguments are base URL, concurrent clients, seconds per scenario and a label; results go
+ * to {@code target/load-<label>.json}.
+ */
+public final class AuthLoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String LOGIN_BODY = "{\"username\":\"admin\",\"password\":\"admin123\"}";
+
+    private AuthLoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        String label = args.length > 3 ? args[3] : "run";
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(8, runnable -> {
+                    Thread thread = new Thread(runnable, "load-driver-http");
+                    thread.setDaemon(true);
+                    return thread;
+                }))
+                .build();
+
+        String token = login(client, baseUrl);
+
+        HttpRequest courses = HttpRequest.newBuilder(URI.create(baseUrl + "/api/courses"))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+        HttpRequest login = HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LOGIN_BODY))
+                .build();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("label", label);
+        report.put("clients", clients);
+        report.put("seconds", seconds);
+        report.put("courses", run(client, courses, clients, seconds));
+        report.put("login", run(client, login, clients, seconds));
+
+        Path output = Path.of("target", "load-" + label + ".json");
+        Files.createDirectories(output.getParent());
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+        System.out.println(MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+
+    private static String login(HttpClient client, String baseUrl) throws Exception {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(LOGIN_BODY))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        JsonNode body = MAPPER.readTree(response.body());
+        return body.get("token").asText();
+    }
+
+    private static Map<String, Object> run(HttpClient client, HttpRequest request, int clients, int seconds)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long[][] latencies = new long[clients][];
+        AtomicInteger[] counts = new AtomicInteger[clients];
+        Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+        LongAdder errors = new LongAdder();
+
+        ExecutorService workers = Executors.newFixedThreadPool(clients);
+        for (int c = 0; c < clients; c++) {
+            int worker = c;
+            latencies[worker] = new long[1 << 16];
+            counts[worker] = new AtomicInteger();
+            workers.execute(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        statuses.computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                    } catch (Exception ex) {
+                        errors.increment();
+                        continue;
+                    }
+                    int n = counts[worker].getAndIncrement();
+                    if (n == latencies[worker].length) {
+                        latencies[worker] = Arrays.copyOf(latencies[worker], n * 2);
+                    }
+                    latencies[worker][n] = System.nanoTime() - start;
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+
+        int total = Arrays.stream(counts).mapToInt(AtomicInteger::get).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            int n = counts[c].get();
+            System.arraycopy(latencies[c], 0, all, offset, n);
+            offset += n;
+        }
+        Arrays.sort(all);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requests", total);
+        result.put("throughputPerSecond", total / (double) seconds);
+        result.put("p50Millis", percentile(all, 0.50));
+        result.put("p99Millis", percentile(all, 0.99));
+        result.put("p999Millis", percentile(all, 0.999));
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.forEach((code, count) -> statusCounts.put(String.valueOf(code), count.sum()));
+        result.put("statuses", statusCounts);
+        result.put("errors", errors.sum());
+        return result;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,44 @@
+package net.rafiee.onlineexam.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.security.JwtTokenProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkFixtures {
+
+    static final String JWT_SECRET = "MyVerySecureSecretKeyForJWTTokenGeneration2024!@#$%";
+    static final long JWT_EXPIRATION = 86400000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static JwtTokenProvider jwtTokenProvider() {
+        JwtTokenProvider provider = new JwtTokenProvider(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(provider, "jwtSecret", JWT_SECRET);
+        ReflectionTestUtils.setField(provider, "jwtExpirationInMs", JWT_EXPIRATION);
+        provider.init();
+        return provider;
+    }
+
+    static List<User> students(int count, String encodedPassword) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            users.add(User.builder()
+                    .id((long) i)
+                    .username("student" + i)
+                    .email("student" + i + "@exam.com")
+                    .password(encodedPassword)
+                    .fullName("Student " + i)
+                    .role(UserRole.STUDENT)
+                    .status(UserStatus.APPROVED)
+                    .build());
+        }
+        return users;
+    }
+}
@@ -0,0 +1,233 @@
+package net.rafiee.onlineexam.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the {@code UserRepository} / {@code CourseRepository} finders against 100k users,
+ * on the schema as migrated to V1 (primary keys and unique constraints only) and to the latest
+ * version (finder indexes and lower-cased search columns). The SQL mirrors what Hibernate
+ * generates for each finder.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="FinderIndexBenchmark"}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FinderIndexBenchmark {
+
+    private static final int USERS = 100_000;
+    private static final int COURSES = 500;
+    private static final int COURSES_PER_STUDENT = 3;
+    private static final int PAGE_SIZE = 50;
+    private static final String[] FIRST_NAMES = {
+            "Ali", "Sara", "Reza", "Maryam", "Hossein", "Zahra", "Mohammad", "Fatemeh", "Amir", "Neda"};
+
+    @Param({"1", "latest"})
+    public String schemaVersion;
+
+    private Connection connection;
+    private PreparedStatement studentsPage;
+    private PreparedStatement pendingPage;
+    private PreparedStatement instructorsByRoleAndStatus;
+    private PreparedStatement roleStatusCounts;
+    private PreparedStatement studentCandidates;
+    private PreparedStatement coursesOfStudent;
+    private PreparedStatement coursesOfInstructor;
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        // Result reuse would answer repeated identical queries without running them
+        String url = "jdbc:h2:mem:finders-" + schemaVersion + ";DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE";
+        migrate(url, "1");
+        connection = DriverManager.getConnection(url, "sa", "");
+        seed();
+        if (!"1".equals(schemaVersion)) {
+            // Runs the backfill and index creation over the seeded rows, as on an upgraded database
+            migrate(url, "latest");
+        }
+        connection.createStatement().execute("ANALYZE");
+
+        // The queries as they were before the migration and as the repositories issue them now
+        boolean before = "1".equals(schemaVersion);
+        String lower = before ? "LOWER(u.%s)" : "u.%s_lower";
+        String username = String.format(lower, "username");
+        String email = String.format(lower, "email");
+        String fullName = String.format(lower, "full_name");
+
+        studentsPage = connection.prepareStatement(
+                "SELECT u.id, u.username, u.email, u.full_name FROM users u WHERE u.role = 'STUDENT' AND u.id > ? " +
+                "ORDER BY " + (before ? "u.id" : "u.role, u.id") + " FETCH FIRST " + PAGE_SIZE + " ROWS ONLY");
+        pendingPage = connection.prepareStatement(
+                "SELECT u.id, u.username, u.email, u.full_name FROM users u WHERE u.status = 'PENDING' AND u.id > ? " +
+                "ORDER BY " + (before ? "u.id" : "u.status, u.id") + " FETCH FIRST " + PAGE_SIZE + " ROWS ONLY");
+        instructorsByRoleAndStatus = connection.prepareStatement(
+                "SELECT u.id, u.username FROM users u WHERE u.role = 'INSTRUCTOR' AND u.status = 'APPROVED'");
+        roleStatusCounts = connection.prepareStatement(
+                "SELECT u.role, u.status, COUNT(u.id) FROM users u GROUP BY u.role, u.status");
+        studentCandidates = connection.prepareStatement(
+                "SELECT u.id, u.username, u.full_name, u.email FROM users u " +
+                "WHERE u.role = 'STUDENT' AND u.status = 'APPROVED' AND u.id > 0 AND (" +
+                username + " LIKE ? ESCAPE '\\' OR " + email + " LIKE ? ESCAPE '\\' OR " +
+                fullName + " LIKE ? ESCAPE '\\' OR " + fullName + " LIKE ? ESCAPE '\\') " +
+                "AND NOT EXISTS (SELECT 1 FROM course_students cs WHERE cs.course_id = ? AND cs.student_id = u.id) " +
+                "ORDER BY " + (before ? "u.id" : "u.role, u.status, u.id") + " FETCH FIRST 20 ROWS ONLY");
+        coursesOfStudent = connection.prepareStatement(
+                "SELECT cs.course_id FROM course_students cs WHERE cs.student_id = ?");
+        coursesOfInstructor = connection.prepareStatement(
+                "SELECT c.id, c.title FROM courses c JOIN course_instructors ci ON ci.course_id = c.id " +
+                "WHERE ci.instructor_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.createStatement().execute("SHUTDOWN");
+    }
+
+    /** {@code findByRoleAndIdGreaterThanOrderByIdAsc}: a page of students, who are most users. */
+    @Benchmark
+    public void studentsPage(Blackhole blackhole) throws SQLException {
+        studentsPage.setLong(1, nextId() / 2);
+        consume(studentsPage, blackhole);
+    }
+
+    /** {@code findByStatusAndIdGreaterThanOrderByIdAsc}: a page of the few pending users. */
+    @Benchmark
+    public void pendingUsersPage(Blackhole blackhole) throws SQLException {
+        pendingPage.setLong(1, nextId() / 2);
+        consume(pendingPage, blackhole);
+    }
+
+    /** {@code findByRoleAndStatus}. */
+    @Benchmark
+    public void approvedInstructors(Blackhole blackhole) throws SQLException {
+        consume(instructorsByRoleAndStatus, blackhole);
+    }
+
+    /** {@code countByRoleAndStatus}, behind the dashboard statistics. */
+    @Benchmark
+    public void countByRoleAndStatus(Blackhole blackhole) throws SQLException {
+        consume(roleStatusCounts, blackhole);
+    }
+
+    /** {@code findStudentCandidates} with a first name a tenth of the students have. */
+    @Benchmark
+    public void studentCandidatesCommonPrefix(Blackhole blackhole) throws SQLException {
+        findCandidates("neda", blackhole);
+    }
+
+    /** {@code findStudentCandidates} with a prefix only a handful of students match. */
+    @Benchmark
+    public void studentCandidatesRarePrefix(Blackhole blackhole) throws SQLException {
+        findCandidates("user9999", blackhole);
+    }
+
+    /** The enrollment index loader and the course listing of a student. */
+    @Benchmark
+    public void coursesOfStudent(Blackhole blackhole) throws SQLException {
+        coursesOfStudent.setLong(1, nextId());
+        consume(coursesOfStudent, blackhole);
+    }
+
+    /** {@code findSummariesByInstructorId}. */
+    @Benchmark
+    public void coursesOfInstructor(Blackhole blackhole) throws SQLException {
+        coursesOfInstructor.setLong(1, nextId());
+        consume(coursesOfInstructor, blackhole);
+    }
+
+    private void findCandidates(String term, Blackhole blackhole) throws SQLException {
+        studentCandidates.setString(1, term + "%");
+        studentCandidates.setString(2, term + "%");
+        studentCandidates.setString(3, term + "%");
+        studentCandidates.setString(4, "% " + term + "%");
+        studentCandidates.setLong(5, nextId() % COURSES + 1);
+        consume(studentCandidates, blackhole);
+    }
+
+    private long nextId() {
+        next = next % USERS + 1;
+        return next;
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getObject(1));
+            }
+        }
+    }
+
+    private static void migrate(String url, String target) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    /**
+     * 90% students, 9% instructors, 1% admins; 4% pending and 1% rejected. Every student takes
+     * {@value #COURSES_PER_STUDENT} courses and every instructor teaches one.
+     */
+    private void seed() throws SQLException {
+        connection.setAutoCommit(false);
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO users (id, username, email, password, full_name, role, status, token_version, " +
+                "version, created_at) VALUES (?, ?, ?, 'x', ?, ?, ?, 0, 0, ?)")) {
+            for (int id = 1; id <= USERS; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "user" + id);
+                insert.setString(3, "user" + id + "@exam.com");
+                insert.setString(4, FIRST_NAMES[id % FIRST_NAMES.length] + " Rezaei " + id);
+                insert.setString(5, id % 100 == 0 ? "ADMIN" : id % 100 < 10 ? "INSTRUCTOR" : "STUDENT");
+                insert.setString(6, id % 100 < 95 ? "APPROVED" : id % 100 < 99 ? "PENDING" : "REJECTED");
+                insert.setTimestamp(7, now);
+                insert.addBatch();
+                if (id % 1000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO courses (id, title, course_code, start_date, end_date, created_at, version) " +
+                "VALUES (?, ?, ?, CURRENT_DATE, CURRENT_DATE, ?, 0)")) {
+            for (int id = 1; id <= COURSES; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Course " + id);
+                insert.setString(3, "C-" + id);
+                insert.setTimestamp(4, now);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                statement.execute("INSERT INTO course_students (course_id, student_id) " +
+                        "SELECT MOD(id + " + k * 167 + ", " + COURSES + ") + 1, id FROM users " +
+                        "WHERE role = 'STUDENT'");
+            }
+            statement.execute("INSERT INTO course_instructors (course_id, instructor_id) " +
+                    "SELECT MOD(id, " + COURSES + ") + 1, id FROM users WHERE role = 'INSTRUCTOR'");
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+}
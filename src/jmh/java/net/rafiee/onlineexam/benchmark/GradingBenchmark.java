@@ -0,0 +1,197 @@
+package net.rafiee.onlineexam.benchmark;
+
+import net.rafiee.onlineexam.attempt.SavedAnswer;
+import net.rafiee.onlineexam.entity.Question;
+import net.rafiee.onlineexam.entity.QuestionOption;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+import net.rafiee.onlineexam.exam.ExamShuffle;
+import net.rafiee.onlineexam.grading.AnswerKey;
+import net.rafiee.onlineexam.grading.AnswerSheets;
+import net.rafiee.onlineexam.grading.GradingEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Attempts graded per second when an exam of a {@value #ATTEMPTS}-student course closes, with
+ * the compiled answer key on the grading pool against grading the saved answers one object at
+ * a time on one thread. Loading the answers and storing the scores are not included. With
+ * {@code shuffled}, every student saw the options in their own order, which the compiled key maps
+ * back while scoring.
+ * <p>
+ * Run with {@code mvn -Pbenchmark -DskipTests verify -Djmh.args="GradingBenchmark"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GradingBenchmark {
+
+    private static final int ATTEMPTS = 3000;
+    private static final int MULTIPLE_CHOICE = 30;
+    private static final int TRUE_FALSE = 10;
+    private static final int NUMERIC = 8;
+    private static final int DESCRIPTIVE = 2;
+    private static final int OPTIONS = 5;
+    private static final long EXAM_ID = 1;
+
+    /** Grading pool threads; 0 is one per processor. */
+    @Param({"1", "0"})
+    public int parallelism;
+
+    @Param({"false", "true"})
+    public boolean shuffled;
+
+    private GradingEngine engine;
+    private AnswerKey key;
+    private AnswerSheets sheets;
+    private Map<Long, Question> questions;
+    private List<List<SavedAnswer>> savedAnswers;
+
+    @Setup
+    public void setUp() {
+        List<Question> exam = questions();
+        questions = exam.stream().collect(Collectors.toMap(Question::getId, Function.identity()));
+        long salt = shuffled ? ExamShuffle.newSalt() : ExamShuffle.UNSHUFFLED;
+        key = AnswerKey.compile(EXAM_ID, salt, exam);
+        engine = new GradingEngine(parallelism, 256);
+
+        // Most students answer most questions, about two thirds of them correctly
+        Random random = new Random(42);
+        AnswerSheets.Builder builder = AnswerSheets.builder(key);
+        savedAnswers = new ArrayList<>(ATTEMPTS);
+        Instant now = Instant.now();
+        int[] order = new int[ExamShuffle.MAX_SHUFFLED_OPTIONS];
+        for (int attempt = 1; attempt <= ATTEMPTS; attempt++) {
+            // One attempt per student, so the attempt number doubles as the student id
+            builder.attempt(attempt, attempt);
+            long studentSeed = ExamShuffle.studentSeed(EXAM_ID, attempt, salt);
+            List<SavedAnswer> answers = new ArrayList<>();
+            for (Question question : exam) {
+                if (random.nextInt(10) == 0) {
+                    continue;
+                }
+                boolean right = random.nextInt(3) > 0;
+                int selected = 0;
+                Boolean booleanAnswer = null;
+                Double numericAnswer = null;
+                switch (question.getType()) {
+                    case MULTIPLE_CHOICE -> selected = right ? correctOptions(question) : 1 << random.nextInt(OPTIONS);
+                    case TRUE_FALSE -> booleanAnswer = right == question.getBooleanAnswer();
+                    case NUMERIC -> numericAnswer = question.getNumericAnswer() + (right ? 0.005 : 1);
+                    case DESCRIPTIVE -> {
+                    }
+                }
+                int shown = selected;
+                if (shuffled && selected != 0) {
+                    // The student picks the positions where the chosen options appeared on their paper
+                    ExamShuffle.permute(ExamShuffle.optionSeed(studentSeed, question.getId()), order, OPTIONS);
+                    shown = 0;
+                    for (int position = 0; position < OPTIONS; position++) {
+                        if ((selected & 1 << order[position]) != 0) {
+                            shown |= 1 << position;
+                        }
+                    }
+                }
+                builder.answer(question.getId(), shown,
+                        booleanAnswer == null ? -1 : (byte) (booleanAnswer ? 1 : 0),
+                        numericAnswer == null ? Double.NaN : numericAnswer);
+                answers.add(new SavedAnswer(0, attempt, question.getId(), now, selected, booleanAnswer,
+                        numericAnswer, question.getType() == QuestionType.DESCRIPTIVE ? "answer" : null));
+            }
+            savedAnswers.add(answers);
+        }
+        sheets = builder.build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        engine.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ATTEMPTS)
+    public double[] compiledKey() {
+        return engine.grade(key, sheets);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ATTEMPTS)
+    public double[] savedAnswerObjects() {
+        double[] scores = new double[savedAnswers.size()];
+        for (int attempt = 0; attempt < scores.length; attempt++) {
+            for (SavedAnswer answer : savedAnswers.get(attempt)) {
+                Question question = questions.get(answer.questionId());
+                boolean correct = switch (question.getType()) {
+                    case MULTIPLE_CHOICE -> answer.selectedOptions() == correctOptions(question);
+                    case TRUE_FALSE -> question.getBooleanAnswer().equals(answer.booleanAnswer());
+                    case NUMERIC -> answer.numericAnswer() != null
+                            && Math.abs(answer.numericAnswer() - question.getNumericAnswer()) <= question.getNumericTolerance();
+                    case DESCRIPTIVE -> false;
+                };
+                if (correct) {
+                    scores[attempt] += question.getPoints();
+                }
+            }
+        }
+        return scores;
+    }
+
+    private static int correctOptions(Question question) {
+        int mask = 0;
+        List<QuestionOption> options = question.getOptions();
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i).isCorrect()) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private static List<Question> questions() {
+        List<Question> questions = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < MULTIPLE_CHOICE; i++, id++) {
+            Question question = question(id, QuestionType.MULTIPLE_CHOICE);
+            for (int option = 0; option < OPTIONS; option++) {
+                // Every fifth question has two correct options
+                boolean correct = option == i % OPTIONS || (i % 5 == 0 && option == (i + 1) % OPTIONS);
+                question.getOptions().add(new QuestionOption("Option " + option, correct));
+            }
+            questions.add(question);
+        }
+        for (int i = 0; i < TRUE_FALSE; i++, id++) {
+            Question question = question(id, QuestionType.TRUE_FALSE);
+            question.setBooleanAnswer(i % 2 == 0);
+            questions.add(question);
+        }
+        for (int i = 0; i < NUMERIC; i++, id++) {
+            Question question = question(id, QuestionType.NUMERIC);
+            question.setNumericAnswer(i * 1.5);
+            question.setNumericTolerance(0.01);
+            questions.add(question);
+        }
+        for (int i = 0; i < DESCRIPTIVE; i++, id++) {
+            questions.add(question(id, QuestionType.DESCRIPTIVE));
+        }
+        return questions;
+    }
+
+    private static Question question(long id, QuestionType type) {
+        return Question.builder()
+                .id(id)
+                .type(type)
+                .text("Question " + id)
+                .points(type == QuestionType.MULTIPLE_CHOICE ? 2.0 : 1.0)
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package net.rafiee.onlineexam.benchmark;
+
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.repository.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Map-backed stand-in for {@link UserRepository} covering the methods used on the
+ * authentication path. Any other repository method throws.
+ */
+final class InMemoryUserRepository {
+
+    private InMemoryUserRepository() {
+    }
+
+    static UserRepository of(List<User> users) {
+        Map<String, User> byUsername = new ConcurrentHashMap<>();
+        Map<Long, User> byId = new ConcurrentHashMap<>();
+        users.forEach(user -> {
+            byUsername.put(user.getUsername(), user);
+            byId.put(user.getId(), user);
+        });
+
+        return (UserRepository) Proxy.newProxyInstance(
+                UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "findByUsername", "findByNaturalUsername" -> Optional.ofNullable(byUsername.get((String) args[0]));
+                    case "findById" -> Optional.ofNullable(byId.get((Long) args[0]));
+                    case "existsByUsername" -> byUsername.containsKey((String) args[0]);
+                    case "count" -> (long) byId.size();
+                    case "findAllTokenVersions" -> byId.values().stream()
+                            .map(InMemoryUserRepository::tokenVersionView)
+                            .toList();
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryUserRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static UserRepository.TokenVersionView tokenVersionView(User user) {
+        return new UserRepository.TokenVersionView() {
+            @Override
+            public Long getId() {
+                return user.getId();
+            }
+
+            @Override
+            public Integer getTokenVersion() {
+                return user.getTokenVersion();
+            }
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package net.rafiee.onlineexam.benchmark;
+
+import jakarta.servlet.FilterChain;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.security.CustomUserDetailsService;
+import net.rafiee.onlineexam.security.JwtAuthenticationFilter;
+import net.rafiee.onlineexam.security.JwtTokenProvider;
+import net.rafiee.onlineexam.security.PrincipalCache;
+import net.rafiee.onlineexam.security.TokenRevocationService;
+import net.rafiee.onlineexam.security.TokenVersionRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the whole {@link JwtAuthenticationFilter} for one request, backed by an in-memory
+ * user repository so only the filter's own cost is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final int USER_COUNT = 10_000;
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    private JwtAuthenticationFilter filter;
+    private String claimsToken;
+    private String legacyToken;
+
+    @Setup
+    public void setUp() {
+        List<User> users = BenchmarkFixtures.students(USER_COUNT, "");
+        UserRepository userRepository = InMemoryUserRepository.of(users);
+
+        JwtTokenProvider tokenProvider = BenchmarkFixtures.jwtTokenProvider();
+        TokenVersionRegistry tokenVersionRegistry = new TokenVersionRegistry(userRepository);
+        tokenVersionRegistry.load();
+        PrincipalCache principalCache = new PrincipalCache(USER_COUNT, Duration.ofMinutes(5));
+
+        filter = new JwtAuthenticationFilter(
+                tokenProvider,
+                new CustomUserDetailsService(userRepository),
+                principalCache,
+                tokenVersionRegistry,
+                new TokenRevocationService(100_000, 0.01));
+
+        User user = users.get(USER_COUNT / 2);
+        claimsToken = tokenProvider.generateToken(user);
+        org.springframework.security.core.userdetails.User principal =
+                new org.springframework.security.core.userdetails.User(
+                        user.getUsername(), "", List.of(new SimpleGrantedAuthority("ROLE_STUDENT")));
+        legacyToken = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public Authentication claimsToken() throws Exception {
+        return filter(claimsToken);
+    }
+
+    @Benchmark
+    public Authentication legacyTokenViaPrincipalCache() throws Exception {
+        return filter(legacyToken);
+    }
+
+    @Benchmark
+    public Authentication anonymous() throws Exception {
+        return filter(null);
+    }
+
+    private Authentication filter(String token) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/courses");
+        if (token != null) {
+            request.addHeader("Authorization", "Bearer " + token);
+        }
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.rafiee.onlineexam.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.rafiee.onlineexam.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt cost with the encoder exactly as {@link SecurityConfig#passwordEncoder} builds it.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PasswordEncoderBenchmark {
+
+    private static final String RAW_PASSWORD = "student123";
+
+    private PasswordEncoder passwordEncoder;
+    private String encodedPassword;
+
+    @Setup
+    public void setUp() {
+        passwordEncoder = new SecurityConfig(null, null).passwordEncoder(new SimpleMeterRegistry());
+        encodedPassword = passwordEncoder.encode(RAW_PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return passwordEncoder.matches(RAW_PASSWORD, encodedPassword);
+    }
+
+    @Benchmark
+    public boolean mismatches() {
+        return passwordEncoder.matches("wrong-password", encodedPassword);
+    }
+}
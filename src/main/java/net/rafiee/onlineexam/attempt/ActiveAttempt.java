@@ -0,0 +1,9 @@
+package net.rafiee.onlineexam.attempt;
+
+import java.time.LocalDateTime;
+
+/**
+ * What saving an answer needs to know about an attempt in progress.
+ */
+public record ActiveAttempt(long attemptId, long examId, long studentId, LocalDateTime deadline) {
+}
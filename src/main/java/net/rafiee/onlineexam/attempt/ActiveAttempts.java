@@ -0,0 +1,60 @@
+package net.rafiee.onlineexam.attempt;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The attempts in progress, so that autosaves are checked without reading the attempt. Their
+ * deadlines are scheduled for auto-submission along the way.
+ */
+@Component
+@RequiredArgsConstructor
+public class ActiveAttempts implements MeterBinder {
+
+    private final Map<Long, ActiveAttempt> attempts = new ConcurrentHashMap<>();
+    private final AttemptDeadlines deadlines;
+
+    /**
+     * @return the attempt, or {@code null} if it is not in progress
+     */
+    public ActiveAttempt get(long attemptId) {
+        return attempts.get(attemptId);
+    }
+
+    /**
+     * Adds the attempt, or replaces it with a new deadline.
+     */
+    public void put(ActiveAttempt attempt) {
+        attempts.put(attempt.attemptId(), attempt);
+        deadlines.schedule(attempt.attemptId(), attempt.deadline());
+    }
+
+    public void remove(long attemptId) {
+        attempts.remove(attemptId);
+        deadlines.cancel(attemptId);
+    }
+
+    void replaceAll(Collection<ActiveAttempt> loaded) {
+        attempts.clear();
+        deadlines.clear();
+        loaded.forEach(this::put);
+    }
+
+    public int size() {
+        return attempts.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("exam.attempts.active", this, ActiveAttempts::size)
+                .description("Exam attempts in progress")
+                .register(registry);
+    }
+}
@@ -0,0 +1,191 @@
+package net.rafiee.onlineexam.attempt;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Appends saved answers to segment files, forcing each group of saves to disk with a single
+ * fsync. Segments are deleted once every answer in them has reached the database. Not
+ * thread-safe: only the answer log writer thread uses it, apart from {@link #currentSegment()}.
+ */
+@Slf4j
+class AnswerLog implements AutoCloseable {
+
+    private final Path directory;
+    private final long segmentSize;
+    private final ByteBuffer payload = ByteBuffer.allocate(AnswerLogFormat.MAX_PAYLOAD_SIZE);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(4 * AnswerLogFormat.MAX_PAYLOAD_SIZE);
+    // Segments no longer written to, oldest first
+    private final Deque<Path> closedSegments = new ArrayDeque<>();
+
+    private FileChannel channel;
+    private volatile long currentSegment;
+    private long currentSize;
+
+    AnswerLog(Path directory, long segmentSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+    }
+
+    /**
+     * Passes every intact record of the existing segments to {@code consumer} together with the
+     * number of the segment holding it, oldest first, then starts a new segment for appends.
+     *
+     * @return the highest sequence found, {@code 0} for an empty log
+     */
+    long recover(ObjLongConsumer<SavedAnswer> consumer) throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files.filter(AnswerLogFormat::isSegment)
+                    .sorted(Comparator.comparingLong(AnswerLogFormat::segmentNumber))
+                    .toList();
+        }
+        long maxSequence = 0;
+        int records = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            Path segment = segments.get(i);
+            long number = AnswerLogFormat.segmentNumber(segment);
+            ByteBuffer data;
+            try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+                data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+            }
+            if (!AnswerLogFormat.hasValidHeader(data)) {
+                log.warn("Skipping answer log segment {} with an invalid header", segment);
+            } else {
+                int position = AnswerLogFormat.HEADER_SIZE;
+                while (position + AnswerLogFormat.RECORD_OVERHEAD <= data.limit()) {
+                    int length = data.getInt(position);
+                    SavedAnswer answer = readRecord(data, position, length);
+                    if (answer == null) {
+                        // The newest segment ends where the crash interrupted a write
+                        if (i < segments.size() - 1) {
+                            log.warn("Damaged record in answer log segment {} at offset {}, skipping the rest of it",
+                                    segment, position);
+                        }
+                        break;
+                    }
+                    consumer.accept(answer, number);
+                    maxSequence = Math.max(maxSequence, answer.sequence());
+                    records++;
+                    position += AnswerLogFormat.RECORD_OVERHEAD + length;
+                }
+            }
+            closedSegments.add(segment);
+            currentSegment = number;
+        }
+        open(currentSegment + 1);
+        log.info("Answer log replayed {} records from {} segments", records, segments.size());
+        return maxSequence;
+    }
+
+    /**
+     * Writes the answers and forces them to disk. A group always goes into a single segment;
+     * a new segment is started before the group once the current one has reached its size.
+     *
+     * @return the number of the segment the answers were written to
+     */
+    long append(List<SavedAnswer> answers) throws IOException {
+        if (currentSize >= segmentSize) {
+            rotate();
+        }
+        try {
+            buffer.clear();
+            for (SavedAnswer answer : answers) {
+                payload.clear();
+                AnswerLogFormat.encode(answer, payload);
+                payload.flip();
+                if (buffer.remaining() < AnswerLogFormat.RECORD_OVERHEAD + payload.remaining()) {
+                    writeBuffer();
+                }
+                buffer.putInt(payload.remaining());
+                buffer.putInt(AnswerLogFormat.checksum(payload));
+                buffer.put(payload);
+            }
+            writeBuffer();
+            channel.force(false);
+        } catch (IOException | RuntimeException ex) {
+            // Whatever part of the group reached the file would hide later records from recovery
+            currentSize = segmentSize;
+            throw ex;
+        }
+        return currentSegment;
+    }
+
+    long currentSegment() {
+        return currentSegment;
+    }
+
+    /**
+     * Deletes the segments numbered below {@code segment}; the current segment is never deleted.
+     */
+    void releaseBefore(long segment) throws IOException {
+        while (!closedSegments.isEmpty() && AnswerLogFormat.segmentNumber(closedSegments.peekFirst()) < segment) {
+            Files.deleteIfExists(closedSegments.pollFirst());
+        }
+    }
+
+    int segmentCount() {
+        return closedSegments.size() + 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private static SavedAnswer readRecord(ByteBuffer data, int position, int length) {
+        if (length <= 0 || position + AnswerLogFormat.RECORD_OVERHEAD + length > data.limit()) {
+            return null;
+        }
+        ByteBuffer record = data.slice(position + AnswerLogFormat.RECORD_OVERHEAD, length);
+        if (AnswerLogFormat.checksum(record) != data.getInt(position + 4)) {
+            return null;
+        }
+        try {
+            return AnswerLogFormat.decode(record);
+        } catch (RuntimeException ex) {
+            return null;
+        }
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            currentSize += channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private void rotate() throws IOException {
+        close();
+        closedSegments.add(directory.resolve(AnswerLogFormat.segmentName(currentSegment)));
+        open(currentSegment + 1);
+    }
+
+    private void open(long number) throws IOException {
+        Path path = directory.resolve(AnswerLogFormat.segmentName(number));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        buffer.clear();
+        AnswerLogFormat.writeHeader(buffer);
+        currentSize = 0;
+        writeBuffer();
+        channel.force(true);
+        currentSegment = number;
+    }
+}
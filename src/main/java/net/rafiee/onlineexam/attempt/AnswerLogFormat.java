@@ -0,0 +1,107 @@
+package net.rafiee.onlineexam.attempt;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout of the answer log.
+ * <p>
+ * The log is a series of append-only segment files numbered in the order they were started.
+ * A segment starts with a header (magic, format version) followed by records, each a payload
+ * length, the CRC32C of the payload and the payload itself.
+ */
+final class AnswerLogFormat {
+
+    static final int MAGIC = 0x414E5357;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 8;
+    static final int RECORD_OVERHEAD = 8;
+    static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+    static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final int HAS_BOOLEAN = 1;
+    private static final int BOOLEAN_TRUE = 2;
+    private static final int HAS_NUMERIC = 4;
+    private static final int HAS_TEXT = 8;
+
+    private AnswerLogFormat() {
+    }
+
+    static String segmentName(long number) {
+        return String.format("%020d%s", number, SEGMENT_SUFFIX);
+    }
+
+    static long segmentNumber(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(SEGMENT_SUFFIX)
+                && name.length() > SEGMENT_SUFFIX.length()
+                && name.substring(0, name.length() - SEGMENT_SUFFIX.length()).chars().allMatch(Character::isDigit);
+    }
+
+    static void writeHeader(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+    }
+
+    static boolean hasValidHeader(ByteBuffer segment) {
+        return segment.limit() >= HEADER_SIZE && segment.getInt(0) == MAGIC && segment.getInt(4) == VERSION;
+    }
+
+    /**
+     * Writes the payload of {@code answer} into {@code payload}, from its current position.
+     *
+     * @throws java.nio.BufferOverflowException when the answer does not fit
+     */
+    static void encode(SavedAnswer answer, ByteBuffer payload) {
+        int flags = (answer.booleanAnswer() != null ? HAS_BOOLEAN : 0)
+                | (Boolean.TRUE.equals(answer.booleanAnswer()) ? BOOLEAN_TRUE : 0)
+                | (answer.numericAnswer() != null ? HAS_NUMERIC : 0)
+                | (answer.textAnswer() != null ? HAS_TEXT : 0);
+        payload.putLong(answer.sequence());
+        payload.putLong(answer.attemptId());
+        payload.putLong(answer.questionId());
+        payload.putLong(answer.savedAt().toEpochMilli());
+        payload.putInt(answer.selectedOptions());
+        payload.put((byte) flags);
+        payload.putDouble(answer.numericAnswer() != null ? answer.numericAnswer() : 0.0);
+        if (answer.textAnswer() != null) {
+            byte[] text = answer.textAnswer().getBytes(StandardCharsets.UTF_8);
+            payload.putInt(text.length);
+            payload.put(text);
+        }
+    }
+
+    static SavedAnswer decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        long attemptId = payload.getLong();
+        long questionId = payload.getLong();
+        Instant savedAt = Instant.ofEpochMilli(payload.getLong());
+        int selectedOptions = payload.getInt();
+        int flags = payload.get();
+        double numeric = payload.getDouble();
+        String text = null;
+        if ((flags & HAS_TEXT) != 0) {
+            byte[] bytes = new byte[payload.getInt()];
+            payload.get(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new SavedAnswer(sequence, attemptId, questionId, savedAt, selectedOptions,
+                (flags & HAS_BOOLEAN) != 0 ? (flags & BOOLEAN_TRUE) != 0 : null,
+                (flags & HAS_NUMERIC) != 0 ? numeric : null,
+                text);
+    }
+
+    static int checksum(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+}
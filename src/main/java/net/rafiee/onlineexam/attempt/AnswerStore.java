@@ -0,0 +1,425 @@
+package net.rafiee.onlineexam.attempt;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.exception.ConflictException;
+import net.rafiee.onlineexam.exception.ServiceUnavailableException;
+import net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest saved answers of the attempts in progress, made durable in a local write-ahead log and
+ * written to the database behind the requests.
+ * <p>
+ * A save is queued for the single log writer thread and acknowledged once it is on disk. The
+ * writer forces everything that queued up during its previous fsync with one fsync of its own,
+ * so a save costs about one fsync however many students save at the same moment. The writer
+ * then makes the answers their attempt's latest state in memory. A scheduled flush upserts only
+ * the latest answer of each question changed since the previous flush, in batches, and releases
+ * the log segments holding nothing newer than the database. At startup the log is replayed over
+ * the answers already in the database.
+ * <p>
+ * A submission first closes its attempt: saves the writer reaches after that fail instead of
+ * being acknowledged, so every acknowledged answer is among those the submission writes out.
+ */
+@Component
+@Slf4j
+public class AnswerStore implements MeterBinder {
+
+    private static final long IDLE_WAIT_MILLIS = 100;
+
+    private final AttemptAnswerJdbcRepository answerRepository;
+    private final Path directory;
+    private final long segmentSize;
+    private final int groupSize;
+    private final long ackTimeoutMillis;
+    private final BlockingQueue<PendingSave> queue;
+
+    // Attempt id -> question id -> latest answer
+    private final Map<Long, Map<Long, SavedAnswer>> attempts = new ConcurrentHashMap<>();
+    // The same for attempts being submitted, which accept no more saves
+    private final Map<Long, Map<Long, SavedAnswer>> closed = new ConcurrentHashMap<>();
+    // Answers newer than the database, with the number of the log segment holding each
+    private final Map<AnswerKey, LoggedAnswer> unflushed = new ConcurrentHashMap<>();
+    private final AtomicLong nextSequence = new AtomicLong(1);
+    private final AtomicLong logged = new AtomicLong();
+    private final AtomicLong flushed = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    private AnswerLog answerLog;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile long releaseBefore;
+    private volatile Timer logSyncs;
+    private volatile DistributionSummary groupSizes;
+    private volatile Timer flushes;
+
+    public AnswerStore(AttemptAnswerJdbcRepository answerRepository,
+                       @Value("${answers.wal.directory:data/answer-wal}") Path directory,
+                       @Value("${answers.wal.segment-size-mb:64}") int segmentSizeMb,
+                       @Value("${answers.wal.queue-capacity:65536}") int queueCapacity,
+                       @Value("${answers.wal.group-size:1024}") int groupSize,
+                       @Value("${answers.wal.ack-timeout:PT5S}") Duration ackTimeout) {
+        this.answerRepository = answerRepository;
+        this.directory = directory;
+        this.segmentSize = segmentSizeMb * 1024L * 1024L;
+        this.groupSize = groupSize;
+        this.ackTimeoutMillis = ackTimeout.toMillis();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Restores the latest answers of the attempts in progress and starts accepting saves. Log
+     * records of attempts that are no longer in progress are dropped.
+     *
+     * @param persisted the answers in the database of every attempt in progress, by attempt id
+     */
+    public void recover(Map<Long, List<SavedAnswer>> persisted) throws IOException {
+        attempts.clear();
+        closed.clear();
+        unflushed.clear();
+        persisted.forEach((attemptId, answers) -> {
+            Map<Long, SavedAnswer> latest = new ConcurrentHashMap<>();
+            answers.forEach(answer -> latest.put(answer.questionId(), answer));
+            attempts.put(attemptId, latest);
+        });
+        answerLog = new AnswerLog(directory, segmentSize);
+        long maxSequence = answerLog.recover(this::apply);
+        nextSequence.set(Math.max(maxSequence, answerRepository.maxSequence()) + 1);
+        releaseBefore = 0;
+
+        running = true;
+        writer = new Thread(this::writeLoop, "answer-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Answer log in {} recovered {} unflushed answers of {} attempts in progress",
+                directory.toAbsolutePath(), unflushed.size(), attempts.size());
+    }
+
+    /**
+     * Starts keeping the answers of a new attempt.
+     */
+    public void track(long attemptId) {
+        attempts.putIfAbsent(attemptId, new ConcurrentHashMap<>());
+    }
+
+    /**
+     * Logs the answers and returns once they are on disk. Answers to the same question later in
+     * the list win.
+     *
+     * @param answers answers of one tracked attempt; their sequences are assigned here
+     * @throws ConflictException when the attempt was closed or released before the answers
+     *         reached it
+     * @throws ServiceUnavailableException when the log is not keeping up
+     */
+    public void save(List<SavedAnswer> answers) {
+        if (!running) {
+            throw new ServiceUnavailableException("ذخیره پاسخ‌ها در حال حاضر ممکن نیست", 5);
+        }
+        List<SavedAnswer> sequenced = new ArrayList<>(answers.size());
+        for (SavedAnswer answer : answers) {
+            sequenced.add(answer.withSequence(nextSequence.getAndIncrement()));
+        }
+        PendingSave pending = new PendingSave(sequenced, new CompletableFuture<>());
+        if (!queue.offer(pending)) {
+            throw new ServiceUnavailableException("ذخیره پاسخ‌ها با ازدحام مواجه است، لطفاً دوباره تلاش کنید", 1);
+        }
+        try {
+            pending.done().get(ackTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new ServiceUnavailableException("ذخیره پاسخ‌ها با ازدحام مواجه است، لطفاً دوباره تلاش کنید", 1);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("ذخیره پاسخ‌ها در حال حاضر ممکن نیست", 5);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof ConflictException conflict) {
+                throw new ConflictException(conflict.getMessage());
+            }
+            throw new IllegalStateException("Failed to write answers to the answer log", ex.getCause());
+        }
+    }
+
+    /**
+     * @return the latest answers of the attempt, or {@code null} if it is not tracked
+     */
+    public Collection<SavedAnswer> answersOf(long attemptId) {
+        Map<Long, SavedAnswer> answers = answers(attemptId);
+        return answers != null ? List.copyOf(answers.values()) : null;
+    }
+
+    /**
+     * Writes the attempt's unflushed answers within the current transaction, for submission.
+     */
+    public void flushAttempt(long attemptId) {
+        flushAttempts(List.of(attemptId));
+    }
+
+    /**
+     * Writes the unflushed answers of the attempts within the current transaction, in one batch.
+     */
+    public void flushAttempts(Collection<Long> attemptIds) {
+        List<SavedAnswer> pending = new ArrayList<>();
+        for (Long attemptId : attemptIds) {
+            Map<Long, SavedAnswer> answers = answers(attemptId);
+            if (answers == null) {
+                continue;
+            }
+            for (SavedAnswer answer : answers.values()) {
+                LoggedAnswer logged = unflushed.get(AnswerKey.of(answer));
+                if (logged != null && logged.answer() == answer) {
+                    pending.add(answer);
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        answerRepository.upsertAll(pending);
+        TransactionCallbacks.afterCommit(() -> pending.forEach(this::markFlushed));
+    }
+
+    /**
+     * Refuses further saves for the attempt, which is being submitted; saves still in flight for
+     * it fail. Its answers stay readable and can still be flushed.
+     */
+    public void close(long attemptId) {
+        // Serialized with the writer's updates of the attempt, which therefore land before or fail
+        attempts.computeIfPresent(attemptId, (id, answers) -> {
+            closed.put(id, answers);
+            return null;
+        });
+    }
+
+    /**
+     * Accepts saves for a closed attempt again, when its submission rolled back.
+     */
+    public void reopen(long attemptId) {
+        Map<Long, SavedAnswer> answers = closed.remove(attemptId);
+        if (answers != null) {
+            attempts.put(attemptId, answers);
+        }
+    }
+
+    /**
+     * Stops keeping the attempt's answers; saves still in flight for it fail.
+     */
+    public void release(long attemptId) {
+        Map<Long, SavedAnswer> answers = attempts.remove(attemptId);
+        Map<Long, SavedAnswer> closedAnswers = closed.remove(attemptId);
+        if (answers == null) {
+            answers = closedAnswers;
+        }
+        if (answers != null) {
+            answers.keySet().forEach(questionId -> unflushed.remove(new AnswerKey(attemptId, questionId)));
+        }
+    }
+
+    /**
+     * Upserts the answers saved since the previous flush and lets the log drop what the
+     * database now holds.
+     */
+    @Scheduled(fixedDelayString = "${answers.flush-interval:PT1S}")
+    public void flush() {
+        if (!running) {
+            return;
+        }
+        // Read first: every answer in an older segment is in unflushed by the time it is closed
+        long oldestNeeded = answerLog.currentSegment();
+        if (!unflushed.isEmpty()) {
+            long start = System.nanoTime();
+            List<SavedAnswer> batch = unflushed.values().stream().map(LoggedAnswer::answer).toList();
+            try {
+                write(batch);
+            } catch (DataAccessException ex) {
+                log.warn("Failed to flush {} answers, retrying on the next flush", batch.size(), ex);
+            }
+            if (flushes != null) {
+                flushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+        for (LoggedAnswer pending : unflushed.values()) {
+            oldestNeeded = Math.min(oldestNeeded, pending.segment());
+        }
+        releaseBefore = oldestNeeded;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("answers.unflushed", unflushed, Map::size)
+                .description("Saved answers not yet written to the database")
+                .register(registry);
+        Gauge.builder("answers.log.queue", queue, BlockingQueue::size)
+                .description("Saves waiting for the answer log writer")
+                .register(registry);
+        FunctionCounter.builder("answers.saved", logged, AtomicLong::get)
+                .tag("outcome", "logged")
+                .register(registry);
+        FunctionCounter.builder("answers.saved", flushed, AtomicLong::get)
+                .tag("outcome", "flushed")
+                .register(registry);
+        FunctionCounter.builder("answers.saved", discarded, AtomicLong::get)
+                .tag("outcome", "discarded")
+                .description("Answers the database refused, for attempts or questions deleted meanwhile")
+                .register(registry);
+        logSyncs = Timer.builder("answers.log.sync")
+                .description("Time to append and force one group of saves")
+                .register(registry);
+        groupSizes = DistributionSummary.builder("answers.log.group.size").register(registry);
+        flushes = Timer.builder("answers.flush")
+                .description("Time to write one flush of saved answers to the database")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        answerLog.close();
+        log.info("Answer log closed with {} answers not yet in the database", unflushed.size());
+    }
+
+    private void writeLoop() {
+        List<PendingSave> group = new ArrayList<>(groupSize);
+        while (true) {
+            group.clear();
+            try {
+                PendingSave first = queue.poll(IDLE_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    group.add(first);
+                    queue.drainTo(group, groupSize - 1);
+                    writeGroup(group);
+                } else if (!running) {
+                    return;
+                }
+                answerLog.releaseBefore(releaseBefore);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (IOException ex) {
+                log.warn("Failed to delete released answer log segments", ex);
+            }
+        }
+    }
+
+    private void writeGroup(List<PendingSave> group) {
+        List<SavedAnswer> answers = new ArrayList<>();
+        group.forEach(pending -> answers.addAll(pending.answers()));
+        long start = System.nanoTime();
+        long segment;
+        try {
+            segment = answerLog.append(answers);
+        } catch (IOException | RuntimeException ex) {
+            log.error("Failed to write {} answers to the answer log", answers.size(), ex);
+            group.forEach(pending -> pending.done().completeExceptionally(ex));
+            return;
+        }
+        for (PendingSave pending : group) {
+            boolean tracked = true;
+            for (SavedAnswer answer : pending.answers()) {
+                tracked &= apply(answer, segment);
+            }
+            if (tracked) {
+                pending.done().complete(null);
+            } else {
+                // Logged all the same; the log is only replayed for attempts still in progress
+                pending.done().completeExceptionally(new ConflictException("این پاسخ‌نامه قبلاً ارسال شده است"));
+            }
+        }
+        logged.addAndGet(answers.size());
+        if (logSyncs != null) {
+            logSyncs.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            groupSizes.record(answers.size());
+        }
+    }
+
+    /**
+     * @return whether the attempt is tracked and open; if not, having been submitted meanwhile
+     *         or not being in progress any more when the log is replayed, the answer is dropped
+     */
+    private boolean apply(SavedAnswer answer, long segment) {
+        return attempts.computeIfPresent(answer.attemptId(), (id, answers) -> {
+            SavedAnswer latest = answers.merge(answer.questionId(), answer, SavedAnswer::newer);
+            if (latest == answer) {
+                unflushed.merge(AnswerKey.of(answer), new LoggedAnswer(answer, segment),
+                        (current, added) -> current.answer().sequence() >= added.answer().sequence() ? current : added);
+            }
+            return answers;
+        }) != null;
+    }
+
+    private Map<Long, SavedAnswer> answers(long attemptId) {
+        Map<Long, SavedAnswer> answers = attempts.get(attemptId);
+        return answers != null ? answers : closed.get(attemptId);
+    }
+
+    private void write(List<SavedAnswer> batch) {
+        try {
+            answerRepository.upsertAll(batch);
+            batch.forEach(this::markFlushed);
+        } catch (DataIntegrityViolationException ex) {
+            // One answer of a deleted attempt or question fails the whole batch; find it
+            for (SavedAnswer answer : batch) {
+                try {
+                    answerRepository.upsertAll(List.of(answer));
+                } catch (DataIntegrityViolationException rejected) {
+                    log.warn("Discarding answer of attempt {} to question {}: {}", answer.attemptId(),
+                            answer.questionId(), rejected.getMostSpecificCause().getMessage());
+                    discarded.incrementAndGet();
+                }
+                markFlushed(answer);
+            }
+        }
+    }
+
+    private void markFlushed(SavedAnswer answer) {
+        AnswerKey key = AnswerKey.of(answer);
+        LoggedAnswer pending = unflushed.get(key);
+        // A newer save of the same question stays until the next flush
+        if (pending != null && pending.answer() == answer && unflushed.remove(key, pending)) {
+            flushed.incrementAndGet();
+        }
+    }
+
+    private record AnswerKey(long attemptId, long questionId) {
+
+        static AnswerKey of(SavedAnswer answer) {
+            return new AnswerKey(answer.attemptId(), answer.questionId());
+        }
+    }
+
+    private record LoggedAnswer(SavedAnswer answer, long segment) {
+    }
+
+    private record PendingSave(List<SavedAnswer> answers, CompletableFuture<Void> done) {
+    }
+}
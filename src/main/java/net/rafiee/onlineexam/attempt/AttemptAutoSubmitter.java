@@ -0,0 +1,72 @@
+package net.rafiee.onlineexam.attempt;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.service.AttemptService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Submits the attempts whose deadline has passed, a batch per transaction, on every tick of
+ * the deadline wheel. The grace period lets saves acknowledged just before the deadline reach
+ * the answer store first.
+ */
+@Component
+@Slf4j
+public class AttemptAutoSubmitter implements MeterBinder {
+
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final AttemptDeadlines deadlines;
+    private final ActiveAttempts activeAttempts;
+    private final AttemptService attemptService;
+    private final Duration grace;
+    private final int batchSize;
+    private final AtomicLong submitted = new AtomicLong();
+
+    public AttemptAutoSubmitter(AttemptDeadlines deadlines, ActiveAttempts activeAttempts, AttemptService attemptService,
+                                @Value("${attempts.auto-submit.grace:PT5S}") Duration grace,
+                                @Value("${attempts.auto-submit.batch-size:500}") int batchSize) {
+        this.deadlines = deadlines;
+        this.activeAttempts = activeAttempts;
+        this.attemptService = attemptService;
+        this.grace = grace;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${attempts.deadline-tick:PT1S}")
+    public void submitExpired() {
+        List<Long> expired = deadlines.expire(Instant.now().minus(grace));
+        for (int start = 0; start < expired.size(); start += batchSize) {
+            List<Long> batch = expired.subList(start, Math.min(start + batchSize, expired.size()));
+            try {
+                submitted.addAndGet(attemptService.autoSubmitAttempts(batch));
+            } catch (RuntimeException ex) {
+                log.error("Failed to auto-submit {} attempts, retrying in {}", batch.size(), RETRY_DELAY, ex);
+                LocalDateTime retryAt = LocalDateTime.now().plus(RETRY_DELAY);
+                batch.stream()
+                        .filter(attemptId -> activeAttempts.get(attemptId) != null)
+                        .forEach(attemptId -> deadlines.schedule(attemptId, retryAt));
+            }
+        }
+        if (!expired.isEmpty()) {
+            log.info("Deadline passed for {} attempts", expired.size());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("exam.attempts.auto.submitted", submitted, AtomicLong::get)
+                .description("Attempts submitted when their deadline passed")
+                .register(registry);
+    }
+}
@@ -0,0 +1,69 @@
+package net.rafiee.onlineexam.attempt;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The deadline of every attempt in progress on a {@link TimingWheel}, so that thousands of
+ * attempts cost one timer tick instead of a scheduled task or a query each. Kept in step by
+ * {@link ActiveAttempts}.
+ */
+@Component
+public class AttemptDeadlines implements MeterBinder {
+
+    private final long tickMillis;
+    private final TimingWheel wheel;
+
+    public AttemptDeadlines(@Value("${attempts.deadline-tick:PT1S}") Duration tick) {
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.wheel = new TimingWheel(tickOf(Instant.now()));
+    }
+
+    public synchronized void schedule(long attemptId, LocalDateTime deadline) {
+        // Rounded up, so an attempt never expires before its deadline
+        long millis = deadline.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        wheel.schedule(attemptId, Math.floorDiv(millis + tickMillis - 1, tickMillis));
+    }
+
+    public synchronized void cancel(long attemptId) {
+        wheel.cancel(attemptId);
+    }
+
+    synchronized void clear() {
+        wheel.clear();
+    }
+
+    /**
+     * @return the attempts whose deadline is at or before {@code time}, no longer scheduled
+     */
+    public synchronized List<Long> expire(Instant time) {
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(tickOf(time), expired::add);
+        return expired;
+    }
+
+    public synchronized int size() {
+        return wheel.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("exam.attempts.deadlines", this, AttemptDeadlines::size)
+                .description("Attempt deadlines waiting on the timing wheel")
+                .register(registry);
+    }
+
+    private long tickOf(Instant time) {
+        return Math.floorDiv(time.toEpochMilli(), tickMillis);
+    }
+}
@@ -0,0 +1,45 @@
+package net.rafiee.onlineexam.attempt;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.enumuration.AttemptStatus;
+import net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository;
+import net.rafiee.onlineexam.repository.ExamAttemptRepository;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Restores the attempts in progress and their latest answers at startup: the answers in the
+ * database first, then whatever the answer log holds that had not reached it. Their deadlines
+ * go back on the deadline wheel; those that passed while the application was down are
+ * submitted on its first tick.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AttemptStateLoader {
+
+    private final ActiveAttempts activeAttempts;
+    private final AnswerStore answerStore;
+    private final ExamAttemptRepository attemptRepository;
+    private final AttemptAnswerJdbcRepository answerRepository;
+
+    @PostConstruct
+    public void load() throws IOException {
+        List<ActiveAttempt> attempts = attemptRepository.findActiveByStatus(AttemptStatus.IN_PROGRESS);
+        activeAttempts.replaceAll(attempts);
+
+        Map<Long, List<SavedAnswer>> persisted = new HashMap<>();
+        attempts.forEach(attempt -> persisted.put(attempt.attemptId(), new ArrayList<>()));
+        answerRepository.forEachAnswerOfActiveAttempts(answer ->
+                persisted.computeIfAbsent(answer.attemptId(), id -> new ArrayList<>()).add(answer));
+        answerStore.recover(persisted);
+        log.info("Restored {} exam attempts in progress", attempts.size());
+    }
+}
@@ -0,0 +1,35 @@
+package net.rafiee.onlineexam.attempt;
+
+import java.time.Instant;
+
+/**
+ * One saved answer of an attempt to a question.
+ *
+ * @param sequence        position in the answer log, unique across all attempts; {@code 0} until
+ *                        the answer has been handed to {@link AnswerStore#save}
+ * @param selectedOptions bit {@code i} set when option {@code i} of a multiple-choice question is
+ *                        selected
+ */
+public record SavedAnswer(long sequence,
+                          long attemptId,
+                          long questionId,
+                          Instant savedAt,
+                          int selectedOptions,
+                          Boolean booleanAnswer,
+                          Double numericAnswer,
+                          String textAnswer) {
+
+    SavedAnswer withSequence(long sequence) {
+        return new SavedAnswer(sequence, attemptId, questionId, savedAt, selectedOptions, booleanAnswer,
+                numericAnswer, textAnswer);
+    }
+
+    public SavedAnswer withSelectedOptions(int selectedOptions) {
+        return new SavedAnswer(sequence, attemptId, questionId, savedAt, selectedOptions, booleanAnswer,
+                numericAnswer, textAnswer);
+    }
+
+    static SavedAnswer newer(SavedAnswer a, SavedAnswer b) {
+        return a.sequence >= b.sequence ? a : b;
+    }
+}
@@ -0,0 +1,172 @@
+package net.rafiee.onlineexam.attempt;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongConsumer;
+
+/**
+ * Hierarchical timing wheel of ids due at a tick. Level {@code L} has {@value #SLOTS} slots of
+ * {@code 64^L} ticks each; a timer sits at the lowest level whose parent block it shares with
+ * the current tick, and drops a level whenever the wheel reaches the start of its slot. Timers
+ * beyond the top level wait in an overflow list. Scheduling, rescheduling and cancelling are
+ * O(1), and each timer is moved at most once per level.
+ * <p>
+ * Not thread-safe.
+ */
+final class TimingWheel {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final Timer[][] slots = new Timer[LEVELS][SLOTS];
+    private final Map<Long, Timer> timers = new HashMap<>();
+    private Timer overflow;
+    // The next tick to expire
+    private long currentTick;
+
+    TimingWheel(long currentTick) {
+        this.currentTick = currentTick;
+    }
+
+    /**
+     * Schedules the id at the tick, replacing its previous schedule. Ticks already expired fire
+     * on the next advance.
+     */
+    void schedule(long id, long dueTick) {
+        Timer timer = timers.get(id);
+        if (timer == null) {
+            timer = new Timer(id);
+            timers.put(id, timer);
+        } else {
+            unlink(timer);
+        }
+        timer.dueTick = dueTick;
+        insert(timer);
+    }
+
+    boolean cancel(long id) {
+        Timer timer = timers.remove(id);
+        if (timer == null) {
+            return false;
+        }
+        unlink(timer);
+        return true;
+    }
+
+    void clear() {
+        for (Timer[] level : slots) {
+            Arrays.fill(level, null);
+        }
+        overflow = null;
+        timers.clear();
+    }
+
+    int size() {
+        return timers.size();
+    }
+
+    /**
+     * Expires every tick up to and including {@code tick}, passing the ids due to the consumer.
+     */
+    void advance(long tick, LongConsumer expired) {
+        while (currentTick <= tick) {
+            // Higher levels first: what they cascade may land in a lower level's slot cascading now
+            if ((currentTick & ((1L << (SLOT_BITS * LEVELS)) - 1)) == 0) {
+                Timer pending = overflow;
+                overflow = null;
+                reinsert(pending);
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                    int slot = (int) (currentTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+                    Timer pending = slots[level][slot];
+                    slots[level][slot] = null;
+                    reinsert(pending);
+                }
+            }
+            int slot = (int) currentTick & SLOT_MASK;
+            Timer due = slots[0][slot];
+            slots[0][slot] = null;
+            for (Timer timer = due; timer != null; timer = timer.next) {
+                timers.remove(timer.id);
+            }
+            // Moved on first, so that whatever the consumer schedules lands in a slot still ahead
+            currentTick++;
+            for (Timer timer = due; timer != null; timer = timer.next) {
+                expired.accept(timer.id);
+            }
+        }
+    }
+
+    private void reinsert(Timer timer) {
+        while (timer != null) {
+            Timer next = timer.next;
+            insert(timer);
+            timer = next;
+        }
+    }
+
+    private void insert(Timer timer) {
+        long dueTick = Math.max(timer.dueTick, currentTick);
+        int level = 0;
+        while (level < LEVELS && (dueTick >>> (SLOT_BITS * (level + 1))) != (currentTick >>> (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        Timer[] list;
+        int slot;
+        if (level == LEVELS) {
+            list = null;
+            slot = -1;
+        } else {
+            list = slots[level];
+            slot = (int) (dueTick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        }
+        Timer head = list != null ? list[slot] : overflow;
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        if (list != null) {
+            list[slot] = timer;
+        } else {
+            overflow = timer;
+        }
+        timer.head = list;
+        timer.slot = slot;
+    }
+
+    private void unlink(Timer timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else if (timer.slot >= 0 && timer.head != null) {
+            timer.head[timer.slot] = timer.next;
+        } else if (overflow == timer) {
+            overflow = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.head = null;
+    }
+
+    private static final class Timer {
+
+        final long id;
+        long dueTick;
+        Timer prev;
+        Timer next;
+        // The slot array and index holding the timer; a null array with index -1 is the overflow list
+        Timer[] head;
+        int slot;
+
+        Timer(long id) {
+            this.id = id;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package net.rafiee.onlineexam.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Routes {@code @Async} work through Boot's application task executor (virtual threads when
+ * {@code spring.threads.virtual.enabled=true} on Java 21) and carries the caller's
+ * SecurityContext over to the worker thread.
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    private final ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreadsRequested;
+
+    public AsyncConfig(@Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                       ObjectProvider<AsyncTaskExecutor> applicationTaskExecutor) {
+        this.applicationTaskExecutor = applicationTaskExecutor;
+    }
+
+    @Override
+    public Executor getAsyncExecutor() {
+        return new DelegatingSecurityContextAsyncTaskExecutor(applicationTaskExecutor.getObject());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reportThreadingMode() {
+        if (virtualThreadsRequested && Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled is set but the JVM is Java {}; running on platform threads",
+                    Runtime.version().feature());
+        } else {
+            log.info("Request handling runs on {} threads", virtualThreadsRequested ? "virtual" : "platform");
+        }
+    }
+}
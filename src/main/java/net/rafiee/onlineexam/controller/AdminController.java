@@ -0,0 +1,47 @@
+package net.rafiee.onlineexam.controller;
+
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.dto.CacheRegionStatsDTO;
+import net.rafiee.onlineexam.journal.DomainEvent;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import net.rafiee.onlineexam.service.CacheStatisticsService;
+import net.rafiee.onlineexam.service.CourseService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminController {
+
+    private final CacheStatisticsService cacheStatisticsService;
+    private final CourseService courseService;
+    private final DomainEventJournal eventJournal;
+
+    @GetMapping("/cache-stats")
+    public ResponseEntity<List<CacheRegionStatsDTO>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getCacheStatistics());
+    }
+
+    @GetMapping("/journal")
+    public ResponseEntity<List<DomainEvent>> getJournal(
+            @RequestParam(defaultValue = "1") long fromSequence,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(eventJournal.read(fromSequence, Math.max(1, Math.min(limit, 1000))));
+    }
+
+    @GetMapping("/courses/{courseId}/students/shared-with/{otherCourseId}")
+    public ResponseEntity<List<Long>> getSharedStudents(@PathVariable Long courseId, @PathVariable Long otherCourseId) {
+        return ResponseEntity.ok(courseService.getSharedStudentIds(courseId, otherCourseId));
+    }
+
+    @GetMapping("/courses/{courseId}/students/not-in/{otherCourseId}")
+    public ResponseEntity<List<Long>> getStudentsNotIn(@PathVariable Long courseId, @PathVariable Long otherCourseId) {
+        return ResponseEntity.ok(courseService.getStudentIdsNotIn(courseId, otherCourseId));
+    }
+}
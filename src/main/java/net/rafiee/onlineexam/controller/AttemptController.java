@@ -0,0 +1,66 @@
+package net.rafiee.onlineexam.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.dto.AnswerBatchDTO;
+import net.rafiee.onlineexam.dto.AttemptDTO;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import net.rafiee.onlineexam.service.AttemptService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/attempts")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class AttemptController {
+    
+    private final AttemptService attemptService;
+    
+    @PostMapping("/exam/{examId}")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<AttemptDTO> startAttempt(
+            @PathVariable Long examId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(attemptService.startAttempt(examId, principal));
+    }
+    
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<AttemptDTO> getAttempt(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(attemptService.getAttempt(id, principal));
+    }
+    
+    @PutMapping("/{id}/answers")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<Void> saveAnswers(
+            @PathVariable Long id,
+            @Valid @RequestBody AnswerBatchDTO batch,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        // Returns once the answers are in the answer log; they reach the database shortly after
+        attemptService.saveAnswers(id, batch.getAnswers(), principal);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/{id}/submit")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<AttemptDTO> submitAttempt(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(attemptService.submitAttempt(id, principal));
+    }
+    
+    // Extra time for one student, as an extension or an accommodation
+    @PostMapping("/{id}/extend")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<AttemptDTO> extendDeadline(
+            @PathVariable Long id,
+            @RequestParam int minutes,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(attemptService.extendDeadline(id, minutes, principal));
+    }
+}
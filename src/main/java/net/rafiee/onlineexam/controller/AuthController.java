@@ -5,12 +5,15 @@ import net.rafiee.onlineexam.dto.LoginResponseDTO;
 import net.rafiee.onlineexam.dto.UserRegistrationDTO;
 import net.rafiee.onlineexam.dto.UserResponseDTO;
 import net.rafiee.onlineexam.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 @RestController
 @RequestMapping("/api/auth")
 @RequiredArgsConstructor
@@ -26,8 +29,15 @@ public class AuthController {
     }
     
     @PostMapping("/login")
-    public ResponseEntity<LoginResponseDTO> login(@Valid @RequestBody LoginRequestDTO loginRequest) {
-        LoginResponseDTO response = userService.login(loginRequest);
-        return ResponseEntity.ok(response);
+    public CompletableFuture<ResponseEntity<LoginResponseDTO>> login(@Valid @RequestBody LoginRequestDTO loginRequest,
+                                                                     HttpServletRequest request) {
+        return userService.login(loginRequest, request.getRemoteAddr())
+                .thenApply(ResponseEntity::ok);
+    }
+    
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        userService.logout(authorization);
+        return ResponseEntity.noContent().build();
     }
 }
\ No newline at end of file
@@ -1,14 +1,21 @@
 package net.rafiee.onlineexam.controller;
 
+import net.rafiee.onlineexam.dto.BulkEnrollmentResultDTO;
 import net.rafiee.onlineexam.dto.CourseDTO;
 import net.rafiee.onlineexam.dto.CourseResponseDTO;
+import net.rafiee.onlineexam.dto.CourseSummaryDTO;
+import net.rafiee.onlineexam.dto.CursorPageDTO;
+import net.rafiee.onlineexam.dto.MemberCandidateDTO;
+import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.service.CourseService;
+import net.rafiee.onlineexam.util.KeysetPagination;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -29,14 +36,26 @@ public class CourseController {
     
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<List<CourseResponseDTO>> getAllCourses() {
-        return ResponseEntity.ok(courseService.getAllCourses());
+    public ResponseEntity<CursorPageDTO<CourseSummaryDTO>> getAllCourses(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size,
+            WebRequest request) {
+        // The validator is an in-memory counter, checked before the page is loaded
+        String eTag = courseService.getCoursesPageETag(cursor, size);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(courseService.getCoursesPage(cursor, size));
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<CourseResponseDTO> getCourseById(@PathVariable Long id) {
-        return ResponseEntity.ok(courseService.getCourseById(id));
+    public ResponseEntity<CourseResponseDTO> getCourseById(@PathVariable Long id, WebRequest request) {
+        String eTag = courseService.getCourseETag(id);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(courseService.getCourseById(id));
     }
     
     @GetMapping("/code/{courseCode}")
@@ -47,19 +66,19 @@ public class CourseController {
     
     @GetMapping("/instructor/{instructorId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
-    public ResponseEntity<List<CourseResponseDTO>> getCoursesByInstructor(@PathVariable Long instructorId) {
+    public ResponseEntity<List<CourseSummaryDTO>> getCoursesByInstructor(@PathVariable Long instructorId) {
         return ResponseEntity.ok(courseService.getCoursesByInstructor(instructorId));
     }
     
     @GetMapping("/student/{studentId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STUDENT')")
-    public ResponseEntity<List<CourseResponseDTO>> getCoursesByStudent(@PathVariable Long studentId) {
+    public ResponseEntity<List<CourseSummaryDTO>> getCoursesByStudent(@PathVariable Long studentId) {
         return ResponseEntity.ok(courseService.getCoursesByStudent(studentId));
     }
     
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<List<CourseResponseDTO>> searchCourses(@RequestParam String keyword) {
+    public ResponseEntity<List<CourseSummaryDTO>> searchCourses(@RequestParam String keyword) {
         return ResponseEntity.ok(courseService.searchCourses(keyword));
     }
     
@@ -96,7 +115,7 @@ public class CourseController {
     
     @PostMapping("/{courseId}/students/{studentId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CourseResponseDTO> addStudentToCourse(
+    public ResponseEntity<CourseSummaryDTO> addStudentToCourse(
             @PathVariable Long courseId,
             @PathVariable Long studentId) {
         return ResponseEntity.ok(courseService.addStudentToCourse(courseId, studentId));
@@ -104,15 +123,26 @@ public class CourseController {
     
     @DeleteMapping("/{courseId}/students/{studentId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CourseResponseDTO> removeStudentFromCourse(
+    public ResponseEntity<CourseSummaryDTO> removeStudentFromCourse(
             @PathVariable Long courseId,
             @PathVariable Long studentId) {
         return ResponseEntity.ok(courseService.removeStudentFromCourse(courseId, studentId));
     }
     
+    @GetMapping("/{courseId}/eligible-members")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CursorPageDTO<MemberCandidateDTO>> getEligibleMembers(
+            @PathVariable Long courseId,
+            @RequestParam UserRole role,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(courseService.getEligibleMembers(courseId, role, q, cursor, size));
+    }
+    
     @PostMapping("/{courseId}/students/batch")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<CourseResponseDTO> addMultipleStudentsToCourse(
+    public ResponseEntity<BulkEnrollmentResultDTO> addMultipleStudentsToCourse(
             @PathVariable Long courseId,
             @RequestBody List<Long> studentIds) {
         return ResponseEntity.ok(courseService.addMultipleStudentsToCourse(courseId, studentIds));
@@ -0,0 +1,116 @@
+package net.rafiee.onlineexam.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.dto.ExamDTO;
+import net.rafiee.onlineexam.dto.ExamResponseDTO;
+import net.rafiee.onlineexam.dto.ExamSummaryDTO;
+import net.rafiee.onlineexam.dto.GradingResultDTO;
+import net.rafiee.onlineexam.exam.ExamSnapshot;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import net.rafiee.onlineexam.service.ExamService;
+import net.rafiee.onlineexam.service.GradingService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/exams")
+@RequiredArgsConstructor
+@CrossOrigin(origins = "*", maxAge = 3600)
+public class ExamController {
+    
+    private final ExamService examService;
+    private final GradingService gradingService;
+    
+    @PostMapping("/course/{courseId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ExamResponseDTO> createExam(
+            @PathVariable Long courseId,
+            @Valid @RequestBody ExamDTO examDTO,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return new ResponseEntity<>(examService.createExam(courseId, examDTO, principal), HttpStatus.CREATED);
+    }
+    
+    @GetMapping("/course/{courseId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
+    public ResponseEntity<List<ExamSummaryDTO>> getCourseExams(
+            @PathVariable Long courseId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(examService.getCourseExams(courseId, principal));
+    }
+    
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ExamResponseDTO> getExamById(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(examService.getExamById(id, principal));
+    }
+    
+    @PutMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ExamResponseDTO> updateExam(
+            @PathVariable Long id,
+            @Valid @RequestBody ExamDTO examDTO,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(examService.updateExam(id, examDTO, principal));
+    }
+    
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<Void> deleteExam(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        examService.deleteExam(id, principal);
+        return ResponseEntity.noContent().build();
+    }
+    
+    @PostMapping("/{id}/publish")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ExamResponseDTO> publishExam(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(examService.publishExam(id, principal));
+    }
+    
+    @PostMapping("/{id}/close")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<ExamResponseDTO> closeExam(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(examService.closeExam(id, principal));
+    }
+    
+    @PostMapping("/{id}/grade")
+    @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR')")
+    public ResponseEntity<GradingResultDTO> gradeExam(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return ResponseEntity.ok(gradingService.gradeExam(id, principal));
+    }
+    
+    @GetMapping("/{id}/paper")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<byte[]> getExamPaper(
+            @PathVariable Long id,
+            @AuthenticationPrincipal UserPrincipal principal,
+            WebRequest request) {
+        // The paper was serialized when the exam was published; only the student's order is applied here
+        ExamSnapshot snapshot = examService.getExamPaper(id, principal);
+        String eTag = snapshot.eTag(principal.getId());
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(eTag)
+                .body(snapshot.paper().render(principal.getId()));
+    }
+}
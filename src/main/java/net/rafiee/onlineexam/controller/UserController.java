@@ -1,17 +1,38 @@
 package net.rafiee.onlineexam.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.dto.CursorPageDTO;
+import net.rafiee.onlineexam.dto.UserImportEventDTO;
 import net.rafiee.onlineexam.dto.UserResponseDTO;
 import net.rafiee.onlineexam.dto.UserUpdateDTO;
 import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.exception.BadRequestException;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import net.rafiee.onlineexam.service.UserImportService;
 import net.rafiee.onlineexam.service.UserService;
+import net.rafiee.onlineexam.util.KeysetPagination;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
 
 @RestController
@@ -22,23 +43,35 @@ import java.util.List;
 public class UserController {
     
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${user-import.timeout:PT10M}")
+    private Duration importTimeout;
 
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponseDTO>> getAllUsers() {
-        log.info("GET /api/users - Fetching all users");
-        List<UserResponseDTO> users = userService.getAllUsers();
-        log.info("Returned {} users", users.size());
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getAllUsers(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
+        log.info("GET /api/users - Fetching users page");
+        CursorPageDTO<UserResponseDTO> users = userService.getUsersPage(cursor, size);
+        log.info("Returned {} users", users.getSize());
         return ResponseEntity.ok(users);
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'INSTRUCTOR', 'STUDENT')")
-    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserResponseDTO> getUserById(@PathVariable Long id, WebRequest request) {
         log.info("GET /api/users/{} - Fetching user by ID", id);
+        String eTag = userService.getUserETag(id);
+        if (request.checkNotModified(eTag)) {
+            log.info("User {} not modified", id);
+            return null;
+        }
         UserResponseDTO user = userService.getUserById(id);
         log.info("User found: {}", user.getUsername());
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok().eTag(eTag).body(user);
     }
 
     @GetMapping("/username/{username}")
@@ -50,16 +83,63 @@ public class UserController {
 
     @GetMapping("/role/{role}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponseDTO>> getUsersByRole(@PathVariable UserRole role) {
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getUsersByRole(
+            @PathVariable UserRole role,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
         log.info("GET /api/users/role/{} - Fetching users by role", role);
-        return ResponseEntity.ok(userService.getUsersByRole(role));
+        return ResponseEntity.ok(userService.getUsersByRolePage(role, cursor, size));
     }
 
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<UserResponseDTO>> getUsersByStatus(@PathVariable UserStatus status) {
+    public ResponseEntity<CursorPageDTO<UserResponseDTO>> getUsersByStatus(
+            @PathVariable UserStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + KeysetPagination.DEFAULT_PAGE_SIZE) int size) {
         log.info("GET /api/users/status/{} - Fetching users by status", status);
-        return ResponseEntity.ok(userService.getUsersByStatus(status));
+        return ResponseEntity.ok(userService.getUsersByStatusPage(status, cursor, size));
+    }
+
+    /**
+     * Imports users from a CSV request body and streams the result back as newline-delimited
+     * JSON: one line per rejected row, a progress line per committed chunk and a final summary.
+     * Imported users wait for approval unless {@code status=APPROVED} is asked for explicitly.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    public WebAsyncTask<Void> importUsers(
+            @RequestParam(defaultValue = "PENDING") UserStatus status,
+            @AuthenticationPrincipal UserPrincipal principal,
+            HttpServletRequest request,
+            HttpServletResponse response) {
+        if (status == UserStatus.REJECTED) {
+            throw new BadRequestException("کاربران وارد شده فقط می‌توانند در انتظار تأیید یا تأیید شده باشند");
+        }
+        if (status == UserStatus.APPROVED) {
+            log.warn("POST /api/users/import - {} is importing users as already approved", principal.getUsername());
+        }
+        log.info("POST /api/users/import - Importing users with status {}", status);
+        // Only this endpoint outlives the container's default async timeout; a large import takes minutes
+        return new WebAsyncTask<>(importTimeout.toMillis(), () -> {
+            response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+            OutputStream outputStream = response.getOutputStream();
+            Reader csv = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8);
+            userImportService.importUsers(csv, status, event -> {
+                try {
+                    outputStream.write(objectMapper.writeValueAsBytes(event));
+                    outputStream.write('\n');
+                    if (event.getType() != UserImportEventDTO.Type.ROW_ERROR) {
+                        outputStream.flush();
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            outputStream.flush();
+            return null;
+        });
     }
 
     @GetMapping("/search")
@@ -1,8 +1,8 @@
 package net.rafiee.onlineexam.controller.web;
 
-import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.enumuration.UserStatus;
 import net.rafiee.onlineexam.service.CourseService;
+import net.rafiee.onlineexam.service.StatisticsService;
 import net.rafiee.onlineexam.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -18,13 +18,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 @RequiredArgsConstructor
 public class AdminWebController {
     
+    private static final int DASHBOARD_LATEST_COUNT = 5;
+    
     private final UserService userService;
     private final CourseService courseService;
+    private final StatisticsService statisticsService;
     
     @GetMapping("/dashboard")
     public String dashboard(Model model) {
-        model.addAttribute("users", userService.getAllUsers());
-        model.addAttribute("courses", courseService.getAllCourses());
+        model.addAttribute("stats", statisticsService.getDashboardStats());
+        model.addAttribute("latestUsers", userService.getLatestUsers(DASHBOARD_LATEST_COUNT));
+        model.addAttribute("latestCourses", courseService.getLatestCourses(DASHBOARD_LATEST_COUNT));
         return "admin/dashboard";
     }
     
@@ -54,8 +58,6 @@ public class AdminWebController {
     @GetMapping("/courses/{id}")
     public String courseDetail(@PathVariable Long id, Model model) {
         model.addAttribute("course", courseService.getCourseById(id));
-        model.addAttribute("availableStudents", userService.getUsersByRole(UserRole.STUDENT));
-        model.addAttribute("availableInstructors", userService.getUsersByRole(UserRole.INSTRUCTOR));
         return "admin/course-detail";
     }
 }
\ No newline at end of file
@@ -0,0 +1,34 @@
+package net.rafiee.onlineexam.course;
+
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A modification counter for the course listing, so validating a cached page costs no query.
+ * Every write that can change a listed course bumps it, once when the write reaches the database
+ * and again when its transaction commits: a page read in between still shows the old rows, and
+ * the second bump retires the validator that page was served with.
+ * <p>
+ * The counter starts over with every run, so validators carry the time the application started
+ * and a client never revalidates against a counter value from an earlier run.
+ */
+@Component
+public class CourseListVersion {
+
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+
+    public void changed() {
+        version.incrementAndGet();
+        TransactionCallbacks.afterCommit(version::incrementAndGet);
+    }
+
+    /**
+     * @return a value that differs from every earlier one once the listing may have changed
+     */
+    public String current() {
+        return epoch + "-" + version.get();
+    }
+}
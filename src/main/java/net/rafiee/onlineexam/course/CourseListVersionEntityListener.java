@@ -0,0 +1,32 @@
+package net.rafiee.onlineexam.course;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bumps {@link CourseListVersion} for JPA writes that show in the course listing: any change to a
+ * course, its membership included since that increments the course version, and changes to
+ * instructors, whose names are listed.
+ */
+@Component
+@RequiredArgsConstructor
+public class CourseListVersionEntityListener {
+
+    private final CourseListVersion courseListVersion;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof Course
+                || entity instanceof User user && user.getRole() == UserRole.INSTRUCTOR) {
+            courseListVersion.changed();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package net.rafiee.onlineexam.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerBatchDTO {
+    
+    @NotEmpty(message = "هیچ پاسخی ارسال نشده است")
+    @Size(max = 500, message = "در هر درخواست حداکثر 500 پاسخ قابل ذخیره است")
+    @Valid
+    private List<AnswerDTO> answers;
+}
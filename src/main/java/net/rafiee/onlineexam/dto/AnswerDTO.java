@@ -0,0 +1,37 @@
+package net.rafiee.onlineexam.dto;
+
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnswerDTO {
+    
+    @NotNull(message = "شناسه سؤال الزامی است")
+    private Long questionId;
+    
+    // Indexes of the chosen options of a multiple-choice question, in the order the student's paper shows them;
+    // the exam's own option order when someone other than the student reads them
+    @Builder.Default
+    private List<Integer> selectedOptions = new ArrayList<>();
+    
+    private Boolean booleanAnswer;
+    
+    private Double numericAnswer;
+    
+    @Size(max = 10000, message = "پاسخ تشریحی نباید بیشتر از 10000 کاراکتر باشد")
+    private String textAnswer;
+    
+    // Ignored on input
+    private Instant savedAt;
+}
@@ -0,0 +1,29 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.rafiee.onlineexam.enumuration.AttemptStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttemptDTO {
+    private Long id;
+    private Long examId;
+    private Long studentId;
+    private AttemptStatus status;
+    private LocalDateTime startedAt;
+    private LocalDateTime deadline;
+    private LocalDateTime submittedAt;
+    private Double score;
+    private LocalDateTime gradedAt;
+    @Builder.Default
+    private List<AnswerDTO> answers = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEnrollmentResultDTO {
+    private Long courseId;
+    private int requested;
+    private int added;
+    private int skipped;
+    private int notFound;
+    private List<EnrollmentResultDTO> results;
+}
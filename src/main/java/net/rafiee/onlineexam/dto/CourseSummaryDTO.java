@@ -0,0 +1,27 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CourseSummaryDTO {
+    private Long id;
+    private String title;
+    private String courseCode;
+    private String description;
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private LocalDateTime createdAt;
+    private List<String> instructorNames;
+    private Integer instructorCount;
+    private Integer studentCount;
+}
@@ -0,0 +1,23 @@
+package net.rafiee.onlineexam.dto;
+
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardStatsDTO {
+    private long totalUsers;
+    private Map<UserRole, Long> usersByRole;
+    private Map<UserStatus, Long> usersByStatus;
+    private Map<UserRole, Map<UserStatus, Long>> usersByRoleAndStatus;
+    private long totalCourses;
+    private long totalEnrollments;
+}
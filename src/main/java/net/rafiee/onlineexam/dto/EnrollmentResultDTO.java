@@ -0,0 +1,17 @@
+package net.rafiee.onlineexam.dto;
+
+import net.rafiee.onlineexam.enumuration.EnrollmentOutcome;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EnrollmentResultDTO {
+    private Long studentId;
+    private EnrollmentOutcome outcome;
+    private String message;
+}
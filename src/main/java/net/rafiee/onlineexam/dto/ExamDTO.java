@@ -0,0 +1,46 @@
+package net.rafiee.onlineexam.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamDTO {
+    
+    @NotBlank(message = "عنوان آزمون الزامی است")
+    @Size(max = 200, message = "عنوان آزمون نباید بیشتر از 200 کاراکتر باشد")
+    private String title;
+    
+    @Size(max = 1000, message = "توضیحات نباید بیشتر از 1000 کاراکتر باشد")
+    private String description;
+    
+    @NotNull(message = "زمان شروع آزمون الزامی است")
+    private LocalDateTime startTime;
+    
+    @NotNull(message = "زمان پایان آزمون الزامی است")
+    private LocalDateTime endTime;
+    
+    @NotNull(message = "مدت آزمون الزامی است")
+    @Min(value = 1, message = "مدت آزمون باید حداقل یک دقیقه باشد")
+    @Max(value = 1440, message = "مدت آزمون نباید بیشتر از 24 ساعت باشد")
+    private Integer durationMinutes;
+    
+    @Valid
+    @Size(max = 500, message = "آزمون نباید بیشتر از 500 سؤال داشته باشد")
+    @Builder.Default
+    private List<QuestionDTO> questions = new ArrayList<>();
+}
@@ -0,0 +1,29 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamResponseDTO {
+    private Long id;
+    private Long courseId;
+    private String title;
+    private String description;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer durationMinutes;
+    private ExamStatus status;
+    private LocalDateTime publishedAt;
+    private LocalDateTime createdAt;
+    private Double totalPoints;
+    private List<QuestionDTO> questions;
+}
@@ -0,0 +1,24 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExamSummaryDTO {
+    private Long id;
+    private Long courseId;
+    private String title;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Integer durationMinutes;
+    private ExamStatus status;
+    private Integer questionCount;
+}
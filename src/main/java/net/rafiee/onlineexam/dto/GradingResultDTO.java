@@ -0,0 +1,20 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GradingResultDTO {
+    private Long examId;
+    private int gradedAttempts;
+    private double maxScore;
+    private double averageScore;
+    private LocalDateTime gradedAt;
+}
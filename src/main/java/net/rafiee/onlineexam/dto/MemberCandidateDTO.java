@@ -0,0 +1,17 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberCandidateDTO {
+    private Long id;
+    private String username;
+    private String fullName;
+    private String email;
+}
@@ -0,0 +1,21 @@
+package net.rafiee.onlineexam.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaperQuestionDTO {
+    private Long id;
+    private QuestionType type;
+    private String text;
+    private Double points;
+    private List<String> options;
+}
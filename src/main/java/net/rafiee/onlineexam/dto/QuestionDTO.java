@@ -0,0 +1,48 @@
+package net.rafiee.onlineexam.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionDTO {
+    
+    // Ignored on input
+    private Long id;
+    
+    @NotNull(message = "نوع سؤال الزامی است")
+    private QuestionType type;
+    
+    @NotBlank(message = "متن سؤال الزامی است")
+    @Size(max = 2000, message = "متن سؤال نباید بیشتر از 2000 کاراکتر باشد")
+    private String text;
+    
+    @NotNull(message = "نمره سؤال الزامی است")
+    @Positive(message = "نمره سؤال باید بیشتر از صفر باشد")
+    private Double points;
+    
+    @Valid
+    @Builder.Default
+    private List<QuestionOptionDTO> options = new ArrayList<>();
+    
+    private Boolean booleanAnswer;
+    
+    private Double numericAnswer;
+    
+    @PositiveOrZero(message = "بازه خطای پاسخ عددی نمی‌تواند منفی باشد")
+    private Double numericTolerance;
+}
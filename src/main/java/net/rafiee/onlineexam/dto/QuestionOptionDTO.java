@@ -0,0 +1,21 @@
+package net.rafiee.onlineexam.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionOptionDTO {
+    
+    @NotBlank(message = "متن گزینه الزامی است")
+    @Size(max = 500, message = "متن گزینه نباید بیشتر از 500 کاراکتر باشد")
+    private String text;
+    
+    private boolean correct;
+}
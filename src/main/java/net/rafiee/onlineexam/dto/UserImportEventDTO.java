@@ -0,0 +1,36 @@
+package net.rafiee.onlineexam.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One line of the newline-delimited JSON stream returned by the user import endpoint.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class UserImportEventDTO {
+
+    private Type type;
+
+    // ROW_ERROR
+    private Long line;
+    private String username;
+    private String message;
+
+    // PROGRESS / COMPLETED
+    private Long processed;
+    private Long imported;
+    private Long failed;
+
+    public enum Type {
+        ROW_ERROR,
+        PROGRESS,
+        COMPLETED
+    }
+}
@@ -0,0 +1,167 @@
+package net.rafiee.onlineexam.enrollment;
+
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of the {@code course_students} table as compressed bitmaps, one of student
+ * IDs per course and one of course IDs per student. Answers membership checks and set
+ * queries without touching the database.
+ * <p>
+ * Bitmaps are never modified once published: every change replaces the affected bitmaps
+ * with updated copies, so readers need no locking. The two directions are updated one after
+ * the other and may briefly disagree while a change is being applied.
+ * <p>
+ * Kept free of repository dependencies so that {@link EnrollmentIndexCollectionListener} can
+ * use it while the entity manager is being built; {@link EnrollmentIndexLoader} fills it at
+ * startup. IDs must fit in an {@code int}.
+ */
+@Component
+public class EnrollmentIndex {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    private final Map<Integer, RoaringBitmap> studentsByCourse = new ConcurrentHashMap<>();
+    private final Map<Integer, RoaringBitmap> coursesByStudent = new ConcurrentHashMap<>();
+
+    public boolean isEnrolled(long courseId, long studentId) {
+        return students(courseId).contains(key(studentId));
+    }
+
+    public int studentCount(long courseId) {
+        return students(courseId).getCardinality();
+    }
+
+    /**
+     * @return IDs of the courses the student attends, in ascending order
+     */
+    public List<Long> coursesOf(long studentId) {
+        return toIds(coursesByStudent.getOrDefault(key(studentId), EMPTY));
+    }
+
+    /**
+     * @return IDs of the students enrolled in both courses, in ascending order
+     */
+    public List<Long> sharedStudents(long courseId, long otherCourseId) {
+        return toIds(RoaringBitmap.and(students(courseId), students(otherCourseId)));
+    }
+
+    /**
+     * @return IDs of the students enrolled in {@code courseId} but not in {@code otherCourseId},
+     * in ascending order
+     */
+    public List<Long> studentsOnlyIn(long courseId, long otherCourseId) {
+        return toIds(RoaringBitmap.andNot(students(courseId), students(otherCourseId)));
+    }
+
+    public void enroll(long courseId, Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        RoaringBitmap added = toBitmap(studentIds);
+        studentsByCourse.compute(key(courseId), (id, current) -> union(current, added));
+        int course = key(courseId);
+        added.forEach((int student) -> coursesByStudent.compute(student, (id, current) -> with(current, course)));
+    }
+
+    public void unenroll(long courseId, Collection<Long> studentIds) {
+        if (studentIds.isEmpty()) {
+            return;
+        }
+        RoaringBitmap removed = toBitmap(studentIds);
+        studentsByCourse.computeIfPresent(key(courseId), (id, current) -> difference(current, removed));
+        int course = key(courseId);
+        removed.forEach((int student) -> coursesByStudent.computeIfPresent(student,
+                (id, current) -> without(current, course)));
+    }
+
+    public void removeCourse(long courseId) {
+        RoaringBitmap students = studentsByCourse.remove(key(courseId));
+        if (students != null) {
+            int course = key(courseId);
+            students.forEach((int student) -> coursesByStudent.computeIfPresent(student,
+                    (id, current) -> without(current, course)));
+        }
+    }
+
+    public void removeStudent(long studentId) {
+        RoaringBitmap courses = coursesByStudent.remove(key(studentId));
+        if (courses != null) {
+            int student = key(studentId);
+            courses.forEach((int course) -> studentsByCourse.computeIfPresent(course,
+                    (id, current) -> without(current, student)));
+        }
+    }
+
+    /**
+     * Replaces the whole index with bitmaps built by {@link EnrollmentIndexLoader}, which
+     * hands over ownership of them.
+     */
+    void replaceAll(Map<Integer, RoaringBitmap> studentsByCourse, Map<Integer, RoaringBitmap> coursesByStudent) {
+        studentsByCourse.values().forEach(RoaringBitmap::runOptimize);
+        coursesByStudent.values().forEach(RoaringBitmap::runOptimize);
+        this.studentsByCourse.clear();
+        this.studentsByCourse.putAll(studentsByCourse);
+        this.coursesByStudent.clear();
+        this.coursesByStudent.putAll(coursesByStudent);
+    }
+
+    public int courseCount() {
+        return studentsByCourse.size();
+    }
+
+    public long enrollmentCount() {
+        return studentsByCourse.values().stream().mapToLong(RoaringBitmap::getLongCardinality).sum();
+    }
+
+    static int key(long id) {
+        return Math.toIntExact(id);
+    }
+
+    private RoaringBitmap students(long courseId) {
+        return studentsByCourse.getOrDefault(key(courseId), EMPTY);
+    }
+
+    private static RoaringBitmap union(RoaringBitmap current, RoaringBitmap added) {
+        return current == null ? added : RoaringBitmap.or(current, added);
+    }
+
+    // Empty bitmaps are dropped so that the maps only hold courses and students with enrollments
+    private static RoaringBitmap difference(RoaringBitmap current, RoaringBitmap removed) {
+        RoaringBitmap result = RoaringBitmap.andNot(current, removed);
+        return result.isEmpty() ? null : result;
+    }
+
+    private static RoaringBitmap with(RoaringBitmap current, int value) {
+        RoaringBitmap result = current == null ? new RoaringBitmap() : current.clone();
+        result.add(value);
+        return result;
+    }
+
+    private static RoaringBitmap without(RoaringBitmap current, int value) {
+        if (!current.contains(value)) {
+            return current;
+        }
+        RoaringBitmap result = current.clone();
+        result.remove(value);
+        return result.isEmpty() ? null : result;
+    }
+
+    private static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        ids.forEach(id -> bitmap.add(key(id)));
+        return bitmap;
+    }
+
+    private static List<Long> toIds(RoaringBitmap bitmap) {
+        List<Long> ids = new ArrayList<>(bitmap.getCardinality());
+        bitmap.forEach((int id) -> ids.add((long) id));
+        return ids;
+    }
+}
@@ -0,0 +1,144 @@
+package net.rafiee.onlineexam.enrollment;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.hibernate.collection.spi.PersistentCollection;
+import org.hibernate.engine.spi.CollectionEntry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps {@link EnrollmentIndex} in step with changes to {@code Course.students} made through
+ * JPA. Changes are captured when the collection is flushed, by comparing it with the snapshot
+ * Hibernate took when it was loaded, and applied once the transaction commits.
+ * <p>
+ * Deleting a course whose students were never loaded removes its join rows without a
+ * collection event, so course deletions are handled on their own.
+ */
+@Component
+@Slf4j
+public class EnrollmentIndexCollectionListener implements PostCollectionRecreateEventListener,
+        PostCollectionUpdateEventListener, PostCollectionRemoveEventListener, PostDeleteEventListener {
+
+    private static final String STUDENTS_ROLE = Course.class.getName() + ".students";
+
+    private final EnrollmentIndex enrollmentIndex;
+
+    public EnrollmentIndexCollectionListener(EnrollmentIndex enrollmentIndex, EntityManagerFactory entityManagerFactory) {
+        this.enrollmentIndex = enrollmentIndex;
+        EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COLLECTION_RECREATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_UPDATE, this);
+        registry.appendListeners(EventType.POST_COLLECTION_REMOVE, this);
+        registry.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    @Override
+    public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+        Long courseId = studentsOwnerId(event);
+        if (courseId != null) {
+            Set<Long> enrolled = studentIds((Collection<?>) event.getCollection());
+            TransactionCallbacks.afterCommit(() -> enrollmentIndex.enroll(courseId, enrolled));
+        }
+    }
+
+    @Override
+    public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+        Long courseId = studentsOwnerId(event);
+        if (courseId == null) {
+            return;
+        }
+        PersistentCollection<?> collection = event.getCollection();
+        Set<Long> current = studentIds((Collection<?>) collection);
+        Set<Long> previous = snapshotStudentIds(collection.getStoredSnapshot());
+        if (previous == null) {
+            log.warn("No snapshot for the students of course {}; enrollment index not updated", courseId);
+            return;
+        }
+        Set<Long> added = new HashSet<>(current);
+        added.removeAll(previous);
+        Set<Long> removed = new HashSet<>(previous);
+        removed.removeAll(current);
+        TransactionCallbacks.afterCommit(() -> {
+            enrollmentIndex.unenroll(courseId, removed);
+            enrollmentIndex.enroll(courseId, added);
+        });
+    }
+
+    @Override
+    public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+        Long courseId = studentsOwnerId(event);
+        if (courseId != null) {
+            TransactionCallbacks.afterCommit(() -> enrollmentIndex.removeCourse(courseId));
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Course) {
+            long courseId = (Long) event.getId();
+            TransactionCallbacks.afterCommit(() -> enrollmentIndex.removeCourse(courseId));
+        }
+    }
+
+    @Override
+    public boolean requiresPostCommitHandling(EntityPersister persister) {
+        return false;
+    }
+
+    private static Long studentsOwnerId(AbstractCollectionEvent event) {
+        if (!(event.getAffectedOwnerOrNull() instanceof Course course)) {
+            return null;
+        }
+        // Newly wrapped collections only learn their role after the flush, their entry knows it already
+        CollectionEntry entry = event.getSession().getPersistenceContextInternal().getCollectionEntry(event.getCollection());
+        CollectionPersister persister = entry == null ? null
+                : entry.getCurrentPersister() != null ? entry.getCurrentPersister() : entry.getLoadedPersister();
+        return persister != null && STUDENTS_ROLE.equals(persister.getRole()) ? course.getId() : null;
+    }
+
+    // A set's snapshot maps each element to itself
+    private static Set<Long> snapshotStudentIds(Serializable snapshot) {
+        if (snapshot instanceof Map<?, ?> map) {
+            return studentIds(map.keySet());
+        }
+        if (snapshot instanceof Collection<?> collection) {
+            return studentIds(collection);
+        }
+        return null;
+    }
+
+    private static Set<Long> studentIds(Iterable<?> elements) {
+        Set<Long> ids = new HashSet<>();
+        elements.forEach(element -> {
+            if (element instanceof User user) {
+                ids.add(user.getId());
+            }
+        });
+        return ids;
+    }
+}
@@ -0,0 +1,38 @@
+package net.rafiee.onlineexam.enrollment;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.repository.CourseEnrollmentJdbcRepository;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fills the enrollment index from the {@code course_students} table at startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EnrollmentIndexLoader {
+
+    private final EnrollmentIndex enrollmentIndex;
+    private final CourseEnrollmentJdbcRepository enrollmentJdbcRepository;
+
+    @PostConstruct
+    public void load() {
+        Map<Integer, RoaringBitmap> studentsByCourse = new HashMap<>();
+        Map<Integer, RoaringBitmap> coursesByStudent = new HashMap<>();
+        enrollmentJdbcRepository.forEachEnrollment((courseId, studentId) -> {
+            int course = EnrollmentIndex.key(courseId);
+            int student = EnrollmentIndex.key(studentId);
+            studentsByCourse.computeIfAbsent(course, id -> new RoaringBitmap()).add(student);
+            coursesByStudent.computeIfAbsent(student, id -> new RoaringBitmap()).add(course);
+        });
+        enrollmentIndex.replaceAll(studentsByCourse, coursesByStudent);
+        log.info("Enrollment index loaded with {} enrollments in {} courses",
+                enrollmentIndex.enrollmentCount(), enrollmentIndex.courseCount());
+    }
+}
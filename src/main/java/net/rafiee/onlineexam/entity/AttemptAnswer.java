@@ -0,0 +1,56 @@
+package net.rafiee.onlineexam.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+/**
+ * The latest saved answer of an attempt to one question. Rows are written by
+ * {@link net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository} from the answer log, never
+ * through the persistence context.
+ */
+@Entity
+@Table(name = "attempt_answers",
+        uniqueConstraints = @UniqueConstraint(name = "uk_attempt_answers_attempt_question", columnNames = {"attempt_id", "question_id"}))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AttemptAnswer {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "attempt_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private ExamAttempt attempt;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "question_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Question question;
+    
+    // Bit i set when option i of a multiple-choice question is selected
+    @Column(nullable = false)
+    private int selectedOptions;
+    
+    private Boolean booleanAnswer;
+    
+    private Double numericAnswer;
+    
+    @Column(length = 10000)
+    private String textAnswer;
+    
+    // Answer log sequence of the save this row holds; older saves never overwrite newer ones
+    @Column(nullable = false)
+    private Long logSequence;
+    
+    @Column(nullable = false)
+    private LocalDateTime savedAt;
+}
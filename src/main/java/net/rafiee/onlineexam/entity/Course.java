@@ -1,8 +1,14 @@
 package net.rafiee.onlineexam.entity;
 
 import jakarta.persistence.*;
+import net.rafiee.onlineexam.course.CourseListVersionEntityListener;
+import net.rafiee.onlineexam.search.SearchIndexEntityListener;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -10,7 +16,10 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners({SearchIndexEntityListener.class, CourseListVersionEntityListener.class})
 @Table(name = "courses")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "course")
+@NaturalIdCache(region = "course-natural-id")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -25,6 +34,7 @@ public class Course {
     @Column(nullable = false, length = 200)
     private String title;
     
+    @NaturalId(mutable = true)
     @Column(nullable = false, unique = true, length = 50)
     private String courseCode;
     
@@ -40,21 +50,29 @@ public class Course {
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
+
+    // Incremented on every change, including instructor and student membership
+    @Version
+    private Long version;
     
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "course-instructors")
     @JoinTable(
         name = "course_instructors",
         joinColumns = @JoinColumn(name = "course_id"),
-        inverseJoinColumns = @JoinColumn(name = "instructor_id")
+        inverseJoinColumns = @JoinColumn(name = "instructor_id"),
+        indexes = @Index(name = "idx_course_instructors_instructor", columnList = "instructor_id, course_id")
     )
     @Builder.Default
     private Set<User> instructors = new HashSet<>();
     
     @ManyToMany
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "course-students")
     @JoinTable(
         name = "course_students",
         joinColumns = @JoinColumn(name = "course_id"),
-        inverseJoinColumns = @JoinColumn(name = "student_id")
+        inverseJoinColumns = @JoinColumn(name = "student_id"),
+        indexes = @Index(name = "idx_course_students_student", columnList = "student_id, course_id")
     )
     @Builder.Default
     private Set<User> students = new HashSet<>();
@@ -0,0 +1,83 @@
+package net.rafiee.onlineexam.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "exams", indexes = {
+    @Index(name = "idx_exams_course", columnList = "course_id, start_time"),
+    @Index(name = "idx_exams_status", columnList = "status")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Exam {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    // Exams go with their course; the database removes them when the course is deleted
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "course_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Course course;
+    
+    @Column(nullable = false, length = 200)
+    private String title;
+    
+    @Column(length = 1000)
+    private String description;
+    
+    @Column(nullable = false)
+    private LocalDateTime startTime;
+    
+    @Column(nullable = false)
+    private LocalDateTime endTime;
+    
+    @Column(nullable = false)
+    private Integer durationMinutes;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private ExamStatus status = ExamStatus.DRAFT;
+    
+    private LocalDateTime publishedAt;
+    
+    // Secret seed of every student's question and option order; 0 keeps the canonical order
+    @Column(nullable = false)
+    private long shuffleSalt;
+    
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    @Version
+    private Long version;
+    
+    @OneToMany(mappedBy = "exam", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("position")
+    @Builder.Default
+    private List<Question> questions = new ArrayList<>();
+    
+    public void addQuestion(Question question) {
+        question.setExam(this);
+        question.setPosition(questions.size());
+        questions.add(question);
+    }
+    
+    public void clearQuestions() {
+        questions.clear();
+    }
+}
@@ -0,0 +1,60 @@
+package net.rafiee.onlineexam.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import net.rafiee.onlineexam.enumuration.AttemptStatus;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "exam_attempts",
+        uniqueConstraints = @UniqueConstraint(name = "uk_exam_attempts_exam_student", columnNames = {"exam_id", "student_id"}),
+        indexes = {
+            @Index(name = "idx_exam_attempts_student", columnList = "student_id"),
+            @Index(name = "idx_exam_attempts_status", columnList = "status, deadline")
+        })
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExamAttempt {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "exam_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Exam exam;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "student_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private User student;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    @Builder.Default
+    private AttemptStatus status = AttemptStatus.IN_PROGRESS;
+    
+    @Column(nullable = false)
+    private LocalDateTime startedAt;
+    
+    // The earlier of the exam's duration after the start and the exam's end time
+    @Column(nullable = false)
+    private LocalDateTime deadline;
+    
+    private LocalDateTime submittedAt;
+    
+    // Points earned on the objective questions; descriptive ones are left to the instructor
+    private Double score;
+    
+    private LocalDateTime gradedAt;
+    
+    @Version
+    private Long version;
+}
@@ -0,0 +1,61 @@
+package net.rafiee.onlineexam.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "questions", indexes = @Index(name = "idx_questions_exam", columnList = "exam_id, position"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Question {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "exam_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Exam exam;
+    
+    @Column(nullable = false)
+    private Integer position;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private QuestionType type;
+    
+    @Column(nullable = false, length = 2000)
+    private String text;
+    
+    @Column(nullable = false)
+    private Double points;
+    
+    // Choices of a multiple-choice question, in the order the author wrote them
+    @ElementCollection
+    @CollectionTable(name = "question_options", joinColumns = @JoinColumn(name = "question_id"),
+            foreignKey = @ForeignKey(name = "fk_question_options_question",
+                    foreignKeyDefinition = "FOREIGN KEY (question_id) REFERENCES questions ON DELETE CASCADE"))
+    @OrderColumn(name = "option_index")
+    @BatchSize(size = 100)
+    @Builder.Default
+    private List<QuestionOption> options = new ArrayList<>();
+    
+    // Answer key of a true/false question
+    private Boolean booleanAnswer;
+    
+    // Answer key of a numeric question; answers within the tolerance are correct
+    private Double numericAnswer;
+    
+    private Double numericTolerance;
+}
@@ -0,0 +1,22 @@
+package net.rafiee.onlineexam.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Embeddable
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuestionOption {
+    
+    @Column(name = "option_text", nullable = false, length = 500)
+    private String text;
+    
+    @Column(nullable = false)
+    private boolean correct;
+}
@@ -3,8 +3,14 @@ package net.rafiee.onlineexam.entity;
 import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.enumuration.UserStatus;
 import jakarta.persistence.*;
+import net.rafiee.onlineexam.course.CourseListVersionEntityListener;
+import net.rafiee.onlineexam.search.SearchIndexEntityListener;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
@@ -12,7 +18,14 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@EntityListeners({SearchIndexEntityListener.class, CourseListVersionEntityListener.class})
+@Table(name = "users", indexes = {
+    @Index(name = "idx_users_role_status_id", columnList = "role, status, id"),
+    @Index(name = "idx_users_role_id", columnList = "role, id"),
+    @Index(name = "idx_users_status_id", columnList = "status, id")
+})
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user")
+@NaturalIdCache(region = "user-natural-id")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -24,6 +37,7 @@ public class User {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
     
+    @NaturalId
     @Column(nullable = false, unique = true, length = 50)
     private String username;
     
@@ -48,6 +62,13 @@ public class User {
     @Column(length = 20)
     private String phoneNumber;
     
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer tokenVersion = 0;
+
+    @Version
+    private Long version;
+    
     @CreationTimestamp
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -56,10 +77,12 @@ public class User {
     private LocalDateTime updatedAt;
     
     @ManyToMany(mappedBy = "instructors")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-instructed-courses")
     @Builder.Default
     private Set<Course> instructedCourses = new HashSet<>();
     
     @ManyToMany(mappedBy = "students")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-enrolled-courses")
     @Builder.Default
     private Set<Course> enrolledCourses = new HashSet<>();
 }
\ No newline at end of file
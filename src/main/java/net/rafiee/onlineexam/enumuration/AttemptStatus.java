@@ -0,0 +1,7 @@
+package net.rafiee.onlineexam.enumuration;
+
+public enum AttemptStatus {
+    IN_PROGRESS,
+    SUBMITTED,
+    GRADED
+}
@@ -0,0 +1,28 @@
+package net.rafiee.onlineexam.enumuration;
+
+/**
+ * Kinds of entries in the domain event journal. Entries store the name, so constants may be
+ * reordered but not renamed.
+ */
+public enum DomainEventType {
+    USER_REGISTERED,
+    USER_UPDATED,
+    USER_APPROVED,
+    USER_REJECTED,
+    USER_ROLE_CHANGED,
+    USER_DELETED,
+    COURSE_CREATED,
+    COURSE_UPDATED,
+    COURSE_DELETED,
+    COURSE_MEMBER_ADDED,
+    COURSE_MEMBER_REMOVED,
+    EXAM_CREATED,
+    EXAM_UPDATED,
+    EXAM_PUBLISHED,
+    EXAM_CLOSED,
+    EXAM_DELETED,
+    EXAM_GRADED,
+    ATTEMPT_STARTED,
+    ATTEMPT_SUBMITTED,
+    ATTEMPT_EXTENDED
+}
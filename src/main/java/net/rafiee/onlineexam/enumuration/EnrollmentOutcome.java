@@ -0,0 +1,10 @@
+package net.rafiee.onlineexam.enumuration;
+
+public enum EnrollmentOutcome {
+    ADDED,
+    ALREADY_ENROLLED,
+    DUPLICATE_IN_REQUEST,
+    NOT_STUDENT,
+    NOT_APPROVED,
+    NOT_FOUND
+}
@@ -0,0 +1,7 @@
+package net.rafiee.onlineexam.enumuration;
+
+public enum ExamStatus {
+    DRAFT,
+    PUBLISHED,
+    CLOSED
+}
@@ -0,0 +1,8 @@
+package net.rafiee.onlineexam.enumuration;
+
+public enum QuestionType {
+    MULTIPLE_CHOICE,
+    TRUE_FALSE,
+    NUMERIC,
+    DESCRIPTIVE
+}
@@ -0,0 +1,107 @@
+package net.rafiee.onlineexam.exam;
+
+/**
+ * The student paper of a published exam as serialized JSON fragments, put together for each
+ * student in the question and option order {@link ExamShuffle} derives for them. Every order has
+ * the same length, so a paper is one buffer of exactly the right size and one array copy per
+ * fragment.
+ * <p>
+ * Immutable and shared by every request.
+ */
+public final class ExamPaper {
+
+    private static final byte[] CLOSE_LIST = {']', '}'};
+
+    private final long examId;
+    private final long salt;
+    // The paper up to and including the opening bracket of its question list
+    private final byte[] head;
+    private final long[] questionIds;
+    // Each question up to and including the opening bracket of its option list
+    private final byte[][] questionHeads;
+    // The JSON string of every option of every question, in canonical order
+    private final byte[][][] options;
+    private final int size;
+    // The paper every student of an unshuffled exam receives
+    private final byte[] canonical;
+
+    ExamPaper(long examId, long salt, byte[] head, long[] questionIds, byte[][] questionHeads, byte[][][] options) {
+        this.examId = examId;
+        this.salt = salt;
+        this.head = head;
+        this.questionIds = questionIds;
+        this.questionHeads = questionHeads;
+        this.options = options;
+        int length = head.length + Math.max(questionIds.length - 1, 0) + CLOSE_LIST.length;
+        for (int question = 0; question < questionIds.length; question++) {
+            length += questionHeads[question].length + Math.max(options[question].length - 1, 0) + CLOSE_LIST.length;
+            for (byte[] option : options[question]) {
+                length += option.length;
+            }
+        }
+        this.size = length;
+        this.canonical = shuffled() ? null : write(0);
+    }
+
+    public boolean shuffled() {
+        return salt != ExamShuffle.UNSHUFFLED;
+    }
+
+    /**
+     * @return the length in bytes of the paper, the same for every student
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return UTF-8 JSON of the {@link net.rafiee.onlineexam.dto.ExamPaperDTO} in the student's
+     *         order; the paper of an unshuffled exam is shared, so it must never be modified
+     */
+    public byte[] render(long studentId) {
+        return shuffled() ? write(ExamShuffle.studentSeed(examId, studentId, salt)) : canonical;
+    }
+
+    private byte[] write(long studentSeed) {
+        byte[] paper = new byte[size];
+        int[] questionOrder = new int[questionIds.length];
+        int[] optionOrder = new int[ExamShuffle.MAX_SHUFFLED_OPTIONS];
+        arrange(studentSeed, questionOrder, questionIds.length);
+
+        int position = copy(head, paper, 0);
+        for (int i = 0; i < questionIds.length; i++) {
+            if (i > 0) {
+                paper[position++] = ',';
+            }
+            int question = questionOrder[i];
+            position = copy(questionHeads[question], paper, position);
+            byte[][] questionOptions = options[question];
+            int shuffledOptions = ExamShuffle.shuffledOptions(questionOptions.length);
+            arrange(ExamShuffle.optionSeed(studentSeed, questionIds[question]), optionOrder, shuffledOptions);
+            for (int option = 0; option < questionOptions.length; option++) {
+                if (option > 0) {
+                    paper[position++] = ',';
+                }
+                position = copy(questionOptions[option < shuffledOptions ? optionOrder[option] : option], paper, position);
+            }
+            position = copy(CLOSE_LIST, paper, position);
+        }
+        copy(CLOSE_LIST, paper, position);
+        return paper;
+    }
+
+    private void arrange(long seed, int[] order, int count) {
+        if (shuffled()) {
+            ExamShuffle.permute(seed, order, count);
+        } else {
+            for (int i = 0; i < count; i++) {
+                order[i] = i;
+            }
+        }
+    }
+
+    private static int copy(byte[] fragment, byte[] paper, int position) {
+        System.arraycopy(fragment, 0, paper, position, fragment.length);
+        return position + fragment.length;
+    }
+}
@@ -0,0 +1,108 @@
+package net.rafiee.onlineexam.exam;
+
+import java.security.SecureRandom;
+
+/**
+ * The order in which a student sees the questions of an exam and the options of each question,
+ * derived from the exam id, the student id and the exam's secret salt instead of being stored.
+ * Every order is a Fisher–Yates shuffle driven by a SplitMix64 stream, each 64-bit value serving
+ * several swaps, written into an array the caller provides; deriving the order of a handful of
+ * options costs one or two rounds of SplitMix64 and no allocation.
+ * <p>
+ * An order maps positions to canonical indexes: the student sees canonical question or option
+ * {@code order[i]} at position {@code i}. Answers are saved as the student gave them and mapped
+ * back with {@link #toCanonical} at grading time.
+ */
+public final class ExamShuffle {
+
+    /** The salt of exams published before shuffling existed, whose papers keep the canonical order. */
+    public static final long UNSHUFFLED = 0;
+
+    /** Options a selection bitmask can hold; any further options keep their place. */
+    public static final int MAX_SHUFFLED_OPTIONS = Integer.SIZE;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private static final SecureRandom SALTS = new SecureRandom();
+
+    private ExamShuffle() {
+    }
+
+    public static long newSalt() {
+        long salt;
+        do {
+            salt = SALTS.nextLong();
+        } while (salt == UNSHUFFLED);
+        return salt;
+    }
+
+    /**
+     * @return the seed of everything one student sees of one exam; the question order is
+     *         shuffled with it directly
+     */
+    public static long studentSeed(long examId, long studentId, long salt) {
+        return mix(mix(salt + examId * GOLDEN_GAMMA) ^ studentId);
+    }
+
+    public static long optionSeed(long studentSeed, long questionId) {
+        return mix(studentSeed + questionId * GOLDEN_GAMMA);
+    }
+
+    /**
+     * Writes a permutation of {@code 0..count-1} into the first {@code count} slots of
+     * {@code order}.
+     */
+    public static void permute(long seed, int[] order, int count) {
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        long state = seed;
+        long random = 0;
+        // Outcomes drawn from the current random value so far; it is renewed before 32 of its bits are spent
+        long used = 1L << 32;
+        for (int i = count - 1; i > 0; i--) {
+            int bound = i + 1;
+            if (used * bound > 1L << 32) {
+                state += GOLDEN_GAMMA;
+                random = mix(state);
+                used = 1;
+            }
+            // The high word of random * bound is uniform in 0..i; the low word holds the unused bits
+            int j = (int) (Math.multiplyHigh(random, bound) + ((random >> 63) & bound));
+            random *= bound;
+            used *= bound;
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+    }
+
+    /**
+     * @return how many leading options of a question with {@code optionCount} options are shuffled
+     */
+    public static int shuffledOptions(int optionCount) {
+        return Math.min(optionCount, MAX_SHUFFLED_OPTIONS);
+    }
+
+    /**
+     * Maps a selection bitmask from the positions a student saw to the canonical option indexes.
+     *
+     * @param order scratch space of at least {@link #MAX_SHUFFLED_OPTIONS} slots
+     */
+    public static int toCanonical(int shownOptions, long optionSeed, int optionCount, int[] order) {
+        int count = shuffledOptions(optionCount);
+        int shuffledMask = count == Integer.SIZE ? -1 : (1 << count) - 1;
+        permute(optionSeed, order, count);
+        int canonical = shownOptions & ~shuffledMask;
+        for (int bits = shownOptions & shuffledMask; bits != 0; bits &= bits - 1) {
+            canonical |= 1 << order[Integer.numberOfTrailingZeros(bits)];
+        }
+        return canonical;
+    }
+
+    // The SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
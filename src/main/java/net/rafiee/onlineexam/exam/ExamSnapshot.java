@@ -0,0 +1,31 @@
+package net.rafiee.onlineexam.exam;
+
+import net.rafiee.onlineexam.enumuration.QuestionType;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A published exam frozen at publish time: the student paper already serialized to JSON,
+ * plus what is needed to decide whether a student may receive it and to check the answers they
+ * save against it.
+ *
+ * @param questionTypes the type of every question of the exam, by question id
+ * @param eTag the ETag of the exam's version; see {@link #eTag(long)}
+ */
+public record ExamSnapshot(long examId,
+                           long courseId,
+                           LocalDateTime startTime,
+                           LocalDateTime endTime,
+                           int durationMinutes,
+                           Map<Long, QuestionType> questionTypes,
+                           String eTag,
+                           ExamPaper paper) {
+
+    /**
+     * @return the ETag of the paper the student receives, which differs per student once shuffled
+     */
+    public String eTag(long studentId) {
+        return paper.shuffled() ? eTag.substring(0, eTag.length() - 1) + "-" + studentId + "\"" : eTag;
+    }
+}
@@ -0,0 +1,92 @@
+package net.rafiee.onlineexam.exam;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.dto.ExamPaperDTO;
+import net.rafiee.onlineexam.dto.PaperQuestionDTO;
+import net.rafiee.onlineexam.entity.Exam;
+import net.rafiee.onlineexam.entity.Question;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+import org.springframework.stereotype.Component;
+
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Serializes a published exam into its {@link ExamSnapshot}. Runs once per publish (and per
+ * published exam at startup), never on the request path; requests only put the serialized
+ * fragments of the {@link ExamPaper} together in each student's order.
+ */
+@Component
+@RequiredArgsConstructor
+public class ExamSnapshotFactory {
+
+    private static final byte[] CLOSE_EMPTY_LIST = {'[', ']', '}'};
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param exam a published exam with its questions and options loaded
+     */
+    public ExamSnapshot freeze(Exam exam) {
+        List<Question> questions = exam.getQuestions();
+        ExamPaperDTO paper = ExamPaperDTO.builder()
+                .examId(exam.getId())
+                .courseId(exam.getCourse().getId())
+                .title(exam.getTitle())
+                .description(exam.getDescription())
+                .startTime(exam.getStartTime())
+                .endTime(exam.getEndTime())
+                .durationMinutes(exam.getDurationMinutes())
+                .totalPoints(questions.stream().mapToDouble(Question::getPoints).sum())
+                .questions(List.of())
+                .build();
+        long[] questionIds = new long[questions.size()];
+        byte[][] questionHeads = new byte[questions.size()][];
+        byte[][][] options = new byte[questions.size()][][];
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            questionIds[i] = question.getId();
+            questionHeads[i] = openList(toPaperQuestion(question));
+            options[i] = question.getOptions().stream().map(option -> write(option.getText())).toArray(byte[][]::new);
+        }
+        Map<Long, QuestionType> questionTypes = questions.stream()
+                .collect(Collectors.toUnmodifiableMap(Question::getId, Question::getType));
+        return new ExamSnapshot(exam.getId(), exam.getCourse().getId(), exam.getStartTime(), exam.getEndTime(),
+                exam.getDurationMinutes(), questionTypes, "\"exam-" + exam.getId() + "-" + exam.getVersion() + "\"",
+                new ExamPaper(exam.getId(), exam.getShuffleSalt(), openList(paper), questionIds, questionHeads, options));
+    }
+
+    // Serialized with an empty list as its last property, the JSON up to the list's opening bracket
+    // is the part shared by every order of the list
+    private byte[] openList(Object value) {
+        byte[] json = write(value);
+        int length = json.length - CLOSE_EMPTY_LIST.length + 1;
+        if (length < 1 || !Arrays.equals(json, length - 1, json.length, CLOSE_EMPTY_LIST, 0, CLOSE_EMPTY_LIST.length)) {
+            throw new IllegalStateException("The list must be the last property of " + value.getClass().getSimpleName());
+        }
+        return Arrays.copyOf(json, length);
+    }
+
+    private byte[] write(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static PaperQuestionDTO toPaperQuestion(Question question) {
+        return PaperQuestionDTO.builder()
+                .id(question.getId())
+                .type(question.getType())
+                .text(question.getText())
+                .points(question.getPoints())
+                .options(List.of())
+                .build();
+    }
+}
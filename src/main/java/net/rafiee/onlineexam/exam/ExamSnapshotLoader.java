@@ -0,0 +1,36 @@
+package net.rafiee.onlineexam.exam;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+import net.rafiee.onlineexam.repository.ExamRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Freezes every published exam into the snapshot store at startup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExamSnapshotLoader {
+
+    private final ExamSnapshotStore snapshotStore;
+    private final ExamSnapshotFactory snapshotFactory;
+    private final ExamRepository examRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void load() {
+        // Options are loaded lazily while serializing, so this needs a session
+        List<ExamSnapshot> snapshots = transactionTemplate.execute(status ->
+                examRepository.findWithQuestionsByStatus(ExamStatus.PUBLISHED).stream()
+                        .map(snapshotFactory::freeze)
+                        .toList());
+        snapshotStore.replaceAll(snapshots);
+        log.info("Exam snapshots loaded for {} published exams", snapshotStore.size());
+    }
+}
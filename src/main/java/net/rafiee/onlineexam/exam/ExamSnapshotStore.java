@@ -0,0 +1,63 @@
+package net.rafiee.onlineexam.exam;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Snapshots of all published exams, so that the burst of students opening an exam at its start
+ * time is served from memory without touching the database.
+ */
+@Component
+public class ExamSnapshotStore implements MeterBinder {
+
+    private final Map<Long, ExamSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    /**
+     * @return the snapshot of the exam, or {@code null} if it is not published
+     */
+    public ExamSnapshot get(long examId) {
+        return snapshots.get(examId);
+    }
+
+    public void put(ExamSnapshot snapshot) {
+        snapshots.put(snapshot.examId(), snapshot);
+    }
+
+    public void remove(long examId) {
+        snapshots.remove(examId);
+    }
+
+    public void removeCourse(long courseId) {
+        snapshots.values().removeIf(snapshot -> snapshot.courseId() == courseId);
+    }
+
+    void replaceAll(Collection<ExamSnapshot> loaded) {
+        snapshots.clear();
+        loaded.forEach(this::put);
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    long paperBytes() {
+        return snapshots.values().stream().mapToLong(snapshot -> snapshot.paper().size()).sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("exam.snapshots", this, ExamSnapshotStore::size)
+                .description("Published exams held in memory")
+                .register(registry);
+        Gauge.builder("exam.snapshots.bytes", this, ExamSnapshotStore::paperBytes)
+                .description("Size of one copy of each exam paper held in memory")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
@@ -0,0 +1,7 @@
+package net.rafiee.onlineexam.exception;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package net.rafiee.onlineexam.exception;
+
+public class ForbiddenException extends RuntimeException {
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,175 @@
+package net.rafiee.onlineexam.grading;
+
+import net.rafiee.onlineexam.entity.Exam;
+import net.rafiee.onlineexam.entity.Question;
+import net.rafiee.onlineexam.entity.QuestionOption;
+import net.rafiee.onlineexam.exam.ExamShuffle;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The answer key of an exam compiled for grading: one slot per question in primitive arrays,
+ * ordered by question id. A multiple-choice key is the bitmask of its correct options, compared
+ * with the student's selection in one instruction. Descriptive questions, and objective ones
+ * without a key, are worth nothing here; the instructor grades them. Selections are saved in the
+ * option order the student saw, and mapped back to canonical order from the student's seed while
+ * scoring, so no order is stored for any student.
+ * <p>
+ * Immutable, so one key is shared by every grading thread.
+ */
+public final class AnswerKey {
+
+    static final byte MULTIPLE_CHOICE = 0;
+    static final byte TRUE_FALSE = 1;
+    static final byte NUMERIC = 2;
+    static final byte UNGRADED = 3;
+
+    /** Option bits a bitmask can hold; saved selections are limited to the same. */
+    static final int MAX_OPTIONS = Integer.SIZE;
+
+    private final long examId;
+    private final long shuffleSalt;
+    private final long[] questionIds;
+    private final byte[] kinds;
+    // Correct-option bitmask of a multiple-choice question, 1 or 0 for a true/false one
+    private final int[] correctOptions;
+    private final int[] optionCounts;
+    private final double[] numericAnswers;
+    private final double[] tolerances;
+    private final double[] points;
+    private final double maxScore;
+
+    private AnswerKey(long examId, long shuffleSalt, long[] questionIds, byte[] kinds, int[] correctOptions,
+                      int[] optionCounts, double[] numericAnswers, double[] tolerances, double[] points) {
+        this.examId = examId;
+        this.shuffleSalt = shuffleSalt;
+        this.questionIds = questionIds;
+        this.kinds = kinds;
+        this.correctOptions = correctOptions;
+        this.optionCounts = optionCounts;
+        this.numericAnswers = numericAnswers;
+        this.tolerances = tolerances;
+        this.points = points;
+        double max = 0;
+        for (int i = 0; i < kinds.length; i++) {
+            if (kinds[i] != UNGRADED) {
+                max += points[i];
+            }
+        }
+        this.maxScore = max;
+    }
+
+    /**
+     * @param exam an exam with its questions and their options loaded
+     */
+    public static AnswerKey compile(Exam exam) {
+        return compile(exam.getId(), exam.getShuffleSalt(), exam.getQuestions());
+    }
+
+    /**
+     * @param questions the questions of the exam with their options loaded
+     */
+    public static AnswerKey compile(long examId, long shuffleSalt, Collection<Question> questions) {
+        List<Question> ordered = questions.stream().sorted(Comparator.comparing(Question::getId)).toList();
+        int size = ordered.size();
+        long[] questionIds = new long[size];
+        byte[] kinds = new byte[size];
+        int[] correctOptions = new int[size];
+        int[] optionCounts = new int[size];
+        double[] numericAnswers = new double[size];
+        double[] tolerances = new double[size];
+        double[] points = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            Question question = ordered.get(i);
+            questionIds[i] = question.getId();
+            points[i] = question.getPoints();
+            kinds[i] = UNGRADED;
+            switch (question.getType()) {
+                case MULTIPLE_CHOICE -> {
+                    List<QuestionOption> options = question.getOptions();
+                    optionCounts[i] = options.size();
+                    for (int option = 0; option < options.size() && option < MAX_OPTIONS; option++) {
+                        if (options.get(option).isCorrect()) {
+                            correctOptions[i] |= 1 << option;
+                        }
+                    }
+                    if (correctOptions[i] != 0) {
+                        kinds[i] = MULTIPLE_CHOICE;
+                    }
+                }
+                case TRUE_FALSE -> {
+                    if (question.getBooleanAnswer() != null) {
+                        kinds[i] = TRUE_FALSE;
+                        correctOptions[i] = question.getBooleanAnswer() ? 1 : 0;
+                    }
+                }
+                case NUMERIC -> {
+                    if (question.getNumericAnswer() != null) {
+                        kinds[i] = NUMERIC;
+                        numericAnswers[i] = question.getNumericAnswer();
+                        tolerances[i] = question.getNumericTolerance() != null ? question.getNumericTolerance() : 0;
+                    }
+                }
+                case DESCRIPTIVE -> {
+                }
+            }
+        }
+        return new AnswerKey(examId, shuffleSalt, questionIds, kinds, correctOptions, optionCounts, numericAnswers,
+                tolerances, points);
+    }
+
+    /**
+     * @return the slot of the question, or -1 if it is not part of the exam
+     */
+    public int indexOf(long questionId) {
+        int index = Arrays.binarySearch(questionIds, questionId);
+        return index >= 0 ? index : -1;
+    }
+
+    public int size() {
+        return questionIds.length;
+    }
+
+    /**
+     * @return the points of all automatically graded questions
+     */
+    public double maxScore() {
+        return maxScore;
+    }
+
+    /**
+     * Scores one attempt of the sheets: full points for an exactly right answer, none otherwise.
+     *
+     * @param optionOrder scratch space of {@link ExamShuffle#MAX_SHUFFLED_OPTIONS} slots
+     */
+    double score(AnswerSheets sheets, int attempt, int[] optionOrder) {
+        boolean shuffled = shuffleSalt != ExamShuffle.UNSHUFFLED;
+        long studentSeed = shuffled ? ExamShuffle.studentSeed(examId, sheets.studentIds[attempt], shuffleSalt) : 0;
+        int[] questions = sheets.questions;
+        int[] selectedOptions = sheets.selectedOptions;
+        byte[] booleanAnswers = sheets.booleanAnswers;
+        double[] numericAnswers = sheets.numericAnswers;
+        double score = 0;
+        for (int answer = sheets.firstAnswer[attempt], end = sheets.firstAnswer[attempt + 1]; answer < end; answer++) {
+            int question = questions[answer];
+            boolean correct = switch (kinds[question]) {
+                case MULTIPLE_CHOICE -> correctOptions[question] == (shuffled
+                        ? ExamShuffle.toCanonical(selectedOptions[answer],
+                                ExamShuffle.optionSeed(studentSeed, questionIds[question]), optionCounts[question], optionOrder)
+                        : selectedOptions[answer]);
+                case TRUE_FALSE -> booleanAnswers[answer] == correctOptions[question];
+                // NaN, an unanswered question, fails the comparison
+                case NUMERIC -> Math.abs(numericAnswers[answer] - this.numericAnswers[question]) <= tolerances[question];
+                default -> false;
+            };
+            if (correct) {
+                score += points[question];
+            }
+        }
+        return score;
+    }
+}
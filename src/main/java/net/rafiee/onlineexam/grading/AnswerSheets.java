@@ -0,0 +1,117 @@
+package net.rafiee.onlineexam.grading;
+
+import java.util.Arrays;
+
+/**
+ * The answers of many attempts of one exam, column by column in primitive arrays so that
+ * grading never touches an object per answer. The answers of attempt {@code i} are those from
+ * {@code firstAnswer[i]} up to {@code firstAnswer[i + 1]}; each refers to its question by its
+ * slot in the {@link AnswerKey} the sheets were built for.
+ */
+public final class AnswerSheets {
+
+    static final byte NO_ANSWER = -1;
+
+    final long[] attemptIds;
+    // Whose order the selections of each attempt are in
+    final long[] studentIds;
+    final int[] firstAnswer;
+    final int[] questions;
+    final int[] selectedOptions;
+    // 1 for true, 0 for false, NO_ANSWER
+    final byte[] booleanAnswers;
+    // NaN when not answered
+    final double[] numericAnswers;
+    private final int size;
+
+    private AnswerSheets(Builder builder) {
+        this.size = builder.attempts;
+        this.attemptIds = builder.attemptIds;
+        this.studentIds = builder.studentIds;
+        this.firstAnswer = builder.firstAnswer;
+        this.questions = builder.questions;
+        this.selectedOptions = builder.selectedOptions;
+        this.booleanAnswers = builder.booleanAnswers;
+        this.numericAnswers = builder.numericAnswers;
+    }
+
+    public static Builder builder(AnswerKey key) {
+        return new Builder(key);
+    }
+
+    /**
+     * @return the number of attempts
+     */
+    public int size() {
+        return size;
+    }
+
+    public long attemptId(int attempt) {
+        return attemptIds[attempt];
+    }
+
+    /**
+     * Collects attempts one after the other, each followed by its answers. Answers to questions
+     * that are not in the key are left out.
+     */
+    public static final class Builder {
+
+        private final AnswerKey key;
+        private long[] attemptIds = new long[64];
+        private long[] studentIds = new long[64];
+        private int[] firstAnswer = new int[65];
+        private int[] questions = new int[256];
+        private int[] selectedOptions = new int[256];
+        private byte[] booleanAnswers = new byte[256];
+        private double[] numericAnswers = new double[256];
+        private int attempts;
+        private int answers;
+
+        private Builder(AnswerKey key) {
+            this.key = key;
+        }
+
+        public Builder attempt(long attemptId, long studentId) {
+            if (attempts == attemptIds.length) {
+                attemptIds = Arrays.copyOf(attemptIds, attempts * 2);
+                studentIds = Arrays.copyOf(studentIds, attempts * 2);
+                firstAnswer = Arrays.copyOf(firstAnswer, attempts * 2 + 1);
+            }
+            studentIds[attempts] = studentId;
+            attemptIds[attempts++] = attemptId;
+            firstAnswer[attempts] = answers;
+            return this;
+        }
+
+        /**
+         * Adds an answer to the attempt added last.
+         *
+         * @param selectedOptions the selection in the option order the student saw
+         * @param booleanAnswer 1 for true, 0 for false, -1 when not answered
+         * @param numericAnswer NaN when not answered
+         */
+        public Builder answer(long questionId, int selectedOptions, byte booleanAnswer, double numericAnswer) {
+            int question = key.indexOf(questionId);
+            if (question < 0 || attempts == 0) {
+                return this;
+            }
+            if (answers == questions.length) {
+                int capacity = answers * 2;
+                questions = Arrays.copyOf(questions, capacity);
+                this.selectedOptions = Arrays.copyOf(this.selectedOptions, capacity);
+                booleanAnswers = Arrays.copyOf(booleanAnswers, capacity);
+                numericAnswers = Arrays.copyOf(numericAnswers, capacity);
+            }
+            questions[answers] = question;
+            this.selectedOptions[answers] = selectedOptions;
+            booleanAnswers[answers] = booleanAnswer;
+            numericAnswers[answers] = numericAnswer;
+            firstAnswer[attempts] = ++answers;
+            return this;
+        }
+
+        public AnswerSheets build() {
+            return new AnswerSheets(this);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package net.rafiee.onlineexam.grading;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grades the objective questions of many attempts at once on a dedicated fork-join pool, so a
+ * course's worth of attempts is graded on every core without holding up request threads.
+ */
+@Component
+@Slf4j
+public class GradingEngine implements MeterBinder {
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    public GradingEngine(@Value("${grading.parallelism:0}") int parallelism,
+                         @Value("${grading.chunk-size:256}") int chunkSize) {
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(poolSize, threadFactory(), null, false);
+        this.chunkSize = Math.max(1, chunkSize);
+        log.info("Grading pool started with {} threads, {} attempts per chunk", poolSize, this.chunkSize);
+    }
+
+    /**
+     * @return the score of every attempt of the sheets, in the same order
+     */
+    public double[] grade(AnswerKey key, AnswerSheets sheets) {
+        double[] scores = new double[sheets.size()];
+        if (sheets.size() > 0) {
+            pool.invoke(new GradingTask(key, sheets, scores, 0, sheets.size(), chunkSize));
+        }
+        return scores;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        new ExecutorServiceMetrics(pool, "grading", Tags.empty()).bindTo(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private static ForkJoinPool.ForkJoinWorkerThreadFactory threadFactory() {
+        AtomicInteger counter = new AtomicInteger();
+        return pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("grading-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
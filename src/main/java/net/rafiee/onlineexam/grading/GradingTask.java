@@ -0,0 +1,42 @@
+package net.rafiee.onlineexam.grading;
+
+import net.rafiee.onlineexam.exam.ExamShuffle;
+
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Grades a range of attempts, splitting it in halves until a chunk is small enough to grade in
+ * one go. Every attempt writes only its own slot of {@code scores}.
+ */
+final class GradingTask extends RecursiveAction {
+
+    private final AnswerKey key;
+    private final AnswerSheets sheets;
+    private final double[] scores;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+
+    GradingTask(AnswerKey key, AnswerSheets sheets, double[] scores, int from, int to, int chunkSize) {
+        this.key = key;
+        this.sheets = sheets;
+        this.scores = scores;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            int[] optionOrder = new int[ExamShuffle.MAX_SHUFFLED_OPTIONS];
+            for (int attempt = from; attempt < to; attempt++) {
+                scores[attempt] = key.score(sheets, attempt, optionOrder);
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new GradingTask(key, sheets, scores, from, middle, chunkSize),
+                new GradingTask(key, sheets, scores, middle, to, chunkSize));
+    }
+}
@@ -0,0 +1,18 @@
+package net.rafiee.onlineexam.journal;
+
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+
+import java.time.Instant;
+
+/**
+ * One entry of the domain event journal.
+ *
+ * @param sequence    position in the journal, assigned when the event is written; 0 before that
+ * @param aggregateId the user or course the event is about
+ * @param relatedId   the other party, such as the member added to a course, or {@code null}
+ * @param actor       username of whoever caused the event, or {@code null} for anonymous requests
+ * @param detail      event-specific value, such as the new role, or {@code null}
+ */
+public record DomainEvent(long sequence, Instant timestamp, DomainEventType type, long aggregateId,
+                          Long relatedId, String actor, String detail) {
+}
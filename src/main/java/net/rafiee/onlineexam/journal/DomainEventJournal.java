@@ -0,0 +1,193 @@
+package net.rafiee.onlineexam.journal;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit trail of user and course changes.
+ * <p>
+ * Events are captured on the request thread and, once the transaction commits, handed to a
+ * lock-free ring buffer. A single writer thread drains the buffer in batches into
+ * memory-mapped segment files, so requests never wait on disk. When the buffer is full the
+ * event is dropped and counted rather than slowing the request down.
+ */
+@Component
+@Slf4j
+public class DomainEventJournal implements MeterBinder {
+
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final int batchSize;
+    private final long idleWaitNanos;
+    private final EventRingBuffer ringBuffer;
+
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    private JournalAppender appender;
+    private Thread writer;
+    private volatile boolean running;
+    private volatile DistributionSummary batchSizes;
+    private volatile Timer batchWrites;
+
+    public DomainEventJournal(@Value("${journal.enabled:true}") boolean enabled,
+                              @Value("${journal.directory:data/journal}") Path directory,
+                              @Value("${journal.segment-size-mb:64}") int segmentSizeMb,
+                              @Value("${journal.ring-capacity:65536}") int ringCapacity,
+                              @Value("${journal.batch-size:1024}") int batchSize,
+                              @Value("${journal.idle-wait-ms:5}") long idleWaitMs) {
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSizeMb * 1024 * 1024;
+        this.batchSize = batchSize;
+        this.idleWaitNanos = TimeUnit.MILLISECONDS.toNanos(idleWaitMs);
+        this.ringBuffer = new EventRingBuffer(ringCapacity);
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            log.info("Domain event journal is disabled");
+            return;
+        }
+        appender = new JournalAppender(directory, segmentSize);
+        running = true;
+        writer = new Thread(this::writeLoop, "journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Domain event journal writing to {}", directory.toAbsolutePath());
+    }
+
+    /**
+     * Records an event once the surrounding transaction commits; events of rolled-back
+     * transactions are never written.
+     */
+    public void publish(DomainEventType type, long aggregateId, Long relatedId, String detail) {
+        if (!enabled) {
+            return;
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String actor = authentication == null || authentication instanceof AnonymousAuthenticationToken
+                ? null : authentication.getName();
+        DomainEvent event = new DomainEvent(0, Instant.now(), type, aggregateId, relatedId, actor, detail);
+        TransactionCallbacks.afterCommit(() -> {
+            if (!ringBuffer.offer(event)) {
+                dropped.incrementAndGet();
+            }
+        });
+    }
+
+    public void publish(DomainEventType type, long aggregateId) {
+        publish(type, aggregateId, null, null);
+    }
+
+    /**
+     * @return up to {@code limit} journaled events starting at {@code fromSequence}, oldest first
+     */
+    public List<DomainEvent> read(long fromSequence, int limit) {
+        List<DomainEvent> events = new ArrayList<>(Math.min(limit, 1024));
+        try {
+            new JournalReader(directory).replay(fromSequence, event -> {
+                events.add(event);
+                return events.size() < limit;
+            });
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return events;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("journal.ring.size", ringBuffer, EventRingBuffer::size)
+                .description("Events waiting to be written to the journal")
+                .register(registry);
+        FunctionCounter.builder("journal.events", written, AtomicLong::get)
+                .tag("outcome", "written")
+                .register(registry);
+        FunctionCounter.builder("journal.events", dropped, AtomicLong::get)
+                .tag("outcome", "dropped")
+                .description("Events lost because the ring buffer was full")
+                .register(registry);
+        FunctionCounter.builder("journal.events", failed, AtomicLong::get)
+                .tag("outcome", "failed")
+                .register(registry);
+        batchSizes = DistributionSummary.builder("journal.batch.size").register(registry);
+        batchWrites = Timer.builder("journal.batch.write")
+                .description("Time to append and force one batch")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+        appender.close();
+        log.info("Domain event journal closed after {} events, {} dropped", written.get(), dropped.get());
+    }
+
+    private void writeLoop() {
+        List<DomainEvent> batch = new ArrayList<>(batchSize);
+        long droppedReported = 0;
+        while (true) {
+            batch.clear();
+            if (ringBuffer.drainTo(batch, batchSize) == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(idleWaitNanos);
+                continue;
+            }
+            writeBatch(batch);
+            long droppedNow = dropped.get();
+            if (droppedNow != droppedReported) {
+                log.warn("Journal ring buffer overflowed, {} events dropped so far", droppedNow);
+                droppedReported = droppedNow;
+            }
+        }
+    }
+
+    private void writeBatch(List<DomainEvent> batch) {
+        long start = System.nanoTime();
+        try {
+            written.addAndGet(appender.append(batch));
+        } catch (IOException | RuntimeException ex) {
+            failed.addAndGet(batch.size());
+            log.error("Failed to write {} events to the journal", batch.size(), ex);
+        }
+        if (batchWrites != null) {
+            batchWrites.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package net.rafiee.onlineexam.journal;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a
+ * sequence number that tells producers and the consumer whose turn it is, so neither side
+ * ever blocks: a producer that finds the buffer full gets {@code false} back.
+ */
+final class EventRingBuffer {
+
+    private final DomainEvent[] slots;
+    private final AtomicLongArray turns;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    // Written only by the consumer; volatile so that size() can read it from other threads
+    private volatile long head;
+
+    EventRingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Ring buffer capacity must be a power of two: " + capacity);
+        }
+        this.slots = new DomainEvent[capacity];
+        this.turns = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            turns.set(i, i);
+        }
+    }
+
+    boolean offer(DomainEvent event) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = turns.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = event;
+                    // Publishes the slot to the consumer
+                    turns.set(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The consumer has not freed this slot yet
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Moves up to {@code max} published events into {@code batch}. Must only be called from the
+     * consumer thread.
+     */
+    int drainTo(List<DomainEvent> batch, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (turns.get(index) != position + 1) {
+                break;
+            }
+            batch.add(slots[index]);
+            slots[index] = null;
+            // Hands the slot back to producers for the next lap
+            turns.set(index, position + mask + 1);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
@@ -0,0 +1,126 @@
+package net.rafiee.onlineexam.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Appends events to memory-mapped segment files, starting a new segment when the current one
+ * is full. Not thread-safe: only the journal writer thread uses it.
+ */
+@Slf4j
+class JournalAppender implements AutoCloseable {
+
+    static final int MAX_PAYLOAD_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ByteBuffer payload = ByteBuffer.allocate(MAX_PAYLOAD_SIZE);
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private long nextSequence = 1;
+
+    JournalAppender(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < JournalFormat.HEADER_SIZE + JournalFormat.RECORD_OVERHEAD + MAX_PAYLOAD_SIZE) {
+            throw new IllegalArgumentException("Journal segment size is too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /**
+     * Writes the events, assigning them consecutive sequence numbers, and forces them to disk.
+     *
+     * @return the number of events written; events too large for a record are skipped
+     */
+    int append(List<DomainEvent> events) throws IOException {
+        int written = 0;
+        for (DomainEvent event : events) {
+            payload.clear();
+            try {
+                JournalFormat.encode(nextSequence, event, payload);
+            } catch (BufferOverflowException ex) {
+                log.warn("Skipping {} event for {}: larger than {} bytes", event.type(), event.aggregateId(), MAX_PAYLOAD_SIZE);
+                continue;
+            }
+            payload.flip();
+            if (segment.remaining() < JournalFormat.RECORD_OVERHEAD + payload.remaining()) {
+                rotate();
+            }
+            int position = segment.position();
+            int length = payload.remaining();
+            segment.putInt(position + 4, JournalFormat.checksum(payload));
+            segment.put(position + JournalFormat.RECORD_OVERHEAD, payload, 0, length);
+            // The length goes in last, readers treat a zero length as the end of the data
+            segment.putInt(position, length);
+            segment.position(position + JournalFormat.RECORD_OVERHEAD + length);
+            nextSequence++;
+            written++;
+        }
+        segment.force();
+        return written;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (segment != null) {
+            segment.force();
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Continues the newest segment after its last intact record, clearing whatever a crash
+     * left behind it.
+     */
+    private void recover() throws IOException {
+        List<Path> segments = JournalReader.segments(directory);
+        if (segments.isEmpty()) {
+            open(nextSequence);
+            return;
+        }
+        Path newest = segments.get(segments.size() - 1);
+        nextSequence = JournalFormat.firstSequence(newest);
+        channel = FileChannel.open(newest, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        if (!JournalFormat.hasValidHeader(segment)) {
+            JournalFormat.writeHeader(segment, nextSequence);
+        }
+        int end = JournalReader.read(segment, newest, true, event -> {
+            nextSequence = event.sequence() + 1;
+            return true;
+        }).offset();
+        for (int i = end; i < segment.limit() && i < end + JournalFormat.RECORD_OVERHEAD + MAX_PAYLOAD_SIZE; i++) {
+            segment.put(i, (byte) 0);
+        }
+        segment.position(end);
+        log.info("Journal resumed in {} at offset {}, next sequence {}", newest.getFileName(), end, nextSequence);
+    }
+
+    private void rotate() throws IOException {
+        close();
+        open(nextSequence);
+    }
+
+    private void open(long firstSequence) throws IOException {
+        Path path = directory.resolve(JournalFormat.segmentName(firstSequence));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        JournalFormat.writeHeader(segment, firstSequence);
+        segment.position(JournalFormat.HEADER_SIZE);
+        log.info("Started journal segment {}", path.getFileName());
+    }
+}
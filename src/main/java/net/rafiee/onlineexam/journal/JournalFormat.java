@@ -0,0 +1,109 @@
+package net.rafiee.onlineexam.journal;
+
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout of journal segments.
+ * <p>
+ * A segment is a fixed-size file named after the sequence of its first event. It starts with
+ * a header (magic, format version, first sequence) followed by records, each a payload length,
+ * the CRC32C of the payload and the payload itself. Unused space is zero, so a zero length
+ * marks the end of the written part.
+ */
+final class JournalFormat {
+
+    static final int MAGIC = 0x4A524E4C;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_OVERHEAD = 8;
+    static final String SEGMENT_SUFFIX = ".journal";
+
+    private JournalFormat() {
+    }
+
+    static String segmentName(long firstSequence) {
+        return String.format("%020d%s", firstSequence, SEGMENT_SUFFIX);
+    }
+
+    static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(SEGMENT_SUFFIX)
+                && name.length() > SEGMENT_SUFFIX.length()
+                && name.substring(0, name.length() - SEGMENT_SUFFIX.length()).chars().allMatch(Character::isDigit);
+    }
+
+    static void writeHeader(ByteBuffer segment, long firstSequence) {
+        segment.putInt(0, MAGIC);
+        segment.putInt(4, VERSION);
+        segment.putLong(8, firstSequence);
+    }
+
+    static boolean hasValidHeader(ByteBuffer segment) {
+        return segment.limit() >= HEADER_SIZE && segment.getInt(0) == MAGIC && segment.getInt(4) == VERSION;
+    }
+
+    /**
+     * Writes the payload of {@code event} into {@code payload}, from its current position.
+     *
+     * @throws java.nio.BufferOverflowException when the event does not fit
+     */
+    static void encode(long sequence, DomainEvent event, ByteBuffer payload) {
+        payload.putLong(sequence);
+        payload.putLong(event.timestamp().toEpochMilli());
+        putString(payload, event.type().name());
+        payload.putLong(event.aggregateId());
+        payload.put((byte) (event.relatedId() != null ? 1 : 0));
+        payload.putLong(event.relatedId() != null ? event.relatedId() : 0L);
+        putString(payload, event.actor());
+        putString(payload, event.detail());
+    }
+
+    static DomainEvent decode(ByteBuffer payload) {
+        long sequence = payload.getLong();
+        Instant timestamp = Instant.ofEpochMilli(payload.getLong());
+        DomainEventType type = DomainEventType.valueOf(getString(payload));
+        long aggregateId = payload.getLong();
+        boolean hasRelated = payload.get() != 0;
+        long relatedId = payload.getLong();
+        String actor = getString(payload);
+        String detail = getString(payload);
+        return new DomainEvent(sequence, timestamp, type, aggregateId, hasRelated ? relatedId : null, actor, detail);
+    }
+
+    static int checksum(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,123 @@
+package net.rafiee.onlineexam.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Replays journal segments in order, checking every record's CRC. Reading stops at the first
+ * damaged record of a segment: at the end of the newest segment that is a write in progress
+ * or torn by a crash, anywhere else it is reported and the rest of that segment is skipped.
+ */
+@Slf4j
+public class JournalReader {
+
+    private final Path directory;
+
+    public JournalReader(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Passes every intact event with a sequence of at least {@code fromSequence} to
+     * {@code consumer}, oldest first, until it returns {@code false}.
+     */
+    public void replay(long fromSequence, Predicate<DomainEvent> consumer) throws IOException {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i < segments.size(); i++) {
+            boolean newest = i == segments.size() - 1;
+            if (!newest && JournalFormat.firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            SegmentEnd end = read(mapReadOnly(segments.get(i)), segments.get(i), newest,
+                    event -> event.sequence() < fromSequence || consumer.test(event));
+            if (end.stopped()) {
+                return;
+            }
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(JournalFormat::isSegment)
+                    .sorted(Comparator.comparingLong(JournalFormat::firstSequence))
+                    .toList();
+        }
+    }
+
+    /**
+     * Reads the records of one segment.
+     *
+     * @param newest whether this is the segment currently written to, where a damaged record is
+     *               the expected end of the data rather than corruption
+     */
+    static SegmentEnd read(ByteBuffer segment, Path path, boolean newest, Predicate<DomainEvent> consumer) {
+        if (!JournalFormat.hasValidHeader(segment)) {
+            log.warn("Skipping journal segment {} with an invalid header", path);
+            return new SegmentEnd(JournalFormat.HEADER_SIZE, false);
+        }
+        int position = JournalFormat.HEADER_SIZE;
+        while (position + JournalFormat.RECORD_OVERHEAD <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            String damage = null;
+            DomainEvent event = null;
+            if (length < 0 || position + JournalFormat.RECORD_OVERHEAD + length > segment.limit()) {
+                damage = "invalid length " + length;
+            } else {
+                ByteBuffer payload = segment.slice(position + JournalFormat.RECORD_OVERHEAD, length);
+                if (JournalFormat.checksum(payload) != segment.getInt(position + 4)) {
+                    damage = "checksum mismatch";
+                } else {
+                    try {
+                        event = JournalFormat.decode(payload);
+                    } catch (RuntimeException ex) {
+                        damage = ex.toString();
+                    }
+                }
+            }
+            if (damage != null) {
+                if (newest) {
+                    log.debug("Journal segment {} ends with an incomplete record at offset {}: {}", path, position, damage);
+                } else {
+                    log.warn("Damaged record in journal segment {} at offset {} ({}), skipping the rest of the segment",
+                            path, position, damage);
+                }
+                break;
+            }
+            position += JournalFormat.RECORD_OVERHEAD + length;
+            if (!consumer.test(event)) {
+                return new SegmentEnd(position, true);
+            }
+        }
+        return new SegmentEnd(position, false);
+    }
+
+    static MappedByteBuffer mapReadOnly(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * @param offset  where the intact records of the segment end
+     * @param stopped whether the consumer asked to stop
+     */
+    record SegmentEnd(int offset, boolean stopped) {
+    }
+}
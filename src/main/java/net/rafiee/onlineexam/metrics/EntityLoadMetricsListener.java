@@ -0,0 +1,32 @@
+package net.rafiee.onlineexam.metrics;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counts entities loaded into a persistence context, whether from the database or the
+ * second-level cache, into the current request's {@link RequestPersistenceStats}.
+ */
+@Component
+public class EntityLoadMetricsListener implements PostLoadEventListener {
+
+    public EntityLoadMetricsListener(EntityManagerFactory entityManagerFactory) {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry()
+                .requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestPersistenceStats stats = RequestPersistenceStats.current();
+        if (stats != null) {
+            stats.entityLoaded();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package net.rafiee.onlineexam.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the Hibernate statements, entity loads and connection acquisition time of each
+ * request, tagged like {@code http.server.requests} so the two can be lined up per endpoint.
+ * Runs outside the security filters so authentication lookups are included.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+@RequiredArgsConstructor
+public class PersistenceMetricsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestPersistenceStats stats = RequestPersistenceStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestPersistenceStats.end();
+            record(request, stats);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestPersistenceStats stats) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Tags tags = Tags.of("method", request.getMethod(), "uri", pattern == null ? "UNKNOWN" : pattern.toString());
+
+        DistributionSummary.builder("hibernate.request.statements")
+                .description("JDBC statements executed by Hibernate per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getStatements());
+        DistributionSummary.builder("hibernate.request.entity.loads")
+                .description("Entities loaded into the persistence context per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getEntityLoads());
+        Timer.builder("hibernate.request.connection.acquire")
+                .description("Time spent acquiring JDBC connections per request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(stats.getConnectionAcquireNanos(), TimeUnit.NANOSECONDS);
+    }
+}
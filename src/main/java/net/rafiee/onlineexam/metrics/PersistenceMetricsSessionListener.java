@@ -0,0 +1,43 @@
+package net.rafiee.onlineexam.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Counts the JDBC statements and connection acquisition time of each Hibernate session into
+ * the current request's {@link RequestPersistenceStats}. Hibernate creates one instance per
+ * session (see {@code hibernate.session.events.auto}).
+ */
+public class PersistenceMetricsSessionListener implements SessionEventListener {
+
+    private long acquisitionStart;
+
+    @Override
+    public void jdbcConnectionAcquisitionStart() {
+        acquisitionStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcConnectionAcquisitionEnd() {
+        RequestPersistenceStats stats = RequestPersistenceStats.current();
+        if (stats != null) {
+            stats.connectionAcquired(System.nanoTime() - acquisitionStart);
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statementExecuted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statementExecuted();
+    }
+
+    private static void statementExecuted() {
+        RequestPersistenceStats stats = RequestPersistenceStats.current();
+        if (stats != null) {
+            stats.statementExecuted();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package net.rafiee.onlineexam.metrics;
+
+/**
+ * Persistence work done while serving the current request. Hibernate callbacks on the request
+ * thread add to it and {@link PersistenceMetricsFilter} records it once the request ends.
+ */
+public final class RequestPersistenceStats {
+
+    private static final ThreadLocal<RequestPersistenceStats> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private int entityLoads;
+    private long connectionAcquireNanos;
+
+    private RequestPersistenceStats() {
+    }
+
+    static RequestPersistenceStats begin() {
+        RequestPersistenceStats stats = new RequestPersistenceStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return the stats of the request being served on this thread, or {@code null} outside a request
+     */
+    static RequestPersistenceStats current() {
+        return CURRENT.get();
+    }
+
+    void statementExecuted() {
+        statements++;
+    }
+
+    void entityLoaded() {
+        entityLoads++;
+    }
+
+    void connectionAcquired(long nanos) {
+        connectionAcquireNanos += nanos;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public int getEntityLoads() {
+        return entityLoads;
+    }
+
+    public long getConnectionAcquireNanos() {
+        return connectionAcquireNanos;
+    }
+}
@@ -0,0 +1,85 @@
+package net.rafiee.onlineexam.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.attempt.SavedAnswer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Writes of saved answers from the answer log into {@code attempt_answers}. A row only ever moves
+ * forward in the log: an upsert carrying an older sequence than the row leaves it alone, so
+ * batches may be replayed or applied out of order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttemptAnswerJdbcRepository {
+
+    private static final String UPSERT_SQL =
+            "MERGE INTO attempt_answers a USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT), CAST(? AS INTEGER), " +
+            "CAST(? AS BOOLEAN), CAST(? AS DOUBLE PRECISION), CAST(? AS VARCHAR(10000)), CAST(? AS BIGINT), " +
+            "CAST(? AS TIMESTAMP(6)))) AS s (attempt_id, question_id, selected_options, boolean_answer, " +
+            "numeric_answer, text_answer, log_sequence, saved_at) " +
+            "ON a.attempt_id = s.attempt_id AND a.question_id = s.question_id " +
+            "WHEN MATCHED AND s.log_sequence > a.log_sequence THEN UPDATE SET selected_options = s.selected_options, " +
+            "boolean_answer = s.boolean_answer, numeric_answer = s.numeric_answer, text_answer = s.text_answer, " +
+            "log_sequence = s.log_sequence, saved_at = s.saved_at " +
+            "WHEN NOT MATCHED THEN INSERT (attempt_id, question_id, selected_options, boolean_answer, numeric_answer, " +
+            "text_answer, log_sequence, saved_at) VALUES (s.attempt_id, s.question_id, s.selected_options, " +
+            "s.boolean_answer, s.numeric_answer, s.text_answer, s.log_sequence, s.saved_at)";
+
+    private static final String SELECT_SQL =
+            "SELECT a.attempt_id, a.question_id, a.selected_options, a.boolean_answer, a.numeric_answer, " +
+            "a.text_answer, a.log_sequence, a.saved_at FROM attempt_answers a ";
+
+    private static final RowMapper<SavedAnswer> ANSWER_MAPPER = (rs, rowNum) -> new SavedAnswer(
+            rs.getLong("log_sequence"),
+            rs.getLong("attempt_id"),
+            rs.getLong("question_id"),
+            rs.getTimestamp("saved_at").toInstant(),
+            rs.getInt("selected_options"),
+            rs.getObject("boolean_answer", Boolean.class),
+            rs.getObject("numeric_answer", Double.class),
+            rs.getString("text_answer"));
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsertAll(List<SavedAnswer> answers) {
+        jdbcTemplate.batchUpdate(UPSERT_SQL, answers, BATCH_SIZE, AttemptAnswerJdbcRepository::bind);
+    }
+
+    public List<SavedAnswer> findByAttemptId(long attemptId) {
+        return jdbcTemplate.query(SELECT_SQL + "WHERE a.attempt_id = ? ORDER BY a.question_id", ANSWER_MAPPER, attemptId);
+    }
+
+    public void forEachAnswerOfActiveAttempts(Consumer<SavedAnswer> consumer) {
+        jdbcTemplate.query(SELECT_SQL + "JOIN exam_attempts t ON t.id = a.attempt_id WHERE t.status = 'IN_PROGRESS'",
+                (RowCallbackHandler) rs -> consumer.accept(ANSWER_MAPPER.mapRow(rs, 0)));
+    }
+
+    public long maxSequence() {
+        Long max = jdbcTemplate.queryForObject("SELECT MAX(log_sequence) FROM attempt_answers", Long.class);
+        return max != null ? max : 0;
+    }
+
+    private static void bind(PreparedStatement ps, SavedAnswer answer) throws SQLException {
+        ps.setLong(1, answer.attemptId());
+        ps.setLong(2, answer.questionId());
+        ps.setInt(3, answer.selectedOptions());
+        ps.setObject(4, answer.booleanAnswer(), Types.BOOLEAN);
+        ps.setObject(5, answer.numericAnswer(), Types.DOUBLE);
+        ps.setString(6, answer.textAnswer());
+        ps.setLong(7, answer.sequence());
+        ps.setTimestamp(8, Timestamp.from(answer.savedAt()));
+    }
+}
@@ -0,0 +1,112 @@
+package net.rafiee.onlineexam.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.grading.AnswerKey;
+import net.rafiee.onlineexam.grading.AnswerSheets;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * Reads the answers of an exam's submitted attempts straight into {@link AnswerSheets} and
+ * writes the scores back, without an entity or boxed value per row.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AttemptGradingJdbcRepository {
+
+    private static final String SELECT_ANSWERS =
+            "SELECT t.id, t.student_id, a.question_id, a.selected_options, a.boolean_answer, a.numeric_answer " +
+            "FROM exam_attempts t LEFT JOIN attempt_answers a ON a.attempt_id = t.id ";
+
+    // Graded attempts are included so that grading again, after late submissions, is complete
+    private static final String ANSWERS_SQL = SELECT_ANSWERS +
+            "WHERE t.exam_id = ? AND t.status IN ('SUBMITTED', 'GRADED') ORDER BY t.id";
+
+    private static final String ATTEMPT_ANSWERS_SQL = SELECT_ANSWERS +
+            "WHERE t.exam_id = :examId AND t.id IN (:attemptIds) AND t.status IN ('SUBMITTED', 'GRADED') ORDER BY t.id";
+
+    // The version moves on so that a copy of the attempt loaded earlier cannot overwrite the score
+    private static final String SCORE_SQL =
+            "UPDATE exam_attempts SET score = ?, graded_at = ?, status = 'GRADED', version = version + 1 " +
+            "WHERE id = ? AND status <> 'IN_PROGRESS'";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public AnswerSheets findSubmittedAnswers(long examId, AnswerKey key) {
+        AnswerSheets.Builder sheets = AnswerSheets.builder(key);
+        jdbcTemplate.query(ANSWERS_SQL, collect(sheets), examId);
+        return sheets.build();
+    }
+
+    /**
+     * @return the answers of those of the attempts that belong to the exam and are submitted
+     */
+    public AnswerSheets findSubmittedAnswers(long examId, Collection<Long> attemptIds, AnswerKey key) {
+        AnswerSheets.Builder sheets = AnswerSheets.builder(key);
+        if (!attemptIds.isEmpty()) {
+            namedParameterJdbcTemplate.query(ATTEMPT_ANSWERS_SQL, new MapSqlParameterSource()
+                    .addValue("examId", examId)
+                    .addValue("attemptIds", attemptIds), collect(sheets));
+        }
+        return sheets.build();
+    }
+
+    // Rows come ordered by attempt, so each attempt starts where the attempt id changes
+    private static RowCallbackHandler collect(AnswerSheets.Builder sheets) {
+        long[] lastAttemptId = {-1};
+        return rs -> {
+            long attemptId = rs.getLong(1);
+            if (attemptId != lastAttemptId[0]) {
+                sheets.attempt(attemptId, rs.getLong(2));
+                lastAttemptId[0] = attemptId;
+            }
+            long questionId = rs.getLong(3);
+            if (rs.wasNull()) {
+                // An attempt without any answer
+                return;
+            }
+            int selectedOptions = rs.getInt(4);
+            boolean booleanAnswer = rs.getBoolean(5);
+            byte booleanValue = rs.wasNull() ? -1 : (byte) (booleanAnswer ? 1 : 0);
+            double numericAnswer = rs.getDouble(6);
+            sheets.answer(questionId, selectedOptions, booleanValue, rs.wasNull() ? Double.NaN : numericAnswer);
+        };
+    }
+
+    /**
+     * Stores the scores, in the order of the sheets, and marks the attempts graded.
+     */
+    public void updateScores(AnswerSheets sheets, double[] scores, LocalDateTime gradedAt) {
+        Timestamp timestamp = Timestamp.valueOf(gradedAt);
+        for (int start = 0; start < sheets.size(); start += BATCH_SIZE) {
+            int offset = start;
+            int count = Math.min(BATCH_SIZE, sheets.size() - start);
+            jdbcTemplate.batchUpdate(SCORE_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setDouble(1, scores[offset + i]);
+                    ps.setTimestamp(2, timestamp);
+                    ps.setLong(3, sheets.attemptId(offset + i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return count;
+                }
+            });
+        }
+    }
+}
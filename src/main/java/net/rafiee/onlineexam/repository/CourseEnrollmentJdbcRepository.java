@@ -0,0 +1,155 @@
+package net.rafiee.onlineexam.repository;
+
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.course.CourseListVersion;
+import net.rafiee.onlineexam.enrollment.EnrollmentIndex;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.hibernate.Cache;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Set-based reads and writes on the course membership join tables, used where loading the
+ * {@code Course.students} or {@code User.enrolledCourses} collections would be too expensive.
+ * Writes bypass Hibernate, so they increment the affected courses' versions themselves, evict
+ * the affected second-level cache entries and update the {@link EnrollmentIndex} and the
+ * {@link CourseListVersion}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class CourseEnrollmentJdbcRepository {
+
+    // Skips a student already enrolled, e.g. by a concurrent bulk enrollment the index does not show yet
+    private static final String INSERT_ENROLLMENT_SQL =
+            "MERGE INTO course_students c USING (VALUES (CAST(? AS BIGINT), CAST(? AS BIGINT))) " +
+            "AS s (course_id, student_id) ON c.course_id = s.course_id AND c.student_id = s.student_id " +
+            "WHEN NOT MATCHED THEN INSERT (course_id, student_id) VALUES (s.course_id, s.student_id)";
+
+    private static final int BATCH_SIZE = 500;
+    private static final int IN_CLAUSE_CHUNK = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final EnrollmentIndex enrollmentIndex;
+    private final CourseListVersion courseListVersion;
+
+    public void forEachEnrollment(BiConsumer<Long, Long> courseAndStudent) {
+        jdbcTemplate.query("SELECT course_id, student_id FROM course_students",
+                (RowCallbackHandler) rs -> courseAndStudent.accept(rs.getLong(1), rs.getLong(2)));
+    }
+
+    /**
+     * Enrolls the students who are not enrolled yet.
+     *
+     * @return the students enrolled by this call, in the order given
+     */
+    public List<Long> insertEnrollments(Long courseId, List<Long> studentIds) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_ENROLLMENT_SQL, studentIds, BATCH_SIZE,
+                (ps, studentId) -> {
+                    ps.setLong(1, courseId);
+                    ps.setLong(2, studentId);
+                });
+        List<Long> inserted = new ArrayList<>(studentIds.size());
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // Anything but 0 is a row inserted; drivers may report SUCCESS_NO_INFO
+                if (count != 0) {
+                    inserted.add(studentIds.get(index));
+                }
+                index++;
+            }
+        }
+        if (!inserted.isEmpty()) {
+            incrementVersions(List.of(courseId));
+            // Evict now and again after commit so a concurrent read cannot re-cache the old collection
+            evictEnrollments(courseId, inserted);
+            List<Long> enrolled = List.copyOf(inserted);
+            TransactionCallbacks.afterCommit(() -> {
+                evictEnrollments(courseId, enrolled);
+                enrollmentIndex.enroll(courseId, enrolled);
+            });
+        }
+        return inserted;
+    }
+
+    /**
+     * Unenrolls the student, if enrolled.
+     *
+     * @return whether this call removed the enrollment
+     */
+    public boolean deleteEnrollment(Long courseId, Long studentId) {
+        if (jdbcTemplate.update("DELETE FROM course_students WHERE course_id = ? AND student_id = ?",
+                courseId, studentId) == 0) {
+            return false;
+        }
+        incrementVersions(List.of(courseId));
+        List<Long> removed = List.of(studentId);
+        evictEnrollments(courseId, removed);
+        TransactionCallbacks.afterCommit(() -> {
+            evictEnrollments(courseId, removed);
+            enrollmentIndex.unenroll(courseId, removed);
+        });
+        return true;
+    }
+
+    /**
+     * Removes the user from every course they attend or teach, so the user row can be deleted.
+     *
+     * @return the number of enrollments removed
+     */
+    public int deleteMemberships(Long userId) {
+        List<Long> courseIds = jdbcTemplate.queryForList(
+                "SELECT course_id FROM course_students WHERE student_id = ? "
+                        + "UNION SELECT course_id FROM course_instructors WHERE instructor_id = ?",
+                Long.class, userId, userId);
+        int enrollments = jdbcTemplate.update("DELETE FROM course_students WHERE student_id = ?", userId);
+        jdbcTemplate.update("DELETE FROM course_instructors WHERE instructor_id = ?", userId);
+        TransactionCallbacks.afterCommit(() -> enrollmentIndex.removeStudent(userId));
+        if (!courseIds.isEmpty()) {
+            incrementVersions(courseIds);
+            evictMemberships(userId, courseIds);
+            TransactionCallbacks.afterCommit(() -> evictMemberships(userId, courseIds));
+        }
+        return enrollments;
+    }
+
+    private void incrementVersions(List<Long> courseIds) {
+        for (int from = 0; from < courseIds.size(); from += IN_CLAUSE_CHUNK) {
+            namedParameterJdbcTemplate.update("UPDATE courses SET version = version + 1 WHERE id IN (:ids)",
+                    new MapSqlParameterSource("ids",
+                            courseIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK, courseIds.size()))));
+        }
+        courseListVersion.changed();
+    }
+
+    private void evictMemberships(Long userId, List<Long> courseIds) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        courseIds.forEach(courseId -> {
+            cache.evictEntityData(Course.class, courseId);
+            cache.evictCollectionData(Course.class.getName() + ".students", courseId);
+            cache.evictCollectionData(Course.class.getName() + ".instructors", courseId);
+        });
+        cache.evictCollectionData(User.class.getName() + ".enrolledCourses", userId);
+        cache.evictCollectionData(User.class.getName() + ".instructedCourses", userId);
+    }
+
+    private void evictEnrollments(Long courseId, List<Long> studentIds) {
+        Cache cache = entityManagerFactory.getCache().unwrap(Cache.class);
+        cache.evictEntityData(Course.class, courseId);
+        cache.evictCollectionData(Course.class.getName() + ".students", courseId);
+        String enrolledCourses = User.class.getName() + ".enrolledCourses";
+        studentIds.forEach(studentId -> cache.evictCollectionData(enrolledCourses, studentId));
+    }
+}
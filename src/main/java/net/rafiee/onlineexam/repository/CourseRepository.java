@@ -1,29 +1,110 @@
 package net.rafiee.onlineexam.repository;
 
 import net.rafiee.onlineexam.entity.Course;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CourseRepository extends JpaRepository<Course, Long> {
+public interface CourseRepository extends JpaRepository<Course, Long>, NaturalIdRepository {
+    
+    String SUMMARY_SELECT = "SELECT c.id AS id, c.title AS title, c.courseCode AS courseCode, " +
+            "c.description AS description, c.startDate AS startDate, c.endDate AS endDate, " +
+            "c.createdAt AS createdAt, SIZE(c.instructors) AS instructorCount, SIZE(c.students) AS studentCount " +
+            "FROM Course c ";
     
     Optional<Course> findByCourseCode(String courseCode);
     
+    default Optional<Course> findByNaturalCourseCode(String courseCode) {
+        return findBySimpleNaturalId(Course.class, courseCode);
+    }
+    
     boolean existsByCourseCode(String courseCode);
     
+    List<Course> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+    
     @Query("SELECT c FROM Course c JOIN c.instructors i WHERE i.id = :instructorId")
     List<Course> findByInstructorId(@Param("instructorId") Long instructorId);
     
-    @Query("SELECT c FROM Course c JOIN c.students s WHERE s.id = :studentId")
-    List<Course> findByStudentId(@Param("studentId") Long studentId);
+    @Query(SUMMARY_SELECT + "ORDER BY c.id")
+    List<CourseSummaryView> findAllSummaries();
+    
+    @Query(SUMMARY_SELECT + "WHERE c.id > :afterId ORDER BY c.id")
+    List<CourseSummaryView> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    @Query(SUMMARY_SELECT + "WHERE EXISTS (SELECT 1 FROM c.instructors i WHERE i.id = :instructorId) ORDER BY c.id")
+    List<CourseSummaryView> findSummariesByInstructorId(@Param("instructorId") Long instructorId);
+    
+    @Query(SUMMARY_SELECT + "ORDER BY c.id DESC")
+    List<CourseSummaryView> findLatestSummaries(Limit limit);
+    
+    @Query("SELECT COUNT(s) FROM Course c JOIN c.students s")
+    long countEnrollments();
+    
+    @Query(SUMMARY_SELECT + "WHERE c.id IN :ids")
+    List<CourseSummaryView> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+    
+    @Query("SELECT c.id AS id, c.courseCode AS courseCode, c.title AS title FROM Course c")
+    List<CourseSearchView> findAllSearchViews();
+    
+    @Query("SELECT c.id AS courseId, i.fullName AS fullName FROM Course c JOIN c.instructors i " +
+           "WHERE c.id IN :courseIds ORDER BY i.id")
+    List<CourseInstructorNameView> findInstructorNames(@Param("courseIds") Collection<Long> courseIds);
+    
+    @Query("SELECT i.id FROM Course c JOIN c.instructors i WHERE c.id = :courseId")
+    List<Long> findInstructorIds(@Param("courseId") Long courseId);
+    
+    @Query("SELECT c.version AS version, " +
+           "(SELECT COALESCE(SUM(s.version), 0) FROM Course cs JOIN cs.students s WHERE cs.id = c.id) + " +
+           "(SELECT COALESCE(SUM(i.version), 0) FROM Course ci JOIN ci.instructors i WHERE ci.id = c.id) AS memberVersions " +
+           "FROM Course c WHERE c.id = :id")
+    Optional<CourseVersionView> findVersionById(@Param("id") Long id);
+    
+    interface CourseSummaryView {
+        Long getId();
+        
+        String getTitle();
+        
+        String getCourseCode();
+        
+        String getDescription();
+        
+        LocalDate getStartDate();
+        
+        LocalDate getEndDate();
+        
+        LocalDateTime getCreatedAt();
+        
+        Integer getInstructorCount();
+        
+        Integer getStudentCount();
+    }
+    
+    interface CourseSearchView {
+        Long getId();
+        
+        String getCourseCode();
+        
+        String getTitle();
+    }
+    
+    interface CourseVersionView {
+        Long getVersion();
+        
+        Long getMemberVersions();
+    }
     
-    @Query("SELECT c FROM Course c WHERE " +
-           "LOWER(c.title) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-           "LOWER(c.courseCode) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Course> searchCourses(@Param("keyword") String keyword);
-}
\ No newline at end of file
+    interface CourseInstructorNameView {
+        Long getCourseId();
+        
+        String getFullName();
+    }
+}
@@ -0,0 +1,31 @@
+package net.rafiee.onlineexam.repository;
+
+import net.rafiee.onlineexam.attempt.ActiveAttempt;
+import net.rafiee.onlineexam.entity.ExamAttempt;
+import net.rafiee.onlineexam.enumuration.AttemptStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExamAttemptRepository extends JpaRepository<ExamAttempt, Long> {
+    
+    Optional<ExamAttempt> findByExamIdAndStudentId(Long examId, Long studentId);
+    
+    @Query("SELECT new net.rafiee.onlineexam.attempt.ActiveAttempt(a.id, a.exam.id, a.student.id, a.deadline) " +
+           "FROM ExamAttempt a WHERE a.status = :status")
+    List<ActiveAttempt> findActiveByStatus(@Param("status") AttemptStatus status);
+    
+    // Locked, so that an extension granted meanwhile either waits or is seen
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM ExamAttempt a WHERE a.id IN :ids AND a.status = :status")
+    List<ExamAttempt> findForUpdateByIdInAndStatus(@Param("ids") Collection<Long> ids,
+                                                   @Param("status") AttemptStatus status);
+}
@@ -0,0 +1,72 @@
+package net.rafiee.onlineexam.repository;
+
+import net.rafiee.onlineexam.entity.Exam;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExamRepository extends JpaRepository<Exam, Long> {
+    
+    String SUMMARY_SELECT = "SELECT e.id AS id, e.course.id AS courseId, e.title AS title, " +
+            "e.startTime AS startTime, e.endTime AS endTime, e.durationMinutes AS durationMinutes, " +
+            "e.status AS status, SIZE(e.questions) AS questionCount FROM Exam e ";
+    
+    @Query("SELECT e FROM Exam e LEFT JOIN FETCH e.questions WHERE e.id = :id")
+    Optional<Exam> findWithQuestionsById(@Param("id") Long id);
+    
+    @Query("SELECT DISTINCT e FROM Exam e LEFT JOIN FETCH e.questions WHERE e.status = :status")
+    List<Exam> findWithQuestionsByStatus(@Param("status") ExamStatus status);
+    
+    // Enough to map a student's selections back to canonical option order
+    @Query("SELECT q.id AS questionId, SIZE(q.options) AS optionCount, e.shuffleSalt AS shuffleSalt " +
+           "FROM Question q JOIN q.exam e WHERE e.id = :examId " +
+           "AND q.type = net.rafiee.onlineexam.enumuration.QuestionType.MULTIPLE_CHOICE")
+    List<OptionCountView> findOptionCountsByExamId(@Param("examId") Long examId);
+    
+    // Questions and their options go with the exam through the ON DELETE CASCADE foreign keys
+    @Modifying
+    @Query("DELETE FROM Exam e WHERE e.id = :id")
+    int deleteExamById(@Param("id") Long id);
+    
+    @Query(SUMMARY_SELECT + "WHERE e.course.id = :courseId ORDER BY e.startTime, e.id")
+    List<ExamSummaryView> findSummariesByCourseId(@Param("courseId") Long courseId);
+    
+    @Query(SUMMARY_SELECT + "WHERE e.course.id = :courseId AND e.status IN :statuses ORDER BY e.startTime, e.id")
+    List<ExamSummaryView> findSummariesByCourseIdAndStatusIn(@Param("courseId") Long courseId,
+                                                             @Param("statuses") Collection<ExamStatus> statuses);
+    
+    interface ExamSummaryView {
+        Long getId();
+        
+        Long getCourseId();
+        
+        String getTitle();
+        
+        LocalDateTime getStartTime();
+        
+        LocalDateTime getEndTime();
+        
+        Integer getDurationMinutes();
+        
+        ExamStatus getStatus();
+        
+        int getQuestionCount();
+    }
+    
+    interface OptionCountView {
+        Long getQuestionId();
+        
+        int getOptionCount();
+        
+        long getShuffleSalt();
+    }
+}
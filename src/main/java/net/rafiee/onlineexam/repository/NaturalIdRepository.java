@@ -0,0 +1,13 @@
+package net.rafiee.onlineexam.repository;
+
+import java.util.Optional;
+
+/**
+ * Repository fragment for lookups by {@code @NaturalId}. Unlike a derived
+ * {@code findByXxx} query these go through Hibernate's natural-id resolution, which is
+ * served from the second-level cache when the entity is cached.
+ */
+public interface NaturalIdRepository {
+
+    <T> Optional<T> findBySimpleNaturalId(Class<T> entityType, Object naturalId);
+}
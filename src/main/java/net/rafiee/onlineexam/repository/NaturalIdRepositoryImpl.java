@@ -0,0 +1,22 @@
+package net.rafiee.onlineexam.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public class NaturalIdRepositoryImpl implements NaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(readOnly = true)
+    public <T> Optional<T> findBySimpleNaturalId(Class<T> entityType, Object naturalId) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(entityType)
+                .loadOptional(naturalId);
+    }
+}
@@ -0,0 +1,52 @@
+package net.rafiee.onlineexam.repository;
+
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.entity.User;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Batched inserts into {@code users} for bulk imports, bypassing the persistence context.
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserJdbcRepository {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (username, email, password, full_name, " +
+            "role, status, phone_number, token_version, version, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertAll(List<User> users) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, users, BATCH_SIZE, (ps, user) -> bind(ps, user, now));
+    }
+
+    public void insert(User user) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, user, now));
+    }
+
+    private static void bind(PreparedStatement ps, User user, Timestamp now) throws SQLException {
+        ps.setString(1, user.getUsername());
+        ps.setString(2, user.getEmail());
+        ps.setString(3, user.getPassword());
+        ps.setString(4, user.getFullName());
+        ps.setString(5, user.getRole().name());
+        ps.setString(6, user.getStatus().name());
+        ps.setString(7, user.getPhoneNumber());
+        ps.setInt(8, user.getTokenVersion());
+        ps.setTimestamp(9, now);
+        ps.setTimestamp(10, now);
+    }
+}
@@ -3,20 +3,27 @@ package net.rafiee.onlineexam.repository;
 import net.rafiee.onlineexam.entity.User;
 import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.enumuration.UserStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        NaturalIdRepository {
 
     Optional<User> findByUsername(String username);
 
+    default Optional<User> findByNaturalUsername(String username) {
+        return findBySimpleNaturalId(User.class, username);
+    }
+
     Optional<User> findByEmail(String email);
 
     boolean existsByUsername(String username);
@@ -29,13 +36,111 @@ public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificat
 
     List<User> findByRoleAndStatus(UserRole role, UserStatus status);
 
-    @Query("SELECT u FROM User u WHERE " +
-            "LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
-            "LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<User> searchUsers(@Param("keyword") String keyword);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Ordering by the filtered column too lets the database walk idx_users_role_id / idx_users_status_id
+    // in order and stop after one page, instead of reading every match and sorting it
+    @Query("SELECT u FROM User u WHERE u.role = :role AND u.id > :afterId ORDER BY u.role, u.id")
+    List<User> findByRoleAndIdGreaterThanOrderByIdAsc(@Param("role") UserRole role,
+                                                      @Param("afterId") Long afterId,
+                                                      Limit limit);
+
+    @Query("SELECT u FROM User u WHERE u.status = :status AND u.id > :afterId ORDER BY u.status, u.id")
+    List<User> findByStatusAndIdGreaterThanOrderByIdAsc(@Param("status") UserStatus status,
+                                                        @Param("afterId") Long afterId,
+                                                        Limit limit);
+
+    @Query("SELECT u.username FROM User u WHERE u.username IN :usernames")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
+    String SEARCH_VIEW_SELECT = "SELECT u.id AS id, u.username AS username, u.fullName AS fullName, " +
+            "u.email AS email, u.role AS role, u.status AS status FROM User u ";
+
+    @Query(SEARCH_VIEW_SELECT)
+    List<UserSearchView> findAllSearchViews();
+
+    @Query(SEARCH_VIEW_SELECT + "WHERE u.username IN :usernames")
+    List<UserSearchView> findSearchViewsByUsernameIn(@Param("usernames") Collection<String> usernames);
+
+    // Lists every eligible user when the typeahead is empty; keyword lookups go through the search index.
+    // Role and status are fixed, so ordering by them as well keeps the order by id while following
+    // idx_users_role_status_id
+    String CANDIDATE_SELECT = "SELECT u.id AS id, u.username AS username, u.fullName AS fullName, u.email AS email " +
+            "FROM User u WHERE u.role = :role AND u.status = :status AND u.id > :afterId ";
+
+    @Query(CANDIDATE_SELECT + "AND NOT EXISTS (SELECT 1 FROM Course c JOIN c.students s " +
+            "WHERE c.id = :courseId AND s.id = u.id) ORDER BY u.role, u.status, u.id")
+    List<MemberCandidateView> findStudentCandidates(@Param("courseId") Long courseId,
+                                                    @Param("role") UserRole role,
+                                                    @Param("status") UserStatus status,
+                                                    @Param("afterId") Long afterId,
+                                                    Limit limit);
+
+    @Query(CANDIDATE_SELECT + "AND NOT EXISTS (SELECT 1 FROM Course c JOIN c.instructors i " +
+            "WHERE c.id = :courseId AND i.id = u.id) ORDER BY u.role, u.status, u.id")
+    List<MemberCandidateView> findInstructorCandidates(@Param("courseId") Long courseId,
+                                                       @Param("role") UserRole role,
+                                                       @Param("status") UserStatus status,
+                                                       @Param("afterId") Long afterId,
+                                                       Limit limit);
+
+    @Query("SELECT u.id AS id, u.username AS username, u.fullName AS fullName, u.email AS email " +
+            "FROM User u WHERE u.id IN :ids")
+    List<MemberCandidateView> findCandidateViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT u.role AS role, u.status AS status, COUNT(u) AS count FROM User u GROUP BY u.role, u.status")
+    List<RoleStatusCountView> countByRoleAndStatus();
+
+    List<User> findAllByOrderByIdDesc(Limit limit);
+
+    @Query("SELECT u.version FROM User u WHERE u.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.id AS id, u.tokenVersion AS tokenVersion FROM User u")
+    List<TokenVersionView> findAllTokenVersions();
 
     @Query("SELECT CASE WHEN COUNT(u) > 0 THEN true ELSE false END FROM User u " +
             "WHERE u.email = :email AND u.id <> :userId")
     boolean existsByEmailAndIdNot(@Param("email") String email, @Param("userId") Long userId);
-}
\ No newline at end of file
+
+    interface UserSearchView {
+        Long getId();
+
+        String getUsername();
+
+        String getFullName();
+
+        String getEmail();
+
+        UserRole getRole();
+
+        UserStatus getStatus();
+    }
+
+    interface MemberCandidateView {
+        Long getId();
+
+        String getUsername();
+
+        String getFullName();
+
+        String getEmail();
+    }
+
+    interface RoleStatusCountView {
+        UserRole getRole();
+
+        UserStatus getStatus();
+
+        long getCount();
+    }
+
+    interface TokenVersionView {
+        Long getId();
+
+        Integer getTokenVersion();
+    }
+}
@@ -0,0 +1,55 @@
+package net.rafiee.onlineexam.search;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps {@link SearchIndexService} in step with JPA writes. Field values are captured when the
+ * entity is flushed and applied once the transaction commits, so rolled-back changes never
+ * become searchable.
+ */
+@Component
+@RequiredArgsConstructor
+public class SearchIndexEntityListener {
+
+    private final SearchIndexService searchIndexService;
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Object entity) {
+        if (entity instanceof User user) {
+            long id = user.getId();
+            String username = user.getUsername();
+            String fullName = user.getFullName();
+            String email = user.getEmail();
+            UserRole role = user.getRole();
+            UserStatus status = user.getStatus();
+            TransactionCallbacks.afterCommit(() -> searchIndexService.indexUser(
+                    id, username, fullName, email, role, status));
+        } else if (entity instanceof Course course) {
+            long id = course.getId();
+            String courseCode = course.getCourseCode();
+            String title = course.getTitle();
+            TransactionCallbacks.afterCommit(() -> searchIndexService.indexCourse(id, courseCode, title));
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Object entity) {
+        if (entity instanceof User user) {
+            long id = user.getId();
+            TransactionCallbacks.afterCommit(() -> searchIndexService.removeUser(id));
+        } else if (entity instanceof Course course) {
+            long id = course.getId();
+            TransactionCallbacks.afterCommit(() -> searchIndexService.removeCourse(id));
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package net.rafiee.onlineexam.search;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+
+/**
+ * Fills the search indexes from the database at startup, and indexes rows written outside
+ * JPA (bulk JDBC imports), which the entity listener never sees.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexLoader {
+
+    private final SearchIndexService searchIndexService;
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+
+    @PostConstruct
+    public void load() {
+        userRepository.findAllSearchViews().forEach(this::indexUser);
+        courseRepository.findAllSearchViews().forEach(view ->
+                searchIndexService.indexCourse(view.getId(), view.getCourseCode(), view.getTitle()));
+        log.info("Search index loaded with {} users and {} courses",
+                searchIndexService.userCount(), searchIndexService.courseCount());
+    }
+
+    public void indexUsers(Collection<UserRepository.UserSearchView> views) {
+        views.forEach(this::indexUser);
+    }
+
+    private void indexUser(UserRepository.UserSearchView view) {
+        searchIndexService.indexUser(view.getId(), view.getUsername(), view.getFullName(), view.getEmail(),
+                view.getRole(), view.getStatus());
+    }
+}
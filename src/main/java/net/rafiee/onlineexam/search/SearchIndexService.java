@@ -0,0 +1,86 @@
+package net.rafiee.onlineexam.search;
+
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.LongPredicate;
+
+/**
+ * Holds the user and course search indexes. Kept free of repository dependencies so that
+ * {@link SearchIndexEntityListener} can use it while the entity manager is being built;
+ * {@link SearchIndexLoader} fills it at startup.
+ */
+@Component
+@Slf4j
+public class SearchIndexService {
+
+    // username, fullName, email
+    private final TrigramIndex<UserDocument> users = new TrigramIndex<>(3, 2, 1);
+    // courseCode, title
+    private final TrigramIndex<Void> courses = new TrigramIndex<>(3, 2);
+
+    private final int maxResults;
+
+    public SearchIndexService(@Value("${search.max-results:200}") int maxResults) {
+        this.maxResults = maxResults;
+    }
+
+    public void indexUser(long id, String username, String fullName, String email, UserRole role, UserStatus status) {
+        users.put(id, new UserDocument(role, status), username, fullName, email);
+    }
+
+    public void removeUser(long id) {
+        users.remove(id);
+    }
+
+    public void indexCourse(long id, String courseCode, String title) {
+        courses.put(id, null, courseCode, title);
+    }
+
+    public void removeCourse(long id) {
+        courses.remove(id);
+    }
+
+    /**
+     * @param role   only users with this role, or any role when {@code null}
+     * @param status only users with this status, or any status when {@code null}
+     * @return matching user IDs, best match first
+     */
+    public List<Long> searchUsers(String keyword, UserRole role, UserStatus status) {
+        return users.search(keyword,
+                document -> (role == null || document.role() == role) && (status == null || document.status() == status),
+                maxResults);
+    }
+
+    /**
+     * Typeahead lookup: users with the role and status whose username, full name or email
+     * starts with the keyword or has it at the start of a word.
+     *
+     * @param accept further condition on the user ID
+     * @return up to {@code limit} matching user IDs above {@code afterId}, in ascending order
+     */
+    public List<Long> searchUsersByPrefix(String keyword, UserRole role, UserStatus status, LongPredicate accept,
+                                          long afterId, int limit) {
+        return users.searchPrefix(keyword,
+                document -> document.role() == role && document.status() == status, accept, afterId, limit);
+    }
+
+    public List<Long> searchCourses(String keyword) {
+        return courses.search(keyword, null, maxResults);
+    }
+
+    public int userCount() {
+        return users.size();
+    }
+
+    public int courseCount() {
+        return courses.size();
+    }
+
+    private record UserDocument(UserRole role, UserStatus status) {
+    }
+}
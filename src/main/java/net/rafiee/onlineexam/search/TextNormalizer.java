@@ -0,0 +1,71 @@
+package net.rafiee.onlineexam.search;
+
+import java.util.Locale;
+
+/**
+ * Folds text to the form used by the search index so that visually identical Persian input
+ * matches regardless of keyboard layout: Arabic ya/kaf become Persian ones, hamza-carrying
+ * alefs and teh marbuta are folded, diacritics, tatweel and ZWNJ are dropped, Persian and
+ * Arabic-Indic digits become ASCII, and whitespace runs collapse to one space.
+ */
+public final class TextNormalizer {
+
+    private TextNormalizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder out = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = fold(text.charAt(i));
+            if (c == 0) {
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = out.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                out.append(' ');
+                pendingSpace = false;
+            }
+            out.append(c);
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    // Returns 0 for characters that are dropped entirely
+    private static char fold(char c) {
+        switch (c) {
+            case 'ي', 'ى': // Arabic ya, alef maksura
+                return 'ی';
+            case 'ك': // Arabic kaf
+                return 'ک';
+            case 'أ', 'إ', 'آ', 'ٱ': // alef with hamza, madda or wasla
+                return 'ا';
+            case 'ؤ': // waw with hamza
+                return 'و';
+            case 'ة', 'ۀ': // teh marbuta, heh with yeh
+                return 'ه';
+            case '‌', '‍', '‎', '‏', 'ـ': // ZWNJ, ZWJ, direction marks, tatweel
+                return 0;
+            case ' ':
+                return ' ';
+            default:
+                break;
+        }
+        if ((c >= 'ً' && c <= 'ٟ') || c == 'ٰ') {
+            return 0; // harakat and superscript alef
+        }
+        if (c >= '۰' && c <= '۹') {
+            return (char) ('0' + (c - '۰'));
+        }
+        if (c >= '٠' && c <= '٩') {
+            return (char) ('0' + (c - '٠'));
+        }
+        return c;
+    }
+}
@@ -0,0 +1,313 @@
+package net.rafiee.onlineexam.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * In-memory inverted index from character trigrams to document IDs, answering the same
+ * "field contains keyword" question as {@code LIKE '%keyword%'} without scanning every row.
+ * <p>
+ * Each document has a fixed number of text fields (normalized with {@link TextNormalizer}) and
+ * an arbitrary payload that queries can filter on. Candidates come from intersecting the
+ * posting lists of the query's trigrams and are then verified with a substring check, so
+ * results are exact. Queries shorter than three characters fall back to scanning the
+ * in-memory documents.
+ *
+ * @param <T> payload kept with each document, e.g. role and status for filtering
+ */
+public final class TrigramIndex<T> {
+
+    private final double[] fieldWeights;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document<T>> documents = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+
+    /**
+     * @param fieldWeights ranking weight of each field, in the order fields are passed to {@link #put}
+     */
+    public TrigramIndex(double... fieldWeights) {
+        this.fieldWeights = fieldWeights.clone();
+    }
+
+    public void put(long id, T payload, String... fields) {
+        if (fields.length != fieldWeights.length) {
+            throw new IllegalArgumentException("Expected " + fieldWeights.length + " fields but got " + fields.length);
+        }
+        String[] normalized = new String[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            normalized[i] = TextNormalizer.normalize(fields[i]);
+        }
+        long[] trigrams = trigrams(normalized);
+
+        lock.writeLock().lock();
+        try {
+            Document<T> previous = documents.put(id, new Document<>(normalized, trigrams, payload));
+            long[] previousTrigrams = previous == null ? new long[0] : previous.trigrams();
+            for (long trigram : previousTrigrams) {
+                if (Arrays.binarySearch(trigrams, trigram) < 0) {
+                    removePosting(trigram, id);
+                }
+            }
+            for (long trigram : trigrams) {
+                if (Arrays.binarySearch(previousTrigrams, trigram) < 0) {
+                    postings.computeIfAbsent(trigram, key -> new Postings()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Document<T> previous = documents.remove(id);
+            if (previous != null) {
+                for (long trigram : previous.trigrams()) {
+                    removePosting(trigram, id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            postings.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the IDs of documents with at least one field containing {@code query}, best
+     * matches first: exact field matches rank above prefix matches, which rank above matches
+     * at a word start, which rank above other substring matches, each scaled by the field
+     * weight. Ties keep ascending ID order.
+     */
+    public List<Long> search(String query, Predicate<? super T> filter, int limit) {
+        String needle = TextNormalizer.normalize(query);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+
+        List<ScoredId> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                documents.forEach((id, document) -> collect(id, document, needle, filter, matches));
+            } else {
+                for (long id : candidates(needle)) {
+                    collect(id, documents.get(id), needle, filter, matches);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return matches.stream()
+                .sorted(Comparator.comparingDouble(ScoredId::score).reversed().thenComparingLong(ScoredId::id))
+                .limit(limit)
+                .map(ScoredId::id)
+                .toList();
+    }
+
+    /**
+     * Returns, in ascending ID order, up to {@code limit} IDs above {@code afterId} of documents
+     * with a field that starts with {@code query} or has it at the start of a word, the matches a
+     * typeahead offers; {@code accept} can reject IDs, e.g. users already in a course.
+     */
+    public List<Long> searchPrefix(String query, Predicate<? super T> filter, LongPredicate accept,
+                                   long afterId, int limit) {
+        String needle = TextNormalizer.normalize(query);
+        if (needle.isEmpty()) {
+            return List.of();
+        }
+
+        List<Long> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                documents.forEach((id, document) -> {
+                    if (id > afterId && startsWord(id, document, needle, filter, accept)) {
+                        matches.add(id);
+                    }
+                });
+                matches.sort(null);
+                return matches.subList(0, Math.min(limit, matches.size()));
+            }
+            long[] ids = candidates(needle);
+            int from = Arrays.binarySearch(ids, afterId);
+            for (int i = from < 0 ? -(from + 1) : from + 1; i < ids.length && matches.size() < limit; i++) {
+                if (startsWord(ids[i], documents.get(ids[i]), needle, filter, accept)) {
+                    matches.add(ids[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return matches;
+    }
+
+    private static <T> boolean startsWord(long id, Document<T> document, String needle,
+                                          Predicate<? super T> filter, LongPredicate accept) {
+        if (filter != null && !filter.test(document.payload())) {
+            return false;
+        }
+        for (String field : document.fields()) {
+            if (matchQuality(field, needle) >= 2) {
+                return accept == null || accept.test(id);
+            }
+        }
+        return false;
+    }
+
+    private void collect(long id, Document<T> document, String needle, Predicate<? super T> filter, List<ScoredId> matches) {
+        if (filter != null && !filter.test(document.payload())) {
+            return;
+        }
+        double score = 0;
+        for (int i = 0; i < document.fields().length; i++) {
+            score += fieldWeights[i] * matchQuality(document.fields()[i], needle);
+        }
+        if (score > 0) {
+            matches.add(new ScoredId(id, score));
+        }
+    }
+
+    // Caller holds the read lock
+    private long[] candidates(String needle) {
+        long[] trigrams = trigrams(needle);
+        Postings[] lists = new Postings[trigrams.length];
+        int n = 0;
+        for (long trigram : trigrams) {
+            Postings list = postings.get(trigram);
+            if (list == null) {
+                return new long[0];
+            }
+            lists[n++] = list;
+        }
+        Arrays.sort(lists, Comparator.comparingInt(Postings::size));
+
+        long[] result = Arrays.copyOf(lists[0].ids, lists[0].size);
+        int size = result.length;
+        for (int l = 1; l < lists.length && size > 0; l++) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (lists[l].contains(result[i])) {
+                    result[kept++] = result[i];
+                }
+            }
+            size = kept;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int matchQuality(String field, String needle) {
+        int index = field.indexOf(needle);
+        if (index < 0) {
+            return 0;
+        }
+        if (index == 0) {
+            return field.length() == needle.length() ? 8 : 4;
+        }
+        do {
+            if (!Character.isLetterOrDigit(field.charAt(index - 1))) {
+                return 2;
+            }
+            index = field.indexOf(needle, index + 1);
+        } while (index > 0);
+        return 1;
+    }
+
+    private void removePosting(long trigram, long id) {
+        Postings list = postings.get(trigram);
+        if (list != null && list.remove(id) && list.size == 0) {
+            postings.remove(trigram);
+        }
+    }
+
+    // Sorted, distinct trigrams of all fields, each packed as three 16-bit chars
+    private static long[] trigrams(String... fields) {
+        int total = 0;
+        for (String field : fields) {
+            total += Math.max(0, field.length() - 2);
+        }
+        long[] trigrams = new long[total];
+        int n = 0;
+        for (String field : fields) {
+            for (int i = 0; i + 3 <= field.length(); i++) {
+                trigrams[n++] = ((long) field.charAt(i) << 32) | ((long) field.charAt(i + 1) << 16) | field.charAt(i + 2);
+            }
+        }
+        return Arrays.stream(trigrams).sorted().distinct().toArray();
+    }
+
+    private record Document<T>(String[] fields, long[] trigrams, T payload) {
+    }
+
+    private record ScoredId(long id, double score) {
+    }
+
+    /**
+     * Sorted, growable array of document IDs. New documents usually have the highest ID so
+     * appends are the common case.
+     */
+    private static final class Postings {
+
+        private long[] ids = new long[4];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int index = size == 0 || ids[size - 1] < id ? -(size + 1) : Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -(index + 1);
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -24,16 +24,14 @@ public class CustomUserDetailsService implements UserDetailsService {
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.findByNaturalUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("کاربر با نام کاربری " + username + " یافت نشد"));
         
-        return new org.springframework.security.core.userdetails.User(
+        return new UserPrincipal(
+                user.getId(),
                 user.getUsername(),
                 user.getPassword(),
                 user.getStatus() == UserStatus.APPROVED,
-                true,
-                true,
-                true,
                 getAuthorities(user)
         );
     }
@@ -1,12 +1,15 @@
 package net.rafiee.onlineexam.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.enumuration.UserStatus;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -15,40 +18,78 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    
+
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService customUserDetailsService;
-    
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request,
                                     HttpServletResponse response,
                                     FilterChain filterChain) throws ServletException, IOException {
         try {
             String jwt = getJwtFromRequest(request);
-            
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                UserDetails userDetails = customUserDetailsService.loadUserByUsername(username);
-                UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-                log.debug("Set authentication for user: {}", username);
+
+            if (StringUtils.hasText(jwt)) {
+                Claims claims = tokenProvider.verifyToken(jwt);
+                UserDetails userDetails = claims == null ? null : resolvePrincipal(claims);
+
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                    log.debug("Set authentication for user: {}", userDetails.getUsername());
+                }
             }
         } catch (Exception ex) {
             log.error("Could not set user authentication in security context", ex);
         }
-        
+
         filterChain.doFilter(request, response);
     }
-    
+
+    private UserDetails resolvePrincipal(Claims claims) {
+        String username = claims.getSubject();
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            log.debug("Ignoring logged-out token of user: {}", username);
+            return null;
+        }
+
+        Number userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Number.class);
+
+        if (userId == null) {
+            // Tokens issued before role/status claims existed still need the user record
+            UserDetails userDetails = principalCache.get(username, customUserDetailsService::loadUserByUsername);
+            return userDetails.isEnabled() ? userDetails : null;
+        }
+
+        Number tokenVersion = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Number.class);
+        String status = claims.get(JwtTokenProvider.CLAIM_STATUS, String.class);
+        String role = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+
+        if (tokenVersion == null || !tokenVersionRegistry.isCurrent(userId.longValue(), tokenVersion.intValue())) {
+            log.debug("Ignoring revoked token of user: {}", username);
+            return null;
+        }
+        if (!UserStatus.APPROVED.name().equals(status) || role == null) {
+            log.debug("Ignoring token of disabled user: {}", username);
+            return null;
+        }
+
+        return new UserPrincipal(userId.longValue(), username, "", true,
+                List.of(new SimpleGrantedAuthority("ROLE_" + role)));
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -56,4 +97,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         return null;
     }
-}
\ No newline at end of file
+}
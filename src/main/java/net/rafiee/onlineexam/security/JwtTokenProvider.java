@@ -2,7 +2,13 @@ package net.rafiee.onlineexam.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.entity.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -11,62 +17,120 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtTokenProvider {
-    
+
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_STATUS = "status";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
-    
+
     @Value("${jwt.expiration}")
     private long jwtExpirationInMs;
-    
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+
+    private final MeterRegistry meterRegistry;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    private Timer issueTimer;
+
+    private Timer verifyTimer;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        jwtParser = Jwts.parser()
+                .verifyWith(signingKey)
+                .build();
+        issueTimer = timer("issue");
+        verifyTimer = timer("verify");
     }
-    
+
     public String generateToken(Authentication authentication) {
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        
+
         Date now = new Date();
         Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
-        
-        return Jwts.builder()
+
+        return issueTimer.record(() -> Jwts.builder()
+                .id(UUID.randomUUID().toString())
                 .subject(userPrincipal.getUsername())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSigningKey())
-                .compact();
+                .signWith(signingKey)
+                .compact());
     }
-    
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        
-        return claims.getSubject();
+
+    /**
+     * Issues a self-contained token: role, status and token version travel in the claims so
+     * the authentication filter does not need to load the user.
+     */
+    public String generateToken(User user) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + jwtExpirationInMs);
+
+        return issueTimer.record(() -> Jwts.builder()
+                .id(UUID.randomUUID().toString())
+                .subject(user.getUsername())
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_STATUS, user.getStatus().name())
+                .claim(CLAIM_TOKEN_VERSION, user.getTokenVersion())
+                .issuedAt(now)
+                .expiration(expiryDate)
+                .signWith(signingKey)
+                .compact());
     }
-    
-    public boolean validateToken(String token) {
+
+    /**
+     * Parses and verifies the token once.
+     *
+     * @return the verified claims, or {@code null} if the token is invalid or expired
+     */
+    public Claims verifyToken(String token) {
+        return verifyTimer.record(() -> parseClaims(token));
+    }
+
+    private Claims parseClaims(String token) {
         try {
-            Jwts.parser()
-                    .verifyWith(getSigningKey())
-                    .build()
-                    .parseSignedClaims(token);
-            return true;
+            return jwtParser.parseSignedClaims(token).getPayload();
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
             log.error("Expired JWT token");
         } catch (UnsupportedJwtException ex) {
             log.error("Unsupported JWT token");
+        } catch (SignatureException ex) {
+            log.error("Invalid JWT signature");
         } catch (IllegalArgumentException ex) {
             log.error("JWT claims string is empty");
         }
-        return false;
+        return null;
+    }
+
+    public String getUsernameFromToken(String token) {
+        return jwtParser.parseSignedClaims(token)
+                .getPayload()
+                .getSubject();
+    }
+
+    public boolean validateToken(String token) {
+        return verifyToken(token) != null;
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder("security.jwt")
+                .description("JWT signing and verification time")
+                .tag("operation", operation)
+                .register(meterRegistry);
     }
 }
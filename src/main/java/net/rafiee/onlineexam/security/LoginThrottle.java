@@ -0,0 +1,103 @@
+package net.rafiee.onlineexam.security;
+
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-window failed-login counters per username and per client IP, kept in memory only.
+ * Each window is a single {@link AtomicLong} packing the window start (epoch seconds, high
+ * bits) and the failure count (low {@value #COUNT_BITS} bits), updated with CAS.
+ */
+@Component
+@Slf4j
+public class LoginThrottle {
+
+    private static final int COUNT_BITS = 20;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final ConcurrentMap<String, AtomicLong> usernameFailures = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> ipFailures = new ConcurrentHashMap<>();
+
+    private final int maxFailuresPerUsername;
+    private final int maxFailuresPerIp;
+    private final long windowSeconds;
+
+    public LoginThrottle(@Value("${login.throttle.max-failures-per-username:5}") int maxFailuresPerUsername,
+                         @Value("${login.throttle.max-failures-per-ip:50}") int maxFailuresPerIp,
+                         @Value("${login.throttle.window:PT15M}") Duration window) {
+        this.maxFailuresPerUsername = maxFailuresPerUsername;
+        this.maxFailuresPerIp = maxFailuresPerIp;
+        this.windowSeconds = window.toSeconds();
+    }
+
+    public void checkAllowed(String username, String clientIp) {
+        long now = nowSeconds();
+        long retryAfter = Math.max(
+                retryAfter(usernameFailures.get(username), maxFailuresPerUsername, now),
+                retryAfter(clientIp == null ? null : ipFailures.get(clientIp), maxFailuresPerIp, now));
+        if (retryAfter > 0) {
+            throw new TooManyRequestsException("تعداد تلاش‌های ناموفق ورود بیش از حد مجاز است. بعداً دوباره تلاش کنید", retryAfter);
+        }
+    }
+
+    public void recordFailure(String username, String clientIp) {
+        long now = nowSeconds();
+        increment(usernameFailures.computeIfAbsent(username, key -> new AtomicLong()), now);
+        if (clientIp != null) {
+            increment(ipFailures.computeIfAbsent(clientIp, key -> new AtomicLong()), now);
+        }
+    }
+
+    public void recordSuccess(String username) {
+        usernameFailures.remove(username);
+    }
+
+    @Scheduled(fixedDelayString = "${login.throttle.cleanup-interval:PT1M}")
+    public void evictExpiredWindows() {
+        long now = nowSeconds();
+        usernameFailures.values().removeIf(state -> isExpired(state.get(), now));
+        ipFailures.values().removeIf(state -> isExpired(state.get(), now));
+    }
+
+    private void increment(AtomicLong state, long now) {
+        long current;
+        long next;
+        do {
+            current = state.get();
+            if (isExpired(current, now)) {
+                next = (now << COUNT_BITS) | 1;
+            } else if ((current & COUNT_MASK) == COUNT_MASK) {
+                return;
+            } else {
+                next = current + 1;
+            }
+        } while (!state.compareAndSet(current, next));
+    }
+
+    private long retryAfter(AtomicLong state, int maxFailures, long now) {
+        if (state == null) {
+            return 0;
+        }
+        long current = state.get();
+        if (isExpired(current, now) || (current & COUNT_MASK) < maxFailures) {
+            return 0;
+        }
+        return windowSeconds - (now - (current >>> COUNT_BITS));
+    }
+
+    private boolean isExpired(long state, long now) {
+        return now - (state >>> COUNT_BITS) >= windowSeconds;
+    }
+
+    private static long nowSeconds() {
+        return System.currentTimeMillis() / 1000;
+    }
+}
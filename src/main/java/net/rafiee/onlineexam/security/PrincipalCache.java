@@ -0,0 +1,67 @@
+package net.rafiee.onlineexam.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+/**
+ * Bounded, time-limited cache of {@link UserDetails} used by {@link JwtAuthenticationFilter}
+ * so that authenticated requests do not query the users table every time.
+ */
+@Component
+@Slf4j
+public class PrincipalCache implements MeterBinder {
+
+    private final Cache<String, UserDetails> cache;
+
+    public PrincipalCache(@Value("${security.principal-cache.max-size:10000}") long maxSize,
+                          @Value("${security.principal-cache.ttl:PT5M}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public UserDetails get(String username, Function<String, UserDetails> loader) {
+        return cache.get(username, loader);
+    }
+
+    /**
+     * Evicts the user immediately and once more after the surrounding transaction commits,
+     * so a request running concurrently with the change cannot re-cache the old state.
+     */
+    public void invalidate(String username) {
+        cache.invalidate(username);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(username));
+        log.debug("Principal cache invalidated for user: {}", username);
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "principal");
+    }
+}
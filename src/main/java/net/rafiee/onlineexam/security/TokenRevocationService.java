@@ -0,0 +1,134 @@
+package net.rafiee.onlineexam.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Denylist of revoked token IDs ({@code jti}). A Bloom filter in front of the exact map answers
+ * "never revoked" without touching the map, which is the answer for almost every request.
+ * Entries are kept only until the token would have expired anyway.
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+
+    private final Map<String, Long> revokedUntil = new ConcurrentHashMap<>();
+    private final int expectedInsertions;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter bloomFilter;
+
+    public TokenRevocationService(@Value("${security.revocation.expected-insertions:100000}") int expectedInsertions,
+                                  @Value("${security.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null || !bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revokedUntil.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public synchronized void revoke(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        revokedUntil.put(tokenId, expiresAtMillis);
+        bloomFilter.put(tokenId);
+        log.debug("Token revoked: {}", tokenId);
+    }
+
+    public int size() {
+        return revokedUntil.size();
+    }
+
+    /**
+     * Drops entries whose tokens have expired and rebuilds the Bloom filter from what is left,
+     * since bits cannot be removed from it.
+     */
+    @Scheduled(fixedDelayString = "${security.revocation.cleanup-interval:PT5M}")
+    public synchronized void evictExpired() {
+        long now = System.currentTimeMillis();
+        int before = revokedUntil.size();
+        revokedUntil.values().removeIf(expiresAt -> expiresAt <= now);
+        if (revokedUntil.size() == before) {
+            return;
+        }
+
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedInsertions, revokedUntil.size()), falsePositiveRate);
+        revokedUntil.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        log.debug("Evicted {} expired revocations, {} remaining", before - revokedUntil.size(), revokedUntil.size());
+    }
+
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long m = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int words = (int) Math.max(1, (m + 63) >>> 6);
+            this.bits = new AtomicLongArray(words);
+            this.bitCount = (long) words << 6;
+            this.hashCount = Math.max(1, (int) Math.round((double) m / expectedInsertions * Math.log(2)));
+        }
+
+        void put(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                int word = (int) (index >>> 6);
+                long mask = 1L << index;
+                long current;
+                do {
+                    current = bits.get(word);
+                    if ((current & mask) != 0) {
+                        break;
+                    }
+                } while (!bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = ((h1 + (long) i * h2) & Long.MAX_VALUE) % bitCount;
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // FNV-1a over the UTF-16 chars followed by a murmur3 finalizer; no allocation
+        private static long hash(String key) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                h ^= key.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
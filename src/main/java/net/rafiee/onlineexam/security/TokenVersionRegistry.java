@@ -0,0 +1,53 @@
+package net.rafiee.onlineexam.security;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory copy of every user's current token version. A self-contained token is only
+ * accepted while its {@code ver} claim matches the version held here, so bumping the
+ * version (or removing a user) revokes all of that user's tokens without a per-request query.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenVersionRegistry {
+
+    private final UserRepository userRepository;
+
+    private final Map<Long, Integer> versions = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        userRepository.findAllTokenVersions()
+                .forEach(view -> versions.put(view.getId(), view.getTokenVersion()));
+        log.info("Loaded token versions for {} users", versions.size());
+    }
+
+    public boolean isCurrent(long userId, int tokenVersion) {
+        Integer current = versions.get(userId);
+        return current != null && current == tokenVersion;
+    }
+
+    public void register(long userId, int tokenVersion) {
+        versions.merge(userId, tokenVersion, Math::max);
+    }
+
+    /**
+     * Publishes a bumped version once the surrounding transaction commits.
+     */
+    public void updateAfterCommit(long userId, int tokenVersion) {
+        TransactionCallbacks.afterCommit(() -> register(userId, tokenVersion));
+    }
+
+    public void removeAfterCommit(long userId) {
+        TransactionCallbacks.afterCommit(() -> versions.remove(userId));
+    }
+}
@@ -0,0 +1,29 @@
+package net.rafiee.onlineexam.security;
+
+import lombok.Getter;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated user that also carries the user id, so handlers that act on the current user
+ * need not look it up by username.
+ */
+@Getter
+public class UserPrincipal extends User {
+
+    private final Long id;
+
+    public UserPrincipal(Long id, String username, String password, boolean enabled,
+                         Collection<? extends GrantedAuthority> authorities) {
+        super(username, password, enabled, true, true, true, authorities);
+        this.id = id;
+    }
+
+    public boolean hasRole(UserRole role) {
+        String authority = "ROLE_" + role.name();
+        return getAuthorities().stream().anyMatch(granted -> authority.equals(granted.getAuthority()));
+    }
+}
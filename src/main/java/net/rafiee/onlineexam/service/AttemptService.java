@@ -0,0 +1,26 @@
+package net.rafiee.onlineexam.service;
+
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.dto.AttemptDTO;
+import net.rafiee.onlineexam.security.UserPrincipal;
+
+import java.util.List;
+
+public interface AttemptService {
+
+    // شروع یا ادامه آزمون توسط دانشجو
+    AttemptDTO startAttempt(Long examId, UserPrincipal student);
+
+    AttemptDTO getAttempt(Long attemptId, UserPrincipal actor);
+
+    // ذخیره خودکار پاسخ‌ها
+    void saveAnswers(Long attemptId, List<AnswerDTO> answers, UserPrincipal student);
+
+    AttemptDTO submitAttempt(Long attemptId, UserPrincipal student);
+
+    // تمدید مهلت یک دانشجو، برای تمدید یا شرایط ویژه
+    AttemptDTO extendDeadline(Long attemptId, int extraMinutes, UserPrincipal actor);
+
+    // ارسال خودکار پاسخ‌نامه‌هایی که مهلتشان گذشته است
+    int autoSubmitAttempts(List<Long> attemptIds);
+}
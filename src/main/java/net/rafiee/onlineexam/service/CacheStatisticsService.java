@@ -0,0 +1,13 @@
+package net.rafiee.onlineexam.service;
+
+import net.rafiee.onlineexam.dto.CacheRegionStatsDTO;
+
+import java.util.List;
+
+public interface CacheStatisticsService {
+
+    /**
+     * Hit/miss counts for every Hibernate second-level cache region and the principal cache.
+     */
+    List<CacheRegionStatsDTO> getCacheStatistics();
+}
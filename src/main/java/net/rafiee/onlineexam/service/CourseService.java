@@ -1,9 +1,14 @@
 package net.rafiee.onlineexam.service;
 
 
+import net.rafiee.onlineexam.dto.BulkEnrollmentResultDTO;
 import net.rafiee.onlineexam.dto.CourseDTO;
 import net.rafiee.onlineexam.dto.CourseResponseDTO;
+import net.rafiee.onlineexam.dto.CourseSummaryDTO;
+import net.rafiee.onlineexam.dto.CursorPageDTO;
+import net.rafiee.onlineexam.dto.MemberCandidateDTO;
 import net.rafiee.onlineexam.dto.UserResponseDTO;
+import net.rafiee.onlineexam.enumuration.UserRole;
 
 import java.util.List;
 
@@ -13,15 +18,23 @@ public interface CourseService {
 
     CourseResponseDTO getCourseById(Long id);
 
+    String getCourseETag(Long id);
+
     CourseResponseDTO getCourseByCourseCode(String courseCode);
 
-    List<CourseResponseDTO> getAllCourses();
+    List<CourseSummaryDTO> getAllCourses();
+
+    CursorPageDTO<CourseSummaryDTO> getCoursesPage(String cursor, int size);
+
+    String getCoursesPageETag(String cursor, int size);
+
+    List<CourseSummaryDTO> getCoursesByInstructor(Long instructorId);
 
-    List<CourseResponseDTO> getCoursesByInstructor(Long instructorId);
+    List<CourseSummaryDTO> getCoursesByStudent(Long studentId);
 
-    List<CourseResponseDTO> getCoursesByStudent(Long studentId);
+    List<CourseSummaryDTO> getLatestCourses(int count);
 
-    List<CourseResponseDTO> searchCourses(String keyword);
+    List<CourseSummaryDTO> searchCourses(String keyword);
 
     CourseResponseDTO updateCourse(Long id, CourseDTO courseDTO);
 
@@ -33,14 +46,21 @@ public interface CourseService {
     CourseResponseDTO removeInstructorFromCourse(Long courseId, Long instructorId);
 
     // مدیریت دانشجو
-    CourseResponseDTO addStudentToCourse(Long courseId, Long studentId);
+    CourseSummaryDTO addStudentToCourse(Long courseId, Long studentId);
 
-    CourseResponseDTO removeStudentFromCourse(Long courseId, Long studentId);
+    CourseSummaryDTO removeStudentFromCourse(Long courseId, Long studentId);
 
-    CourseResponseDTO addMultipleStudentsToCourse(Long courseId, List<Long> studentIds);
+    BulkEnrollmentResultDTO addMultipleStudentsToCourse(Long courseId, List<Long> studentIds);
+
+    CursorPageDTO<MemberCandidateDTO> getEligibleMembers(Long courseId, UserRole role, String query, String cursor, int size);
 
     // مشاهده اعضای دوره
     List<UserResponseDTO> getCourseInstructors(Long courseId);
 
     List<UserResponseDTO> getCourseStudents(Long courseId);
+
+    // مقایسه دانشجویان دو دوره
+    List<Long> getSharedStudentIds(Long courseId, Long otherCourseId);
+
+    List<Long> getStudentIdsNotIn(Long courseId, Long otherCourseId);
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package net.rafiee.onlineexam.service;
+
+import net.rafiee.onlineexam.dto.ExamDTO;
+import net.rafiee.onlineexam.dto.ExamResponseDTO;
+import net.rafiee.onlineexam.dto.ExamSummaryDTO;
+import net.rafiee.onlineexam.exam.ExamSnapshot;
+import net.rafiee.onlineexam.security.UserPrincipal;
+
+import java.util.List;
+
+public interface ExamService {
+
+    ExamResponseDTO createExam(Long courseId, ExamDTO examDTO, UserPrincipal actor);
+
+    ExamResponseDTO getExamById(Long id, UserPrincipal actor);
+
+    List<ExamSummaryDTO> getCourseExams(Long courseId, UserPrincipal actor);
+
+    ExamResponseDTO updateExam(Long id, ExamDTO examDTO, UserPrincipal actor);
+
+    void deleteExam(Long id, UserPrincipal actor);
+
+    // انتشار و بستن آزمون
+    ExamResponseDTO publishExam(Long id, UserPrincipal actor);
+
+    ExamResponseDTO closeExam(Long id, UserPrincipal actor);
+
+    // برگه آزمون دانشجو، از نسخه منجمد در حافظه
+    ExamSnapshot getExamPaper(Long id, UserPrincipal student);
+}
@@ -0,0 +1,19 @@
+package net.rafiee.onlineexam.service;
+
+import net.rafiee.onlineexam.dto.GradingResultDTO;
+import net.rafiee.onlineexam.grading.AnswerKey;
+import net.rafiee.onlineexam.security.UserPrincipal;
+
+import java.util.Collection;
+
+public interface GradingService {
+
+    // نمره‌دهی دوباره پاسخ‌نامه‌های یک آزمون بسته‌شده، مثلاً پس از ارسال‌های دیرهنگام
+    GradingResultDTO gradeExam(Long examId, UserPrincipal actor);
+
+    // نمره‌دهی خودکار هنگام بستن آزمون، در تراکنشی جدا
+    GradingResultDTO gradeClosedExam(long examId, AnswerKey key);
+
+    // نمره‌دهی پاسخ‌نامه‌هایی که پس از بسته شدن آزمون ارسال شده‌اند، در تراکنشی جدا
+    void gradeLateAttempts(long examId, Collection<Long> attemptIds);
+}
@@ -0,0 +1,28 @@
+package net.rafiee.onlineexam.service;
+
+import net.rafiee.onlineexam.dto.DashboardStatsDTO;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+
+/**
+ * In-memory counters for the admin dashboard. Mutating services report their changes here
+ * (applied after commit); the counters are periodically reconciled against the database.
+ */
+public interface StatisticsService {
+
+    DashboardStatsDTO getDashboardStats();
+
+    void userCreated(UserRole role, UserStatus status, long count);
+
+    void userChanged(UserRole oldRole, UserStatus oldStatus, UserRole newRole, UserStatus newStatus);
+
+    void userDeleted(UserRole role, UserStatus status);
+
+    void courseCreated();
+
+    void courseDeleted(int enrollments);
+
+    void enrollmentsChanged(long delta);
+
+    void reconcile();
+}
@@ -0,0 +1,19 @@
+package net.rafiee.onlineexam.service;
+
+import net.rafiee.onlineexam.dto.UserImportEventDTO;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+
+import java.io.Reader;
+import java.util.function.Consumer;
+
+public interface UserImportService {
+
+    /**
+     * Imports users from CSV with a header row ({@code username,email,password,fullName,role,phoneNumber}).
+     * Rows are read and committed chunk by chunk; row errors and progress are reported to
+     * {@code listener} as they happen.
+     *
+     * @return the final summary event, also passed to {@code listener}
+     */
+    UserImportEventDTO importUsers(Reader csv, UserStatus initialStatus, Consumer<UserImportEventDTO> listener);
+}
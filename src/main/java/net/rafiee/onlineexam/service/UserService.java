@@ -6,6 +6,7 @@ import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.enumuration.UserStatus;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface UserService {
 
@@ -13,6 +14,8 @@ public interface UserService {
 
     UserResponseDTO getUserById(Long id);
 
+    String getUserETag(Long id);
+
     UserResponseDTO getUserByUsername(String username);
 
     List<UserResponseDTO> getAllUsers();
@@ -21,6 +24,14 @@ public interface UserService {
 
     List<UserResponseDTO> getUsersByStatus(UserStatus status);
 
+    CursorPageDTO<UserResponseDTO> getUsersPage(String cursor, int size);
+
+    CursorPageDTO<UserResponseDTO> getUsersByRolePage(UserRole role, String cursor, int size);
+
+    CursorPageDTO<UserResponseDTO> getUsersByStatusPage(UserStatus status, String cursor, int size);
+
+    List<UserResponseDTO> getLatestUsers(int count);
+
     List<UserResponseDTO> searchUsers(String keyword);
 
     // متد جدید: جستجوی پیشرفته با فیلتر
@@ -36,5 +47,7 @@ public interface UserService {
 
     void deleteUser(Long id);
 
-    LoginResponseDTO login(LoginRequestDTO loginRequest);
+    CompletableFuture<LoginResponseDTO> login(LoginRequestDTO loginRequest, String clientIp);
+
+    void logout(String bearerToken);
 }
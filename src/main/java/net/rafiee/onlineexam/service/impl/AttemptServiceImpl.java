@@ -0,0 +1,392 @@
+package net.rafiee.onlineexam.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.attempt.ActiveAttempt;
+import net.rafiee.onlineexam.attempt.ActiveAttempts;
+import net.rafiee.onlineexam.attempt.AnswerStore;
+import net.rafiee.onlineexam.attempt.SavedAnswer;
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.dto.AttemptDTO;
+import net.rafiee.onlineexam.enrollment.EnrollmentIndex;
+import net.rafiee.onlineexam.entity.ExamAttempt;
+import net.rafiee.onlineexam.enumuration.AttemptStatus;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.exam.ExamShuffle;
+import net.rafiee.onlineexam.exam.ExamSnapshot;
+import net.rafiee.onlineexam.exam.ExamSnapshotStore;
+import net.rafiee.onlineexam.exception.BadRequestException;
+import net.rafiee.onlineexam.exception.ConflictException;
+import net.rafiee.onlineexam.exception.ForbiddenException;
+import net.rafiee.onlineexam.exception.ResourceNotFoundException;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository;
+import net.rafiee.onlineexam.repository.ExamAttemptRepository;
+import net.rafiee.onlineexam.repository.ExamRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import net.rafiee.onlineexam.service.AttemptService;
+import net.rafiee.onlineexam.service.GradingService;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class AttemptServiceImpl implements AttemptService {
+
+    private static final int MAX_OPTIONS = 32;
+    private static final int MAX_EXTENSION_MINUTES = 1440;
+
+    private final ExamAttemptRepository attemptRepository;
+    private final ExamRepository examRepository;
+    private final UserRepository userRepository;
+    private final AttemptAnswerJdbcRepository answerRepository;
+    private final ExamSnapshotStore snapshotStore;
+    private final EnrollmentIndex enrollmentIndex;
+    private final ActiveAttempts activeAttempts;
+    private final AnswerStore answerStore;
+    private final DomainEventJournal eventJournal;
+    private final GradingService gradingService;
+
+    @Override
+    public AttemptDTO startAttempt(Long examId, UserPrincipal student) {
+        log.debug("Student {} starting exam {}", student.getId(), examId);
+
+        ExamSnapshot snapshot = snapshotStore.get(examId);
+        if (snapshot == null) {
+            throw new ResourceNotFoundException("آزمون یافت نشد");
+        }
+        if (!enrollmentIndex.isEnrolled(snapshot.courseId(), student.getId())) {
+            throw new ForbiddenException("شما در این دوره ثبت‌نام نکرده‌اید");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(snapshot.startTime())) {
+            throw new BadRequestException("آزمون هنوز شروع نشده است");
+        }
+        if (!now.isBefore(snapshot.endTime())) {
+            throw new BadRequestException("زمان آزمون به پایان رسیده است");
+        }
+
+        // Starting again, e.g. after a reload of the page, resumes the attempt
+        Optional<ExamAttempt> existing = attemptRepository.findByExamIdAndStudentId(examId, student.getId());
+        if (existing.isPresent()) {
+            ExamAttempt attempt = existing.get();
+            if (attempt.getStatus() != AttemptStatus.IN_PROGRESS) {
+                throw new BadRequestException("پاسخ‌نامه شما در این آزمون قبلاً ارسال شده است");
+            }
+            return convertToDTO(attempt, answersOf(attempt.getId()));
+        }
+
+        LocalDateTime deadline = now.plusMinutes(snapshot.durationMinutes());
+        if (deadline.isAfter(snapshot.endTime())) {
+            deadline = snapshot.endTime();
+        }
+        ExamAttempt attempt = ExamAttempt.builder()
+                .exam(examRepository.getReferenceById(examId))
+                .student(userRepository.getReferenceById(student.getId()))
+                .startedAt(now)
+                .deadline(deadline)
+                .build();
+        ExamAttempt savedAttempt = attemptRepository.save(attempt);
+
+        ActiveAttempt active = new ActiveAttempt(savedAttempt.getId(), examId, student.getId(), deadline);
+        TransactionCallbacks.afterCommit(() -> {
+            answerStore.track(active.attemptId());
+            activeAttempts.put(active);
+        });
+        eventJournal.publish(DomainEventType.ATTEMPT_STARTED, savedAttempt.getId(), examId, null);
+        log.debug("Attempt {} started, due at {}", savedAttempt.getId(), deadline);
+        return convertToDTO(savedAttempt, List.of());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AttemptDTO getAttempt(Long attemptId, UserPrincipal actor) {
+        ExamAttempt attempt = findAttempt(attemptId);
+        if (actor.hasRole(UserRole.STUDENT)) {
+            requireOwner(attempt.getStudent().getId(), actor);
+            return convertToDTO(attempt, answersOf(attemptId));
+        }
+        requireCourseManager(attempt, actor);
+        return convertToDTO(attempt, toCanonical(attempt, answersOf(attemptId)));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void saveAnswers(Long attemptId, List<AnswerDTO> answers, UserPrincipal student) {
+        // Checked against memory only: autosaves of every student in an exam arrive every few seconds
+        ActiveAttempt attempt = activeAttempts.get(attemptId);
+        if (attempt == null) {
+            // Every attempt in progress is in memory, so one that exists has been submitted
+            requireOwner(findAttempt(attemptId).getStudent().getId(), student);
+            throw new ConflictException("این پاسخ‌نامه قبلاً ارسال شده است");
+        }
+        requireOwner(attempt.studentId(), student);
+        if (!LocalDateTime.now().isBefore(attempt.deadline())) {
+            throw new BadRequestException("زمان آزمون به پایان رسیده است");
+        }
+        ExamSnapshot snapshot = snapshotStore.get(attempt.examId());
+        if (snapshot == null) {
+            throw new BadRequestException("این آزمون بسته شده است");
+        }
+
+        Instant savedAt = Instant.now();
+        List<SavedAnswer> saved = new ArrayList<>(answers.size());
+        for (AnswerDTO answer : answers) {
+            saved.add(toSavedAnswer(attemptId, answer, snapshot, savedAt));
+        }
+        answerStore.save(saved);
+    }
+
+    @Override
+    public AttemptDTO submitAttempt(Long attemptId, UserPrincipal student) {
+        log.debug("Submitting attempt {}", attemptId);
+
+        ExamAttempt attempt = findAttempt(attemptId);
+        requireOwner(attempt.getStudent().getId(), student);
+        if (attempt.getStatus() != AttemptStatus.IN_PROGRESS) {
+            throw new BadRequestException("این پاسخ‌نامه قبلاً ارسال شده است");
+        }
+
+        // Refuse further saves before writing out the ones already made
+        ActiveAttempt active = activeAttempts.get(attemptId);
+        if (active != null) {
+            activeAttempts.remove(attemptId);
+            TransactionCallbacks.afterRollback(() -> activeAttempts.put(active));
+        }
+        answerStore.close(attemptId);
+        TransactionCallbacks.afterRollback(() -> answerStore.reopen(attemptId));
+        answerStore.flushAttempt(attemptId);
+        List<SavedAnswer> answers = answersOf(attemptId);
+
+        attempt.setStatus(AttemptStatus.SUBMITTED);
+        attempt.setSubmittedAt(LocalDateTime.now());
+        ExamAttempt submittedAttempt = attemptRepository.save(attempt);
+        TransactionCallbacks.afterCommit(() -> answerStore.release(attemptId));
+        gradeIfClosed(submittedAttempt.getExam().getId(), List.of(attemptId));
+        eventJournal.publish(DomainEventType.ATTEMPT_SUBMITTED, attemptId, submittedAttempt.getExam().getId(), null);
+        log.debug("Attempt {} submitted with {} answers", attemptId, answers.size());
+        return convertToDTO(submittedAttempt, answers);
+    }
+
+    @Override
+    public AttemptDTO extendDeadline(Long attemptId, int extraMinutes, UserPrincipal actor) {
+        log.debug("Extending attempt {} by {} minutes", attemptId, extraMinutes);
+
+        if (extraMinutes < 1 || extraMinutes > MAX_EXTENSION_MINUTES) {
+            throw new BadRequestException("مدت تمدید باید بین 1 تا " + MAX_EXTENSION_MINUTES + " دقیقه باشد");
+        }
+        ExamAttempt attempt = findAttempt(attemptId);
+        requireCourseManager(attempt, actor);
+        if (attempt.getStatus() != AttemptStatus.IN_PROGRESS) {
+            throw new BadRequestException("فقط مهلت پاسخ‌نامه‌های در جریان قابل تمدید است");
+        }
+
+        // Counted from now once the deadline has passed but the attempt is not submitted yet
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime from = attempt.getDeadline().isAfter(now) ? attempt.getDeadline() : now;
+        attempt.setDeadline(from.plusMinutes(extraMinutes));
+        ExamAttempt extendedAttempt = attemptRepository.save(attempt);
+
+        ActiveAttempt active = new ActiveAttempt(attemptId, extendedAttempt.getExam().getId(),
+                extendedAttempt.getStudent().getId(), extendedAttempt.getDeadline());
+        TransactionCallbacks.afterCommit(() -> activeAttempts.put(active));
+        eventJournal.publish(DomainEventType.ATTEMPT_EXTENDED, attemptId, active.examId(), "+" + extraMinutes + " min");
+        return convertToDTO(extendedAttempt, toCanonical(extendedAttempt, answersOf(attemptId)));
+    }
+
+    @Override
+    public int autoSubmitAttempts(List<Long> attemptIds) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ExamAttempt> due = new ArrayList<>();
+        for (ExamAttempt attempt : attemptRepository.findForUpdateByIdInAndStatus(attemptIds, AttemptStatus.IN_PROGRESS)) {
+            if (attempt.getDeadline().isAfter(now)) {
+                // Extended after the timer was set; follow the deadline in the database
+                ActiveAttempt active = new ActiveAttempt(attempt.getId(), attempt.getExam().getId(),
+                        attempt.getStudent().getId(), attempt.getDeadline());
+                TransactionCallbacks.afterCommit(() -> activeAttempts.put(active));
+            } else {
+                due.add(attempt);
+            }
+        }
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> dueIds = due.stream().map(ExamAttempt::getId).toList();
+        // Saves that made it in before the deadline may still be on their way to the store
+        dueIds.forEach(answerStore::close);
+        TransactionCallbacks.afterRollback(() -> dueIds.forEach(answerStore::reopen));
+        answerStore.flushAttempts(dueIds);
+        for (ExamAttempt attempt : due) {
+            attempt.setStatus(AttemptStatus.SUBMITTED);
+            attempt.setSubmittedAt(now);
+            eventJournal.publish(DomainEventType.ATTEMPT_SUBMITTED, attempt.getId(), attempt.getExam().getId(), "deadline");
+        }
+        attemptRepository.saveAll(due);
+        TransactionCallbacks.afterCommit(() -> dueIds.forEach(attemptId -> {
+            activeAttempts.remove(attemptId);
+            answerStore.release(attemptId);
+        }));
+        Map<Long, List<Long>> dueByExam = due.stream().collect(Collectors.groupingBy(
+                attempt -> attempt.getExam().getId(), Collectors.mapping(ExamAttempt::getId, Collectors.toList())));
+        dueByExam.forEach(this::gradeIfClosed);
+        log.debug("Auto-submitted {} attempts past their deadline", due.size());
+        return due.size();
+    }
+
+    /**
+     * Grades the attempts once the submission commits if their exam has been closed meanwhile.
+     * Closing grades what is submitted by then; attempts still in progress, extended ones among
+     * them, carry on and would otherwise stay ungraded until the instructor grades again.
+     */
+    private void gradeIfClosed(long examId, List<Long> attemptIds) {
+        TransactionCallbacks.afterCommit(() -> {
+            // Checked after the commit: a close that removes the snapshot later grades these attempts itself
+            if (snapshotStore.get(examId) != null) {
+                return;
+            }
+            try {
+                gradingService.gradeLateAttempts(examId, attemptIds);
+            } catch (RuntimeException ex) {
+                log.error("Failed to grade attempts {} of closed exam {}", attemptIds, examId, ex);
+            }
+        });
+    }
+
+    private ExamAttempt findAttempt(Long attemptId) {
+        return attemptRepository.findById(attemptId)
+                .orElseThrow(() -> new ResourceNotFoundException("پاسخ‌نامه یافت نشد"));
+    }
+
+    private static void requireCourseManager(ExamAttempt attempt, UserPrincipal actor) {
+        if (actor.hasRole(UserRole.ADMIN)) {
+            return;
+        }
+        boolean teaches = actor.hasRole(UserRole.INSTRUCTOR) && attempt.getExam().getCourse().getInstructors().stream()
+                .anyMatch(instructor -> instructor.getId().equals(actor.getId()));
+        if (!teaches) {
+            throw new ForbiddenException("شما استاد این دوره نیستید");
+        }
+    }
+
+    private static void requireOwner(long studentId, UserPrincipal actor) {
+        if (studentId != actor.getId()) {
+            throw new ForbiddenException("این پاسخ‌نامه متعلق به شما نیست");
+        }
+    }
+
+    private List<SavedAnswer> answersOf(long attemptId) {
+        Collection<SavedAnswer> answers = answerStore.answersOf(attemptId);
+        if (answers == null) {
+            return answerRepository.findByAttemptId(attemptId);
+        }
+        return answers.stream().sorted(Comparator.comparingLong(SavedAnswer::questionId)).toList();
+    }
+
+    /**
+     * Maps the selections from the order the student saw to canonical option order, for anyone
+     * but the student, whose paper shows the options in another order than the exam's.
+     */
+    private List<SavedAnswer> toCanonical(ExamAttempt attempt, List<SavedAnswer> answers) {
+        if (answers.stream().allMatch(answer -> answer.selectedOptions() == 0)) {
+            return answers;
+        }
+        long examId = attempt.getExam().getId();
+        List<ExamRepository.OptionCountView> questions = examRepository.findOptionCountsByExamId(examId);
+        long salt = questions.isEmpty() ? ExamShuffle.UNSHUFFLED : questions.get(0).getShuffleSalt();
+        if (salt == ExamShuffle.UNSHUFFLED) {
+            return answers;
+        }
+        Map<Long, Integer> optionCounts = questions.stream().collect(Collectors.toMap(
+                ExamRepository.OptionCountView::getQuestionId, ExamRepository.OptionCountView::getOptionCount));
+        long studentSeed = ExamShuffle.studentSeed(examId, attempt.getStudent().getId(), salt);
+        int[] order = new int[ExamShuffle.MAX_SHUFFLED_OPTIONS];
+        List<SavedAnswer> canonical = new ArrayList<>(answers.size());
+        for (SavedAnswer answer : answers) {
+            Integer optionCount = optionCounts.get(answer.questionId());
+            canonical.add(optionCount == null || answer.selectedOptions() == 0 ? answer
+                    : answer.withSelectedOptions(ExamShuffle.toCanonical(answer.selectedOptions(),
+                            ExamShuffle.optionSeed(studentSeed, answer.questionId()), optionCount, order)));
+        }
+        return canonical;
+    }
+
+    private static SavedAnswer toSavedAnswer(long attemptId, AnswerDTO answer, ExamSnapshot snapshot, Instant savedAt) {
+        QuestionType type = snapshot.questionTypes().get(answer.getQuestionId());
+        if (type == null) {
+            throw new BadRequestException("سؤال " + answer.getQuestionId() + " در این آزمون وجود ندارد");
+        }
+        int selectedOptions = 0;
+        Boolean booleanAnswer = null;
+        Double numericAnswer = null;
+        String textAnswer = null;
+        // Only the part of the answer that fits the question type is kept
+        switch (type) {
+            case MULTIPLE_CHOICE -> {
+                for (Integer option : answer.getSelectedOptions()) {
+                    if (option == null || option < 0 || option >= MAX_OPTIONS) {
+                        throw new BadRequestException("گزینه انتخاب‌شده نامعتبر است");
+                    }
+                    selectedOptions |= 1 << option;
+                }
+            }
+            case TRUE_FALSE -> booleanAnswer = answer.getBooleanAnswer();
+            case NUMERIC -> {
+                numericAnswer = answer.getNumericAnswer();
+                if (numericAnswer != null && !Double.isFinite(numericAnswer)) {
+                    throw new BadRequestException("پاسخ عددی نامعتبر است");
+                }
+            }
+            case DESCRIPTIVE -> textAnswer = answer.getTextAnswer();
+        }
+        return new SavedAnswer(0, attemptId, answer.getQuestionId(), savedAt, selectedOptions, booleanAnswer,
+                numericAnswer, textAnswer);
+    }
+
+    private AttemptDTO convertToDTO(ExamAttempt attempt, List<SavedAnswer> answers) {
+        return AttemptDTO.builder()
+                .id(attempt.getId())
+                .examId(attempt.getExam().getId())
+                .studentId(attempt.getStudent().getId())
+                .status(attempt.getStatus())
+                .startedAt(attempt.getStartedAt())
+                .deadline(attempt.getDeadline())
+                .submittedAt(attempt.getSubmittedAt())
+                .score(attempt.getScore())
+                .gradedAt(attempt.getGradedAt())
+                .answers(answers.stream().map(AttemptServiceImpl::convertToAnswerDTO).toList())
+                .build();
+    }
+
+    private static AnswerDTO convertToAnswerDTO(SavedAnswer answer) {
+        List<Integer> selectedOptions = new ArrayList<>();
+        for (int bits = answer.selectedOptions(); bits != 0; bits &= bits - 1) {
+            selectedOptions.add(Integer.numberOfTrailingZeros(bits));
+        }
+        return AnswerDTO.builder()
+                .questionId(answer.questionId())
+                .selectedOptions(selectedOptions)
+                .booleanAnswer(answer.booleanAnswer())
+                .numericAnswer(answer.numericAnswer())
+                .textAnswer(answer.textAnswer())
+                .savedAt(answer.savedAt())
+                .build();
+    }
+}
@@ -0,0 +1,56 @@
+package net.rafiee.onlineexam.service.impl;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import net.rafiee.onlineexam.dto.CacheRegionStatsDTO;
+import net.rafiee.onlineexam.security.PrincipalCache;
+import net.rafiee.onlineexam.service.CacheStatisticsService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class CacheStatisticsServiceImpl implements CacheStatisticsService {
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final PrincipalCache principalCache;
+
+    @Override
+    public List<CacheRegionStatsDTO> getCacheStatistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        List<CacheRegionStatsDTO> regions = new ArrayList<>();
+        Arrays.stream(statistics.getSecondLevelCacheRegionNames()).sorted().forEach(name -> {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                // JCache regions do not report their element count (-1)
+                long size = region.getElementCountInMemory();
+                regions.add(regionStats(name, region.getHitCount(), region.getMissCount(), region.getPutCount(),
+                        size < 0 ? null : size));
+            }
+        });
+
+        CacheStats principal = principalCache.stats();
+        regions.add(regionStats("principal-cache", principal.hitCount(), principal.missCount(),
+                principal.loadSuccessCount(), principalCache.size()));
+        return regions;
+    }
+
+    private static CacheRegionStatsDTO regionStats(String name, long hits, long misses, long puts, Long size) {
+        long requests = hits + misses;
+        return CacheRegionStatsDTO.builder()
+                .region(name)
+                .hitCount(hits)
+                .missCount(misses)
+                .putCount(puts)
+                .hitRatio(requests == 0 ? 0 : (double) hits / requests)
+                .size(size)
+                .build();
+    }
+}
@@ -1,27 +1,55 @@
 package net.rafiee.onlineexam.service.impl;
 
+import net.rafiee.onlineexam.course.CourseListVersion;
+import net.rafiee.onlineexam.dto.BulkEnrollmentResultDTO;
 import net.rafiee.onlineexam.dto.CourseDTO;
 import net.rafiee.onlineexam.dto.CourseResponseDTO;
+import net.rafiee.onlineexam.dto.CourseSummaryDTO;
+import net.rafiee.onlineexam.dto.CursorPageDTO;
+import net.rafiee.onlineexam.dto.EnrollmentResultDTO;
+import net.rafiee.onlineexam.dto.MemberCandidateDTO;
 import net.rafiee.onlineexam.dto.UserResponseDTO;
+import net.rafiee.onlineexam.enrollment.EnrollmentIndex;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
 import net.rafiee.onlineexam.entity.Course;
 import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.EnrollmentOutcome;
 import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.exam.ExamSnapshotStore;
 import net.rafiee.onlineexam.exception.BadRequestException;
 import net.rafiee.onlineexam.exception.DuplicateResourceException;
 import net.rafiee.onlineexam.exception.ResourceNotFoundException;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import net.rafiee.onlineexam.repository.CourseEnrollmentJdbcRepository;
 import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.CourseRepository.CourseInstructorNameView;
+import net.rafiee.onlineexam.repository.CourseRepository.CourseSummaryView;
+import net.rafiee.onlineexam.repository.CourseRepository.CourseVersionView;
 import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.repository.UserRepository.MemberCandidateView;
+import net.rafiee.onlineexam.search.SearchIndexService;
 import net.rafiee.onlineexam.service.CourseService;
+import net.rafiee.onlineexam.service.StatisticsService;
+import net.rafiee.onlineexam.util.KeysetPagination;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,10 +60,17 @@ public class CourseServiceImpl implements CourseService {
 
     private final CourseRepository courseRepository;
     private final UserRepository userRepository;
+    private final CourseEnrollmentJdbcRepository enrollmentJdbcRepository;
+    private final EnrollmentIndex enrollmentIndex;
+    private final SearchIndexService searchIndexService;
+    private final StatisticsService statisticsService;
+    private final DomainEventJournal eventJournal;
+    private final ExamSnapshotStore examSnapshotStore;
+    private final CourseListVersion courseListVersion;
 
     @Override
     public CourseResponseDTO createCourse(CourseDTO courseDTO) {
-        log.info("Creating new course: {}", courseDTO.getCourseCode());
+        log.debug("Creating new course: {}", courseDTO.getCourseCode());
 
         if (courseRepository.existsByCourseCode(courseDTO.getCourseCode())) {
             throw new DuplicateResourceException("کد دوره قبلاً استفاده شده است");
@@ -56,7 +91,9 @@ public class CourseServiceImpl implements CourseService {
                 .build();
 
         Course savedCourse = courseRepository.save(course);
-        log.info("Course created successfully with ID: {}", savedCourse.getId());
+        statisticsService.courseCreated();
+        eventJournal.publish(DomainEventType.COURSE_CREATED, savedCourse.getId(), null, savedCourse.getCourseCode());
+        log.debug("Course created successfully with ID: {}", savedCourse.getId());
 
         return mapToCourseResponseDTO(savedCourse);
     }
@@ -69,55 +106,78 @@ public class CourseServiceImpl implements CourseService {
         return mapToCourseResponseDTO(course);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public String getCourseETag(Long id) {
+        CourseVersionView version = courseRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
+        // Members are part of the response, so their versions are too
+        return "course-" + id + "-" + version.getVersion() + "-" + version.getMemberVersions();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public CourseResponseDTO getCourseByCourseCode(String courseCode) {
-        Course course = courseRepository.findByCourseCode(courseCode)
+        Course course = courseRepository.findByNaturalCourseCode(courseCode)
                 .orElseThrow(() -> new ResourceNotFoundException("دوره با کد " + courseCode + " یافت نشد"));
         return mapToCourseResponseDTO(course);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CourseResponseDTO> getAllCourses() {
-        return courseRepository.findAll().stream()
-                .map(this::mapToCourseResponseDTO)
-                .collect(Collectors.toList());
+    public List<CourseSummaryDTO> getAllCourses() {
+        return toSummaries(courseRepository.findAllSummaries());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CourseResponseDTO> getCoursesByInstructor(Long instructorId) {
+    public CursorPageDTO<CourseSummaryDTO> getCoursesPage(String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<CourseSummaryView> rows = courseRepository.findSummariesAfter(
+                KeysetPagination.decodeCursor(cursor), KeysetPagination.fetchLimit(pageSize));
+        return KeysetPagination.toPage(toSummaries(rows), pageSize, CourseSummaryDTO::getId, summary -> summary);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public String getCoursesPageETag(String cursor, int size) {
+        return "courses-" + courseListVersion.current()
+                + "-" + KeysetPagination.pageSize(size) + "-" + KeysetPagination.decodeCursor(cursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseSummaryDTO> getCoursesByInstructor(Long instructorId) {
         if (!userRepository.existsById(instructorId)) {
             throw new ResourceNotFoundException("استاد یافت نشد");
         }
-        return courseRepository.findByInstructorId(instructorId).stream()
-                .map(this::mapToCourseResponseDTO)
-                .collect(Collectors.toList());
+        return toSummaries(courseRepository.findSummariesByInstructorId(instructorId));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CourseResponseDTO> getCoursesByStudent(Long studentId) {
+    public List<CourseSummaryDTO> getCoursesByStudent(Long studentId) {
         if (!userRepository.existsById(studentId)) {
             throw new ResourceNotFoundException("دانشجو یافت نشد");
         }
-        return courseRepository.findByStudentId(studentId).stream()
-                .map(this::mapToCourseResponseDTO)
-                .collect(Collectors.toList());
+        return toSummariesInOrder(enrollmentIndex.coursesOf(studentId));
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<CourseResponseDTO> searchCourses(String keyword) {
-        return courseRepository.searchCourses(keyword).stream()
-                .map(this::mapToCourseResponseDTO)
-                .collect(Collectors.toList());
+    public List<CourseSummaryDTO> getLatestCourses(int count) {
+        return toSummaries(courseRepository.findLatestSummaries(Limit.of(count)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CourseSummaryDTO> searchCourses(String keyword) {
+        return toSummariesInOrder(searchIndexService.searchCourses(keyword));
     }
 
     @Override
     public CourseResponseDTO updateCourse(Long id, CourseDTO courseDTO) {
-        log.info("Updating course with ID: {}", id);
+        log.debug("Updating course with ID: {}", id);
 
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
@@ -138,25 +198,31 @@ public class CourseServiceImpl implements CourseService {
         course.setEndDate(courseDTO.getEndDate());
 
         Course updatedCourse = courseRepository.save(course);
-        log.info("Course updated successfully");
+        eventJournal.publish(DomainEventType.COURSE_UPDATED, id, null, updatedCourse.getCourseCode());
+        log.debug("Course updated successfully");
 
         return mapToCourseResponseDTO(updatedCourse);
     }
 
     @Override
     public void deleteCourse(Long id) {
-        log.info("Deleting course with ID: {}", id);
+        log.debug("Deleting course with ID: {}", id);
 
         Course course = courseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
 
+        int enrollments = enrollmentIndex.studentCount(id);
+        // The database deletes the course's exams along with it
         courseRepository.delete(course);
-        log.info("Course deleted successfully");
+        TransactionCallbacks.afterCommit(() -> examSnapshotStore.removeCourse(id));
+        statisticsService.courseDeleted(enrollments);
+        eventJournal.publish(DomainEventType.COURSE_DELETED, id, null, course.getCourseCode());
+        log.debug("Course deleted successfully");
     }
 
     @Override
     public CourseResponseDTO addInstructorToCourse(Long courseId, Long instructorId) {
-        log.info("Adding instructor {} to course {}", instructorId, courseId);
+        log.debug("Adding instructor {} to course {}", instructorId, courseId);
 
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
@@ -179,14 +245,15 @@ public class CourseServiceImpl implements CourseService {
 
         course.addInstructor(instructor);
         Course updatedCourse = courseRepository.save(course);
+        eventJournal.publish(DomainEventType.COURSE_MEMBER_ADDED, courseId, instructorId, UserRole.INSTRUCTOR.name());
 
-        log.info("Instructor added successfully");
+        log.debug("Instructor added successfully");
         return mapToCourseResponseDTO(updatedCourse);
     }
 
     @Override
     public CourseResponseDTO removeInstructorFromCourse(Long courseId, Long instructorId) {
-        log.info("Removing instructor {} from course {}", instructorId, courseId);
+        log.debug("Removing instructor {} from course {}", instructorId, courseId);
 
         Course course = courseRepository.findById(courseId)
                 .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
@@ -194,19 +261,24 @@ public class CourseServiceImpl implements CourseService {
         User instructor = userRepository.findById(instructorId)
                 .orElseThrow(() -> new ResourceNotFoundException("استاد یافت نشد"));
 
-        course.removeInstructor(instructor);
-        Course updatedCourse = courseRepository.save(course);
+        Course updatedCourse = course;
+        if (course.getInstructors().contains(instructor)) {
+            course.removeInstructor(instructor);
+            updatedCourse = courseRepository.save(course);
+            eventJournal.publish(DomainEventType.COURSE_MEMBER_REMOVED, courseId, instructorId, UserRole.INSTRUCTOR.name());
+        }
 
-        log.info("Instructor removed successfully");
+        log.debug("Instructor removed successfully");
         return mapToCourseResponseDTO(updatedCourse);
     }
 
     @Override
-    public CourseResponseDTO addStudentToCourse(Long courseId, Long studentId) {
-        log.info("Adding student {} to course {}", studentId, courseId);
+    public CourseSummaryDTO addStudentToCourse(Long courseId, Long studentId) {
+        log.debug("Adding student {} to course {}", studentId, courseId);
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("دوره یافت نشد");
+        }
 
         User student = userRepository.findById(studentId)
                 .orElseThrow(() -> new ResourceNotFoundException("دانشجو یافت نشد"));
@@ -219,70 +291,142 @@ public class CourseServiceImpl implements CourseService {
             throw new BadRequestException("دانشجو هنوز تأیید نشده است");
         }
 
-        // بررسی تکراری بودن
-        if (course.getStudents().contains(student)) {
+        // بررسی تکراری بودن؛ درج شرطی، ثبت‌نامی را هم که شاخص هنوز نشان نمی‌دهد می‌گیرد
+        if (enrollmentIndex.isEnrolled(courseId, studentId)
+                || enrollmentJdbcRepository.insertEnrollments(courseId, List.of(studentId)).isEmpty()) {
             throw new BadRequestException("این دانشجو قبلاً به دوره اضافه شده است");
         }
 
-        course.addStudent(student);
-        Course updatedCourse = courseRepository.save(course);
+        statisticsService.enrollmentsChanged(1);
+        eventJournal.publish(DomainEventType.COURSE_MEMBER_ADDED, courseId, studentId, UserRole.STUDENT.name());
 
-        log.info("Student added successfully");
-        return mapToCourseResponseDTO(updatedCourse);
+        log.debug("Student added successfully");
+        return toSummariesInOrder(List.of(courseId)).get(0);
     }
 
     @Override
-    public CourseResponseDTO removeStudentFromCourse(Long courseId, Long studentId) {
-        log.info("Removing student {} from course {}", studentId, courseId);
+    public CourseSummaryDTO removeStudentFromCourse(Long courseId, Long studentId) {
+        log.debug("Removing student {} from course {}", studentId, courseId);
 
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("دوره یافت نشد");
+        }
 
-        User student = userRepository.findById(studentId)
-                .orElseThrow(() -> new ResourceNotFoundException("دانشجو یافت نشد"));
+        if (!userRepository.existsById(studentId)) {
+            throw new ResourceNotFoundException("دانشجو یافت نشد");
+        }
 
-        course.removeStudent(student);
-        Course updatedCourse = courseRepository.save(course);
+        if (enrollmentJdbcRepository.deleteEnrollment(courseId, studentId)) {
+            statisticsService.enrollmentsChanged(-1);
+            eventJournal.publish(DomainEventType.COURSE_MEMBER_REMOVED, courseId, studentId, UserRole.STUDENT.name());
+        }
 
-        log.info("Student removed successfully");
-        return mapToCourseResponseDTO(updatedCourse);
+        log.debug("Student removed successfully");
+        return toSummariesInOrder(List.of(courseId)).get(0);
     }
 
     @Override
-    public CourseResponseDTO addMultipleStudentsToCourse(Long courseId, List<Long> studentIds) {
-        log.info("Adding {} students to course {}", studentIds.size(), courseId);
-
-        Course course = courseRepository.findById(courseId)
-                .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
+    public BulkEnrollmentResultDTO addMultipleStudentsToCourse(Long courseId, List<Long> studentIds) {
+        log.debug("Adding {} students to course {}", studentIds.size(), courseId);
 
-        int addedCount = 0;
-        for (Long studentId : studentIds) {
-            User student = userRepository.findById(studentId)
-                    .orElseThrow(() -> new ResourceNotFoundException("دانشجو با شناسه " + studentId + " یافت نشد"));
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("دوره یافت نشد");
+        }
 
-            if (student.getRole() != UserRole.STUDENT) {
-                log.warn("User {} is not a student, skipping", studentId);
-                continue;
-            }
+        Set<Long> uniqueIds = studentIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        Map<Long, User> candidates = userRepository.findAllById(uniqueIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
 
-            if (student.getStatus() != UserStatus.APPROVED) {
-                log.warn("Student {} is not approved, skipping", studentId);
-                continue;
+        List<EnrollmentResultDTO> results = new ArrayList<>(studentIds.size());
+        List<Long> toInsert = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        for (Long studentId : studentIds) {
+            User student = studentId == null ? null : candidates.get(studentId);
+            if (student == null) {
+                results.add(enrollmentResult(studentId, EnrollmentOutcome.NOT_FOUND, "دانشجو یافت نشد"));
+            } else if (!seen.add(studentId)) {
+                results.add(enrollmentResult(studentId, EnrollmentOutcome.DUPLICATE_IN_REQUEST, "شناسه تکراری در درخواست"));
+            } else if (student.getRole() != UserRole.STUDENT) {
+                results.add(enrollmentResult(studentId, EnrollmentOutcome.NOT_STUDENT, "کاربر انتخاب شده دانشجو نیست"));
+            } else if (student.getStatus() != UserStatus.APPROVED) {
+                results.add(enrollmentResult(studentId, EnrollmentOutcome.NOT_APPROVED, "دانشجو هنوز تأیید نشده است"));
+            } else if (enrollmentIndex.isEnrolled(courseId, studentId)) {
+                results.add(enrollmentResult(studentId, EnrollmentOutcome.ALREADY_ENROLLED, "این دانشجو قبلاً به دوره اضافه شده است"));
+            } else {
+                toInsert.add(studentId);
+                results.add(enrollmentResult(studentId, EnrollmentOutcome.ADDED, null));
             }
+        }
 
-            if (course.getStudents().contains(student)) {
-                log.warn("Student {} already in course, skipping", studentId);
-                continue;
-            }
+        List<Long> inserted = enrollmentJdbcRepository.insertEnrollments(courseId, toInsert);
+        if (inserted.size() < toInsert.size()) {
+            // Enrolled meanwhile by a request the index has not caught up with
+            Set<Long> insertedIds = new HashSet<>(inserted);
+            results.stream()
+                    .filter(r -> r.getOutcome() == EnrollmentOutcome.ADDED && !insertedIds.contains(r.getStudentId()))
+                    .forEach(r -> {
+                        r.setOutcome(EnrollmentOutcome.ALREADY_ENROLLED);
+                        r.setMessage("این دانشجو قبلاً به دوره اضافه شده است");
+                    });
+        }
+        statisticsService.enrollmentsChanged(inserted.size());
+        inserted.forEach(studentId ->
+                eventJournal.publish(DomainEventType.COURSE_MEMBER_ADDED, courseId, studentId, UserRole.STUDENT.name()));
+
+        int notFound = (int) results.stream().filter(r -> r.getOutcome() == EnrollmentOutcome.NOT_FOUND).count();
+        log.debug("{} students added successfully out of {}", inserted.size(), studentIds.size());
+
+        return BulkEnrollmentResultDTO.builder()
+                .courseId(courseId)
+                .requested(studentIds.size())
+                .added(inserted.size())
+                .skipped(studentIds.size() - inserted.size() - notFound)
+                .notFound(notFound)
+                .results(results)
+                .build();
+    }
 
-            course.addStudent(student);
-            addedCount++;
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<MemberCandidateDTO> getEligibleMembers(Long courseId, UserRole role, String query,
+                                                                String cursor, int size) {
+        if (role != UserRole.STUDENT && role != UserRole.INSTRUCTOR) {
+            throw new BadRequestException("نقش باید دانشجو یا استاد باشد");
+        }
+        if (!courseRepository.existsById(courseId)) {
+            throw new ResourceNotFoundException("دوره یافت نشد");
         }
 
-        Course updatedCourse = courseRepository.save(course);
-        log.info("{} students added successfully out of {}", addedCount, studentIds.size());
+        int pageSize = KeysetPagination.pageSize(size);
+        String term = query == null ? "" : query.trim();
+        long afterId = KeysetPagination.decodeCursor(cursor);
+        Limit limit = KeysetPagination.fetchLimit(pageSize);
+        List<MemberCandidateView> rows;
+        if (term.isEmpty()) {
+            rows = role == UserRole.STUDENT
+                    ? userRepository.findStudentCandidates(courseId, role, UserStatus.APPROVED, afterId, limit)
+                    : userRepository.findInstructorCandidates(courseId, role, UserStatus.APPROVED, afterId, limit);
+        } else {
+            LongPredicate notMember;
+            if (role == UserRole.STUDENT) {
+                notMember = userId -> !enrollmentIndex.isEnrolled(courseId, userId);
+            } else {
+                Set<Long> instructorIds = new HashSet<>(courseRepository.findInstructorIds(courseId));
+                notMember = userId -> !instructorIds.contains(userId);
+            }
+            List<Long> ids = searchIndexService.searchUsersByPrefix(term, role, UserStatus.APPROVED, notMember,
+                    afterId, limit.max());
+            rows = toCandidatesInOrder(ids);
+        }
 
-        return mapToCourseResponseDTO(updatedCourse);
+        return KeysetPagination.toPage(rows, pageSize, MemberCandidateView::getId, row -> MemberCandidateDTO.builder()
+                .id(row.getId())
+                .username(row.getUsername())
+                .fullName(row.getFullName())
+                .email(row.getEmail())
+                .build());
     }
 
     @Override
@@ -307,6 +451,84 @@ public class CourseServiceImpl implements CourseService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getSharedStudentIds(Long courseId, Long otherCourseId) {
+        requireCourses(courseId, otherCourseId);
+        return enrollmentIndex.sharedStudents(courseId, otherCourseId);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Long> getStudentIdsNotIn(Long courseId, Long otherCourseId) {
+        requireCourses(courseId, otherCourseId);
+        return enrollmentIndex.studentsOnlyIn(courseId, otherCourseId);
+    }
+
+    private void requireCourses(Long courseId, Long otherCourseId) {
+        if (!courseRepository.existsById(courseId) || !courseRepository.existsById(otherCourseId)) {
+            throw new ResourceNotFoundException("دوره یافت نشد");
+        }
+    }
+
+    // Loads summaries for courses found through an index, keeping the index's order
+    private List<CourseSummaryDTO> toSummariesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, CourseSummaryView> rows = courseRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(CourseSummaryView::getId, Function.identity()));
+        return toSummaries(ids.stream().map(rows::get).filter(Objects::nonNull).toList());
+    }
+
+    // Loads candidates found through the search index, keeping the index's order
+    private List<MemberCandidateView> toCandidatesInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, MemberCandidateView> rows = userRepository.findCandidateViewsByIdIn(ids).stream()
+                .collect(Collectors.toMap(MemberCandidateView::getId, Function.identity()));
+        return ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Builds list rows from the count projection plus one query for instructor names,
+     * so the number of statements does not depend on how many courses are listed.
+     */
+    private List<CourseSummaryDTO> toSummaries(List<CourseSummaryView> rows) {
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<String>> instructorNames = courseRepository.findInstructorNames(
+                        rows.stream().map(CourseSummaryView::getId).toList()).stream()
+                .collect(Collectors.groupingBy(CourseInstructorNameView::getCourseId,
+                        Collectors.mapping(CourseInstructorNameView::getFullName, Collectors.toList())));
+
+        return rows.stream()
+                .map(row -> CourseSummaryDTO.builder()
+                        .id(row.getId())
+                        .title(row.getTitle())
+                        .courseCode(row.getCourseCode())
+                        .description(row.getDescription())
+                        .startDate(row.getStartDate())
+                        .endDate(row.getEndDate())
+                        .createdAt(row.getCreatedAt())
+                        .instructorNames(instructorNames.getOrDefault(row.getId(), List.of()))
+                        .instructorCount(row.getInstructorCount())
+                        .studentCount(row.getStudentCount())
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    private EnrollmentResultDTO enrollmentResult(Long studentId, EnrollmentOutcome outcome, String message) {
+        return EnrollmentResultDTO.builder()
+                .studentId(studentId)
+                .outcome(outcome)
+                .message(message)
+                .build();
+    }
+
     private CourseResponseDTO mapToCourseResponseDTO(Course course) {
         Set<UserResponseDTO> instructorDTOs = course.getInstructors().stream()
                 .map(this::mapToUserResponseDTO)
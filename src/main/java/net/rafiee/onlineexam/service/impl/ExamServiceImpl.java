@@ -0,0 +1,348 @@
+package net.rafiee.onlineexam.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.dto.ExamDTO;
+import net.rafiee.onlineexam.dto.ExamResponseDTO;
+import net.rafiee.onlineexam.dto.ExamSummaryDTO;
+import net.rafiee.onlineexam.dto.QuestionDTO;
+import net.rafiee.onlineexam.dto.QuestionOptionDTO;
+import net.rafiee.onlineexam.enrollment.EnrollmentIndex;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.Exam;
+import net.rafiee.onlineexam.entity.Question;
+import net.rafiee.onlineexam.entity.QuestionOption;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.exam.ExamShuffle;
+import net.rafiee.onlineexam.exam.ExamSnapshot;
+import net.rafiee.onlineexam.exam.ExamSnapshotFactory;
+import net.rafiee.onlineexam.exam.ExamSnapshotStore;
+import net.rafiee.onlineexam.exception.BadRequestException;
+import net.rafiee.onlineexam.exception.ForbiddenException;
+import net.rafiee.onlineexam.exception.ResourceNotFoundException;
+import net.rafiee.onlineexam.grading.AnswerKey;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.ExamRepository;
+import net.rafiee.onlineexam.repository.ExamRepository.ExamSummaryView;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import net.rafiee.onlineexam.service.ExamService;
+import net.rafiee.onlineexam.service.GradingService;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class ExamServiceImpl implements ExamService {
+
+    private final ExamRepository examRepository;
+    private final CourseRepository courseRepository;
+    private final EnrollmentIndex enrollmentIndex;
+    private final ExamSnapshotStore snapshotStore;
+    private final ExamSnapshotFactory snapshotFactory;
+    private final DomainEventJournal eventJournal;
+    private final GradingService gradingService;
+
+    @Override
+    public ExamResponseDTO createExam(Long courseId, ExamDTO examDTO, UserPrincipal actor) {
+        log.debug("Creating exam {} for course {}", examDTO.getTitle(), courseId);
+
+        Course course = courseRepository.findById(courseId)
+                .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
+        requireCourseManager(course, actor);
+        validateSchedule(examDTO);
+
+        Exam exam = Exam.builder()
+                .course(course)
+                .title(examDTO.getTitle())
+                .description(examDTO.getDescription())
+                .startTime(examDTO.getStartTime())
+                .endTime(examDTO.getEndTime())
+                .durationMinutes(examDTO.getDurationMinutes())
+                .shuffleSalt(ExamShuffle.newSalt())
+                .build();
+        examDTO.getQuestions().forEach(question -> exam.addQuestion(toQuestion(question)));
+
+        Exam savedExam = examRepository.save(exam);
+        eventJournal.publish(DomainEventType.EXAM_CREATED, savedExam.getId(), courseId, savedExam.getTitle());
+        log.debug("Exam created successfully with ID: {}", savedExam.getId());
+        return convertToResponseDTO(savedExam);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ExamResponseDTO getExamById(Long id, UserPrincipal actor) {
+        Exam exam = findExamWithQuestions(id);
+        requireCourseManager(exam.getCourse(), actor);
+        return convertToResponseDTO(exam);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ExamSummaryDTO> getCourseExams(Long courseId, UserPrincipal actor) {
+        List<ExamSummaryView> exams;
+        if (actor.hasRole(UserRole.STUDENT)) {
+            // Students only see the exams of their own courses, once published
+            if (!enrollmentIndex.isEnrolled(courseId, actor.getId())) {
+                // Only looked up when refusing, enrolled students never pay for it
+                if (!courseRepository.existsById(courseId)) {
+                    throw new ResourceNotFoundException("دوره یافت نشد");
+                }
+                throw new ForbiddenException("شما در این دوره ثبت‌نام نکرده‌اید");
+            }
+            exams = examRepository.findSummariesByCourseIdAndStatusIn(courseId,
+                    EnumSet.of(ExamStatus.PUBLISHED, ExamStatus.CLOSED));
+        } else {
+            Course course = courseRepository.findById(courseId)
+                    .orElseThrow(() -> new ResourceNotFoundException("دوره یافت نشد"));
+            requireCourseManager(course, actor);
+            exams = examRepository.findSummariesByCourseId(courseId);
+        }
+        return exams.stream().map(this::convertToSummaryDTO).toList();
+    }
+
+    @Override
+    public ExamResponseDTO updateExam(Long id, ExamDTO examDTO, UserPrincipal actor) {
+        log.debug("Updating exam with ID: {}", id);
+
+        Exam exam = findExamWithQuestions(id);
+        requireCourseManager(exam.getCourse(), actor);
+        if (exam.getStatus() != ExamStatus.DRAFT) {
+            throw new BadRequestException("فقط آزمون‌های پیش‌نویس قابل ویرایش هستند");
+        }
+        validateSchedule(examDTO);
+
+        exam.setTitle(examDTO.getTitle());
+        exam.setDescription(examDTO.getDescription());
+        exam.setStartTime(examDTO.getStartTime());
+        exam.setEndTime(examDTO.getEndTime());
+        exam.setDurationMinutes(examDTO.getDurationMinutes());
+        // Questions are replaced as a whole, the way the editor submits them
+        exam.clearQuestions();
+        examDTO.getQuestions().forEach(question -> exam.addQuestion(toQuestion(question)));
+
+        Exam updatedExam = examRepository.save(exam);
+        eventJournal.publish(DomainEventType.EXAM_UPDATED, id, updatedExam.getCourse().getId(), updatedExam.getTitle());
+        log.debug("Exam updated successfully");
+        return convertToResponseDTO(updatedExam);
+    }
+
+    @Override
+    public void deleteExam(Long id, UserPrincipal actor) {
+        log.debug("Deleting exam with ID: {}", id);
+
+        Exam exam = examRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("آزمون یافت نشد"));
+        requireCourseManager(exam.getCourse(), actor);
+
+        Long courseId = exam.getCourse().getId();
+        examRepository.deleteExamById(id);
+        TransactionCallbacks.afterCommit(() -> snapshotStore.remove(id));
+        eventJournal.publish(DomainEventType.EXAM_DELETED, id, courseId, exam.getTitle());
+        log.debug("Exam deleted successfully");
+    }
+
+    @Override
+    public ExamResponseDTO publishExam(Long id, UserPrincipal actor) {
+        log.debug("Publishing exam with ID: {}", id);
+
+        Exam exam = findExamWithQuestions(id);
+        requireCourseManager(exam.getCourse(), actor);
+        if (exam.getStatus() != ExamStatus.DRAFT) {
+            throw new BadRequestException("این آزمون قبلاً منتشر شده است");
+        }
+        if (exam.getQuestions().isEmpty()) {
+            throw new BadRequestException("آزمون بدون سؤال قابل انتشار نیست");
+        }
+        if (!exam.getEndTime().isAfter(LocalDateTime.now())) {
+            throw new BadRequestException("زمان پایان آزمون گذشته است");
+        }
+
+        // Options are batch-loaded here; after the flush each question would load its own
+        Hibernate.initialize(exam.getQuestions().get(0).getOptions());
+        exam.setStatus(ExamStatus.PUBLISHED);
+        exam.setPublishedAt(LocalDateTime.now());
+        // Flushed first so that the snapshot's ETag carries the published version
+        Exam publishedExam = examRepository.saveAndFlush(exam);
+        ExamSnapshot snapshot = snapshotFactory.freeze(publishedExam);
+        TransactionCallbacks.afterCommit(() -> snapshotStore.put(snapshot));
+        eventJournal.publish(DomainEventType.EXAM_PUBLISHED, id, publishedExam.getCourse().getId(), publishedExam.getTitle());
+        log.debug("Exam published with a {} byte paper", snapshot.paper().size());
+        return convertToResponseDTO(publishedExam);
+    }
+
+    @Override
+    public ExamResponseDTO closeExam(Long id, UserPrincipal actor) {
+        log.debug("Closing exam with ID: {}", id);
+
+        Exam exam = findExamWithQuestions(id);
+        requireCourseManager(exam.getCourse(), actor);
+        if (exam.getStatus() != ExamStatus.PUBLISHED) {
+            throw new BadRequestException("فقط آزمون‌های منتشر شده قابل بستن هستند");
+        }
+
+        Hibernate.initialize(exam.getQuestions().get(0).getOptions());
+        AnswerKey answerKey = AnswerKey.compile(exam);
+        exam.setStatus(ExamStatus.CLOSED);
+        Exam closedExam = examRepository.save(exam);
+        TransactionCallbacks.afterCommit(() -> {
+            snapshotStore.remove(id);
+            // The close stands even if grading fails; the exam can be graded again on demand
+            try {
+                gradingService.gradeClosedExam(id, answerKey);
+            } catch (RuntimeException ex) {
+                log.error("Failed to grade exam {} after closing it", id, ex);
+            }
+        });
+        eventJournal.publish(DomainEventType.EXAM_CLOSED, id, closedExam.getCourse().getId(), closedExam.getTitle());
+        log.debug("Exam closed successfully");
+        return convertToResponseDTO(closedExam);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ExamSnapshot getExamPaper(Long id, UserPrincipal student) {
+        // Served entirely from memory: every enrolled student asks for it at the same moment
+        ExamSnapshot snapshot = snapshotStore.get(id);
+        if (snapshot == null) {
+            throw new ResourceNotFoundException("آزمون یافت نشد");
+        }
+        if (!enrollmentIndex.isEnrolled(snapshot.courseId(), student.getId())) {
+            throw new ForbiddenException("شما در این دوره ثبت‌نام نکرده‌اید");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (now.isBefore(snapshot.startTime())) {
+            throw new BadRequestException("آزمون هنوز شروع نشده است");
+        }
+        if (!now.isBefore(snapshot.endTime())) {
+            throw new BadRequestException("زمان آزمون به پایان رسیده است");
+        }
+        return snapshot;
+    }
+
+    private Exam findExamWithQuestions(Long id) {
+        return examRepository.findWithQuestionsById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("آزمون یافت نشد"));
+    }
+
+    private void requireCourseManager(Course course, UserPrincipal actor) {
+        if (actor.hasRole(UserRole.ADMIN)) {
+            return;
+        }
+        boolean teaches = actor.hasRole(UserRole.INSTRUCTOR)
+                && course.getInstructors().stream().anyMatch(instructor -> instructor.getId().equals(actor.getId()));
+        if (!teaches) {
+            throw new ForbiddenException("شما استاد این دوره نیستید");
+        }
+    }
+
+    private void validateSchedule(ExamDTO examDTO) {
+        if (!examDTO.getEndTime().isAfter(examDTO.getStartTime())) {
+            throw new BadRequestException("زمان پایان آزمون باید بعد از زمان شروع باشد");
+        }
+        long windowMinutes = Duration.between(examDTO.getStartTime(), examDTO.getEndTime()).toMinutes();
+        if (examDTO.getDurationMinutes() > windowMinutes) {
+            throw new BadRequestException("مدت آزمون از فاصله زمان شروع تا پایان بیشتر است");
+        }
+    }
+
+    private Question toQuestion(QuestionDTO dto) {
+        Question question = Question.builder()
+                .type(dto.getType())
+                .text(dto.getText())
+                .points(dto.getPoints())
+                .build();
+        switch (dto.getType()) {
+            case MULTIPLE_CHOICE -> {
+                List<QuestionOptionDTO> options = dto.getOptions() == null ? List.of() : dto.getOptions();
+                if (options.size() < 2) {
+                    throw new BadRequestException("سؤال چندگزینه‌ای باید حداقل دو گزینه داشته باشد");
+                }
+                if (options.size() > 32) {
+                    throw new BadRequestException("سؤال چندگزینه‌ای نباید بیشتر از 32 گزینه داشته باشد");
+                }
+                if (options.stream().noneMatch(QuestionOptionDTO::isCorrect)) {
+                    throw new BadRequestException("حداقل یک گزینه باید صحیح باشد");
+                }
+                options.forEach(option -> question.getOptions().add(new QuestionOption(option.getText(), option.isCorrect())));
+            }
+            case TRUE_FALSE -> {
+                if (dto.getBooleanAnswer() == null) {
+                    throw new BadRequestException("پاسخ صحیح سؤال درست/نادرست الزامی است");
+                }
+                question.setBooleanAnswer(dto.getBooleanAnswer());
+            }
+            case NUMERIC -> {
+                if (dto.getNumericAnswer() == null) {
+                    throw new BadRequestException("پاسخ صحیح سؤال عددی الزامی است");
+                }
+                question.setNumericAnswer(dto.getNumericAnswer());
+                question.setNumericTolerance(dto.getNumericTolerance() != null ? dto.getNumericTolerance() : 0.0);
+            }
+            case DESCRIPTIVE -> {
+                // Graded by the instructor, there is no answer key
+            }
+        }
+        return question;
+    }
+
+    private ExamResponseDTO convertToResponseDTO(Exam exam) {
+        List<QuestionDTO> questions = exam.getQuestions().stream()
+                .map(this::convertToQuestionDTO)
+                .toList();
+        return ExamResponseDTO.builder()
+                .id(exam.getId())
+                .courseId(exam.getCourse().getId())
+                .title(exam.getTitle())
+                .description(exam.getDescription())
+                .startTime(exam.getStartTime())
+                .endTime(exam.getEndTime())
+                .durationMinutes(exam.getDurationMinutes())
+                .status(exam.getStatus())
+                .publishedAt(exam.getPublishedAt())
+                .createdAt(exam.getCreatedAt())
+                .totalPoints(questions.stream().mapToDouble(QuestionDTO::getPoints).sum())
+                .questions(questions)
+                .build();
+    }
+
+    private QuestionDTO convertToQuestionDTO(Question question) {
+        return QuestionDTO.builder()
+                .id(question.getId())
+                .type(question.getType())
+                .text(question.getText())
+                .points(question.getPoints())
+                .options(question.getOptions().stream()
+                        .map(option -> new QuestionOptionDTO(option.getText(), option.isCorrect()))
+                        .toList())
+                .booleanAnswer(question.getBooleanAnswer())
+                .numericAnswer(question.getNumericAnswer())
+                .numericTolerance(question.getNumericTolerance())
+                .build();
+    }
+
+    private ExamSummaryDTO convertToSummaryDTO(ExamSummaryView view) {
+        return ExamSummaryDTO.builder()
+                .id(view.getId())
+                .courseId(view.getCourseId())
+                .title(view.getTitle())
+                .startTime(view.getStartTime())
+                .endTime(view.getEndTime())
+                .durationMinutes(view.getDurationMinutes())
+                .status(view.getStatus())
+                .questionCount(view.getQuestionCount())
+                .build();
+    }
+}
@@ -0,0 +1,116 @@
+package net.rafiee.onlineexam.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.dto.GradingResultDTO;
+import net.rafiee.onlineexam.entity.Exam;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.exception.BadRequestException;
+import net.rafiee.onlineexam.exception.ForbiddenException;
+import net.rafiee.onlineexam.exception.ResourceNotFoundException;
+import net.rafiee.onlineexam.grading.AnswerKey;
+import net.rafiee.onlineexam.grading.AnswerSheets;
+import net.rafiee.onlineexam.grading.GradingEngine;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import net.rafiee.onlineexam.repository.AttemptGradingJdbcRepository;
+import net.rafiee.onlineexam.repository.ExamRepository;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import net.rafiee.onlineexam.service.GradingService;
+import org.hibernate.Hibernate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class GradingServiceImpl implements GradingService {
+
+    private final ExamRepository examRepository;
+    private final AttemptGradingJdbcRepository gradingRepository;
+    private final GradingEngine gradingEngine;
+    private final DomainEventJournal eventJournal;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public GradingResultDTO gradeExam(Long examId, UserPrincipal actor) {
+        Exam exam = examRepository.findWithQuestionsById(examId)
+                .orElseThrow(() -> new ResourceNotFoundException("آزمون یافت نشد"));
+        if (!actor.hasRole(UserRole.ADMIN)) {
+            boolean teaches = actor.hasRole(UserRole.INSTRUCTOR) && exam.getCourse().getInstructors().stream()
+                    .anyMatch(instructor -> instructor.getId().equals(actor.getId()));
+            if (!teaches) {
+                throw new ForbiddenException("شما استاد این دوره نیستید");
+            }
+        }
+        if (exam.getStatus() != ExamStatus.CLOSED) {
+            throw new BadRequestException("فقط آزمون‌های بسته‌شده قابل نمره‌دهی هستند");
+        }
+        return grade(examId, compile(exam));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public GradingResultDTO gradeClosedExam(long examId, AnswerKey key) {
+        return grade(examId, key);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void gradeLateAttempts(long examId, Collection<Long> attemptIds) {
+        Optional<Exam> exam = examRepository.findWithQuestionsById(examId);
+        // Deleted, or never closed after all
+        if (exam.isEmpty() || exam.get().getStatus() != ExamStatus.CLOSED) {
+            return;
+        }
+        AnswerKey key = compile(exam.get());
+        AnswerSheets sheets = gradingRepository.findSubmittedAnswers(examId, attemptIds, key);
+        gradingRepository.updateScores(sheets, gradingEngine.grade(key, sheets), LocalDateTime.now());
+        eventJournal.publish(DomainEventType.EXAM_GRADED, examId, null, sheets.size() + " late attempts");
+        log.info("Graded {} attempts of exam {} submitted after it closed", sheets.size(), examId);
+    }
+
+    private static AnswerKey compile(Exam exam) {
+        if (!exam.getQuestions().isEmpty()) {
+            Hibernate.initialize(exam.getQuestions().get(0).getOptions());
+        }
+        return AnswerKey.compile(exam);
+    }
+
+    private GradingResultDTO grade(long examId, AnswerKey key) {
+        long start = System.nanoTime();
+        AnswerSheets sheets = gradingRepository.findSubmittedAnswers(examId, key);
+        double[] scores = gradingEngine.grade(key, sheets);
+        LocalDateTime gradedAt = LocalDateTime.now();
+        gradingRepository.updateScores(sheets, scores, gradedAt);
+
+        double total = 0;
+        for (double score : scores) {
+            total += score;
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("grading.exam")
+                .description("Time to load, grade and store the attempts of one exam")
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+        eventJournal.publish(DomainEventType.EXAM_GRADED, examId, null, sheets.size() + " attempts");
+        log.info("Graded {} attempts of exam {} in {} ms", sheets.size(), examId, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return GradingResultDTO.builder()
+                .examId(examId)
+                .gradedAttempts(sheets.size())
+                .maxScore(key.maxScore())
+                .averageScore(sheets.size() > 0 ? total / sheets.size() : 0)
+                .gradedAt(gradedAt)
+                .build();
+    }
+}
@@ -0,0 +1,221 @@
+package net.rafiee.onlineexam.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.dto.DashboardStatsDTO;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.service.StatisticsService;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StatisticsServiceImpl implements StatisticsService {
+
+    private static final UserRole[] ROLES = UserRole.values();
+    private static final UserStatus[] STATUSES = UserStatus.values();
+    private static final int RECONCILE_ATTEMPTS = 5;
+    private static final long RECONCILE_RETRY_MILLIS = 100;
+
+    private final UserRepository userRepository;
+    private final CourseRepository courseRepository;
+
+    // users[role.ordinal()][status.ordinal()]
+    private final LongAdder[][] users = newCounters();
+    private final LongAdder courses = new LongAdder();
+    private final LongAdder enrollments = new LongAdder();
+    // Bumped when an update is registered and again when its transaction completes
+    private final AtomicLong modifications = new AtomicLong();
+    // Updates registered whose transaction has not completed yet
+    private final AtomicLong pending = new AtomicLong();
+
+    @Override
+    public DashboardStatsDTO getDashboardStats() {
+        Map<UserRole, Map<UserStatus, Long>> byRoleAndStatus = new EnumMap<>(UserRole.class);
+        Map<UserRole, Long> byRole = new EnumMap<>(UserRole.class);
+        Map<UserStatus, Long> byStatus = new EnumMap<>(UserStatus.class);
+        long total = 0;
+        for (UserRole role : ROLES) {
+            Map<UserStatus, Long> row = new EnumMap<>(UserStatus.class);
+            for (UserStatus status : STATUSES) {
+                long count = Math.max(0, users[role.ordinal()][status.ordinal()].sum());
+                row.put(status, count);
+                byRole.merge(role, count, Long::sum);
+                byStatus.merge(status, count, Long::sum);
+                total += count;
+            }
+            byRoleAndStatus.put(role, row);
+        }
+
+        return DashboardStatsDTO.builder()
+                .totalUsers(total)
+                .usersByRole(byRole)
+                .usersByStatus(byStatus)
+                .usersByRoleAndStatus(byRoleAndStatus)
+                .totalCourses(Math.max(0, courses.sum()))
+                .totalEnrollments(Math.max(0, enrollments.sum()))
+                .build();
+    }
+
+    @Override
+    public void userCreated(UserRole role, UserStatus status, long count) {
+        apply(() -> counter(role, status).add(count));
+    }
+
+    @Override
+    public void userChanged(UserRole oldRole, UserStatus oldStatus, UserRole newRole, UserStatus newStatus) {
+        if (oldRole == newRole && oldStatus == newStatus) {
+            return;
+        }
+        apply(() -> {
+            counter(oldRole, oldStatus).decrement();
+            counter(newRole, newStatus).increment();
+        });
+    }
+
+    @Override
+    public void userDeleted(UserRole role, UserStatus status) {
+        apply(() -> counter(role, status).decrement());
+    }
+
+    @Override
+    public void courseCreated() {
+        apply(courses::increment);
+    }
+
+    @Override
+    public void courseDeleted(int enrollmentCount) {
+        apply(() -> {
+            courses.decrement();
+            enrollments.add(-enrollmentCount);
+        });
+    }
+
+    @Override
+    public void enrollmentsChanged(long delta) {
+        if (delta != 0) {
+            apply(() -> enrollments.add(delta));
+        }
+    }
+
+    /**
+     * Corrects drift (writes that bypass the services, missed callbacks) by adding the
+     * difference between the database counts and each counter. The counts are only trusted if
+     * no counter update was in flight and none was registered while they were read; otherwise
+     * a commit in between could be counted twice or not at all, so the read is retried shortly
+     * and, failing that, left to the next run.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${statistics.reconcile-interval:PT10M}",
+            initialDelayString = "${statistics.reconcile-interval:PT10M}")
+    public void reconcile() {
+        for (int attempt = 1; attempt <= RECONCILE_ATTEMPTS; attempt++) {
+            if (tryReconcile()) {
+                return;
+            }
+            try {
+                Thread.sleep(RECONCILE_RETRY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        log.info("Statistics not reconciled, counters kept changing during {} attempts", RECONCILE_ATTEMPTS);
+    }
+
+    private boolean tryReconcile() {
+        long stamp = modifications.get();
+        if (pending.get() != 0) {
+            return false;
+        }
+        // Unchanged until the stamp is checked again, so the deltas can be added without
+        // overwriting updates applied after that check
+        long[][] counted = new long[ROLES.length][STATUSES.length];
+        for (UserRole role : ROLES) {
+            for (UserStatus status : STATUSES) {
+                counted[role.ordinal()][status.ordinal()] = counter(role, status).sum();
+            }
+        }
+        long countedCourses = courses.sum();
+        long countedEnrollments = enrollments.sum();
+
+        long[][] actual = new long[ROLES.length][STATUSES.length];
+        for (UserRepository.RoleStatusCountView row : userRepository.countByRoleAndStatus()) {
+            actual[row.getRole().ordinal()][row.getStatus().ordinal()] = row.getCount();
+        }
+        long actualCourses = courseRepository.count();
+        long actualEnrollments = courseRepository.countEnrollments();
+        if (modifications.get() != stamp) {
+            return false;
+        }
+
+        long drift = 0;
+        for (UserRole role : ROLES) {
+            for (UserStatus status : STATUSES) {
+                drift += correct(counter(role, status), counted[role.ordinal()][status.ordinal()],
+                        actual[role.ordinal()][status.ordinal()]);
+            }
+        }
+        drift += correct(courses, countedCourses, actualCourses);
+        drift += correct(enrollments, countedEnrollments, actualEnrollments);
+
+        if (drift != 0) {
+            log.info("Statistics reconciled, corrected a total drift of {}", drift);
+        }
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+        log.info("Statistics initialized: {}", getDashboardStats());
+    }
+
+    /**
+     * Registers the update to run after commit, tracking it as pending until the transaction
+     * completes so that {@link #reconcile()} can tell when its counts may be stale.
+     */
+    private void apply(Runnable update) {
+        pending.incrementAndGet();
+        modifications.incrementAndGet();
+        TransactionCallbacks.afterCommit(update);
+        TransactionCallbacks.afterCompletion(() -> {
+            modifications.incrementAndGet();
+            pending.decrementAndGet();
+        });
+    }
+
+    private static long correct(LongAdder counter, long counted, long actual) {
+        long delta = actual - counted;
+        if (delta != 0) {
+            counter.add(delta);
+        }
+        return Math.abs(delta);
+    }
+
+    private LongAdder counter(UserRole role, UserStatus status) {
+        return users[role.ordinal()][status.ordinal()];
+    }
+
+    private static LongAdder[][] newCounters() {
+        LongAdder[][] counters = new LongAdder[ROLES.length][STATUSES.length];
+        for (int r = 0; r < ROLES.length; r++) {
+            for (int s = 0; s < STATUSES.length; s++) {
+                counters[r][s] = new LongAdder();
+            }
+        }
+        return counters;
+    }
+}
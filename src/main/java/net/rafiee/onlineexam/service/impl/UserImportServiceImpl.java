@@ -0,0 +1,378 @@
+package net.rafiee.onlineexam.service.impl;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import net.rafiee.onlineexam.dto.UserImportEventDTO;
+import net.rafiee.onlineexam.dto.UserRegistrationDTO;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.exception.BadRequestException;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import net.rafiee.onlineexam.repository.UserJdbcRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.repository.UserRepository.UserSearchView;
+import net.rafiee.onlineexam.search.SearchIndexLoader;
+import net.rafiee.onlineexam.service.StatisticsService;
+import net.rafiee.onlineexam.service.UserImportService;
+import net.rafiee.onlineexam.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class UserImportServiceImpl implements UserImportService {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("username", "email", "password", "fullname", "role");
+
+    private final UserRepository userRepository;
+    private final UserJdbcRepository userJdbcRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final Validator validator;
+    private final SearchIndexLoader searchIndexLoader;
+    private final StatisticsService statisticsService;
+    private final DomainEventJournal eventJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor hashingPool;
+    private final int chunkSize;
+
+    public UserImportServiceImpl(UserRepository userRepository,
+                                 UserJdbcRepository userJdbcRepository,
+                                 PasswordEncoder passwordEncoder,
+                                 Validator validator,
+                                 SearchIndexLoader searchIndexLoader,
+                                 StatisticsService statisticsService,
+                                 DomainEventJournal eventJournal,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${user-import.chunk-size:500}") int chunkSize,
+                                 @Value("${user-import.hashing-threads:0}") int hashingThreads) {
+        this.userRepository = userRepository;
+        this.userJdbcRepository = userJdbcRepository;
+        this.passwordEncoder = passwordEncoder;
+        this.validator = validator;
+        this.searchIndexLoader = searchIndexLoader;
+        this.statisticsService = statisticsService;
+        this.eventJournal = eventJournal;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+
+        // Separate from the login pool so a large import cannot starve interactive logins;
+        // CallerRunsPolicy makes the importing thread help out once the queue is full.
+        int poolSize = hashingThreads > 0 ? hashingThreads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.hashingPool = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(chunkSize),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "user-import-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    @Override
+    public UserImportEventDTO importUsers(Reader csv, UserStatus initialStatus, Consumer<UserImportEventDTO> listener) {
+        ImportRun run = new ImportRun(initialStatus, listener);
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            Map<String, Integer> columns = readHeader(reader.readLine());
+            List<ImportRow> chunk = new ArrayList<>(chunkSize);
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                List<String> fields = parseCsvLine(line);
+                chunk.add(new ImportRow(lineNumber, toRegistration(fields, columns), field(fields, columns, "role")));
+                if (chunk.size() == chunkSize) {
+                    run.process(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                run.process(chunk);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        UserImportEventDTO summary = run.event(UserImportEventDTO.Type.COMPLETED);
+        listener.accept(summary);
+        log.info("User import finished: {} processed, {} imported, {} failed",
+                summary.getProcessed(), summary.getImported(), summary.getFailed());
+        return summary;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private final class ImportRun {
+
+        private final UserStatus initialStatus;
+        private final Consumer<UserImportEventDTO> listener;
+        // Usernames and emails already claimed by earlier rows of the same file
+        private final Set<String> seenUsernames = new HashSet<>();
+        private final Set<String> seenEmails = new HashSet<>();
+        private long processed;
+        private long imported;
+        private long failed;
+
+        ImportRun(UserStatus initialStatus, Consumer<UserImportEventDTO> listener) {
+            this.initialStatus = initialStatus;
+            this.listener = listener;
+        }
+
+        void process(List<ImportRow> chunk) {
+            List<ImportRow> valid = new ArrayList<>(chunk.size());
+            for (ImportRow row : chunk) {
+                String error = validate(row);
+                if (error != null) {
+                    reject(row, error);
+                } else {
+                    valid.add(row);
+                }
+            }
+
+            if (valid.isEmpty()) {
+                processed += chunk.size();
+                listener.accept(event(UserImportEventDTO.Type.PROGRESS));
+                return;
+            }
+
+            Set<String> takenUsernames = new HashSet<>(userRepository.findExistingUsernames(
+                    valid.stream().map(row -> row.registration().getUsername()).collect(Collectors.toSet())));
+            Set<String> takenEmails = new HashSet<>(userRepository.findExistingEmails(
+                    valid.stream().map(row -> row.registration().getEmail()).collect(Collectors.toSet())));
+
+            List<ImportRow> accepted = new ArrayList<>(valid.size());
+            for (ImportRow row : valid) {
+                UserRegistrationDTO registration = row.registration();
+                if (takenUsernames.contains(registration.getUsername()) || seenUsernames.contains(registration.getUsername())) {
+                    reject(row, "نام کاربری قبلاً ثبت شده است");
+                } else if (takenEmails.contains(registration.getEmail()) || seenEmails.contains(registration.getEmail())) {
+                    reject(row, "ایمیل قبلاً ثبت شده است");
+                } else {
+                    seenUsernames.add(registration.getUsername());
+                    seenEmails.add(registration.getEmail());
+                    accepted.add(row);
+                }
+            }
+
+            List<User> users = hashAll(accepted);
+            insert(accepted, users);
+
+            processed += chunk.size();
+            listener.accept(event(UserImportEventDTO.Type.PROGRESS));
+        }
+
+        private List<User> hashAll(List<ImportRow> rows) {
+            List<CompletableFuture<User>> futures = rows.stream()
+                    .map(row -> CompletableFuture.supplyAsync(() -> toUser(row.registration()), hashingPool))
+                    .toList();
+            return futures.stream().map(CompletableFuture::join).toList();
+        }
+
+        private void insert(List<ImportRow> rows, List<User> users) {
+            if (users.isEmpty()) {
+                return;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    userJdbcRepository.insertAll(users);
+                    registered(users);
+                });
+                imported += users.size();
+                countImported(users);
+            } catch (DataIntegrityViolationException ex) {
+                // Someone registered one of these users after the bulk check; find which row it was
+                log.warn("Batch insert hit a constraint violation, retrying {} rows one by one", users.size());
+                for (int i = 0; i < users.size(); i++) {
+                    User user = users.get(i);
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            userJdbcRepository.insert(user);
+                            registered(List.of(user));
+                        });
+                        imported++;
+                        countImported(List.of(user));
+                    } catch (DataIntegrityViolationException rowEx) {
+                        reject(rows.get(i), "نام کاربری یا ایمیل قبلاً ثبت شده است");
+                    }
+                }
+            }
+        }
+
+        // The database assigns the ids, so the inserted rows are read back to journal and index them
+        private void registered(List<User> users) {
+            List<UserSearchView> views = userRepository.findSearchViewsByUsernameIn(
+                    users.stream().map(User::getUsername).toList());
+            views.forEach(view -> eventJournal.publish(
+                    DomainEventType.USER_REGISTERED, view.getId(), null, view.getUsername()));
+            TransactionCallbacks.afterCommit(() -> searchIndexLoader.indexUsers(views));
+        }
+
+        private void countImported(List<User> users) {
+            users.stream()
+                    .collect(Collectors.groupingBy(User::getRole, Collectors.counting()))
+                    .forEach((role, count) -> statisticsService.userCreated(role, initialStatus, count));
+        }
+
+        private User toUser(UserRegistrationDTO registration) {
+            return User.builder()
+                    .username(registration.getUsername())
+                    .email(registration.getEmail())
+                    .password(passwordEncoder.encode(registration.getPassword()))
+                    .fullName(registration.getFullName())
+                    .role(registration.getRole())
+                    .status(initialStatus)
+                    .phoneNumber(registration.getPhoneNumber())
+                    .build();
+        }
+
+        private void reject(ImportRow row, String message) {
+            failed++;
+            listener.accept(UserImportEventDTO.builder()
+                    .type(UserImportEventDTO.Type.ROW_ERROR)
+                    .line(row.line())
+                    .username(row.registration().getUsername())
+                    .message(message)
+                    .build());
+        }
+
+        UserImportEventDTO event(UserImportEventDTO.Type type) {
+            return UserImportEventDTO.builder()
+                    .type(type)
+                    .processed(processed)
+                    .imported(imported)
+                    .failed(failed)
+                    .build();
+        }
+    }
+
+    private String validate(ImportRow row) {
+        if (row.registration().getRole() == null && row.rawRole() != null) {
+            return "نقش کاربر نامعتبر است: " + row.rawRole();
+        }
+        Set<ConstraintViolation<UserRegistrationDTO>> violations = validator.validate(row.registration());
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .collect(Collectors.joining("، "));
+    }
+
+    private static Map<String, Integer> readHeader(String header) {
+        if (header == null) {
+            throw new BadRequestException("فایل CSV خالی است");
+        }
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1);
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT).replace("_", ""), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(name -> !columns.containsKey(name)).toList();
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("ستون‌های الزامی در سرستون CSV یافت نشد: " + String.join(", ", missing));
+        }
+        return columns;
+    }
+
+    private static UserRegistrationDTO toRegistration(List<String> fields, Map<String, Integer> columns) {
+        UserRegistrationDTO registration = new UserRegistrationDTO();
+        registration.setUsername(field(fields, columns, "username"));
+        registration.setEmail(field(fields, columns, "email"));
+        registration.setPassword(field(fields, columns, "password"));
+        registration.setFullName(field(fields, columns, "fullname"));
+        registration.setPhoneNumber(field(fields, columns, "phonenumber"));
+        String role = field(fields, columns, "role");
+        if (role != null) {
+            try {
+                registration.setRole(UserRole.valueOf(role.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException ignored) {
+                // left null, reported by validate()
+            }
+        }
+        return registration;
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Splits one CSV record. Fields may be double-quoted, with {@code ""} as an escaped quote;
+     * quoted fields cannot span lines.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    private record ImportRow(long line, UserRegistrationDTO registration, String rawRole) {
+    }
+}
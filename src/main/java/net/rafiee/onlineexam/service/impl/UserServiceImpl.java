@@ -2,21 +2,32 @@ package net.rafiee.onlineexam.service.impl;
 
 import net.rafiee.onlineexam.dto.*;
 import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
 import net.rafiee.onlineexam.enumuration.UserRole;
 import net.rafiee.onlineexam.enumuration.UserStatus;
 import net.rafiee.onlineexam.exception.BadRequestException;
 import net.rafiee.onlineexam.exception.DuplicateResourceException;
 import net.rafiee.onlineexam.exception.ResourceNotFoundException;
 import net.rafiee.onlineexam.exception.UnauthorizedException;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import net.rafiee.onlineexam.repository.CourseEnrollmentJdbcRepository;
 import net.rafiee.onlineexam.repository.UserRepository;
 import net.rafiee.onlineexam.security.JwtTokenProvider;
+import net.rafiee.onlineexam.security.LoginThrottle;
+import net.rafiee.onlineexam.security.PasswordVerificationExecutor;
+import net.rafiee.onlineexam.security.PrincipalCache;
+import net.rafiee.onlineexam.security.TokenRevocationService;
+import net.rafiee.onlineexam.security.TokenVersionRegistry;
+import net.rafiee.onlineexam.search.SearchIndexService;
+import net.rafiee.onlineexam.service.StatisticsService;
 import net.rafiee.onlineexam.service.UserService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import net.rafiee.onlineexam.specification.UserSpecification;
+import net.rafiee.onlineexam.util.KeysetPagination;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.domain.Specification;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -24,6 +35,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,13 +48,21 @@ import java.util.stream.Collectors;
 public class UserServiceImpl implements UserService {
     
     private final UserRepository userRepository;
+    private final CourseEnrollmentJdbcRepository courseEnrollmentJdbcRepository;
     private final PasswordEncoder passwordEncoder;
-    private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
+    private final PrincipalCache principalCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+    private final PasswordVerificationExecutor passwordVerificationExecutor;
+    private final LoginThrottle loginThrottle;
+    private final TokenRevocationService tokenRevocationService;
+    private final SearchIndexService searchIndexService;
+    private final StatisticsService statisticsService;
+    private final DomainEventJournal eventJournal;
     
     @Override
     public UserResponseDTO registerUser(UserRegistrationDTO registrationDTO) {
-        log.info("Registering new user: {}", registrationDTO.getUsername());
+        log.debug("Registering new user: {}", registrationDTO.getUsername());
         
         if (userRepository.existsByUsername(registrationDTO.getUsername())) {
             throw new DuplicateResourceException("نام کاربری قبلاً ثبت شده است");
@@ -60,7 +83,9 @@ public class UserServiceImpl implements UserService {
                 .build();
         
         User savedUser = userRepository.save(user);
-        log.info("User registered successfully with ID: {}", savedUser.getId());
+        statisticsService.userCreated(savedUser.getRole(), savedUser.getStatus(), 1);
+        eventJournal.publish(DomainEventType.USER_REGISTERED, savedUser.getId(), null, savedUser.getUsername());
+        log.debug("User registered successfully with ID: {}", savedUser.getId());
         
         return mapToUserResponseDTO(savedUser);
     }
@@ -73,10 +98,18 @@ public class UserServiceImpl implements UserService {
         return mapToUserResponseDTO(user);
     }
     
+    @Override
+    @Transactional(readOnly = true)
+    public String getUserETag(Long id) {
+        Long version = userRepository.findVersionById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("کاربر با شناسه " + id + " یافت نشد"));
+        return "user-" + id + "-" + version;
+    }
+    
     @Override
     @Transactional(readOnly = true)
     public UserResponseDTO getUserByUsername(String username) {
-        User user = userRepository.findByUsername(username)
+        User user = userRepository.findByNaturalUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("کاربر با نام کاربری " + username + " یافت نشد"));
         return mapToUserResponseDTO(user);
     }
@@ -107,32 +140,86 @@ public class UserServiceImpl implements UserService {
     
     @Override
     @Transactional(readOnly = true)
-    public List<UserResponseDTO> searchUsers(String keyword) {
-        return userRepository.searchUsers(keyword).stream()
+    public CursorPageDTO<UserResponseDTO> getUsersPage(String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<User> rows = userRepository.findByIdGreaterThanOrderByIdAsc(
+                KeysetPagination.decodeCursor(cursor), KeysetPagination.fetchLimit(pageSize));
+        return KeysetPagination.toPage(rows, pageSize, User::getId, this::mapToUserResponseDTO);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserResponseDTO> getUsersByRolePage(UserRole role, String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<User> rows = userRepository.findByRoleAndIdGreaterThanOrderByIdAsc(
+                role, KeysetPagination.decodeCursor(cursor), KeysetPagination.fetchLimit(pageSize));
+        return KeysetPagination.toPage(rows, pageSize, User::getId, this::mapToUserResponseDTO);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageDTO<UserResponseDTO> getUsersByStatusPage(UserStatus status, String cursor, int size) {
+        int pageSize = KeysetPagination.pageSize(size);
+        List<User> rows = userRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                status, KeysetPagination.decodeCursor(cursor), KeysetPagination.fetchLimit(pageSize));
+        return KeysetPagination.toPage(rows, pageSize, User::getId, this::mapToUserResponseDTO);
+    }
+    
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserResponseDTO> getLatestUsers(int count) {
+        return userRepository.findAllByOrderByIdDesc(Limit.of(count)).stream()
                 .map(this::mapToUserResponseDTO)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<UserResponseDTO> searchUsers(String keyword) {
+        return findRanked(searchIndexService.searchUsers(keyword, null, null));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<UserResponseDTO> searchUsersWithFilter(String keyword, UserRole role, UserStatus status) {
         log.info("Searching users with filters - keyword: {}, role: {}, status: {}", keyword, role, status);
 
-        Specification<User> spec = UserSpecification.searchUsers(keyword, role, status);
-        List<User> users = userRepository.findAll(spec);
+        if (keyword == null || keyword.isBlank()) {
+            Specification<User> spec = UserSpecification.withRoleAndStatus(role, status);
+            List<User> users = userRepository.findAll(spec);
+
+            log.info("Found {} users matching criteria", users.size());
+            return users.stream()
+                    .map(this::mapToUserResponseDTO)
+                    .collect(Collectors.toList());
+        }
 
+        List<UserResponseDTO> users = findRanked(searchIndexService.searchUsers(keyword, role, status));
         log.info("Found {} users matching criteria", users.size());
-        return users.stream()
+        return users;
+    }
+
+    // Loads the users in one query and keeps the ranking order of the search index
+    private List<UserResponseDTO> findRanked(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, User> users = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return ids.stream()
+                .map(users::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToUserResponseDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
     public UserResponseDTO updateUser(Long id, UserUpdateDTO updateDTO) {
-        log.info("Updating user with ID: {}", id);
+        log.debug("Updating user with ID: {}", id);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("کاربر یافت نشد"));
+        UserRole previousRole = user.getRole();
         
         if (updateDTO.getEmail() != null && !updateDTO.getEmail().equals(user.getEmail())) {
             if (userRepository.existsByEmail(updateDTO.getEmail())) {
@@ -141,16 +228,24 @@ public class UserServiceImpl implements UserService {
             user.setEmail(updateDTO.getEmail());
         }
         
+        boolean credentialsChanged = false;
+        
         if (updateDTO.getPassword() != null && !updateDTO.getPassword().isEmpty()) {
             user.setPassword(passwordEncoder.encode(updateDTO.getPassword()));
+            credentialsChanged = true;
         }
         
         if (updateDTO.getFullName() != null) {
             user.setFullName(updateDTO.getFullName());
         }
         
-        if (updateDTO.getRole() != null) {
+        if (updateDTO.getRole() != null && updateDTO.getRole() != user.getRole()) {
             user.setRole(updateDTO.getRole());
+            credentialsChanged = true;
+        }
+        
+        if (credentialsChanged) {
+            revokeTokens(user);
         }
         
         if (updateDTO.getPhoneNumber() != null) {
@@ -158,14 +253,17 @@ public class UserServiceImpl implements UserService {
         }
         
         User updatedUser = userRepository.save(user);
-        log.info("User updated successfully: {}", updatedUser.getUsername());
+        principalCache.invalidate(updatedUser.getUsername());
+        statisticsService.userChanged(previousRole, updatedUser.getStatus(), updatedUser.getRole(), updatedUser.getStatus());
+        eventJournal.publish(DomainEventType.USER_UPDATED, updatedUser.getId());
+        log.debug("User updated successfully: {}", updatedUser.getUsername());
         
         return mapToUserResponseDTO(updatedUser);
     }
     
     @Override
     public UserResponseDTO approveUser(Long id) {
-        log.info("Approving user with ID: {}", id);
+        log.debug("Approving user with ID: {}", id);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("کاربر یافت نشد"));
@@ -174,44 +272,58 @@ public class UserServiceImpl implements UserService {
             throw new BadRequestException("کاربر قبلاً تأیید شده است");
         }
         
+        UserStatus previousStatus = user.getStatus();
         user.setStatus(UserStatus.APPROVED);
         User approvedUser = userRepository.save(user);
+        principalCache.invalidate(approvedUser.getUsername());
+        statisticsService.userChanged(approvedUser.getRole(), previousStatus, approvedUser.getRole(), UserStatus.APPROVED);
+        eventJournal.publish(DomainEventType.USER_APPROVED, approvedUser.getId());
         
-        log.info("User approved successfully: {}", approvedUser.getUsername());
+        log.debug("User approved successfully: {}", approvedUser.getUsername());
         return mapToUserResponseDTO(approvedUser);
     }
     
     @Override
     public UserResponseDTO rejectUser(Long id) {
-        log.info("Rejecting user with ID: {}", id);
+        log.debug("Rejecting user with ID: {}", id);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("کاربر یافت نشد"));
         
+        UserStatus previousStatus = user.getStatus();
         user.setStatus(UserStatus.REJECTED);
+        revokeTokens(user);
         User rejectedUser = userRepository.save(user);
+        principalCache.invalidate(rejectedUser.getUsername());
+        statisticsService.userChanged(rejectedUser.getRole(), previousStatus, rejectedUser.getRole(), UserStatus.REJECTED);
+        eventJournal.publish(DomainEventType.USER_REJECTED, rejectedUser.getId());
         
-        log.info("User rejected: {}", rejectedUser.getUsername());
+        log.debug("User rejected: {}", rejectedUser.getUsername());
         return mapToUserResponseDTO(rejectedUser);
     }
     
     @Override
     public UserResponseDTO changeUserRole(Long id, UserRole newRole) {
-        log.info("Changing role for user with ID: {} to {}", id, newRole);
+        log.debug("Changing role for user with ID: {} to {}", id, newRole);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("کاربر یافت نشد"));
         
+        UserRole previousRole = user.getRole();
         user.setRole(newRole);
+        revokeTokens(user);
         User updatedUser = userRepository.save(user);
+        principalCache.invalidate(updatedUser.getUsername());
+        statisticsService.userChanged(previousRole, updatedUser.getStatus(), newRole, updatedUser.getStatus());
+        eventJournal.publish(DomainEventType.USER_ROLE_CHANGED, updatedUser.getId(), null, newRole.name());
         
-        log.info("User role changed successfully");
+        log.debug("User role changed successfully");
         return mapToUserResponseDTO(updatedUser);
     }
     
     @Override
     public void deleteUser(Long id) {
-        log.info("Deleting user with ID: {}", id);
+        log.debug("Deleting user with ID: {}", id);
         
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("کاربر یافت نشد"));
@@ -225,38 +337,74 @@ public class UserServiceImpl implements UserService {
             throw new BadRequestException("حذف مدیر اصلی سیستم مجاز نیست");
         }
 
+        // Course membership rows reference the user and are owned by Course, so clear them first
+        int enrollments = courseEnrollmentJdbcRepository.deleteMemberships(user.getId());
         userRepository.delete(user);
-        log.info("User deleted successfully");
+        principalCache.invalidate(user.getUsername());
+        tokenVersionRegistry.removeAfterCommit(user.getId());
+        statisticsService.userDeleted(user.getRole(), user.getStatus());
+        statisticsService.enrollmentsChanged(-enrollments);
+        eventJournal.publish(DomainEventType.USER_DELETED, user.getId(), null, user.getUsername());
+        log.debug("User deleted successfully");
     }
     
     @Override
-    public LoginResponseDTO login(LoginRequestDTO loginRequest) {
-        log.info("Login attempt for user: {}", loginRequest.getUsername());
+    @Transactional(readOnly = true)
+    public CompletableFuture<LoginResponseDTO> login(LoginRequestDTO loginRequest, String clientIp) {
+        String username = loginRequest.getUsername();
+        log.info("Login attempt for user: {}", username);
         
-        User user = userRepository.findByUsername(loginRequest.getUsername())
-                .orElseThrow(() -> new UnauthorizedException("نام کاربری یا رمز عبور نادرست است"));
+        loginThrottle.checkAllowed(username, clientIp);
+        
+        User user = userRepository.findByNaturalUsername(username).orElse(null);
+        if (user == null) {
+            loginThrottle.recordFailure(username, clientIp);
+            throw new UnauthorizedException("نام کاربری یا رمز عبور نادرست است");
+        }
         
         if (user.getStatus() != UserStatus.APPROVED) {
             throw new UnauthorizedException("حساب کاربری شما هنوز تأیید نشده است");
         }
         
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        loginRequest.getUsername(),
-                        loginRequest.getPassword()
-                )
-        );
-        
-        SecurityContextHolder.getContext().setAuthentication(authentication);
-        String token = jwtTokenProvider.generateToken(authentication);
+        return passwordVerificationExecutor.matches(loginRequest.getPassword(), user.getPassword())
+                .thenApply(matched -> {
+                    if (!matched) {
+                        loginThrottle.recordFailure(username, clientIp);
+                        throw new UnauthorizedException("نام کاربری یا رمز عبور نادرست است");
+                    }
+                    
+                    loginThrottle.recordSuccess(username);
+                    tokenVersionRegistry.register(user.getId(), user.getTokenVersion());
+                    String token = jwtTokenProvider.generateToken(user);
+                    
+                    log.info("User logged in successfully: {}", username);
+                    
+                    return LoginResponseDTO.builder()
+                            .token(token)
+                            .type("Bearer")
+                            .user(mapToUserResponseDTO(user))
+                            .build();
+                });
+    }
+    
+    @Override
+    public void logout(String bearerToken) {
+        if (bearerToken == null || !bearerToken.startsWith("Bearer ")) {
+            throw new BadRequestException("توکن ارسال نشده است");
+        }
         
-        log.info("User logged in successfully: {}", loginRequest.getUsername());
+        Claims claims = jwtTokenProvider.verifyToken(bearerToken.substring(7));
+        if (claims == null || claims.getId() == null) {
+            throw new UnauthorizedException("توکن نامعتبر است");
+        }
         
-        return LoginResponseDTO.builder()
-                .token(token)
-                .type("Bearer")
-                .user(mapToUserResponseDTO(user))
-                .build();
+        tokenRevocationService.revoke(claims.getId(), claims.getExpiration().getTime());
+        log.info("User logged out: {}", claims.getSubject());
+    }
+    
+    private void revokeTokens(User user) {
+        user.setTokenVersion(user.getTokenVersion() + 1);
+        tokenVersionRegistry.updateAfterCommit(user.getId(), user.getTokenVersion());
     }
     
     private UserResponseDTO mapToUserResponseDTO(User user) {
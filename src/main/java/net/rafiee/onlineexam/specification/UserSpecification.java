@@ -11,23 +11,10 @@ import java.util.List;
 
 public class UserSpecification {
     
-    public static Specification<User> searchUsers(String keyword, UserRole role, UserStatus status) {
+    public static Specification<User> withRoleAndStatus(UserRole role, UserStatus status) {
         return (root, query, criteriaBuilder) -> {
             List<Predicate> predicates = new ArrayList<>();
             
-            // -----------------------------------------------
-            if (keyword != null && !keyword.trim().isEmpty()) {
-                String searchPattern = "%" + keyword.toLowerCase() + "%";
-                Predicate namePredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("fullName")), searchPattern);
-                Predicate usernamePredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("username")), searchPattern);
-                Predicate emailPredicate = criteriaBuilder.like(
-                    criteriaBuilder.lower(root.get("email")), searchPattern);
-                
-                predicates.add(criteriaBuilder.or(namePredicate, usernamePredicate, emailPredicate));
-            }
-            
             // -------------------------------------
             if (role != null) {
                 predicates.add(criteriaBuilder.equal(root.get("role"), role));
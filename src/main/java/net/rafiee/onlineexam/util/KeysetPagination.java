@@ -0,0 +1,75 @@
+package net.rafiee.onlineexam.util;
+
+import net.rafiee.onlineexam.dto.CursorPageDTO;
+import net.rafiee.onlineexam.exception.BadRequestException;
+import org.springframework.data.domain.Limit;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Helpers for id-ordered keyset pagination. Cursors are opaque to clients: a versioned,
+ * URL-safe Base64 encoding of the last id on the previous page.
+ */
+public final class KeysetPagination {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+
+    private static final String CURSOR_PREFIX = "v1:";
+
+    private KeysetPagination() {
+    }
+
+    public static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new BadRequestException("مکان‌نمای صفحه نامعتبر است");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException ex) {
+            throw new BadRequestException("مکان‌نمای صفحه نامعتبر است");
+        }
+    }
+
+    public static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static int pageSize(int requested) {
+        if (requested < 1 || requested > MAX_PAGE_SIZE) {
+            throw new BadRequestException("اندازه صفحه باید بین 1 تا " + MAX_PAGE_SIZE + " باشد");
+        }
+        return requested;
+    }
+
+    /**
+     * One extra row is fetched to learn whether another page exists without a COUNT query.
+     */
+    public static Limit fetchLimit(int size) {
+        return Limit.of(size + 1);
+    }
+
+    public static <E, T> CursorPageDTO<T> toPage(List<E> rows, int size,
+                                                 ToLongFunction<E> idExtractor,
+                                                 Function<E, T> mapper) {
+        boolean hasNext = rows.size() > size;
+        List<E> pageRows = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? encodeCursor(idExtractor.applyAsLong(pageRows.get(size - 1))) : null;
+
+        return CursorPageDTO.<T>builder()
+                .items(pageRows.stream().map(mapper).toList())
+                .nextCursor(nextCursor)
+                .hasNext(hasNext)
+                .size(pageRows.size())
+                .build();
+    }
+}
@@ -0,0 +1,45 @@
+-- Schema as generated by Hibernate before migrations were introduced
+
+CREATE TABLE users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username      VARCHAR(50)  NOT NULL UNIQUE,
+    email         VARCHAR(100) NOT NULL UNIQUE,
+    password      VARCHAR(255) NOT NULL,
+    full_name     VARCHAR(100),
+    role          VARCHAR(255) NOT NULL CHECK (role IN ('ADMIN', 'INSTRUCTOR', 'STUDENT')),
+    status        VARCHAR(255) NOT NULL CHECK (status IN ('PENDING', 'APPROVED', 'REJECTED')),
+    phone_number  VARCHAR(20),
+    token_version INTEGER      NOT NULL,
+    version       BIGINT,
+    created_at    TIMESTAMP(6) NOT NULL,
+    updated_at    TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE courses (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    title       VARCHAR(200)  NOT NULL,
+    course_code VARCHAR(50)   NOT NULL UNIQUE,
+    description VARCHAR(1000),
+    start_date  DATE          NOT NULL,
+    end_date    DATE          NOT NULL,
+    created_at  TIMESTAMP(6)  NOT NULL,
+    version     BIGINT,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE course_instructors (
+    course_id     BIGINT NOT NULL,
+    instructor_id BIGINT NOT NULL,
+    PRIMARY KEY (course_id, instructor_id),
+    CONSTRAINT fk_course_instructors_course FOREIGN KEY (course_id) REFERENCES courses (id),
+    CONSTRAINT fk_course_instructors_instructor FOREIGN KEY (instructor_id) REFERENCES users (id)
+);
+
+CREATE TABLE course_students (
+    course_id  BIGINT NOT NULL,
+    student_id BIGINT NOT NULL,
+    PRIMARY KEY (course_id, student_id),
+    CONSTRAINT fk_course_students_course FOREIGN KEY (course_id) REFERENCES courses (id),
+    CONSTRAINT fk_course_students_student FOREIGN KEY (student_id) REFERENCES users (id)
+);
@@ -0,0 +1,33 @@
+-- Lower-cased search columns, so case-insensitive prefix searches can use an index
+-- instead of evaluating LOWER() on every row
+
+ALTER TABLE users ADD COLUMN username_lower VARCHAR(50);
+ALTER TABLE users ADD COLUMN email_lower VARCHAR(100);
+ALTER TABLE users ADD COLUMN full_name_lower VARCHAR(100);
+UPDATE users SET username_lower = LOWER(username), email_lower = LOWER(email), full_name_lower = LOWER(full_name);
+ALTER TABLE users ALTER COLUMN username_lower SET NOT NULL;
+ALTER TABLE users ALTER COLUMN email_lower SET NOT NULL;
+
+ALTER TABLE courses ADD COLUMN title_lower VARCHAR(200);
+ALTER TABLE courses ADD COLUMN course_code_lower VARCHAR(50);
+UPDATE courses SET title_lower = LOWER(title), course_code_lower = LOWER(course_code);
+ALTER TABLE courses ALTER COLUMN title_lower SET NOT NULL;
+ALTER TABLE courses ALTER COLUMN course_code_lower SET NOT NULL;
+
+-- UserRepository: findByRoleAndStatus, the member candidate queries (role, status, id > ? ORDER BY id)
+-- and countByRoleAndStatus
+CREATE INDEX idx_users_role_status_id ON users (role, status, id);
+-- findByRole, findByStatus and the keyset pages by role / by status, which order by (role, id) and
+-- (status, id) so a page is read straight from the index
+CREATE INDEX idx_users_role_id ON users (role, id);
+CREATE INDEX idx_users_status_id ON users (status, id);
+CREATE INDEX idx_users_username_lower ON users (username_lower);
+CREATE INDEX idx_users_email_lower ON users (email_lower);
+CREATE INDEX idx_users_full_name_lower ON users (full_name_lower);
+
+CREATE INDEX idx_courses_title_lower ON courses (title_lower);
+CREATE INDEX idx_courses_course_code_lower ON courses (course_code_lower);
+
+-- Reverse membership lookups (courses of a student or instructor); the primary keys lead with course_id
+CREATE INDEX idx_course_students_student ON course_students (student_id, course_id);
+CREATE INDEX idx_course_instructors_instructor ON course_instructors (instructor_id, course_id);
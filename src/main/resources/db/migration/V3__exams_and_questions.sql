@@ -0,0 +1,44 @@
+-- Exams belong to a course and questions to an exam; both go when their owner is deleted
+
+CREATE TABLE exams (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    course_id        BIGINT        NOT NULL,
+    title            VARCHAR(200)  NOT NULL,
+    description      VARCHAR(1000),
+    start_time       TIMESTAMP(6)  NOT NULL,
+    end_time         TIMESTAMP(6)  NOT NULL,
+    duration_minutes INTEGER       NOT NULL,
+    status           VARCHAR(255)  NOT NULL CHECK (status IN ('DRAFT', 'PUBLISHED', 'CLOSED')),
+    published_at     TIMESTAMP(6),
+    created_at       TIMESTAMP(6)  NOT NULL,
+    version          BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_exams_course FOREIGN KEY (course_id) REFERENCES courses (id) ON DELETE CASCADE
+);
+
+CREATE TABLE questions (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    exam_id           BIGINT        NOT NULL,
+    position          INTEGER       NOT NULL,
+    type              VARCHAR(255)  NOT NULL CHECK (type IN ('MULTIPLE_CHOICE', 'TRUE_FALSE', 'NUMERIC', 'DESCRIPTIVE')),
+    text              VARCHAR(2000) NOT NULL,
+    points            FLOAT(53)     NOT NULL,
+    boolean_answer    BOOLEAN,
+    numeric_answer    FLOAT(53),
+    numeric_tolerance FLOAT(53),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_questions_exam FOREIGN KEY (exam_id) REFERENCES exams (id) ON DELETE CASCADE
+);
+
+CREATE TABLE question_options (
+    question_id  BIGINT       NOT NULL,
+    option_index INTEGER      NOT NULL,
+    option_text  VARCHAR(500) NOT NULL,
+    correct      BOOLEAN      NOT NULL,
+    PRIMARY KEY (option_index, question_id),
+    CONSTRAINT fk_question_options_question FOREIGN KEY (question_id) REFERENCES questions (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_exams_course ON exams (course_id, start_time);
+CREATE INDEX idx_exams_status ON exams (status);
+CREATE INDEX idx_questions_exam ON questions (exam_id, position);
@@ -0,0 +1,35 @@
+-- Attempts of students at exams and their latest saved answers; both go with the exam or student
+
+CREATE TABLE exam_attempts (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    exam_id      BIGINT       NOT NULL,
+    student_id   BIGINT       NOT NULL,
+    status       VARCHAR(255) NOT NULL CHECK (status IN ('IN_PROGRESS', 'SUBMITTED')),
+    started_at   TIMESTAMP(6) NOT NULL,
+    deadline     TIMESTAMP(6) NOT NULL,
+    submitted_at TIMESTAMP(6),
+    version      BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_exam_attempts_exam_student UNIQUE (exam_id, student_id),
+    CONSTRAINT fk_exam_attempts_exam FOREIGN KEY (exam_id) REFERENCES exams (id) ON DELETE CASCADE,
+    CONSTRAINT fk_exam_attempts_student FOREIGN KEY (student_id) REFERENCES users (id) ON DELETE CASCADE
+);
+
+CREATE TABLE attempt_answers (
+    id               BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    attempt_id       BIGINT         NOT NULL,
+    question_id      BIGINT         NOT NULL,
+    selected_options INTEGER        NOT NULL,
+    boolean_answer   BOOLEAN,
+    numeric_answer   FLOAT(53),
+    text_answer      VARCHAR(10000),
+    log_sequence     BIGINT         NOT NULL,
+    saved_at         TIMESTAMP(6)   NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_attempt_answers_attempt_question UNIQUE (attempt_id, question_id),
+    CONSTRAINT fk_attempt_answers_attempt FOREIGN KEY (attempt_id) REFERENCES exam_attempts (id) ON DELETE CASCADE,
+    CONSTRAINT fk_attempt_answers_question FOREIGN KEY (question_id) REFERENCES questions (id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_exam_attempts_student ON exam_attempts (student_id);
+CREATE INDEX idx_exam_attempts_status ON exam_attempts (status, deadline);
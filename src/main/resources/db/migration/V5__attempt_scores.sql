@@ -0,0 +1,14 @@
+-- Scores of graded attempts. H2 cannot alter an unnamed check constraint, so the status column
+-- is rebuilt to accept the GRADED status.
+
+ALTER TABLE exam_attempts ADD COLUMN score FLOAT(53);
+ALTER TABLE exam_attempts ADD COLUMN graded_at TIMESTAMP(6);
+
+DROP INDEX idx_exam_attempts_status;
+ALTER TABLE exam_attempts ADD COLUMN attempt_status VARCHAR(255)
+    CHECK (attempt_status IN ('IN_PROGRESS', 'SUBMITTED', 'GRADED'));
+UPDATE exam_attempts SET attempt_status = status;
+ALTER TABLE exam_attempts ALTER COLUMN attempt_status SET NOT NULL;
+ALTER TABLE exam_attempts DROP COLUMN status;
+ALTER TABLE exam_attempts ALTER COLUMN attempt_status RENAME TO status;
+CREATE INDEX idx_exam_attempts_status ON exam_attempts (status, deadline);
@@ -0,0 +1,5 @@
+-- Secret salt from which each student's question and option order is derived. Exams already
+-- published or closed keep 0, the canonical order, so the answers saved against it still grade.
+
+ALTER TABLE exams ADD COLUMN shuffle_salt BIGINT DEFAULT 0 NOT NULL;
+UPDATE exams SET shuffle_salt = CAST(RAND() * 9.0E18 AS BIGINT) + 1 WHERE status = 'DRAFT';
@@ -0,0 +1,15 @@
+-- The lower-cased copies from V2 served LIKE searches that the in-memory search index replaced.
+-- Their single-column indexes could not serve the member typeahead either: it ORs several columns
+-- and matches word starts inside the full name, so every lookup still scanned idx_users_role_status_id.
+
+DROP INDEX idx_users_username_lower;
+DROP INDEX idx_users_email_lower;
+DROP INDEX idx_users_full_name_lower;
+DROP INDEX idx_courses_title_lower;
+DROP INDEX idx_courses_course_code_lower;
+
+ALTER TABLE users DROP COLUMN username_lower;
+ALTER TABLE users DROP COLUMN email_lower;
+ALTER TABLE users DROP COLUMN full_name_lower;
+ALTER TABLE courses DROP COLUMN title_lower;
+ALTER TABLE courses DROP COLUMN course_code_lower;
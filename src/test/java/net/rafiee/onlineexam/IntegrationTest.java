@@ -0,0 +1,217 @@
+package net.rafiee.onlineexam;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.rafiee.onlineexam.dto.AnswerBatchDTO;
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.dto.ExamDTO;
+import net.rafiee.onlineexam.dto.QuestionDTO;
+import net.rafiee.onlineexam.dto.QuestionOptionDTO;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Base of the behaviour tests that run against the whole application. All of them share one
+ * application context and in-memory database, separate from the statement budget test's, so
+ * every test creates its own users and courses under unique names.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=INFO",
+        "spring.datasource.url=jdbc:h2:mem:integration",
+        "journal.directory=target/integration/journal",
+        "answers.wal.directory=target/integration/answer-wal"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+public abstract class IntegrationTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected ObjectMapper objectMapper;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected CourseRepository courseRepository;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    protected static String unique(String prefix) {
+        return prefix + "-" + SEQUENCE.incrementAndGet();
+    }
+
+    protected User createUser(UserRole role) {
+        return createUser(role, UserStatus.APPROVED);
+    }
+
+    protected User createUser(UserRole role, UserStatus status) {
+        String username = unique(role.name().toLowerCase());
+        return userRepository.save(User.builder()
+                .username(username)
+                .email(username + "@test.local")
+                .password("{noop}secret")
+                .fullName("Test " + username)
+                .role(role)
+                .status(status)
+                .build());
+    }
+
+    /**
+     * @return a course taught by {@code instructor}, if given, with the students enrolled
+     */
+    protected Course createCourse(User instructor, User... students) {
+        return transactionTemplate.execute(status -> {
+            String code = unique("C");
+            Course course = Course.builder()
+                    .title("Course " + code)
+                    .courseCode(code)
+                    .startDate(LocalDate.now().minusDays(1))
+                    .endDate(LocalDate.now().plusMonths(3))
+                    .build();
+            if (instructor != null) {
+                course.addInstructor(userRepository.getReferenceById(instructor.getId()));
+            }
+            for (User student : students) {
+                course.addStudent(userRepository.getReferenceById(student.getId()));
+            }
+            return courseRepository.save(course);
+        });
+    }
+
+    /**
+     * Creates a draft exam through the API that is open from a minute ago for two hours and
+     * lasts an hour.
+     *
+     * @return the id of the exam
+     */
+    protected long createExam(User instructor, Course course, QuestionDTO... questions) throws Exception {
+        ExamDTO exam = ExamDTO.builder()
+                .title(unique("Exam"))
+                .startTime(LocalDateTime.now().minusMinutes(1))
+                .endTime(LocalDateTime.now().plusHours(2))
+                .durationMinutes(60)
+                .questions(Arrays.asList(questions))
+                .build();
+        MvcResult result = perform(post("/api/exams/course/" + course.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(exam)), instructor);
+        assertThat(result.getResponse().getStatus()).isEqualTo(201);
+        return json(result).get("id").asLong();
+    }
+
+    protected long createPublishedExam(User instructor, Course course, QuestionDTO... questions) throws Exception {
+        long examId = createExam(instructor, course, questions);
+        assertThat(perform(post("/api/exams/" + examId + "/publish"), instructor).getResponse().getStatus())
+                .isEqualTo(200);
+        return examId;
+    }
+
+    protected JsonNode paper(User student, long examId) throws Exception {
+        MvcResult result = perform(get("/api/exams/" + examId + "/paper"), student);
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return json(result);
+    }
+
+    /**
+     * @return the id of the attempt
+     */
+    protected long startAttempt(User student, long examId) throws Exception {
+        MvcResult result = perform(post("/api/attempts/exam/" + examId), student);
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        return json(result).get("id").asLong();
+    }
+
+    /**
+     * @return the response status
+     */
+    protected int saveAnswers(User student, long attemptId, AnswerDTO... answers) throws Exception {
+        return perform(put("/api/attempts/" + attemptId + "/answers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new AnswerBatchDTO(Arrays.asList(answers)))), student)
+                .getResponse().getStatus();
+    }
+
+    /**
+     * @param correct indexes of the correct options
+     */
+    protected static QuestionDTO multipleChoice(double points, int optionCount, Integer... correct) {
+        List<Integer> correctOptions = Arrays.asList(correct);
+        List<QuestionOptionDTO> options = new ArrayList<>();
+        for (int i = 0; i < optionCount; i++) {
+            options.add(new QuestionOptionDTO("Option " + i, correctOptions.contains(i)));
+        }
+        return QuestionDTO.builder().type(QuestionType.MULTIPLE_CHOICE).text("Choose").points(points)
+                .options(options).build();
+    }
+
+    protected static QuestionDTO trueFalse(double points, boolean answer) {
+        return QuestionDTO.builder().type(QuestionType.TRUE_FALSE).text("True or false").points(points)
+                .booleanAnswer(answer).build();
+    }
+
+    protected static QuestionDTO numeric(double points, double answer, double tolerance) {
+        return QuestionDTO.builder().type(QuestionType.NUMERIC).text("How many").points(points)
+                .numericAnswer(answer).numericTolerance(tolerance).build();
+    }
+
+    protected static QuestionDTO descriptive(double points) {
+        return QuestionDTO.builder().type(QuestionType.DESCRIPTIVE).text("Explain").points(points).build();
+    }
+
+    protected static UserPrincipal principal(User user) {
+        return new UserPrincipal(user.getId(), user.getUsername(), "", true,
+                List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+    }
+
+    /**
+     * Performs the request as {@code user}, following an asynchronous handler to its result.
+     */
+    protected MvcResult perform(MockHttpServletRequestBuilder request, User user) throws Exception {
+        MvcResult result = mockMvc.perform(request.with(user(principal(user)))).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+
+    protected JsonNode json(MvcResult result) throws Exception {
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray());
+    }
+}
@@ -0,0 +1,138 @@
+package net.rafiee.onlineexam.attempt;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerLogTest {
+
+    // Every group after the first of a segment starts a new one
+    private static final long ONE_GROUP = AnswerLogFormat.HEADER_SIZE + 1;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryRecordAfterARestart() throws IOException {
+        SavedAnswer choice = new SavedAnswer(1, 10, 100, Instant.ofEpochMilli(1_000), 0b101, null, null, null);
+        SavedAnswer bool = new SavedAnswer(2, 10, 101, Instant.ofEpochMilli(2_000), 0, false, null, null);
+        SavedAnswer number = new SavedAnswer(3, 11, 102, Instant.ofEpochMilli(3_000), 0, null, -2.5, null);
+        SavedAnswer text = new SavedAnswer(4, 11, 103, Instant.ofEpochMilli(4_000), 0, null, null, "پاسخ");
+        try (AnswerLog log = new AnswerLog(directory, 1 << 20)) {
+            log.recover((answer, segment) -> { });
+            log.append(List.of(choice, bool));
+            log.append(List.of(number, text));
+        }
+
+        List<SavedAnswer> replayed = new ArrayList<>();
+        try (AnswerLog log = new AnswerLog(directory, 1 << 20)) {
+            assertThat(log.recover((answer, segment) -> replayed.add(answer))).isEqualTo(4);
+            // Appends continue in a new segment
+            assertThat(log.currentSegment()).isEqualTo(2);
+        }
+        assertThat(replayed).containsExactly(choice, bool, number, text);
+    }
+
+    @Test
+    void stopsAtATruncatedLastRecord() throws IOException {
+        try (AnswerLog log = new AnswerLog(directory, 1 << 20)) {
+            log.recover((answer, segment) -> { });
+            log.append(List.of(answer(1), answer(2)));
+            log.append(List.of(answer(3)));
+        }
+        Path segment = segments().get(0);
+        // A crash in the middle of writing the last record
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5);
+        }
+
+        assertThat(replay()).extracting(SavedAnswer::sequence).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void skipsTheRestOfAMiddleSegmentAfterAChecksumMismatch() throws IOException {
+        try (AnswerLog log = new AnswerLog(directory, ONE_GROUP)) {
+            log.recover((answer, segment) -> { });
+            log.append(List.of(answer(1), answer(2)));
+            log.append(List.of(answer(3), answer(4)));
+            log.append(List.of(answer(5), answer(6)));
+        }
+        Path middle = segments().get(1);
+        try (FileChannel channel = FileChannel.open(middle, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // A byte in the payload of the segment's first record
+            long offset = AnswerLogFormat.HEADER_SIZE + AnswerLogFormat.RECORD_OVERHEAD + 20;
+            ByteBuffer data = ByteBuffer.allocate(1);
+            channel.read(data, offset);
+            data.put(0, (byte) (data.get(0) ^ 1)).rewind();
+            channel.write(data, offset);
+        }
+
+        assertThat(replay()).extracting(SavedAnswer::sequence).containsExactly(1L, 2L, 5L, 6L);
+    }
+
+    @Test
+    void reportsTheSegmentHoldingEachRecord() throws IOException {
+        try (AnswerLog log = new AnswerLog(directory, ONE_GROUP)) {
+            log.recover((answer, segment) -> { });
+            assertThat(log.append(List.of(answer(1)))).isEqualTo(1);
+            assertThat(log.append(List.of(answer(2)))).isEqualTo(2);
+        }
+
+        List<Long> segments = new ArrayList<>();
+        try (AnswerLog log = new AnswerLog(directory, ONE_GROUP)) {
+            log.recover((answer, segment) -> segments.add(segment));
+        }
+        assertThat(segments).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void releasesOnlyClosedSegmentsBelowTheGivenOne() throws IOException {
+        try (AnswerLog log = new AnswerLog(directory, ONE_GROUP)) {
+            log.recover((answer, segment) -> { });
+            log.append(List.of(answer(1)));
+            log.append(List.of(answer(2)));
+            log.append(List.of(answer(3)));
+            assertThat(log.segmentCount()).isEqualTo(3);
+
+            log.releaseBefore(2);
+            assertThat(segments()).extracting(AnswerLogFormat::segmentNumber).containsExactly(2L, 3L);
+
+            log.releaseBefore(Long.MAX_VALUE);
+            assertThat(segments()).extracting(AnswerLogFormat::segmentNumber).containsExactly(3L);
+            assertThat(log.segmentCount()).isEqualTo(1);
+        }
+    }
+
+    static SavedAnswer answer(long sequence) {
+        return new SavedAnswer(sequence, 10, 100 + sequence, Instant.ofEpochMilli(sequence), 0, null, null,
+                "answer " + sequence);
+    }
+
+    private List<SavedAnswer> replay() throws IOException {
+        List<SavedAnswer> replayed = new ArrayList<>();
+        try (AnswerLog log = new AnswerLog(directory, 1 << 20)) {
+            log.recover((answer, segment) -> replayed.add(answer));
+        }
+        return replayed;
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(AnswerLogFormat::isSegment)
+                    .sorted((a, b) -> Long.compare(AnswerLogFormat.segmentNumber(a), AnswerLogFormat.segmentNumber(b)))
+                    .toList();
+        }
+    }
+}
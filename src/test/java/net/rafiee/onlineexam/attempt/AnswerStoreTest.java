@@ -0,0 +1,197 @@
+package net.rafiee.onlineexam.attempt;
+
+import net.rafiee.onlineexam.exception.ConflictException;
+import net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class AnswerStoreTest {
+
+    private static final long ATTEMPT = 1;
+    private static final long OTHER_ATTEMPT = 2;
+
+    @TempDir
+    Path directory;
+
+    private final RecordingAnswerRepository repository = new RecordingAnswerRepository();
+    private final List<AnswerStore> stores = new ArrayList<>();
+
+    @AfterEach
+    void stopStores() throws Exception {
+        for (AnswerStore store : stores) {
+            store.stop();
+        }
+    }
+
+    @Test
+    void keepsTheLatestAnswerOfEveryQuestion() throws IOException {
+        AnswerStore store = start(Map.of(ATTEMPT, List.of()));
+
+        store.save(List.of(answer(ATTEMPT, 10, "first"), answer(ATTEMPT, 11, "other")));
+        store.save(List.of(answer(ATTEMPT, 10, "second")));
+        store.flush();
+
+        assertThat(store.answersOf(ATTEMPT)).extracting(SavedAnswer::textAnswer)
+                .containsExactlyInAnyOrder("second", "other");
+        assertThat(repository.upserted).extracting(SavedAnswer::textAnswer)
+                .containsExactlyInAnyOrder("second", "other");
+        // Nothing changed since
+        store.flush();
+        assertThat(repository.upserted).hasSize(2);
+    }
+
+    @Test
+    void flushAttemptWritesOutOnlyThatAttempt() throws IOException {
+        AnswerStore store = start(Map.of(ATTEMPT, List.of(), OTHER_ATTEMPT, List.of()));
+        store.save(List.of(answer(ATTEMPT, 10, "submitted")));
+        store.save(List.of(answer(OTHER_ATTEMPT, 10, "in progress")));
+
+        // Outside a transaction the answers count as flushed straight away
+        store.flushAttempt(ATTEMPT);
+
+        assertThat(repository.upserted).extracting(SavedAnswer::textAnswer).containsExactly("submitted");
+        store.flush();
+        assertThat(repository.upserted).extracting(SavedAnswer::textAnswer).containsExactly("submitted", "in progress");
+    }
+
+    @Test
+    void savesForAClosedAttemptFailUntilItIsReopened() throws IOException {
+        AnswerStore store = start(Map.of(ATTEMPT, List.of()));
+        store.save(List.of(answer(ATTEMPT, 10, "before")));
+
+        store.close(ATTEMPT);
+
+        assertThatThrownBy(() -> store.save(List.of(answer(ATTEMPT, 10, "during"))))
+                .isInstanceOf(ConflictException.class);
+        assertThat(store.answersOf(ATTEMPT)).extracting(SavedAnswer::textAnswer).containsExactly("before");
+        store.flushAttempt(ATTEMPT);
+        assertThat(repository.upserted).extracting(SavedAnswer::textAnswer).containsExactly("before");
+
+        store.reopen(ATTEMPT);
+        store.save(List.of(answer(ATTEMPT, 10, "after")));
+        assertThat(store.answersOf(ATTEMPT)).extracting(SavedAnswer::textAnswer).containsExactly("after");
+    }
+
+    @Test
+    void savesForAReleasedOrUntrackedAttemptFail() throws IOException {
+        AnswerStore store = start(Map.of(ATTEMPT, List.of()));
+        store.close(ATTEMPT);
+
+        store.release(ATTEMPT);
+
+        assertThat(store.answersOf(ATTEMPT)).isNull();
+        assertThatThrownBy(() -> store.save(List.of(answer(ATTEMPT, 10, "late"))))
+                .isInstanceOf(ConflictException.class);
+        assertThatThrownBy(() -> store.save(List.of(answer(OTHER_ATTEMPT, 10, "unknown"))))
+                .isInstanceOf(ConflictException.class);
+        store.track(OTHER_ATTEMPT);
+        store.save(List.of(answer(OTHER_ATTEMPT, 10, "tracked")));
+    }
+
+    @Test
+    void replaysUnflushedAnswersOverThePersistedOnesAfterARestart() throws Exception {
+        AnswerStore before = start(Map.of(ATTEMPT, List.of(), OTHER_ATTEMPT, List.of()));
+        before.save(List.of(answer(ATTEMPT, 10, "logged")));
+        before.save(List.of(answer(OTHER_ATTEMPT, 10, "submitted meanwhile")));
+        long lastSequence = Stream.concat(before.answersOf(ATTEMPT).stream(), before.answersOf(OTHER_ATTEMPT).stream())
+                .mapToLong(SavedAnswer::sequence).max().orElseThrow();
+        before.stop();
+        stores.remove(before);
+
+        SavedAnswer persisted = new SavedAnswer(0, ATTEMPT, 11, Instant.EPOCH, 0, true, null, null);
+        AnswerStore after = start(Map.of(ATTEMPT, List.of(persisted)));
+
+        assertThat(after.answersOf(ATTEMPT)).extracting(SavedAnswer::questionId, SavedAnswer::textAnswer)
+                .containsExactlyInAnyOrder(tuple(10L, "logged"),
+                        tuple(11L, null));
+        assertThat(after.answersOf(OTHER_ATTEMPT)).isNull();
+        after.flush();
+        assertThat(repository.upserted).extracting(SavedAnswer::textAnswer).containsExactly("logged");
+        // Sequences continue after the replayed ones
+        after.save(List.of(answer(ATTEMPT, 10, "resumed")));
+        assertThat(after.answersOf(ATTEMPT)).filteredOn(answer -> answer.questionId() == 10)
+                .singleElement().satisfies(answer -> assertThat(answer.sequence()).isGreaterThan(lastSequence));
+    }
+
+    @Test
+    void deletesLogSegmentsOnlyOnceTheirAnswersAreInTheDatabase() throws Exception {
+        AnswerStore store = start(Map.of(ATTEMPT, List.of()));
+        // Enough to fill the 1 MB first segment
+        String text = "x".repeat(60_000);
+        for (long question = 1; question <= 20; question++) {
+            store.save(List.of(answer(ATTEMPT, question, text)));
+        }
+        assertThat(segmentCount()).isEqualTo(2);
+
+        repository.failing = true;
+        store.flush();
+        Thread.sleep(300);
+        assertThat(segmentCount()).isEqualTo(2);
+
+        repository.failing = false;
+        store.flush();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (segmentCount() > 1 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(segmentCount()).isEqualTo(1);
+        assertThat(repository.upserted).hasSize(20);
+    }
+
+    private AnswerStore start(Map<Long, List<SavedAnswer>> persisted) throws IOException {
+        AnswerStore store = new AnswerStore(repository, directory, 1, 1024, 64, Duration.ofSeconds(5));
+        store.recover(persisted);
+        stores.add(store);
+        return store;
+    }
+
+    private long segmentCount() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(AnswerLogFormat::isSegment).count();
+        }
+    }
+
+    private static SavedAnswer answer(long attemptId, long questionId, String text) {
+        return new SavedAnswer(0, attemptId, questionId, Instant.now(), 0, null, null, text);
+    }
+
+    private static final class RecordingAnswerRepository extends AttemptAnswerJdbcRepository {
+
+        private final List<SavedAnswer> upserted = new CopyOnWriteArrayList<>();
+        private volatile boolean failing;
+
+        RecordingAnswerRepository() {
+            super(null);
+        }
+
+        @Override
+        public void upsertAll(List<SavedAnswer> answers) {
+            if (failing) {
+                throw new TransientDataAccessResourceException("database unavailable");
+            }
+            upserted.addAll(answers);
+        }
+
+        @Override
+        public long maxSequence() {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package net.rafiee.onlineexam.attempt;
+
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.dto.AttemptDTO;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import net.rafiee.onlineexam.service.AttemptService;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttemptAutoSubmitterTest {
+
+    private final AttemptDeadlines deadlines = new AttemptDeadlines(Duration.ofSeconds(1));
+    private final ActiveAttempts activeAttempts = new ActiveAttempts(deadlines);
+    private final RecordingAttemptService attemptService = new RecordingAttemptService();
+    private final AttemptAutoSubmitter submitter =
+            new AttemptAutoSubmitter(deadlines, activeAttempts, attemptService, Duration.ZERO, 2);
+
+    @Test
+    void submitsExpiredAttemptsInBatches() {
+        LocalDateTime past = LocalDateTime.now().minusSeconds(5);
+        for (long attemptId = 1; attemptId <= 3; attemptId++) {
+            activeAttempts.put(new ActiveAttempt(attemptId, 7, 100 + attemptId, past));
+        }
+        activeAttempts.put(new ActiveAttempt(4, 7, 104, LocalDateTime.now().plusMinutes(5)));
+
+        submitter.submitExpired();
+
+        assertThat(attemptService.batches).hasSize(2);
+        assertThat(attemptService.batches.stream().flatMap(List::stream)).containsExactlyInAnyOrder(1L, 2L, 3L);
+        assertThat(deadlines.size()).isOne();
+    }
+
+    @Test
+    void retriesAFailedBatchLaterForTheAttemptsStillInProgress() {
+        LocalDateTime past = LocalDateTime.now().minusSeconds(5);
+        activeAttempts.put(new ActiveAttempt(1, 7, 101, past));
+        activeAttempts.put(new ActiveAttempt(2, 7, 102, past));
+        attemptService.failing = true;
+        // Submitted by the student meanwhile
+        attemptService.onCall = () -> activeAttempts.remove(2);
+
+        submitter.submitExpired();
+
+        assertThat(attemptService.batches).singleElement().satisfies(batch -> assertThat(batch).hasSize(2));
+        assertThat(deadlines.size()).isOne();
+        assertThat(deadlines.expire(Instant.now().plusSeconds(25))).isEmpty();
+        assertThat(deadlines.expire(Instant.now().plusSeconds(35))).containsExactly(1L);
+    }
+
+    @Test
+    void anExtendedAttemptIsNotDueAtItsOldDeadline() {
+        LocalDateTime deadline = LocalDateTime.now().plusSeconds(10);
+        activeAttempts.put(new ActiveAttempt(1, 7, 101, deadline));
+        activeAttempts.put(new ActiveAttempt(1, 7, 101, deadline.plusMinutes(30)));
+
+        assertThat(deadlines.expire(Instant.now().plusSeconds(15))).isEmpty();
+        assertThat(deadlines.expire(Instant.now().plus(Duration.ofMinutes(31)))).containsExactly(1L);
+    }
+
+    private static final class RecordingAttemptService implements AttemptService {
+
+        final List<List<Long>> batches = new ArrayList<>();
+        boolean failing;
+        Runnable onCall = () -> {
+        };
+
+        @Override
+        public int autoSubmitAttempts(List<Long> attemptIds) {
+            batches.add(List.copyOf(attemptIds));
+            onCall.run();
+            if (failing) {
+                throw new IllegalStateException("Database down");
+            }
+            return attemptIds.size();
+        }
+
+        @Override
+        public AttemptDTO startAttempt(Long examId, UserPrincipal student) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AttemptDTO getAttempt(Long attemptId, UserPrincipal actor) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void saveAnswers(Long attemptId, List<AnswerDTO> answers, UserPrincipal student) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AttemptDTO submitAttempt(Long attemptId, UserPrincipal student) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public AttemptDTO extendDeadline(Long attemptId, int extraMinutes, UserPrincipal actor) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
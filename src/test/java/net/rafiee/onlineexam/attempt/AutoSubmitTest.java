@@ -0,0 +1,112 @@
+package net.rafiee.onlineexam.attempt;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository;
+import net.rafiee.onlineexam.service.AttemptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class AutoSubmitTest extends IntegrationTest {
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private ActiveAttempts activeAttempts;
+
+    @Autowired
+    private AttemptAnswerJdbcRepository answerRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User instructor;
+    private User student;
+    private long examId;
+    private long questionId;
+
+    @BeforeEach
+    void publishExam() throws Exception {
+        instructor = createUser(UserRole.INSTRUCTOR);
+        student = createUser(UserRole.STUDENT);
+        examId = createPublishedExam(instructor, createCourse(instructor, student), descriptive(1));
+        JsonNode question = paper(student, examId).get("questions").get(0);
+        questionId = question.get("id").asLong();
+    }
+
+    @Test
+    void submitsAnAttemptPastItsDeadlineWithItsAnswers() throws Exception {
+        long attemptId = startAttempt(student, examId);
+        assertThat(saveAnswers(student, attemptId, answer("in time"))).isEqualTo(204);
+        moveDeadline(attemptId, LocalDateTime.now().minusSeconds(1));
+
+        assertThat(attemptService.autoSubmitAttempts(List.of(attemptId))).isOne();
+
+        assertThat(status(attemptId)).isEqualTo("SUBMITTED");
+        assertThat(activeAttempts.get(attemptId)).isNull();
+        assertThat(answerRepository.findByAttemptId(attemptId)).singleElement()
+                .satisfies(saved -> assertThat(saved.textAnswer()).isEqualTo("in time"));
+        assertThat(saveAnswers(student, attemptId, answer("too late"))).isEqualTo(409);
+        // Already submitted, so a second timer does nothing
+        assertThat(attemptService.autoSubmitAttempts(List.of(attemptId))).isZero();
+    }
+
+    @Test
+    void followsADeadlineMovedInTheDatabase() throws Exception {
+        long attemptId = startAttempt(student, examId);
+        LocalDateTime moved = LocalDateTime.now().plusHours(3);
+        moveDeadline(attemptId, moved);
+
+        assertThat(attemptService.autoSubmitAttempts(List.of(attemptId))).isZero();
+
+        assertThat(status(attemptId)).isEqualTo("IN_PROGRESS");
+        assertThat(activeAttempts.get(attemptId).deadline()).isEqualTo(deadline(attemptId));
+        assertThat(saveAnswers(student, attemptId, answer("still going"))).isEqualTo(204);
+    }
+
+    @Test
+    void anExtendedAttemptIsNotSubmittedAtItsOldDeadline() throws Exception {
+        long attemptId = startAttempt(student, examId);
+        LocalDateTime oldDeadline = deadline(attemptId);
+        assertThat(perform(post("/api/attempts/" + attemptId + "/extend").param("minutes", "30"), instructor)
+                .getResponse().getStatus()).isEqualTo(200);
+        LocalDateTime extended = deadline(attemptId);
+        assertThat(extended).isEqualTo(oldDeadline.plusMinutes(30));
+        assertThat(activeAttempts.get(attemptId).deadline()).isEqualTo(extended);
+
+        // The timer of the old deadline fires anyway
+        assertThat(attemptService.autoSubmitAttempts(List.of(attemptId))).isZero();
+
+        assertThat(status(attemptId)).isEqualTo("IN_PROGRESS");
+        assertThat(activeAttempts.get(attemptId).deadline()).isEqualTo(extended);
+    }
+
+    private AnswerDTO answer(String text) {
+        return AnswerDTO.builder().questionId(questionId).textAnswer(text).build();
+    }
+
+    private void moveDeadline(long attemptId, LocalDateTime deadline) {
+        jdbcTemplate.update("UPDATE exam_attempts SET deadline = ? WHERE id = ?", deadline, attemptId);
+    }
+
+    private LocalDateTime deadline(long attemptId) {
+        return jdbcTemplate.queryForObject("SELECT deadline FROM exam_attempts WHERE id = ?", LocalDateTime.class,
+                attemptId);
+    }
+
+    private String status(long attemptId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM exam_attempts WHERE id = ?", String.class, attemptId);
+    }
+}
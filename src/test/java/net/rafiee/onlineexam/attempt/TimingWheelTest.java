@@ -0,0 +1,149 @@
+package net.rafiee.onlineexam.attempt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimingWheelTest {
+
+    private static final long LEVEL_1 = 64;
+    private static final long LEVEL_2 = 64 * 64;
+    private static final long LEVEL_3 = 64 * 64 * 64;
+    private static final long OVERFLOW = 64 * 64 * 64 * 64;
+    // Not aligned to any level, so that every level is entered part way through its slot
+    private static final long START = 3 * OVERFLOW - 2 * LEVEL_3 + 5 * LEVEL_2 - 7 * LEVEL_1 + 11;
+
+    private final TimingWheel wheel = new TimingWheel(START);
+
+    @Test
+    void firesEachTimerAtItsTickAcrossLevelsAndTheOverflow() {
+        long[] offsets = {0, 1, LEVEL_1 - 1, LEVEL_1, LEVEL_1 + 1, LEVEL_2 - 1, LEVEL_2, LEVEL_2 + 1, LEVEL_3 - 1, LEVEL_3,
+                LEVEL_3 + 1, OVERFLOW - 1, OVERFLOW, OVERFLOW + 1, 2 * OVERFLOW + 3};
+        TreeMap<Long, Long> idsByTick = new TreeMap<>();
+        for (int i = 0; i < offsets.length; i++) {
+            wheel.schedule(i, START + offsets[i]);
+            idsByTick.put(START + offsets[i], (long) i);
+        }
+        assertThat(wheel.size()).isEqualTo(offsets.length);
+
+        idsByTick.forEach((tick, id) -> {
+            assertThat(advance(tick - 1)).as("before tick %d", tick).isEmpty();
+            assertThat(advance(tick)).as("at tick %d", tick).containsExactly(id);
+        });
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void firesEveryTimerDueAtTheSameTick() {
+        wheel.schedule(1, START + LEVEL_2 + 3);
+        wheel.schedule(2, START + LEVEL_2 + 3);
+        wheel.schedule(3, START + LEVEL_2 + 3);
+
+        assertThat(advance(START + LEVEL_2 + 3)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void reschedulingMovesATimerBetweenLevels() {
+        wheel.schedule(1, START + 2 * OVERFLOW);
+        wheel.schedule(1, START + LEVEL_1 + 6);
+        wheel.schedule(1, START + 3);
+        wheel.schedule(1, START + LEVEL_2 + 9);
+        assertThat(wheel.size()).isOne();
+
+        assertThat(advance(START + LEVEL_2 + 8)).isEmpty();
+        assertThat(advance(START + LEVEL_2 + 9)).containsExactly(1L);
+
+        long now = START + LEVEL_2 + 10;
+        wheel.schedule(2, now + 1);
+        wheel.schedule(2, now + OVERFLOW + LEVEL_3);
+        assertThat(advance(now + OVERFLOW + LEVEL_3 - 1)).isEmpty();
+        assertThat(advance(now + OVERFLOW + LEVEL_3)).containsExactly(2L);
+    }
+
+    @Test
+    void reschedulingKeepsTheOtherTimersOfTheSlot() {
+        wheel.schedule(1, START + LEVEL_1 + 1);
+        wheel.schedule(2, START + LEVEL_1 + 1);
+        wheel.schedule(3, START + LEVEL_1 + 1);
+        // The middle, the head and the tail of the slot's list
+        wheel.schedule(2, START + LEVEL_2);
+        wheel.schedule(3, START + LEVEL_2);
+
+        assertThat(advance(START + LEVEL_1 + 1)).containsExactly(1L);
+        assertThat(advance(START + LEVEL_2)).containsExactlyInAnyOrder(2L, 3L);
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        long[] offsets = {2, LEVEL_1 + 2, LEVEL_2 + 2, LEVEL_3 + 2, OVERFLOW + 2};
+        for (int i = 0; i < offsets.length; i++) {
+            wheel.schedule(i, START + offsets[i]);
+            wheel.schedule(100 + i, START + offsets[i]);
+        }
+        for (int i = 0; i < offsets.length; i++) {
+            assertThat(wheel.cancel(i)).isTrue();
+        }
+        assertThat(wheel.cancel(0)).isFalse();
+        assertThat(wheel.cancel(999)).isFalse();
+
+        assertThat(advance(START + 2 * OVERFLOW)).containsExactlyInAnyOrder(100L, 101L, 102L, 103L, 104L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void pastDueTimersFireOnTheNextAdvance() {
+        advance(START + 10);
+
+        wheel.schedule(1, START);
+        wheel.schedule(2, START + 10);
+        wheel.schedule(3, Long.MIN_VALUE);
+
+        assertThat(advance(START + 5)).isEmpty();
+        assertThat(advance(START + 11)).containsExactlyInAnyOrder(1L, 2L, 3L);
+    }
+
+    @Test
+    void theConsumerCanScheduleAgain() {
+        long due = START + LEVEL_1 - 1;
+        wheel.schedule(1, due);
+        wheel.schedule(2, due);
+        List<Long> fired = new ArrayList<>();
+        boolean[] rescheduled = {false};
+
+        wheel.advance(due + LEVEL_2, id -> {
+            fired.add(id);
+            if (id == 1 && !rescheduled[0]) {
+                rescheduled[0] = true;
+                // Later, past a level boundary, and at the tick just expired
+                wheel.schedule(1, due + LEVEL_1 + 1);
+                wheel.schedule(3, due);
+            }
+        });
+
+        assertThat(fired.subList(0, 2)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(fired.subList(2, fired.size())).containsExactly(3L, 1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void clearDropsEveryTimer() {
+        wheel.schedule(1, START + 1);
+        wheel.schedule(2, START + OVERFLOW);
+        wheel.clear();
+
+        assertThat(wheel.size()).isZero();
+        assertThat(advance(START + 2 * OVERFLOW)).isEmpty();
+        wheel.schedule(1, START + 2 * OVERFLOW + 1);
+        assertThat(advance(START + 2 * OVERFLOW + 1)).containsExactly(1L);
+    }
+
+    private List<Long> advance(long tick) {
+        List<Long> expired = new ArrayList<>();
+        wheel.advance(tick, expired::add);
+        return expired;
+    }
+}
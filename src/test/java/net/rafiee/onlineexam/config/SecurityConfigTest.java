@@ -0,0 +1,26 @@
+package net.rafiee.onlineexam.config;
+
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class SecurityConfigTest extends IntegrationTest {
+
+    @Test
+    void prometheusScrapeRequiresAdmin() throws Exception {
+        assertThat(mockMvc.perform(get("/actuator/prometheus")).andReturn().getResponse().getStatus())
+                .isNotEqualTo(200);
+        assertThat(perform(get("/actuator/prometheus"), createUser(UserRole.STUDENT)).getResponse().getStatus())
+                .isEqualTo(403);
+        assertThat(perform(get("/actuator/prometheus"), createUser(UserRole.ADMIN)).getResponse().getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void healthStaysPublic() throws Exception {
+        assertThat(mockMvc.perform(get("/actuator/health")).andReturn().getResponse().getStatus()).isEqualTo(200);
+    }
+}
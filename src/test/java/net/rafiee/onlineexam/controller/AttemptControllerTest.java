@@ -0,0 +1,99 @@
+package net.rafiee.onlineexam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.attempt.SavedAnswer;
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class AttemptControllerTest extends IntegrationTest {
+
+    @Autowired
+    private AttemptAnswerJdbcRepository answerRepository;
+
+    private User student;
+    private long examId;
+    private long trueFalseId;
+    private long descriptiveId;
+
+    @BeforeEach
+    void publishExam() throws Exception {
+        User instructor = createUser(UserRole.INSTRUCTOR);
+        student = createUser(UserRole.STUDENT);
+        Course course = createCourse(instructor, student);
+        examId = createPublishedExam(instructor, course, trueFalse(1, true), descriptive(2));
+        // The paper is shuffled, so the questions are told apart by their type
+        for (JsonNode question : paper(student, examId).get("questions")) {
+            if (question.get("type").asText().equals("TRUE_FALSE")) {
+                trueFalseId = question.get("id").asLong();
+            } else {
+                descriptiveId = question.get("id").asLong();
+            }
+        }
+    }
+
+    @Test
+    void submitWritesOutTheSavedAnswers() throws Exception {
+        long attemptId = startAttempt(student, examId);
+        assertThat(saveAnswers(student, attemptId,
+                AnswerDTO.builder().questionId(trueFalseId).booleanAnswer(true).build(),
+                AnswerDTO.builder().questionId(descriptiveId).textAnswer("draft").build())).isEqualTo(204);
+        assertThat(saveAnswers(student, attemptId,
+                AnswerDTO.builder().questionId(descriptiveId).textAnswer("final").build())).isEqualTo(204);
+
+        MvcResult result = perform(post("/api/attempts/" + attemptId + "/submit"), student);
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        JsonNode attempt = json(result);
+        assertThat(attempt.get("status").asText()).isEqualTo("SUBMITTED");
+        assertThat(attempt.get("answers")).extracting(answer -> answer.get("textAnswer").asText(null))
+                .containsExactlyInAnyOrder(null, "final");
+        assertThat(answerRepository.findByAttemptId(attemptId))
+                .extracting(SavedAnswer::questionId, SavedAnswer::booleanAnswer, SavedAnswer::textAnswer)
+                .containsExactlyInAnyOrder(tuple(trueFalseId, true, null), tuple(descriptiveId, null, "final"));
+    }
+
+    @Test
+    void savingToASubmittedAttemptConflicts() throws Exception {
+        long attemptId = startAttempt(student, examId);
+        assertThat(perform(post("/api/attempts/" + attemptId + "/submit"), student).getResponse().getStatus())
+                .isEqualTo(200);
+
+        assertThat(saveAnswers(student, attemptId,
+                AnswerDTO.builder().questionId(trueFalseId).booleanAnswer(false).build())).isEqualTo(409);
+        assertThat(answerRepository.findByAttemptId(attemptId)).isEmpty();
+    }
+
+    @Test
+    void savingToAnotherStudentsAttemptIsForbidden() throws Exception {
+        long attemptId = startAttempt(student, examId);
+
+        assertThat(saveAnswers(createUser(UserRole.STUDENT), attemptId,
+                AnswerDTO.builder().questionId(trueFalseId).booleanAnswer(false).build())).isEqualTo(403);
+    }
+
+    @Test
+    void savingAnAnswerToAQuestionOfAnotherExamIsRejected() throws Exception {
+        long attemptId = startAttempt(student, examId);
+
+        assertThat(saveAnswers(student, attemptId,
+                AnswerDTO.builder().questionId((long) Integer.MAX_VALUE).booleanAnswer(false).build())).isEqualTo(400);
+    }
+
+    @Test
+    void savingToAMissingAttemptIsNotFound() throws Exception {
+        assertThat(saveAnswers(student, Integer.MAX_VALUE,
+                AnswerDTO.builder().questionId(trueFalseId).booleanAnswer(false).build())).isEqualTo(404);
+    }
+}
@@ -0,0 +1,264 @@
+package net.rafiee.onlineexam.controller;
+
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.Exam;
+import net.rafiee.onlineexam.entity.ExamAttempt;
+import net.rafiee.onlineexam.entity.Question;
+import net.rafiee.onlineexam.entity.QuestionOption;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.AttemptStatus;
+import net.rafiee.onlineexam.enumuration.ExamStatus;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.exam.ExamShuffle;
+import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.ExamAttemptRepository;
+import net.rafiee.onlineexam.repository.ExamRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One phase of seeded data for {@link StatementBudgetTest}. Every course of the phase has all
+ * of the phase's students and the phase's first instructor (a course has at most one), so
+ * collection sizes grow with {@code scale} along with the table sizes, and so do the exams of
+ * the first course and their questions. Entities that endpoints modify or delete are dedicated
+ * to that use. Students from the sixth on have an attempt in progress at the first exam and
+ * a submitted one at the exam to close and at a closed exam to grade.
+ */
+final class BudgetDataset {
+
+    static final int FIRST_ATTEMPT_STUDENT = 5;
+
+    final String tag;
+    final List<Long> studentIds = new ArrayList<>();
+    final List<Long> instructorIds = new ArrayList<>();
+    final List<Long> courseIds = new ArrayList<>();
+    final List<Long> spareStudentIds = new ArrayList<>();
+    final List<Long> examIds = new ArrayList<>();
+    final Map<Long, List<Long>> questionIds = new HashMap<>();
+    final List<ExamAttempt> attempts = new ArrayList<>();
+    final List<ExamAttempt> submittedAttempts = new ArrayList<>();
+    Long examToGradeId;
+    Long spareInstructorId;
+    Long pendingUserId;
+    Long userToRejectId;
+
+    private BudgetDataset(String tag) {
+        this.tag = tag;
+    }
+
+    static BudgetDataset seed(String tag, int scale, String encodedPassword, UserRepository userRepository,
+                              CourseRepository courseRepository, ExamRepository examRepository,
+                              ExamAttemptRepository attemptRepository, TransactionTemplate transactionTemplate) {
+        BudgetDataset dataset = new BudgetDataset(tag);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<User> students = new ArrayList<>();
+            for (int i = 0; i < 10 * scale; i++) {
+                students.add(user(tag, "student" + i, UserRole.STUDENT, UserStatus.APPROVED, encodedPassword));
+            }
+            List<User> instructors = new ArrayList<>();
+            for (int i = 0; i < 2 * scale; i++) {
+                instructors.add(user(tag, "instructor" + i, UserRole.INSTRUCTOR, UserStatus.APPROVED, encodedPassword));
+            }
+            List<User> spareStudents = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                spareStudents.add(user(tag, "spare" + i, UserRole.STUDENT, UserStatus.APPROVED, encodedPassword));
+            }
+            User spareInstructor = user(tag, "spare-instructor", UserRole.INSTRUCTOR, UserStatus.APPROVED, encodedPassword);
+            User pendingUser = user(tag, "pending", UserRole.STUDENT, UserStatus.PENDING, encodedPassword);
+            User userToReject = user(tag, "rejected", UserRole.STUDENT, UserStatus.PENDING, encodedPassword);
+
+            userRepository.saveAll(students);
+            userRepository.saveAll(instructors);
+            userRepository.saveAll(spareStudents);
+            userRepository.saveAll(List.of(spareInstructor, pendingUser, userToReject));
+
+            for (int i = 0; i < 3 * scale; i++) {
+                Course course = Course.builder()
+                        .title("Budget Course " + tag + " " + i)
+                        .courseCode(tag + "-C" + i)
+                        .description("Statement budget fixture")
+                        .startDate(LocalDate.now().plusMonths(1))
+                        .endDate(LocalDate.now().plusMonths(6))
+                        .build();
+                students.forEach(course::addStudent);
+                course.addInstructor(instructors.get(0));
+                courseRepository.save(course);
+                dataset.courseIds.add(course.getId());
+            }
+
+            Course examCourse = courseRepository.getReferenceById(dataset.course());
+            LocalDateTime now = LocalDateTime.now();
+            // Open, to close, to update, to publish, to delete, then scale - 1 more open ones
+            for (int i = 0; i < 4 + scale; i++) {
+                Exam exam = Exam.builder()
+                        .course(examCourse)
+                        .title("Budget Exam " + tag + " " + i)
+                        .startTime(now.minusHours(1))
+                        .endTime(now.plusHours(1))
+                        .durationMinutes(60)
+                        .shuffleSalt(ExamShuffle.newSalt())
+                        .status(i < 2 || i > 4 ? ExamStatus.PUBLISHED : ExamStatus.DRAFT)
+                        .publishedAt(i < 2 || i > 4 ? now : null)
+                        .build();
+                for (int q = 0; q < 5 * scale; q++) {
+                    exam.addQuestion(question(q));
+                }
+                examRepository.save(exam);
+                dataset.examIds.add(exam.getId());
+                dataset.questionIds.put(exam.getId(), exam.getQuestions().stream().map(Question::getId).toList());
+            }
+            Exam examToGrade = Exam.builder()
+                    .course(examCourse)
+                    .title("Budget Exam " + tag + " graded")
+                    .startTime(now.minusHours(2))
+                    .endTime(now.minusHours(1))
+                    .durationMinutes(60)
+                    .shuffleSalt(ExamShuffle.newSalt())
+                    .status(ExamStatus.CLOSED)
+                    .publishedAt(now.minusHours(3))
+                    .build();
+            for (int q = 0; q < 5 * scale; q++) {
+                examToGrade.addQuestion(question(q));
+            }
+            examRepository.save(examToGrade);
+            dataset.examToGradeId = examToGrade.getId();
+            dataset.questionIds.put(examToGrade.getId(),
+                    examToGrade.getQuestions().stream().map(Question::getId).toList());
+
+            Exam openExam = examRepository.getReferenceById(dataset.exam());
+            Exam examToClose = examRepository.getReferenceById(dataset.examToClose());
+            for (int i = FIRST_ATTEMPT_STUDENT; i < students.size(); i++) {
+                dataset.attempts.add(attemptRepository.save(attempt(openExam, students.get(i), null, now)));
+                dataset.submittedAttempts.add(attemptRepository.save(attempt(examToClose, students.get(i), now, now)));
+                dataset.submittedAttempts.add(attemptRepository.save(attempt(examToGrade, students.get(i), now, now)));
+            }
+
+            students.forEach(user -> dataset.studentIds.add(user.getId()));
+            instructors.forEach(user -> dataset.instructorIds.add(user.getId()));
+            spareStudents.forEach(user -> dataset.spareStudentIds.add(user.getId()));
+            dataset.spareInstructorId = spareInstructor.getId();
+            dataset.pendingUserId = pendingUser.getId();
+            dataset.userToRejectId = userToReject.getId();
+        });
+        return dataset;
+    }
+
+    Long course() {
+        return courseIds.get(0);
+    }
+
+    String courseCode() {
+        return tag + "-C0";
+    }
+
+    Long courseToDelete() {
+        return courseIds.get(courseIds.size() - 1);
+    }
+
+    Long student() {
+        return studentIds.get(0);
+    }
+
+    String studentUsername() {
+        return tag + "-student0";
+    }
+
+    Long studentToRemove() {
+        return studentIds.get(1);
+    }
+
+    Long studentToUpdate() {
+        return studentIds.get(2);
+    }
+
+    Long studentToPromote() {
+        return studentIds.get(3);
+    }
+
+    Long studentToDelete() {
+        return studentIds.get(4);
+    }
+
+    Long instructor() {
+        return instructorIds.get(0);
+    }
+
+    Long exam() {
+        return examIds.get(0);
+    }
+
+    Long examToClose() {
+        return examIds.get(1);
+    }
+
+    Long examToUpdate() {
+        return examIds.get(2);
+    }
+
+    Long examToPublish() {
+        return examIds.get(3);
+    }
+
+    Long examToDelete() {
+        return examIds.get(4);
+    }
+
+    ExamAttempt attemptToSave() {
+        return attempts.get(0);
+    }
+
+    ExamAttempt attemptToSubmit() {
+        return attempts.get(1);
+    }
+
+    ExamAttempt attemptToExtend() {
+        return attempts.get(2);
+    }
+
+    Long examToGrade() {
+        return examToGradeId;
+    }
+
+    private static ExamAttempt attempt(Exam exam, User student, LocalDateTime submittedAt, LocalDateTime now) {
+        return ExamAttempt.builder()
+                .exam(exam)
+                .student(student)
+                .status(submittedAt != null ? AttemptStatus.SUBMITTED : AttemptStatus.IN_PROGRESS)
+                .startedAt(now.minusMinutes(30))
+                .deadline(now.plusMinutes(30))
+                .submittedAt(submittedAt)
+                .build();
+    }
+
+    private static Question question(int index) {
+        Question question = Question.builder()
+                .type(QuestionType.MULTIPLE_CHOICE)
+                .text("Budget question " + index)
+                .points(1.0)
+                .build();
+        for (int i = 0; i < 4; i++) {
+            question.getOptions().add(new QuestionOption("Option " + i, i == index % 4));
+        }
+        return question;
+    }
+
+    private static User user(String tag, String name, UserRole role, UserStatus status, String encodedPassword) {
+        return User.builder()
+                .username(tag + "-" + name)
+                .email(tag + "-" + name + "@budget.test")
+                .password(encodedPassword)
+                .fullName("Budget " + name)
+                .role(role)
+                .status(status)
+                .build();
+    }
+}
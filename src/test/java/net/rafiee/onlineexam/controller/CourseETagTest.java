@@ -0,0 +1,117 @@
+package net.rafiee.onlineexam.controller;
+
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.dto.CourseDTO;
+import net.rafiee.onlineexam.dto.UserUpdateDTO;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+class CourseETagTest extends IntegrationTest {
+
+    private User admin;
+    private User instructor;
+    private Course course;
+
+    @BeforeEach
+    void createCourse() {
+        admin = createUser(UserRole.ADMIN);
+        instructor = createUser(UserRole.INSTRUCTOR);
+        course = createCourse(instructor);
+    }
+
+    @Test
+    void unchangedCoursesRevalidate() throws Exception {
+        String list = eTag(get("/api/courses"));
+        String detail = eTag(get("/api/courses/" + course.getId()));
+
+        assertThat(status(get("/api/courses"), list)).isEqualTo(304);
+        assertThat(status(get("/api/courses/" + course.getId()), detail)).isEqualTo(304);
+    }
+
+    @Test
+    void enrollingThroughJdbcChangesETags() throws Exception {
+        User student = createUser(UserRole.STUDENT);
+        String list = eTag(get("/api/courses"));
+        String detail = eTag(get("/api/courses/" + course.getId()));
+
+        assertThat(perform(post("/api/courses/" + course.getId() + "/students/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(student.getId()))), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+
+        assertThat(status(get("/api/courses"), list)).isEqualTo(200);
+        assertThat(status(get("/api/courses/" + course.getId()), detail)).isEqualTo(200);
+    }
+
+    @Test
+    void enrollingThroughJpaChangesETags() throws Exception {
+        User student = createUser(UserRole.STUDENT);
+        String list = eTag(get("/api/courses"));
+        String detail = eTag(get("/api/courses/" + course.getId()));
+
+        assertThat(perform(post("/api/courses/" + course.getId() + "/students/" + student.getId()), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+
+        assertThat(status(get("/api/courses"), list)).isEqualTo(200);
+        assertThat(status(get("/api/courses/" + course.getId()), detail)).isEqualTo(200);
+    }
+
+    @Test
+    void renamingAnInstructorChangesETags() throws Exception {
+        String list = eTag(get("/api/courses"));
+        String detail = eTag(get("/api/courses/" + course.getId()));
+
+        UserUpdateDTO update = UserUpdateDTO.builder().fullName("Renamed " + instructor.getUsername()).build();
+        assertThat(perform(put("/api/users/" + instructor.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+
+        assertThat(status(get("/api/courses"), list)).isEqualTo(200);
+        assertThat(status(get("/api/courses/" + course.getId()), detail)).isEqualTo(200);
+    }
+
+    @Test
+    void updatingACourseChangesETags() throws Exception {
+        String list = eTag(get("/api/courses"));
+        String detail = eTag(get("/api/courses/" + course.getId()));
+
+        CourseDTO update = CourseDTO.builder()
+                .title("Renamed " + course.getTitle())
+                .courseCode(course.getCourseCode())
+                .startDate(LocalDate.now())
+                .endDate(course.getEndDate())
+                .build();
+        assertThat(perform(put("/api/courses/" + course.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(update)), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+
+        assertThat(status(get("/api/courses"), list)).isEqualTo(200);
+        assertThat(status(get("/api/courses/" + course.getId()), detail)).isEqualTo(200);
+    }
+
+    private String eTag(MockHttpServletRequestBuilder request) throws Exception {
+        String eTag = perform(request, admin).getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(eTag).isNotNull();
+        return eTag;
+    }
+
+    private int status(MockHttpServletRequestBuilder request, String eTag) throws Exception {
+        return perform(request.header(HttpHeaders.IF_NONE_MATCH, eTag), admin).getResponse().getStatus();
+    }
+}
@@ -0,0 +1,142 @@
+package net.rafiee.onlineexam.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * The course list endpoints serve summaries: their statement count must not depend on how many
+ * courses they list. Each endpoint is measured with {@value #SMALL} courses seeded and again
+ * with four times as many, with a cold second-level cache both times. Statements are counted
+ * as in {@link StatementBudgetTest}.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=INFO",
+        "journal.directory=target/journal",
+        "answers.wal.directory=target/answer-wal"
+})
+@AutoConfigureMockMvc
+@Import(StatementBudgetTest.Config.class)
+class CourseSummaryStatementTest {
+
+    private static final int SMALL = 5;
+    private static final String TAG = "summarygrowth";
+    private static final UserPrincipal ADMIN = new UserPrincipal(0L, "summary-admin", "", true,
+            List.of(new SimpleGrantedAuthority("ROLE_ADMIN")));
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void summaryListsCostTheSameStatementsForFourTimesTheCourses() throws Exception {
+        User instructor = userRepository.save(account("instructor", UserRole.INSTRUCTOR));
+        User student = userRepository.save(account("student", UserRole.STUDENT));
+        Map<String, Supplier<MockHttpServletRequestBuilder>> endpoints = new LinkedHashMap<>();
+        endpoints.put("GET /api/courses", () -> get("/api/courses").param("size", "200"));
+        endpoints.put("GET /api/courses/instructor/{id}", () -> get("/api/courses/instructor/{id}", instructor.getId()));
+        endpoints.put("GET /api/courses/student/{id}", () -> get("/api/courses/student/{id}", student.getId()));
+        endpoints.put("GET /api/courses/search", () -> get("/api/courses/search").param("keyword", TAG));
+        endpoints.put("GET /admin/courses", () -> get("/admin/courses"));
+        endpoints.put("GET /admin/dashboard", () -> get("/admin/dashboard"));
+
+        seedCourses(0, SMALL, instructor, student);
+        Map<String, Integer> small = measure(endpoints);
+        assertThat(listSize(get("/api/courses/instructor/{id}", instructor.getId()))).isEqualTo(SMALL);
+
+        seedCourses(SMALL, 4 * SMALL, instructor, student);
+        Map<String, Integer> large = measure(endpoints);
+        assertThat(listSize(get("/api/courses/instructor/{id}", instructor.getId()))).isEqualTo(4 * SMALL);
+        assertThat(listSize(get("/api/courses/student/{id}", student.getId()))).isEqualTo(4 * SMALL);
+
+        assertThat(small.values()).as("statements counted").allMatch(count -> count > 0);
+        assertThat(large).isEqualTo(small);
+    }
+
+    private void seedCourses(int from, int to, User instructor, User student) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int i = from; i < to; i++) {
+                Course course = Course.builder()
+                        .title("Summary Course " + TAG + " " + i)
+                        .courseCode(TAG + "-C" + i)
+                        .startDate(LocalDate.now().plusMonths(1))
+                        .endDate(LocalDate.now().plusMonths(6))
+                        .build();
+                course.addInstructor(userRepository.getReferenceById(instructor.getId()));
+                course.addStudent(userRepository.getReferenceById(student.getId()));
+                courseRepository.save(course);
+            }
+        });
+    }
+
+    private Map<String, Integer> measure(Map<String, Supplier<MockHttpServletRequestBuilder>> endpoints)
+            throws Exception {
+        Map<String, Integer> statements = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<MockHttpServletRequestBuilder>> endpoint : endpoints.entrySet()) {
+            entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+            int[] status = new int[1];
+            statements.put(endpoint.getKey(), StatementCounter.count(() -> status[0] =
+                    mockMvc.perform(endpoint.getValue().get().with(user(ADMIN))).andReturn().getResponse().getStatus()));
+            assertThat(status[0]).as(endpoint.getKey()).isEqualTo(200);
+        }
+        return statements;
+    }
+
+    private int listSize(MockHttpServletRequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request.with(user(ADMIN))).andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsByteArray()).size();
+    }
+
+    private static User account(String name, UserRole role) {
+        return User.builder()
+                .username(TAG + "-" + name)
+                .email(TAG + "-" + name + "@summary.test")
+                .password("{noop}secret")
+                .fullName("Summary " + name)
+                .role(role)
+                .status(UserStatus.APPROVED)
+                .build();
+    }
+}
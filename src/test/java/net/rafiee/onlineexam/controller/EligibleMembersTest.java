@@ -0,0 +1,72 @@
+package net.rafiee.onlineexam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Checks the typeahead on the course page: word-start matches from the search index, in ID
+ * order and paged by cursor, without current members or unapproved users.
+ */
+class EligibleMembersTest extends IntegrationTest {
+
+    @Test
+    void studentsMatchingAWordStartArePagedInIdOrder() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        String surname = unique("rafiee");
+        User enrolled = named(UserRole.STUDENT, UserStatus.APPROVED, "Ali " + surname);
+        User first = named(UserRole.STUDENT, UserStatus.APPROVED, "Sara " + surname);
+        named(UserRole.STUDENT, UserStatus.APPROVED, "Reza X" + surname);
+        named(UserRole.STUDENT, UserStatus.PENDING, "Nima " + surname);
+        named(UserRole.INSTRUCTOR, UserStatus.APPROVED, "Mina " + surname);
+        User second = named(UserRole.STUDENT, UserStatus.APPROVED, "Reza " + surname);
+        Course course = createCourse(null, enrolled);
+        String query = surname.toUpperCase(Locale.ROOT);
+
+        JsonNode page = candidates(admin, course, UserRole.STUDENT, query, null);
+        assertThat(page.get("items")).extracting(item -> item.get("id").asLong()).containsExactly(first.getId());
+        assertThat(page.get("hasNext").asBoolean()).isTrue();
+
+        JsonNode next = candidates(admin, course, UserRole.STUDENT, query, page.get("nextCursor").asText());
+        assertThat(next.get("items")).extracting(item -> item.get("id").asLong()).containsExactly(second.getId());
+        assertThat(next.get("hasNext").asBoolean()).isFalse();
+    }
+
+    @Test
+    void instructorsAlreadyTeachingAreLeftOut() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        String surname = unique("karimi");
+        User teaching = named(UserRole.INSTRUCTOR, UserStatus.APPROVED, "Ali " + surname);
+        User other = named(UserRole.INSTRUCTOR, UserStatus.APPROVED, "Sara " + surname);
+        Course course = createCourse(teaching);
+
+        JsonNode page = candidates(admin, course, UserRole.INSTRUCTOR, surname, null);
+        assertThat(page.get("items")).extracting(item -> item.get("id").asLong()).containsExactly(other.getId());
+    }
+
+    private User named(UserRole role, UserStatus status, String fullName) {
+        User user = createUser(role, status);
+        user.setFullName(fullName);
+        return userRepository.save(user);
+    }
+
+    private JsonNode candidates(User admin, Course course, UserRole role, String query, String cursor) throws Exception {
+        var request = get("/api/courses/" + course.getId() + "/eligible-members")
+                .param("role", role.name())
+                .param("q", query)
+                .param("size", "1");
+        if (cursor != null) {
+            request.param("cursor", cursor);
+        }
+        return json(perform(request, admin));
+    }
+}
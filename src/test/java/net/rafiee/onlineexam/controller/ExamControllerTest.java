@@ -0,0 +1,108 @@
+package net.rafiee.onlineexam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class ExamControllerTest extends IntegrationTest {
+
+    private User instructor;
+    private User student;
+    private Course course;
+
+    @BeforeEach
+    void createCourse() {
+        instructor = createUser(UserRole.INSTRUCTOR);
+        student = createUser(UserRole.STUDENT);
+        course = createCourse(instructor, student);
+    }
+
+    @Test
+    void paperLeavesOutTheAnswerKey() throws Exception {
+        long examId = createPublishedExam(instructor, course,
+                multipleChoice(2, 4, 1, 3), trueFalse(1, true), numeric(3, 42.5, 0.5), descriptive(4));
+
+        MvcResult result = perform(get("/api/exams/" + examId + "/paper"), student);
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        String body = result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+        assertThat(body).doesNotContain("correct", "isCorrect", "booleanAnswer", "numericAnswer",
+                "numericTolerance", "42.5");
+        JsonNode paper = json(result);
+        assertThat(paper.get("examId").asLong()).isEqualTo(examId);
+        assertThat(paper.get("courseId").asLong()).isEqualTo(course.getId());
+        assertThat(paper.get("totalPoints").asDouble()).isEqualTo(10.0);
+        assertThat(paper.get("questions")).hasSize(4);
+        for (JsonNode question : paper.get("questions")) {
+            assertThat(question.fieldNames()).toIterable()
+                    .containsExactlyInAnyOrder("id", "type", "text", "points", "options");
+            if (question.get("type").asText().equals("MULTIPLE_CHOICE")) {
+                // Plain option texts, in whatever order this student is shown them
+                assertThat(question.get("options")).extracting(JsonNode::asText)
+                        .containsExactlyInAnyOrder("Option 0", "Option 1", "Option 2", "Option 3");
+            }
+        }
+    }
+
+    @Test
+    void paperRevalidatesWithItsETag() throws Exception {
+        long examId = createPublishedExam(instructor, course, trueFalse(1, true));
+        String eTag = perform(get("/api/exams/" + examId + "/paper"), student).getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(perform(get("/api/exams/" + examId + "/paper").header(HttpHeaders.IF_NONE_MATCH, eTag), student)
+                .getResponse().getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void paperIsForbiddenToStudentsOutsideTheCourse() throws Exception {
+        long examId = createPublishedExam(instructor, course, trueFalse(1, true));
+
+        assertThat(perform(get("/api/exams/" + examId + "/paper"), createUser(UserRole.STUDENT))
+                .getResponse().getStatus()).isEqualTo(403);
+    }
+
+    @Test
+    void paperOfADraftOrClosedExamIsNotFound() throws Exception {
+        long draft = createExam(instructor, course, trueFalse(1, true));
+        long closed = createPublishedExam(instructor, course, trueFalse(1, true));
+        assertThat(perform(post("/api/exams/" + closed + "/close"), instructor).getResponse().getStatus())
+                .isEqualTo(200);
+
+        assertThat(perform(get("/api/exams/" + draft + "/paper"), student).getResponse().getStatus()).isEqualTo(404);
+        assertThat(perform(get("/api/exams/" + closed + "/paper"), student).getResponse().getStatus()).isEqualTo(404);
+    }
+
+    @Test
+    void studentsSeeOnlyPublishedExamsOfTheirCourses() throws Exception {
+        createExam(instructor, course, trueFalse(1, true));
+        long published = createPublishedExam(instructor, course, trueFalse(1, true));
+
+        MvcResult result = perform(get("/api/exams/course/" + course.getId()), student);
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(json(result)).extracting(exam -> exam.get("id").asLong()).containsExactly(published);
+        assertThat(json(perform(get("/api/exams/course/" + course.getId()), instructor))).hasSize(2);
+    }
+
+    @Test
+    void courseExamsOfAnotherCourseAreForbiddenAndOfAMissingCourseNotFound() throws Exception {
+        Course other = createCourse(instructor);
+
+        assertThat(perform(get("/api/exams/course/" + other.getId()), student).getResponse().getStatus())
+                .isEqualTo(403);
+        assertThat(perform(get("/api/exams/course/" + Integer.MAX_VALUE), student).getResponse().getStatus())
+                .isEqualTo(404);
+    }
+}
@@ -0,0 +1,131 @@
+package net.rafiee.onlineexam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.service.AttemptService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class ExamGradingTest extends IntegrationTest {
+
+    @Autowired
+    private AttemptService attemptService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User instructor;
+    private User first;
+    private User second;
+    private long examId;
+
+    @BeforeEach
+    void publishExam() throws Exception {
+        instructor = createUser(UserRole.INSTRUCTOR);
+        first = createUser(UserRole.STUDENT);
+        second = createUser(UserRole.STUDENT);
+        Course course = createCourse(instructor, first, second);
+        examId = createPublishedExam(instructor, course,
+                multipleChoice(2, 4, 1, 3), trueFalse(1, true), numeric(3, 42.5, 0.5), descriptive(5));
+    }
+
+    @Test
+    void closingGradesTheSubmittedAttempts() throws Exception {
+        long right = startAttempt(first, examId);
+        assertThat(saveAnswers(first, right, correctAnswers(first))).isEqualTo(204);
+        submit(first, right);
+        long blank = startAttempt(second, examId);
+        submit(second, blank);
+        LocalDateTime beforeClose = LocalDateTime.now();
+
+        close();
+
+        assertGraded(right, 6, beforeClose);
+        assertGraded(blank, 0, beforeClose);
+    }
+
+    @Test
+    void attemptsSubmittedAfterTheExamClosedAreGraded() throws Exception {
+        long submittedLate = startAttempt(first, examId);
+        long extended = startAttempt(second, examId);
+        assertThat(perform(post("/api/attempts/" + extended + "/extend").param("minutes", "30"), instructor)
+                .getResponse().getStatus()).isEqualTo(200);
+        assertThat(saveAnswers(first, submittedLate, correctAnswers(first))).isEqualTo(204);
+        assertThat(saveAnswers(second, extended, correctAnswers(second))).isEqualTo(204);
+        LocalDateTime beforeClose = LocalDateTime.now();
+
+        close();
+        assertThat(status(submittedLate)).isEqualTo("IN_PROGRESS");
+        assertThat(status(extended)).isEqualTo("IN_PROGRESS");
+
+        submit(first, submittedLate);
+        assertGraded(submittedLate, 6, beforeClose);
+
+        // The extended deadline passes
+        jdbcTemplate.update("UPDATE exam_attempts SET deadline = ? WHERE id = ?",
+                LocalDateTime.now().minusSeconds(1), extended);
+        assertThat(attemptService.autoSubmitAttempts(List.of(extended))).isEqualTo(1);
+        assertGraded(extended, 6, beforeClose);
+    }
+
+    private AnswerDTO[] correctAnswers(User student) throws Exception {
+        List<AnswerDTO> answers = new ArrayList<>();
+        for (JsonNode question : paper(student, examId).get("questions")) {
+            long questionId = question.get("id").asLong();
+            switch (question.get("type").asText()) {
+                case "MULTIPLE_CHOICE" -> {
+                    // The options are shuffled; the correct ones are chosen where they are shown
+                    List<Integer> selected = new ArrayList<>();
+                    for (int position = 0; position < question.get("options").size(); position++) {
+                        String option = question.get("options").get(position).asText();
+                        if (option.equals("Option 1") || option.equals("Option 3")) {
+                            selected.add(position);
+                        }
+                    }
+                    answers.add(AnswerDTO.builder().questionId(questionId).selectedOptions(selected).build());
+                }
+                case "TRUE_FALSE" -> answers.add(AnswerDTO.builder().questionId(questionId).booleanAnswer(true).build());
+                case "NUMERIC" -> answers.add(AnswerDTO.builder().questionId(questionId).numericAnswer(42.8).build());
+                default -> answers.add(AnswerDTO.builder().questionId(questionId).textAnswer("Because").build());
+            }
+        }
+        return answers.toArray(AnswerDTO[]::new);
+    }
+
+    private void submit(User student, long attemptId) throws Exception {
+        assertThat(perform(post("/api/attempts/" + attemptId + "/submit"), student).getResponse().getStatus())
+                .isEqualTo(200);
+    }
+
+    private void close() throws Exception {
+        assertThat(perform(post("/api/exams/" + examId + "/close"), instructor).getResponse().getStatus())
+                .isEqualTo(200);
+    }
+
+    private String status(long attemptId) {
+        return jdbcTemplate.queryForObject("SELECT status FROM exam_attempts WHERE id = ?", String.class, attemptId);
+    }
+
+    private void assertGraded(long attemptId, double score, LocalDateTime notBefore) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT status, score, graded_at FROM exam_attempts WHERE id = ?", attemptId);
+        assertThat(row.get("status")).isEqualTo("GRADED");
+        assertThat(((Number) row.get("score")).doubleValue()).isEqualTo(score);
+        assertThat(((Timestamp) row.get("graded_at")).toLocalDateTime()).isAfterOrEqualTo(notBefore);
+    }
+}
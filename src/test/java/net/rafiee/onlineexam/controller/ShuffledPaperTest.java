@@ -0,0 +1,149 @@
+package net.rafiee.onlineexam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.dto.AnswerDTO;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class ShuffledPaperTest extends IntegrationTest {
+
+    // The correct options of each question, told apart by "points/option count"
+    private static final Map<String, List<Integer>> CORRECT = Map.of(
+            "2/6", List.of(1, 4),
+            "3/5", List.of(0),
+            "1/4", List.of(2, 3),
+            "1/7", List.of(6));
+
+    private User instructor;
+    private User first;
+    private User second;
+    private long examId;
+
+    @BeforeEach
+    void publishExam() throws Exception {
+        instructor = createUser(UserRole.INSTRUCTOR);
+        first = createUser(UserRole.STUDENT);
+        second = createUser(UserRole.STUDENT);
+        examId = createPublishedExam(instructor, createCourse(instructor, first, second),
+                multipleChoice(2, 6, 1, 4), multipleChoice(3, 5, 0), multipleChoice(1, 4, 2, 3),
+                multipleChoice(1, 7, 6), trueFalse(1, true));
+    }
+
+    @Test
+    void eachStudentKeepsTheirOwnOrder() throws Exception {
+        JsonNode firstPaper = paper(first, examId);
+
+        assertThat(paper(first, examId)).isEqualTo(firstPaper);
+        assertThat(paper(second, examId)).isNotEqualTo(firstPaper);
+        // The same questions and options, only in another order
+        assertThat(contents(paper(second, examId))).isEqualTo(contents(firstPaper));
+    }
+
+    @Test
+    void theCorrectOptionsWhereverShownScoreFullMarks() throws Exception {
+        long firstAttempt = startAttempt(first, examId);
+        long secondAttempt = startAttempt(second, examId);
+        Map<Long, List<Integer>> firstShown = correctPositions(paper(first, examId));
+        assertThat(saveAnswers(first, firstAttempt, answers(firstShown))).isEqualTo(204);
+        assertThat(saveAnswers(second, secondAttempt, answers(correctPositions(paper(second, examId))))).isEqualTo(204);
+
+        // The student gets back what they chose where they saw it, anyone else the exam's option indexes
+        assertThat(selections(perform(get("/api/attempts/" + firstAttempt), first))).isEqualTo(firstShown);
+        Map<Long, List<Integer>> canonical = selections(perform(get("/api/attempts/" + firstAttempt), instructor));
+        assertThat(canonical).hasSize(CORRECT.size());
+        for (JsonNode question : paper(first, examId).get("questions")) {
+            if (question.get("type").asText().equals("MULTIPLE_CHOICE")) {
+                assertThat(canonical.get(question.get("id").asLong())).isEqualTo(CORRECT.get(key(question)));
+            }
+        }
+        assertThat(selections(perform(get("/api/attempts/" + firstAttempt), createUser(UserRole.ADMIN))))
+                .isEqualTo(canonical);
+
+        for (var attempt : Map.of(first, firstAttempt, second, secondAttempt).entrySet()) {
+            assertThat(perform(post("/api/attempts/" + attempt.getValue() + "/submit"), attempt.getKey())
+                    .getResponse().getStatus()).isEqualTo(200);
+        }
+        assertThat(perform(post("/api/exams/" + examId + "/close"), instructor).getResponse().getStatus())
+                .isEqualTo(200);
+
+        for (long attemptId : List.of(firstAttempt, secondAttempt)) {
+            JsonNode attempt = json(perform(get("/api/attempts/" + attemptId), instructor));
+            assertThat(attempt.get("status").asText()).isEqualTo("GRADED");
+            assertThat(attempt.get("score").asDouble()).isEqualTo(8);
+        }
+    }
+
+    // The positions at which the student's paper shows the correct options, by question
+    private static Map<Long, List<Integer>> correctPositions(JsonNode paper) {
+        Map<Long, List<Integer>> positions = new HashMap<>();
+        for (JsonNode question : paper.get("questions")) {
+            if (!question.get("type").asText().equals("MULTIPLE_CHOICE")) {
+                continue;
+            }
+            List<Integer> correct = CORRECT.get(key(question));
+            List<Integer> shown = new ArrayList<>();
+            for (int position = 0; position < question.get("options").size(); position++) {
+                // Options are named after their canonical index
+                int option = Integer.parseInt(question.get("options").get(position).asText().substring("Option ".length()));
+                if (correct.contains(option)) {
+                    shown.add(position);
+                }
+            }
+            positions.put(question.get("id").asLong(), shown);
+        }
+        return positions;
+    }
+
+    private AnswerDTO[] answers(Map<Long, List<Integer>> selections) throws Exception {
+        List<AnswerDTO> answers = new ArrayList<>();
+        selections.forEach((questionId, selected) ->
+                answers.add(AnswerDTO.builder().questionId(questionId).selectedOptions(selected).build()));
+        for (JsonNode question : paper(first, examId).get("questions")) {
+            if (question.get("type").asText().equals("TRUE_FALSE")) {
+                answers.add(AnswerDTO.builder().questionId(question.get("id").asLong()).booleanAnswer(true).build());
+            }
+        }
+        return answers.toArray(AnswerDTO[]::new);
+    }
+
+    private Map<Long, List<Integer>> selections(MvcResult result) throws Exception {
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        Map<Long, List<Integer>> selections = new HashMap<>();
+        for (JsonNode answer : json(result).get("answers")) {
+            List<Integer> selected = new ArrayList<>();
+            answer.get("selectedOptions").forEach(option -> selected.add(option.asInt()));
+            if (!selected.isEmpty()) {
+                selections.put(answer.get("questionId").asLong(), selected);
+            }
+        }
+        return selections;
+    }
+
+    private static String key(JsonNode question) {
+        return question.get("points").asInt() + "/" + question.get("options").size();
+    }
+
+    // Every question with its options sorted, which shuffling leaves alone
+    private static Map<Long, List<String>> contents(JsonNode paper) {
+        Map<Long, List<String>> contents = new HashMap<>();
+        for (JsonNode question : paper.get("questions")) {
+            List<String> options = new ArrayList<>();
+            question.get("options").forEach(option -> options.add(option.asText()));
+            contents.put(question.get("id").asLong(), options.stream().sorted().toList());
+        }
+        return contents;
+    }
+}
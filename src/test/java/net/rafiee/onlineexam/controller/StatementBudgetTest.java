@@ -0,0 +1,392 @@
+package net.rafiee.onlineexam.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import net.rafiee.onlineexam.attempt.ActiveAttempt;
+import net.rafiee.onlineexam.attempt.ActiveAttempts;
+import net.rafiee.onlineexam.attempt.AnswerStore;
+import net.rafiee.onlineexam.attempt.SavedAnswer;
+import net.rafiee.onlineexam.entity.ExamAttempt;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.exam.ExamSnapshotLoader;
+import net.rafiee.onlineexam.repository.AttemptAnswerJdbcRepository;
+import net.rafiee.onlineexam.repository.CourseRepository;
+import net.rafiee.onlineexam.repository.ExamAttemptRepository;
+import net.rafiee.onlineexam.repository.ExamRepository;
+import net.rafiee.onlineexam.repository.UserRepository;
+import net.rafiee.onlineexam.security.UserPrincipal;
+import org.hibernate.Cache;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+/**
+ * Statement budgets for the course, user, exam and attempt REST endpoints.
+ * <p>
+ * Every endpoint runs twice: once against a small seeded dataset and once after the data has
+ * grown about fourfold, both with a cold second-level cache. The test fails when an endpoint
+ * executes more JDBC statements than its budget, or more statements on the larger dataset
+ * than on the smaller one, which is how N+1 queries show up. When a change legitimately
+ * needs another query, raise the budget in {@link #BUDGETS} in the same change.
+ * <p>
+ * Conditional entries first fetch the endpoint's ETag, then measure a revalidation with
+ * {@code If-None-Match}, which should cost only the validator query. Autosaving answers should
+ * cost none at all.
+ */
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.security=INFO",
+        "journal.directory=target/journal",
+        "answers.wal.directory=target/answer-wal"
+})
+@AutoConfigureMockMvc
+@Import(StatementBudgetTest.Config.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StatementBudgetTest {
+
+    private static final int SMALL = 1;
+    private static final int LARGE = 4;
+    private static final UserPrincipal ADMIN = principalOf(0L, "budget-admin", UserRole.ADMIN);
+
+    // Reads first, then writes; each write uses entities that no later request depends on
+    private static final List<EndpointBudget> BUDGETS = List.of(
+            budget("GET /api/courses", 3, HttpStatus.OK,
+                    data -> get("/api/courses")),
+            conditional("GET /api/courses If-None-Match", 0,
+                    data -> get("/api/courses")),
+            budget("GET /api/courses/{id}", 4, HttpStatus.OK,
+                    data -> get("/api/courses/{id}", data.course())),
+            conditional("GET /api/courses/{id} If-None-Match", 1,
+                    data -> get("/api/courses/{id}", data.course())),
+            budget("GET /api/courses/code/{courseCode}", 3, HttpStatus.OK,
+                    data -> get("/api/courses/code/{code}", data.courseCode())),
+            budget("GET /api/courses/instructor/{instructorId}", 3, HttpStatus.OK,
+                    data -> get("/api/courses/instructor/{id}", data.instructor())),
+            budget("GET /api/courses/student/{studentId}", 3, HttpStatus.OK,
+                    data -> get("/api/courses/student/{id}", data.student())),
+            budget("GET /api/courses/search", 2, HttpStatus.OK,
+                    data -> get("/api/courses/search").param("keyword", "budget course")),
+            budget("GET /api/courses/{courseId}/eligible-members", 2, HttpStatus.OK,
+                    data -> get("/api/courses/{id}/eligible-members", data.course()).param("role", "STUDENT")),
+            budget("GET /api/users", 1, HttpStatus.OK,
+                    data -> get("/api/users")),
+            budget("GET /api/users/{id}", 2, HttpStatus.OK,
+                    data -> get("/api/users/{id}", data.student())),
+            conditional("GET /api/users/{id} If-None-Match", 1,
+                    data -> get("/api/users/{id}", data.student())),
+            budget("GET /api/users/username/{username}", 1, HttpStatus.OK,
+                    data -> get("/api/users/username/{username}", data.studentUsername())),
+            budget("GET /api/users/role/{role}", 1, HttpStatus.OK,
+                    data -> get("/api/users/role/STUDENT")),
+            budget("GET /api/users/status/{status}", 1, HttpStatus.OK,
+                    data -> get("/api/users/status/APPROVED")),
+            budget("GET /api/users/search", 1, HttpStatus.OK,
+                    data -> get("/api/users/search").param("keyword", "budget")),
+            budget("GET /api/exams/course/{courseId}", 2, HttpStatus.OK,
+                    data -> get("/api/exams/course/{id}", data.course())),
+            budget("GET /api/exams/{id}", 3, HttpStatus.OK,
+                    data -> get("/api/exams/{id}", data.exam())),
+            budget("GET /api/exams/{id}/paper", 0, HttpStatus.OK,
+                    data -> get("/api/exams/{id}/paper", data.exam())).asStudent(),
+            conditional("GET /api/exams/{id}/paper If-None-Match", 0,
+                    data -> get("/api/exams/{id}/paper", data.exam())).asStudent(),
+            budget("GET /api/attempts/{id}", 2, HttpStatus.OK,
+                    data -> get("/api/attempts/{id}", data.attemptToSave().getId())),
+            budget("PUT /api/attempts/{id}/answers", 0, HttpStatus.NO_CONTENT,
+                    data -> json(put("/api/attempts/{id}/answers", data.attemptToSave().getId()),
+                            answers(data.questionIds.get(data.exam())))).asStudent(BudgetDataset.FIRST_ATTEMPT_STUDENT),
+
+            budget("POST /api/courses", 2, HttpStatus.CREATED,
+                    data -> json(post("/api/courses"), course(data.tag + "-NEW"))),
+            budget("PUT /api/courses/{id}", 4, HttpStatus.OK,
+                    data -> json(put("/api/courses/{id}", data.course()), course(data.courseCode()))),
+            budget("DELETE /api/courses/{courseId}/instructors/{instructorId}", 7, HttpStatus.OK,
+                    data -> delete("/api/courses/{c}/instructors/{u}", data.course(), data.instructor())),
+            budget("POST /api/courses/{courseId}/instructors/{instructorId}", 7, HttpStatus.OK,
+                    data -> post("/api/courses/{c}/instructors/{u}", data.course(), data.spareInstructorId)),
+            budget("POST /api/courses/{courseId}/students/{studentId}", 6, HttpStatus.OK,
+                    data -> post("/api/courses/{c}/students/{u}", data.course(), data.spareStudentIds.get(0))),
+            budget("DELETE /api/courses/{courseId}/students/{studentId}", 6, HttpStatus.OK,
+                    data -> delete("/api/courses/{c}/students/{u}", data.course(), data.studentToRemove())),
+            budget("POST /api/courses/{courseId}/students/batch", 4, HttpStatus.OK,
+                    data -> json(post("/api/courses/{c}/students/batch", data.course()),
+                            data.spareStudentIds.subList(1, 6).toString())),
+            budget("POST /api/exams/course/{courseId}", 5, HttpStatus.CREATED,
+                    data -> json(post("/api/exams/course/{id}", data.course()), exam(data.tag + " New Exam"))),
+            budget("PUT /api/exams/{id}", 7, HttpStatus.OK,
+                    data -> json(put("/api/exams/{id}", data.examToUpdate()), exam(data.tag + " Updated Exam"))),
+            budget("POST /api/exams/{id}/publish", 3, HttpStatus.OK,
+                    data -> post("/api/exams/{id}/publish", data.examToPublish())),
+            budget("POST /api/exams/{id}/close", 5, HttpStatus.OK,
+                    data -> post("/api/exams/{id}/close", data.examToClose())),
+            budget("POST /api/attempts/exam/{examId}", 2, HttpStatus.OK,
+                    data -> post("/api/attempts/exam/{id}", data.exam())).asStudent(),
+            budget("POST /api/attempts/{id}/submit", 3, HttpStatus.OK,
+                    data -> post("/api/attempts/{id}/submit", data.attemptToSubmit().getId()))
+                    .asStudent(BudgetDataset.FIRST_ATTEMPT_STUDENT + 1),
+            budget("POST /api/attempts/{id}/extend", 3, HttpStatus.OK,
+                    data -> post("/api/attempts/{id}/extend", data.attemptToExtend().getId()).param("minutes", "15")),
+            budget("POST /api/exams/{id}/grade", 4, HttpStatus.OK,
+                    data -> post("/api/exams/{id}/grade", data.examToGrade())),
+            budget("DELETE /api/exams/{id}", 2, HttpStatus.NO_CONTENT,
+                    data -> delete("/api/exams/{id}", data.examToDelete())),
+            budget("DELETE /api/courses/{id}", 4, HttpStatus.NO_CONTENT,
+                    data -> delete("/api/courses/{id}", data.courseToDelete())),
+            budget("POST /api/users/import", 4, HttpStatus.OK,
+                    data -> post("/api/users/import").contentType("text/csv").content(importCsv(data.tag))),
+            budget("PUT /api/users/{id}", 2, HttpStatus.OK,
+                    data -> json(put("/api/users/{id}", data.studentToUpdate()), "{\"fullName\":\"Budget Updated\"}")),
+            budget("PUT /api/users/{id}/approve", 2, HttpStatus.OK,
+                    data -> put("/api/users/{id}/approve", data.pendingUserId)),
+            budget("PUT /api/users/{id}/reject", 2, HttpStatus.OK,
+                    data -> put("/api/users/{id}/reject", data.userToRejectId)),
+            budget("PUT /api/users/{id}/role", 2, HttpStatus.OK,
+                    data -> put("/api/users/{id}/role", data.studentToPromote()).param("role", "INSTRUCTOR")),
+            budget("DELETE /api/users/{id}", 6, HttpStatus.NO_CONTENT,
+                    data -> delete("/api/users/{id}", data.studentToDelete()))
+    );
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private ExamRepository examRepository;
+
+    @Autowired
+    private ExamAttemptRepository attemptRepository;
+
+    @Autowired
+    private ExamSnapshotLoader examSnapshotLoader;
+
+    @Autowired
+    private AttemptAnswerJdbcRepository attemptAnswerRepository;
+
+    @Autowired
+    private ActiveAttempts activeAttempts;
+
+    @Autowired
+    private AnswerStore answerStore;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Map<String, Measurement> small;
+    private Map<String, Measurement> large;
+
+    @BeforeAll
+    void measureAllEndpoints() throws Exception {
+        String encodedPassword = passwordEncoder.encode("budget123");
+        small = measureAll(BudgetDataset.seed("small", SMALL, encodedPassword,
+                userRepository, courseRepository, examRepository, attemptRepository, transactionTemplate));
+        large = measureAll(BudgetDataset.seed("large", LARGE, encodedPassword,
+                userRepository, courseRepository, examRepository, attemptRepository, transactionTemplate));
+    }
+
+    @TestFactory
+    Stream<DynamicTest> endpointsStayWithinStatementBudget() {
+        return BUDGETS.stream().map(budget -> DynamicTest.dynamicTest(budget.name(), () -> {
+            Measurement smallRun = small.get(budget.name());
+            Measurement largeRun = large.get(budget.name());
+
+            assertThat(smallRun.status()).as("status on small dataset").isEqualTo(budget.expectedStatus().value());
+            assertThat(largeRun.status()).as("status on large dataset").isEqualTo(budget.expectedStatus().value());
+            assertThat(smallRun.statements())
+                    .as("statements on small dataset (budget %d)", budget.maxStatements())
+                    .isLessThanOrEqualTo(budget.maxStatements());
+            assertThat(largeRun.statements())
+                    .as("statements grow with data size: %d on small dataset, %d on large",
+                            smallRun.statements(), largeRun.statements())
+                    .isLessThanOrEqualTo(smallRun.statements());
+        }));
+    }
+
+    private Map<String, Measurement> measureAll(BudgetDataset dataset) throws Exception {
+        // Exams seeded straight through the repository are published without going through the service
+        examSnapshotLoader.load();
+        prepareAttempts(dataset);
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (EndpointBudget budget : BUDGETS) {
+            UserPrincipal principal = budget.principal().apply(dataset);
+            MockHttpServletRequestBuilder request = budget.request().apply(dataset);
+            if (budget.conditional()) {
+                String eTag = mockMvc.perform(budget.request().apply(dataset).with(user(principal)))
+                        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+                assertThat(eTag).as("ETag of %s", budget.name()).isNotNull();
+                request.header(HttpHeaders.IF_NONE_MATCH, eTag);
+            }
+            measurements.put(budget.name(), measure(request, principal));
+        }
+        return measurements;
+    }
+
+    private Measurement measure(MockHttpServletRequestBuilder request, UserPrincipal principal) throws Exception {
+        entityManagerFactory.getCache().unwrap(Cache.class).evictAllRegions();
+        MvcResult[] result = new MvcResult[1];
+        int statements = StatementCounter.count(() -> {
+            result[0] = mockMvc.perform(request.with(user(principal))).andReturn();
+            if (result[0].getRequest().isAsyncStarted()) {
+                result[0] = mockMvc.perform(asyncDispatch(result[0])).andReturn();
+            }
+        });
+        return new Measurement(statements, result[0].getResponse().getStatus());
+    }
+
+    private static EndpointBudget budget(String name, int maxStatements, HttpStatus expectedStatus,
+                                         Function<BudgetDataset, MockHttpServletRequestBuilder> request) {
+        return new EndpointBudget(name, maxStatements, expectedStatus, false, data -> ADMIN, request);
+    }
+
+    private static EndpointBudget conditional(String name, int maxStatements,
+                                              Function<BudgetDataset, MockHttpServletRequestBuilder> request) {
+        return new EndpointBudget(name, maxStatements, HttpStatus.NOT_MODIFIED, true, data -> ADMIN, request);
+    }
+
+    private static UserPrincipal principalOf(Long id, String username, UserRole role) {
+        return new UserPrincipal(id, username, "", true, List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+    }
+
+    /**
+     * Registers the seeded attempts in progress, as the state loader does at startup, each with
+     * an answer to every question saved, and stores the answers of the submitted ones.
+     */
+    private void prepareAttempts(BudgetDataset dataset) {
+        Instant now = Instant.now();
+        for (ExamAttempt attempt : dataset.submittedAttempts) {
+            attemptAnswerRepository.upsertAll(dataset.questionIds.get(attempt.getExam().getId()).stream()
+                    .map(questionId -> new SavedAnswer(1, attempt.getId(), questionId, now, 1, null, null, null))
+                    .toList());
+        }
+        for (ExamAttempt attempt : dataset.attempts) {
+            answerStore.track(attempt.getId());
+            activeAttempts.put(new ActiveAttempt(attempt.getId(), dataset.exam(), attempt.getStudent().getId(),
+                    attempt.getDeadline()));
+            answerStore.save(dataset.questionIds.get(dataset.exam()).stream()
+                    .map(questionId -> new SavedAnswer(0, attempt.getId(), questionId, now, 1, null, null, null))
+                    .toList());
+        }
+    }
+
+    private static MockHttpServletRequestBuilder json(MockHttpServletRequestBuilder request, String body) {
+        return request.contentType(MediaType.APPLICATION_JSON).content(body);
+    }
+
+    private static String course(String courseCode) {
+        return """
+                {"title":"Budget Course","courseCode":"%s","description":"Statement budget fixture",
+                 "startDate":"2099-01-01","endDate":"2099-06-01"}
+                """.formatted(courseCode);
+    }
+
+    private static String exam(String title) {
+        return """
+                {"title":"%s","startTime":"2099-01-01T09:00:00","endTime":"2099-01-01T11:00:00",
+                 "durationMinutes":90,"questions":[
+                  {"type":"MULTIPLE_CHOICE","text":"Budget question","points":2,
+                   "options":[{"text":"A","correct":true},{"text":"B","correct":false}]},
+                  {"type":"TRUE_FALSE","text":"Budget statement","points":1,"booleanAnswer":true}]}
+                """.formatted(title);
+    }
+
+    private static String answers(List<Long> questionIds) {
+        return questionIds.stream()
+                .map(questionId -> "{\"questionId\":%d,\"selectedOptions\":[%d]}".formatted(questionId, questionId % 4))
+                .collect(Collectors.joining(",", "{\"answers\":[", "]}"));
+    }
+
+    private static String importCsv(String tag) {
+        StringBuilder csv = new StringBuilder("username,email,password,full_name,role\n");
+        for (int i = 0; i < 5; i++) {
+            csv.append("%s-import%d,%s-import%d@budget.test,budget123,Budget Import %d,STUDENT\n"
+                    .formatted(tag, i, tag, i, i));
+        }
+        return csv.toString();
+    }
+
+    private record EndpointBudget(String name, int maxStatements, HttpStatus expectedStatus, boolean conditional,
+                                  Function<BudgetDataset, UserPrincipal> principal,
+                                  Function<BudgetDataset, MockHttpServletRequestBuilder> request) {
+
+        /** Sends the request as the dataset's first student instead of an administrator. */
+        EndpointBudget asStudent() {
+            return asStudent(0);
+        }
+
+        EndpointBudget asStudent(int index) {
+            return new EndpointBudget(name, maxStatements, expectedStatus, conditional,
+                    data -> principalOf(data.studentIds.get(index), data.tag + "-student" + index, UserRole.STUDENT),
+                    request);
+        }
+    }
+
+    private record Measurement(int statements, int status) {
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? StatementCounter.wrap(dataSource) : bean;
+                }
+            };
+        }
+
+        /**
+         * Streaming responses run on the application task executor; count their statements
+         * towards the request that started them.
+         */
+        @Bean
+        TaskDecorator statementCountingTaskDecorator() {
+            return StatementCounter::propagate;
+        }
+    }
+}
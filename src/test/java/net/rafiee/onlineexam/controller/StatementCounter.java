@@ -0,0 +1,93 @@
+package net.rafiee.onlineexam.controller;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the JDBC statements a piece of code executes on the current thread. Works below
+ * Hibernate, so {@code JdbcTemplate} batches count too; a batch counts as one statement
+ * because it is one round trip.
+ */
+final class StatementCounter {
+
+    private static final ThreadLocal<AtomicInteger> ACTIVE = new ThreadLocal<>();
+
+    private StatementCounter() {
+    }
+
+    interface Action {
+        void run() throws Exception;
+    }
+
+    static int count(Action action) throws Exception {
+        AtomicInteger counter = new AtomicInteger();
+        ACTIVE.set(counter);
+        try {
+            action.run();
+        } finally {
+            ACTIVE.remove();
+        }
+        return counter.get();
+    }
+
+    /**
+     * Makes statements executed by {@code task} on another thread count towards the caller.
+     */
+    static Runnable propagate(Runnable task) {
+        AtomicInteger counter = ACTIVE.get();
+        if (counter == null) {
+            return task;
+        }
+        return () -> {
+            ACTIVE.set(counter);
+            try {
+                task.run();
+            } finally {
+                ACTIVE.remove();
+            }
+        };
+    }
+
+    static DataSource wrap(DataSource dataSource) {
+        return new DelegatingDataSource(dataSource) {
+            @Override
+            public Connection getConnection() throws SQLException {
+                return proxy(Connection.class, super.getConnection());
+            }
+
+            @Override
+            public Connection getConnection(String username, String password) throws SQLException {
+                return proxy(Connection.class, super.getConnection(username, password));
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            AtomicInteger counter = ACTIVE.get();
+            if (counter != null && Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                counter.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException ex) {
+                throw ex.getCause();
+            }
+            if (result instanceof Statement statement && type == Connection.class) {
+                return proxy((Class<Statement>) method.getReturnType(), statement);
+            }
+            return result;
+        };
+        return (T) Proxy.newProxyInstance(StatementCounter.class.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,106 @@
+package net.rafiee.onlineexam.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import net.rafiee.onlineexam.journal.DomainEvent;
+import net.rafiee.onlineexam.journal.DomainEventJournal;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class UserImportControllerTest extends IntegrationTest {
+
+    @Autowired
+    private DomainEventJournal eventJournal;
+
+    @Test
+    void importsRowsAsPendingAndReportsRejectedRows() throws Exception {
+        String username = unique("imported");
+        String csv = "username,email,password,full_name,role\n"
+                + username + "," + username + "@test.local,secret123,Imported User,STUDENT\n"
+                + unique("bad") + ",not-an-email,secret123,Bad Row,STUDENT\n";
+
+        MvcResult result = perform(post("/api/users/import").contentType("text/csv").content(csv),
+                createUser(UserRole.ADMIN));
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        assertThat(result.getResponse().getContentType()).startsWith("application/x-ndjson");
+        List<JsonNode> events = events(result);
+        assertThat(events).extracting(event -> event.get("type").asText())
+                .containsExactly("ROW_ERROR", "PROGRESS", "COMPLETED");
+        assertThat(events.get(0).get("line").asLong()).isEqualTo(3);
+        JsonNode summary = events.get(2);
+        assertThat(summary.get("imported").asLong()).isEqualTo(1);
+        assertThat(summary.get("failed").asLong()).isEqualTo(1);
+        assertThat(userRepository.findByUsername(username)).map(User::getStatus).contains(UserStatus.PENDING);
+    }
+
+    @Test
+    void rejectsImportingUsersAsRejected() throws Exception {
+        String username = unique("imported");
+        String csv = "username,email,password,full_name,role\n"
+                + username + "," + username + "@test.local,secret123,Imported User,STUDENT\n";
+
+        MvcResult result = perform(post("/api/users/import").param("status", "REJECTED")
+                .contentType("text/csv").content(csv), createUser(UserRole.ADMIN));
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(400);
+        assertThat(userRepository.findByUsername(username)).isEmpty();
+    }
+
+    @Test
+    void journalsEveryImportedUser() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        String first = unique("imported");
+        String second = unique("imported");
+        String csv = "username,email,password,full_name,role\n"
+                + first + "," + first + "@test.local,secret123,First Import,STUDENT\n"
+                + second + "," + second + "@test.local,secret123,Second Import,INSTRUCTOR\n";
+        // The journal directory outlives the in-memory database, so ids of earlier runs recur in it
+        long from = eventJournal.read(1, Integer.MAX_VALUE).stream().mapToLong(DomainEvent::sequence).max().orElse(0) + 1;
+
+        assertThat(perform(post("/api/users/import").contentType("text/csv").content(csv), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+
+        for (String username : List.of(first, second)) {
+            long id = userRepository.findByUsername(username).orElseThrow().getId();
+            DomainEvent event = awaitRegistration(from, id);
+            assertThat(event.detail()).isEqualTo(username);
+            assertThat(event.actor()).isEqualTo(admin.getUsername());
+        }
+    }
+
+    // The journal is written asynchronously, shortly after the import commits
+    private DomainEvent awaitRegistration(long fromSequence, long userId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (true) {
+            List<DomainEvent> events = eventJournal.read(fromSequence, Integer.MAX_VALUE).stream()
+                    .filter(event -> event.type() == DomainEventType.USER_REGISTERED && event.aggregateId() == userId)
+                    .toList();
+            if (!events.isEmpty() || System.currentTimeMillis() > deadline) {
+                assertThat(events).hasSize(1);
+                return events.get(0);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private List<JsonNode> events(MvcResult result) throws Exception {
+        List<JsonNode> events = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString(StandardCharsets.UTF_8).split("\n")) {
+            events.add(objectMapper.readTree(line));
+        }
+        return events;
+    }
+}
@@ -0,0 +1,178 @@
+package net.rafiee.onlineexam.enrollment;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.entity.Course;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.service.CourseService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Checks that every way of changing enrollments, through JPA or JDBC, reaches the index once
+ * the transaction commits, and that a rolled-back change never does.
+ */
+class EnrollmentIndexSyncTest extends IntegrationTest {
+
+    @Autowired
+    private EnrollmentIndex enrollmentIndex;
+
+    @Autowired
+    private EnrollmentIndexLoader enrollmentIndexLoader;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void enrollingThroughJpaAndJdbc() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        User first = createUser(UserRole.STUDENT);
+        User second = createUser(UserRole.STUDENT);
+        User third = createUser(UserRole.STUDENT);
+        Course course = createCourse(null, first);
+
+        assertThat(perform(post("/api/courses/" + course.getId() + "/students/" + second.getId()), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+        assertThat(perform(post("/api/courses/" + course.getId() + "/students/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(third.getId()))), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+
+        assertThat(enrollmentIndex.studentCount(course.getId())).isEqualTo(3);
+        assertThat(enrollmentIndex.coursesOf(first.getId())).containsExactly(course.getId());
+        assertThat(enrollmentIndex.coursesOf(second.getId())).containsExactly(course.getId());
+        assertThat(enrollmentIndex.coursesOf(third.getId())).containsExactly(course.getId());
+    }
+
+    @Test
+    void bulkEnrollmentReportsEnrollmentsTheIndexDoesNotShowYet() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        User enrolledMeanwhile = createUser(UserRole.STUDENT);
+        User added = createUser(UserRole.STUDENT);
+        Course course = createCourse(null);
+        // Committed by an overlapping request whose index update has not run yet
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?)",
+                course.getId(), enrolledMeanwhile.getId());
+
+        MvcResult result = perform(post("/api/courses/" + course.getId() + "/students/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(enrolledMeanwhile.getId(), added.getId()))), admin);
+
+        assertThat(result.getResponse().getStatus()).isEqualTo(200);
+        JsonNode report = json(result);
+        assertThat(report.get("added").asInt()).isOne();
+        assertThat(report.get("skipped").asInt()).isOne();
+        assertThat(report.get("results")).extracting(row -> row.get("outcome").asText())
+                .containsExactly("ALREADY_ENROLLED", "ADDED");
+        assertThat(enrollmentIndex.isEnrolled(course.getId(), added.getId())).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM course_students WHERE course_id = ?",
+                Long.class, course.getId())).isEqualTo(2);
+    }
+
+    @Test
+    void unenrolling() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        User leaving = createUser(UserRole.STUDENT);
+        User staying = createUser(UserRole.STUDENT);
+        Course course = createCourse(null, leaving, staying);
+
+        assertThat(perform(delete("/api/courses/" + course.getId() + "/students/" + leaving.getId()), admin)
+                .getResponse().getStatus()).isEqualTo(200);
+
+        assertThat(enrollmentIndex.isEnrolled(course.getId(), leaving.getId())).isFalse();
+        assertThat(enrollmentIndex.coursesOf(leaving.getId())).isEmpty();
+        assertThat(enrollmentIndex.isEnrolled(course.getId(), staying.getId())).isTrue();
+    }
+
+    @Test
+    void deletingACourse() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        User student = createUser(UserRole.STUDENT);
+        Course deleted = createCourse(null, student);
+        Course kept = createCourse(null, student);
+
+        assertThat(perform(delete("/api/courses/" + deleted.getId()), admin).getResponse().getStatus())
+                .isEqualTo(204);
+
+        assertThat(enrollmentIndex.studentCount(deleted.getId())).isZero();
+        assertThat(enrollmentIndex.coursesOf(student.getId())).containsExactly(kept.getId());
+    }
+
+    @Test
+    void deletingAStudent() throws Exception {
+        User admin = createUser(UserRole.ADMIN);
+        User deleted = createUser(UserRole.STUDENT);
+        User kept = createUser(UserRole.STUDENT);
+        Course first = createCourse(null, deleted, kept);
+        Course second = createCourse(null, deleted);
+
+        assertThat(perform(delete("/api/users/" + deleted.getId()), admin).getResponse().getStatus())
+                .isEqualTo(204);
+
+        assertThat(enrollmentIndex.coursesOf(deleted.getId())).isEmpty();
+        assertThat(enrollmentIndex.isEnrolled(first.getId(), deleted.getId())).isFalse();
+        assertThat(enrollmentIndex.studentCount(first.getId())).isEqualTo(1);
+        assertThat(enrollmentIndex.studentCount(second.getId())).isZero();
+    }
+
+    @Test
+    void rolledBackEnrollmentsAreNotIndexed() {
+        User student = createUser(UserRole.STUDENT);
+        Course course = createCourse(null);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            courseRepository.findById(course.getId()).orElseThrow()
+                    .addStudent(userRepository.getReferenceById(student.getId()));
+            courseRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertThat(enrollmentIndex.isEnrolled(course.getId(), student.getId())).isFalse();
+    }
+
+    @Test
+    void sharedStudentsAndStudentsNotInAnotherCourse() {
+        User both = createUser(UserRole.STUDENT);
+        User onlyFirst = createUser(UserRole.STUDENT);
+        User onlySecond = createUser(UserRole.STUDENT);
+        Course first = createCourse(null, both, onlyFirst);
+        Course second = createCourse(null, both, onlySecond);
+
+        assertThat(courseService.getSharedStudentIds(first.getId(), second.getId()))
+                .containsExactly(both.getId());
+        assertThat(courseService.getStudentIdsNotIn(first.getId(), second.getId()))
+                .containsExactly(onlyFirst.getId());
+        assertThat(courseService.getStudentIdsNotIn(second.getId(), first.getId()))
+                .containsExactly(onlySecond.getId());
+    }
+
+    @Test
+    void loaderRebuildsTheIndexFromTheTable() {
+        User student = createUser(UserRole.STUDENT);
+        Course course = createCourse(null);
+        // Written behind the index's back, as another instance or a migration would
+        jdbcTemplate.update("INSERT INTO course_students (course_id, student_id) VALUES (?, ?)",
+                course.getId(), student.getId());
+        assertThat(enrollmentIndex.isEnrolled(course.getId(), student.getId())).isFalse();
+
+        enrollmentIndexLoader.load();
+
+        assertThat(enrollmentIndex.isEnrolled(course.getId(), student.getId())).isTrue();
+        assertThat(enrollmentIndex.coursesOf(student.getId())).containsExactly(course.getId());
+        assertThat(enrollmentIndex.enrollmentCount())
+                .isEqualTo(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM course_students", Long.class));
+    }
+}
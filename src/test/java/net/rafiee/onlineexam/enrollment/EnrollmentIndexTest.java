@@ -0,0 +1,90 @@
+package net.rafiee.onlineexam.enrollment;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EnrollmentIndexTest {
+
+    private final EnrollmentIndex index = new EnrollmentIndex();
+
+    @Test
+    void enrollAndUnenrollUpdateBothDirections() {
+        index.enroll(1, List.of(10L, 11L, 12L));
+        index.enroll(2, List.of(11L));
+
+        assertThat(index.isEnrolled(1, 10)).isTrue();
+        assertThat(index.studentCount(1)).isEqualTo(3);
+        assertThat(index.coursesOf(11)).containsExactly(1L, 2L);
+
+        index.unenroll(1, List.of(10L, 11L));
+
+        assertThat(index.isEnrolled(1, 10)).isFalse();
+        assertThat(index.studentCount(1)).isEqualTo(1);
+        assertThat(index.coursesOf(10)).isEmpty();
+        assertThat(index.coursesOf(11)).containsExactly(2L);
+        assertThat(index.enrollmentCount()).isEqualTo(2);
+    }
+
+    @Test
+    void unenrollingTheLastStudentDropsTheCourse() {
+        index.enroll(1, List.of(10L));
+
+        index.unenroll(1, List.of(10L));
+
+        assertThat(index.courseCount()).isZero();
+        assertThat(index.studentCount(1)).isZero();
+    }
+
+    @Test
+    void sharedStudentsAndStudentsOnlyInOneCourse() {
+        index.enroll(1, List.of(10L, 11L, 12L));
+        index.enroll(2, List.of(11L, 12L, 13L));
+
+        assertThat(index.sharedStudents(1, 2)).containsExactly(11L, 12L);
+        assertThat(index.studentsOnlyIn(1, 2)).containsExactly(10L);
+        assertThat(index.studentsOnlyIn(2, 1)).containsExactly(13L);
+        assertThat(index.sharedStudents(1, 3)).isEmpty();
+        assertThat(index.studentsOnlyIn(1, 3)).containsExactly(10L, 11L, 12L);
+    }
+
+    @Test
+    void removeCourseAndRemoveStudent() {
+        index.enroll(1, List.of(10L, 11L));
+        index.enroll(2, List.of(10L, 12L));
+
+        index.removeCourse(1);
+
+        assertThat(index.coursesOf(10)).containsExactly(2L);
+        assertThat(index.coursesOf(11)).isEmpty();
+        assertThat(index.studentCount(1)).isZero();
+
+        index.removeStudent(10);
+
+        assertThat(index.isEnrolled(2, 10)).isFalse();
+        assertThat(index.studentCount(2)).isEqualTo(1);
+        assertThat(index.coursesOf(12)).containsExactly(2L);
+    }
+
+    @Test
+    void replaceAllDiscardsThePreviousContents() {
+        index.enroll(1, List.of(10L));
+        Map<Integer, RoaringBitmap> studentsByCourse = new HashMap<>();
+        studentsByCourse.put(2, RoaringBitmap.bitmapOf(20, 21));
+        Map<Integer, RoaringBitmap> coursesByStudent = new HashMap<>();
+        coursesByStudent.put(20, RoaringBitmap.bitmapOf(2));
+        coursesByStudent.put(21, RoaringBitmap.bitmapOf(2));
+
+        index.replaceAll(studentsByCourse, coursesByStudent);
+
+        assertThat(index.isEnrolled(1, 10)).isFalse();
+        assertThat(index.coursesOf(10)).isEmpty();
+        assertThat(index.sharedStudents(2, 2)).containsExactly(20L, 21L);
+        assertThat(index.coursesOf(21)).containsExactly(2L);
+    }
+}
@@ -0,0 +1,117 @@
+package net.rafiee.onlineexam.grading;
+
+import net.rafiee.onlineexam.entity.Question;
+import net.rafiee.onlineexam.entity.QuestionOption;
+import net.rafiee.onlineexam.enumuration.QuestionType;
+import net.rafiee.onlineexam.exam.ExamShuffle;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnswerKeyTest {
+
+    private static final long EXAM_ID = 3;
+    private static final long STUDENT_ID = 11;
+    private static final long MULTIPLE_CHOICE = 10;
+    private static final long TRUE_FALSE = 20;
+    private static final long NUMERIC = 30;
+    private static final long DESCRIPTIVE = 40;
+    private static final byte NO_ANSWER = AnswerSheets.NO_ANSWER;
+
+    private final AnswerKey key = key(ExamShuffle.UNSHUFFLED);
+
+    @Test
+    void maxScoreLeavesOutDescriptiveQuestions() {
+        assertThat(key.size()).isEqualTo(4);
+        assertThat(key.maxScore()).isEqualTo(6);
+    }
+
+    @Test
+    void multipleChoiceNeedsExactlyTheCorrectOptions() {
+        assertThat(score(key, sheets -> sheets.answer(MULTIPLE_CHOICE, 0b1010, NO_ANSWER, Double.NaN))).isEqualTo(2);
+        assertThat(score(key, sheets -> sheets.answer(MULTIPLE_CHOICE, 0b0010, NO_ANSWER, Double.NaN))).isZero();
+        assertThat(score(key, sheets -> sheets.answer(MULTIPLE_CHOICE, 0b1011, NO_ANSWER, Double.NaN))).isZero();
+        assertThat(score(key, sheets -> sheets.answer(MULTIPLE_CHOICE, 0, NO_ANSWER, Double.NaN))).isZero();
+    }
+
+    @Test
+    void trueFalseLeftUnansweredScoresNothing() {
+        assertThat(score(key, sheets -> sheets.answer(TRUE_FALSE, 0, (byte) 1, Double.NaN))).isEqualTo(1);
+        assertThat(score(key, sheets -> sheets.answer(TRUE_FALSE, 0, (byte) 0, Double.NaN))).isZero();
+        assertThat(score(key, sheets -> sheets.answer(TRUE_FALSE, 0, NO_ANSWER, Double.NaN))).isZero();
+    }
+
+    @Test
+    void numericIsCorrectUpToTheTolerance() {
+        assertThat(score(key, sheets -> sheets.answer(NUMERIC, 0, NO_ANSWER, 42.5))).isEqualTo(3);
+        assertThat(score(key, sheets -> sheets.answer(NUMERIC, 0, NO_ANSWER, 43.0))).isEqualTo(3);
+        assertThat(score(key, sheets -> sheets.answer(NUMERIC, 0, NO_ANSWER, 42.0))).isEqualTo(3);
+        assertThat(score(key, sheets -> sheets.answer(NUMERIC, 0, NO_ANSWER, 43.001))).isZero();
+        assertThat(score(key, sheets -> sheets.answer(NUMERIC, 0, NO_ANSWER, Double.NaN))).isZero();
+    }
+
+    @Test
+    void descriptiveAndUnknownQuestionsScoreNothing() {
+        assertThat(score(key, sheets -> sheets
+                .answer(DESCRIPTIVE, 0b1, (byte) 1, 1)
+                .answer(99, 0b1010, (byte) 1, 42.5))).isZero();
+    }
+
+    @Test
+    void addsUpTheAnswersOfOneAttempt() {
+        assertThat(score(key, sheets -> sheets
+                .answer(MULTIPLE_CHOICE, 0b1010, NO_ANSWER, Double.NaN)
+                .answer(TRUE_FALSE, 0, (byte) 0, Double.NaN)
+                .answer(NUMERIC, 0, NO_ANSWER, 42.7))).isEqualTo(5);
+    }
+
+    @Test
+    void mapsShuffledSelectionsBackBeforeComparing() {
+        long salt = 0x5EED;
+        AnswerKey shuffledKey = key(salt);
+        int[] order = new int[ExamShuffle.MAX_SHUFFLED_OPTIONS];
+        ExamShuffle.permute(ExamShuffle.optionSeed(ExamShuffle.studentSeed(EXAM_ID, STUDENT_ID, salt), MULTIPLE_CHOICE),
+                order, 4);
+        int shown = 0;
+        for (int position = 0; position < 4; position++) {
+            if (order[position] == 1 || order[position] == 3) {
+                shown |= 1 << position;
+            }
+        }
+        int shownSelection = shown;
+
+        assertThat(score(shuffledKey, sheets -> sheets.answer(MULTIPLE_CHOICE, shownSelection, NO_ANSWER, Double.NaN)))
+                .isEqualTo(2);
+        assertThat(score(shuffledKey, sheets -> sheets.answer(MULTIPLE_CHOICE, 0b1111 & ~shownSelection, NO_ANSWER,
+                Double.NaN))).isZero();
+    }
+
+    private static double score(AnswerKey key, Consumer<AnswerSheets.Builder> answers) {
+        AnswerSheets.Builder builder = AnswerSheets.builder(key).attempt(1, STUDENT_ID);
+        answers.accept(builder);
+        return key.score(builder.build(), 0, new int[ExamShuffle.MAX_SHUFFLED_OPTIONS]);
+    }
+
+    /**
+     * A four-option multiple-choice question with options 1 and 3 correct worth 2, a true/false
+     * one worth 1, a numeric one of 42.5 ± 0.5 worth 3 and a descriptive one worth 5.
+     */
+    static AnswerKey key(long salt) {
+        List<QuestionOption> options = new ArrayList<>();
+        for (int option = 0; option < 4; option++) {
+            options.add(new QuestionOption("Option " + option, option % 2 == 1));
+        }
+        // Out of id order, as the key sorts them itself
+        return AnswerKey.compile(EXAM_ID, salt, List.of(
+                Question.builder().id(NUMERIC).type(QuestionType.NUMERIC).points(3.0)
+                        .numericAnswer(42.5).numericTolerance(0.5).build(),
+                Question.builder().id(MULTIPLE_CHOICE).type(QuestionType.MULTIPLE_CHOICE).points(2.0)
+                        .options(options).build(),
+                Question.builder().id(DESCRIPTIVE).type(QuestionType.DESCRIPTIVE).points(5.0).build(),
+                Question.builder().id(TRUE_FALSE).type(QuestionType.TRUE_FALSE).points(1.0).booleanAnswer(true).build()));
+    }
+}
@@ -0,0 +1,59 @@
+package net.rafiee.onlineexam.grading;
+
+import net.rafiee.onlineexam.exam.ExamShuffle;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GradingEngineTest {
+
+    private final AnswerKey key = AnswerKeyTest.key(ExamShuffle.UNSHUFFLED);
+
+    @Test
+    void gradesEveryAttemptWhateverTheChunkBoundaries() {
+        AnswerSheets sheets = sheets(23);
+        double[] expected = new double[sheets.size()];
+        int[] optionOrder = new int[ExamShuffle.MAX_SHUFFLED_OPTIONS];
+        for (int attempt = 0; attempt < sheets.size(); attempt++) {
+            expected[attempt] = key.score(sheets, attempt, optionOrder);
+        }
+        assertThat(expected).contains(0, 1, 2, 3, 6);
+
+        for (int chunkSize : new int[] {1, 3, 5, 22, 23, 256}) {
+            GradingEngine engine = new GradingEngine(3, chunkSize);
+            try {
+                assertThat(engine.grade(key, sheets)).as("chunks of %d", chunkSize).containsExactly(expected);
+            } finally {
+                engine.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void gradesNoAttempts() {
+        GradingEngine engine = new GradingEngine(1, 4);
+        try {
+            assertThat(engine.grade(key, AnswerSheets.builder(key).build())).isEmpty();
+        } finally {
+            engine.shutdown();
+        }
+    }
+
+    // Attempt i answers a different mix of the questions right, some of them not at all
+    private AnswerSheets sheets(int attempts) {
+        AnswerSheets.Builder sheets = AnswerSheets.builder(key);
+        for (int attempt = 0; attempt < attempts; attempt++) {
+            sheets.attempt(100 + attempt, 200 + attempt);
+            if (attempt % 2 == 0) {
+                sheets.answer(10, 0b1010, AnswerSheets.NO_ANSWER, Double.NaN);
+            }
+            if (attempt % 3 == 0) {
+                sheets.answer(20, 0, (byte) 1, Double.NaN);
+            }
+            if (attempt % 5 == 0) {
+                sheets.answer(30, 0, AnswerSheets.NO_ANSWER, 42.5);
+            }
+        }
+        return sheets.build();
+    }
+}
@@ -0,0 +1,108 @@
+package net.rafiee.onlineexam.journal;
+
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalAppenderTest {
+
+    // Room for the largest record, so three of the events below fill a segment
+    static final int SEGMENT_SIZE = JournalFormat.HEADER_SIZE + JournalFormat.RECORD_OVERHEAD
+            + JournalAppender.MAX_PAYLOAD_SIZE;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rotatesToANewSegmentNamedAfterItsFirstSequence() throws IOException {
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            assertThat(appender.append(events(7, 20_000))).isEqualTo(7);
+        }
+
+        assertThat(JournalReader.segments(directory)).extracting(JournalFormat::firstSequence)
+                .containsExactly(1L, 4L, 7L);
+        assertThat(replay(directory, 1)).extracting(DomainEvent::sequence)
+                .containsExactlyElementsOf(LongStream.rangeClosed(1, 7).boxed().toList());
+    }
+
+    @Test
+    void continuesTheSequenceAfterARestart() throws IOException {
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(events(2, 10));
+        }
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(events(2, 10));
+        }
+
+        assertThat(replay(directory, 1)).extracting(DomainEvent::sequence).containsExactly(1L, 2L, 3L, 4L);
+    }
+
+    @Test
+    void recoversFromATornWrite() throws IOException {
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(events(3, 10));
+        }
+        Path segment = JournalReader.segments(directory).get(0);
+        int end = JournalReader.read(JournalReader.mapReadOnly(segment), segment, true, event -> true).offset();
+        // A crash after the length of the next record reached the disk but before its payload did
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            buffer.putInt(end, 200);
+            buffer.putInt(end + 4, 0x12345678);
+            buffer.put(end + JournalFormat.RECORD_OVERHEAD, (byte) 1);
+            buffer.force();
+        }
+        assertThat(replay(directory, 1)).hasSize(3);
+
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(events(2, 10));
+        }
+
+        List<DomainEvent> events = replay(directory, 1);
+        assertThat(events).extracting(DomainEvent::sequence).containsExactly(1L, 2L, 3L, 4L, 5L);
+        assertThat(events.get(3).detail()).isEqualTo(events.get(0).detail());
+    }
+
+    @Test
+    void skipsEventsTooLargeForARecord() throws IOException {
+        List<DomainEvent> batch = new ArrayList<>(events(1, 10));
+        batch.add(event(JournalAppender.MAX_PAYLOAD_SIZE));
+        batch.addAll(events(1, 10));
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            assertThat(appender.append(batch)).isEqualTo(2);
+        }
+
+        assertThat(replay(directory, 1)).extracting(DomainEvent::sequence).containsExactly(1L, 2L);
+    }
+
+    static List<DomainEvent> events(int count, int detailLength) {
+        List<DomainEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(event(detailLength));
+        }
+        return events;
+    }
+
+    static DomainEvent event(int detailLength) {
+        return new DomainEvent(0, Instant.ofEpochMilli(1_700_000_000_000L), DomainEventType.USER_REGISTERED,
+                42, null, "admin", "x".repeat(detailLength));
+    }
+
+    static List<DomainEvent> replay(Path directory, long fromSequence) throws IOException {
+        List<DomainEvent> events = new ArrayList<>();
+        new JournalReader(directory).replay(fromSequence, events::add);
+        return events;
+    }
+}
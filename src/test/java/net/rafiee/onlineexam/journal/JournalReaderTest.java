@@ -0,0 +1,88 @@
+package net.rafiee.onlineexam.journal;
+
+import net.rafiee.onlineexam.enumuration.DomainEventType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static net.rafiee.onlineexam.journal.JournalAppenderTest.SEGMENT_SIZE;
+import static net.rafiee.onlineexam.journal.JournalAppenderTest.events;
+import static net.rafiee.onlineexam.journal.JournalAppenderTest.replay;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalReaderTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEveryFieldOfAnEvent() throws IOException {
+        DomainEvent written = new DomainEvent(0, Instant.ofEpochMilli(1_700_000_000_123L),
+                DomainEventType.COURSE_MEMBER_ADDED, 7, 9L, "admin", "درس ۱");
+        DomainEvent anonymous = new DomainEvent(0, Instant.ofEpochMilli(1_700_000_000_456L),
+                DomainEventType.USER_REGISTERED, 9, null, null, null);
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(List.of(written, anonymous));
+        }
+
+        assertThat(replay(directory, 1)).containsExactly(
+                new DomainEvent(1, written.timestamp(), written.type(), 7, 9L, "admin", "درس ۱"),
+                new DomainEvent(2, anonymous.timestamp(), anonymous.type(), 9, null, null, null));
+    }
+
+    @Test
+    void replaysFromASequenceAcrossSegments() throws IOException {
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(events(8, 20_000));
+        }
+
+        assertThat(replay(directory, 5)).extracting(DomainEvent::sequence).containsExactly(5L, 6L, 7L, 8L);
+        assertThat(replay(directory, 9)).isEmpty();
+    }
+
+    @Test
+    void stopsWhenTheConsumerDeclines() throws IOException {
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(events(8, 20_000));
+        }
+        List<DomainEvent> events = new ArrayList<>();
+
+        new JournalReader(directory).replay(2, event -> {
+            events.add(event);
+            return events.size() < 3;
+        });
+
+        assertThat(events).extracting(DomainEvent::sequence).containsExactly(2L, 3L, 4L);
+    }
+
+    @Test
+    void skipsTheRestOfASegmentAfterAChecksumMismatch() throws IOException {
+        try (JournalAppender appender = new JournalAppender(directory, SEGMENT_SIZE)) {
+            appender.append(events(8, 20_000));
+        }
+        Path middle = JournalReader.segments(directory).get(1);
+        try (FileChannel channel = FileChannel.open(middle, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+            // A byte of the payload of the segment's second event, sequence 5
+            int second = JournalFormat.HEADER_SIZE + JournalFormat.RECORD_OVERHEAD + buffer.getInt(JournalFormat.HEADER_SIZE);
+            int offset = second + JournalFormat.RECORD_OVERHEAD + 100;
+            buffer.put(offset, (byte) (buffer.get(offset) ^ 1));
+            buffer.force();
+        }
+
+        assertThat(replay(directory, 1)).extracting(DomainEvent::sequence).containsExactly(1L, 2L, 3L, 4L, 7L, 8L);
+    }
+
+    @Test
+    void readsNothingFromAnEmptyDirectory() throws IOException {
+        assertThat(replay(directory.resolve("missing"), 1)).isEmpty();
+    }
+}
@@ -0,0 +1,53 @@
+package net.rafiee.onlineexam.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.attempt.SavedAnswer;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AttemptAnswerJdbcRepositoryTest extends IntegrationTest {
+
+    @Autowired
+    private AttemptAnswerJdbcRepository answerRepository;
+
+    @Test
+    void anOlderSequenceNeverOverwritesANewerRow() throws Exception {
+        User instructor = createUser(UserRole.INSTRUCTOR);
+        User student = createUser(UserRole.STUDENT);
+        long examId = createPublishedExam(instructor, createCourse(instructor, student), descriptive(1));
+        JsonNode question = paper(student, examId).get("questions").get(0);
+        long attemptId = startAttempt(student, examId);
+        long questionId = question.get("id").asLong();
+        // Far above whatever the answer log has handed out, which never saves to this attempt
+        long base = 1_000_000_000L;
+
+        answerRepository.upsertAll(List.of(answer(base + 10, attemptId, questionId, "newer")));
+        answerRepository.upsertAll(List.of(answer(base + 5, attemptId, questionId, "older")));
+
+        assertThat(answerRepository.findByAttemptId(attemptId)).singleElement()
+                .satisfies(row -> {
+                    assertThat(row.textAnswer()).isEqualTo("newer");
+                    assertThat(row.sequence()).isEqualTo(base + 10);
+                });
+
+        // Out of order within one batch as well
+        answerRepository.upsertAll(List.of(answer(base + 20, attemptId, questionId, "newest"),
+                answer(base + 15, attemptId, questionId, "stale")));
+
+        assertThat(answerRepository.findByAttemptId(attemptId)).singleElement()
+                .satisfies(row -> assertThat(row.textAnswer()).isEqualTo("newest"));
+        assertThat(answerRepository.maxSequence()).isGreaterThanOrEqualTo(base + 20);
+    }
+
+    private static SavedAnswer answer(long sequence, long attemptId, long questionId, String text) {
+        return new SavedAnswer(sequence, attemptId, questionId, Instant.now(), 0, null, null, text);
+    }
+}
@@ -0,0 +1,51 @@
+package net.rafiee.onlineexam.service;
+
+import net.rafiee.onlineexam.IntegrationTest;
+import net.rafiee.onlineexam.entity.User;
+import net.rafiee.onlineexam.enumuration.UserRole;
+import net.rafiee.onlineexam.enumuration.UserStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that reconciling never adds a change that an in-flight transaction will also report.
+ */
+class StatisticsReconcileTest extends IntegrationTest {
+
+    @Autowired
+    private StatisticsService statisticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void reconcileWaitsForUpdatesInFlight() {
+        User student = createUser(UserRole.STUDENT, UserStatus.PENDING);
+        statisticsService.reconcile();
+        long approved = approvedStudents();
+
+        // Already committed, as a service transaction is just before its after-commit update runs
+        jdbcTemplate.update("UPDATE users SET status = 'APPROVED' WHERE id = ?", student.getId());
+        transactionTemplate.executeWithoutResult(status -> {
+            statisticsService.userChanged(UserRole.STUDENT, UserStatus.PENDING,
+                    UserRole.STUDENT, UserStatus.APPROVED);
+
+            CompletableFuture.runAsync(statisticsService::reconcile).join();
+            assertThat(approvedStudents()).isEqualTo(approved);
+        });
+
+        assertThat(approvedStudents()).isEqualTo(approved + 1);
+        statisticsService.reconcile();
+        assertThat(approvedStudents()).isEqualTo(approved + 1);
+    }
+
+    private long approvedStudents() {
+        return statisticsService.getDashboardStats().getUsersByRoleAndStatus()
+                .get(UserRole.STUDENT).get(UserStatus.APPROVED);
+    }
+}